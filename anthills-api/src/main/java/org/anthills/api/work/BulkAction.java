@@ -0,0 +1,56 @@
+package org.anthills.api.work;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Change applied by {@link WorkStore#bulkUpdate} to every work request matching a query. Each action
+ * only applies to requests in one of its {@link #statuses()}; other matches are left untouched.
+ */
+public enum BulkAction {
+
+  /**
+   * Returns FAILED and CANCELLED requests to NEW, claimable right away, with the attempt count,
+   * owner and failure reason cleared.
+   */
+  REQUEUE(EnumSet.of(WorkRequest.Status.FAILED, WorkRequest.Status.CANCELLED)),
+
+  /**
+   * Cancels NEW, IN_PROGRESS and PAUSED requests, like {@link WorkStore#markCancelled(String)}.
+   */
+  CANCEL(EnumSet.of(WorkRequest.Status.NEW, WorkRequest.Status.IN_PROGRESS, WorkRequest.Status.PAUSED)),
+
+  /**
+   * Deletes SUCCEEDED, FAILED and CANCELLED requests. Active requests are never deleted; cancel them first.
+   */
+  PURGE(EnumSet.of(WorkRequest.Status.SUCCEEDED, WorkRequest.Status.FAILED, WorkRequest.Status.CANCELLED));
+
+  private final Set<WorkRequest.Status> statuses;
+
+  BulkAction(Set<WorkRequest.Status> statuses) {
+    this.statuses = statuses;
+  }
+
+  /**
+   * Returns the statuses of the requests this action applies to.
+   *
+   * @return applicable statuses
+   */
+  public Set<WorkRequest.Status> statuses() {
+    return EnumSet.copyOf(statuses);
+  }
+
+  /**
+   * Returns the statuses this action applies to among those selected by a query.
+   *
+   * @param selected statuses of a {@link WorkQuery}; {@code null} selects all
+   * @return applicable statuses, possibly empty
+   */
+  public Set<WorkRequest.Status> statuses(Set<WorkRequest.Status> selected) {
+    Set<WorkRequest.Status> applicable = statuses();
+    if (selected != null) {
+      applicable.retainAll(selected);
+    }
+    return applicable;
+  }
+}
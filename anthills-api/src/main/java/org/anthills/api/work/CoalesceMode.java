@@ -0,0 +1,20 @@
+package org.anthills.api.work;
+
+/**
+ * How a coalescing submission treats a pending request with the same coalesce key.
+ * A request is pending while it is NEW, i.e. waiting to be claimed.
+ */
+public enum CoalesceMode {
+
+  /**
+   * The pending request takes the new payload and submission options; the latest submission wins.
+   * Combined with {@link SubmissionOptions#notBefore()} this debounces bursts: every submission
+   * pushes the pending request out again.
+   */
+  REPLACE,
+
+  /**
+   * The pending request is left unchanged and the new submission is dropped without a write.
+   */
+  KEEP_EXISTING
+}
@@ -0,0 +1,22 @@
+package org.anthills.api.work;
+
+import java.util.Objects;
+
+/**
+ * A payload that has already been serialized by a {@link org.anthills.api.codec.PayloadCodec},
+ * paired with the class name it was encoded from. Used for bulk submission through
+ * {@link WorkStore#createWorkBatch(String, java.util.List, int, String, Integer)}.
+ *
+ * @param payload serialized payload bytes
+ * @param payloadType class name of the payload
+ */
+public record EncodedPayload(
+  byte[] payload,
+  String payloadType
+) {
+
+  public EncodedPayload {
+    Objects.requireNonNull(payload, "payload is required");
+    Objects.requireNonNull(payloadType, "payloadType is required");
+  }
+}
@@ -0,0 +1,18 @@
+package org.anthills.api.work;
+
+/**
+ * Kind of threads a {@link WorkRequestProcessor} runs handlers on.
+ */
+public enum ExecutionMode {
+
+  /**
+   * A fixed pool of {@link ProcessorConfig#workerThreads()} platform threads. Suits CPU-bound handlers.
+   */
+  PLATFORM_THREADS,
+
+  /**
+   * One virtual thread per handler invocation, with at most {@link ProcessorConfig#workerThreads()}
+   * handlers running at once. Suits I/O-bound handlers, where the limit can be in the thousands.
+   */
+  VIRTUAL_THREADS
+}
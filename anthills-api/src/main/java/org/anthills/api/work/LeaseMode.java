@@ -0,0 +1,21 @@
+package org.anthills.api.work;
+
+/**
+ * How a processor keeps ownership of the work items it has claimed.
+ */
+public enum LeaseMode {
+
+  /**
+   * Every claimed item carries its own {@code leaseUntil}, renewed per item (in bulk) while it is
+   * buffered or running. Lease maintenance cost grows with the number of in-flight items.
+   */
+  PER_ITEM,
+
+  /**
+   * Claimed items reference only their owner; the owner keeps a single heartbeat alive for all of
+   * them. Items whose owner's heartbeat has expired become claimable again. Lease maintenance
+   * cost grows with the number of processor instances instead of in-flight items, which suits
+   * long-running work with many items in flight.
+   */
+  OWNER_HEARTBEAT
+}
@@ -5,13 +5,29 @@ import java.time.Duration;
 /**
  * Configuration for a {@link WorkRequestProcessor}'s polling and execution behavior.
  *
- * @param workerThreads number of concurrent worker threads
+ * @param workerThreads maximum number of concurrently running handlers: the size of the worker pool for
+ *                      {@link ExecutionMode#PLATFORM_THREADS}, the concurrency limit for {@link ExecutionMode#VIRTUAL_THREADS}
  * @param defaultMaxRetries default retry limit per request when the request does not specify one
  * @param maxAllowedRetries hard upper bound on retries to avoid poison message amplification
  * @param pollInterval interval between store polls when no work is available
  * @param leaseDuration how long a claimed work item is leased to a worker
  * @param leaseRenewInterval how frequently an active lease is renewed (must be < leaseDuration)
  * @param shutdownTimeout maximum time to wait for graceful shutdown
+ * @param prefetchSize number of extra items claimed beyond free worker threads and kept leased in a
+ *                     local buffer, so workers pick up the next item without waiting on the store (0 disables)
+ * @param prefetchLowWatermark when the local buffer drains to this size, the next claim is triggered
+ *                             immediately instead of waiting for the poll timer
+ * @param leaseMode whether claimed items are leased individually or through one heartbeat per processor
+ * @param completionBatchSize when > 0, handler outcomes are queued and written by a single background writer
+ *                            in batches of up to this size instead of synchronously on the worker thread (0 disables)
+ * @param completionFlushInterval maximum time a queued outcome waits before its batch is written
+ * @param executionMode whether handlers run on a fixed platform thread pool or on virtual threads
+ * @param adaptiveConcurrency when true, the number of concurrently running handlers (and thus the claim size) adapts
+ *                            between {@code minWorkerThreads} and {@code workerThreads} based on handler latency and errors
+ * @param minWorkerThreads lower bound of the adaptive concurrency limit
+ * @param priorityAgingInterval when set, NEW items waiting this long without an update are raised by one priority
+ *                              level, repeatedly up to {@code SubmissionOptions.MAX_PRIORITY - 1}, so low-priority work
+ *                              is not starved by a steady stream of higher-priority work ({@code null} disables)
  */
 public record ProcessorConfig(
   int workerThreads,
@@ -20,7 +36,16 @@ public record ProcessorConfig(
   Duration pollInterval,
   Duration leaseDuration,
   Duration leaseRenewInterval,
-  Duration shutdownTimeout
+  Duration shutdownTimeout,
+  int prefetchSize,
+  int prefetchLowWatermark,
+  LeaseMode leaseMode,
+  int completionBatchSize,
+  Duration completionFlushInterval,
+  ExecutionMode executionMode,
+  boolean adaptiveConcurrency,
+  int minWorkerThreads,
+  Duration priorityAgingInterval
 ) {
 
   /**
@@ -29,6 +54,13 @@ public record ProcessorConfig(
    * - retries >= 0
    * - defaultMaxRetries <= maxAllowedRetries
    * - leaseRenewInterval < leaseDuration
+   * - 0 <= prefetchLowWatermark <= prefetchSize
+   * - leaseMode != null
+   * - completionBatchSize >= 0
+   * - completionFlushInterval > 0
+   * - executionMode != null
+   * - 0 < minWorkerThreads <= workerThreads
+   * - priorityAgingInterval is null or > 0
    *
    * @throws IllegalArgumentException if configuration is invalid
    */
@@ -45,6 +77,41 @@ public record ProcessorConfig(
     if (leaseRenewInterval.compareTo(leaseDuration) >= 0) {
       throw new IllegalArgumentException("leaseRenewInterval must be < leaseDuration");
     }
+    if (prefetchSize < 0) {
+      throw new IllegalArgumentException("prefetchSize must be >= 0");
+    }
+    if (prefetchLowWatermark < 0 || prefetchLowWatermark > prefetchSize) {
+      throw new IllegalArgumentException("prefetchLowWatermark must be >= 0 and <= prefetchSize");
+    }
+    if (leaseMode == null) {
+      throw new IllegalArgumentException("leaseMode is required");
+    }
+    if (completionBatchSize < 0) {
+      throw new IllegalArgumentException("completionBatchSize must be >= 0");
+    }
+    if (completionFlushInterval == null || completionFlushInterval.isNegative() || completionFlushInterval.isZero()) {
+      throw new IllegalArgumentException("completionFlushInterval must be > 0");
+    }
+    if (executionMode == null) {
+      throw new IllegalArgumentException("executionMode is required");
+    }
+    if (minWorkerThreads <= 0 || minWorkerThreads > workerThreads) {
+      throw new IllegalArgumentException("minWorkerThreads must be > 0 and <= workerThreads");
+    }
+    if (priorityAgingInterval != null && (priorityAgingInterval.isNegative() || priorityAgingInterval.isZero())) {
+      throw new IllegalArgumentException("priorityAgingInterval must be > 0");
+    }
+  }
+
+  /**
+   * Creates a configuration without prefetching, using per-item leases, synchronous completion writes,
+   * a fixed-size platform thread pool and no priority aging.
+   */
+  public ProcessorConfig(int workerThreads, int defaultMaxRetries, int maxAllowedRetries, Duration pollInterval,
+                         Duration leaseDuration, Duration leaseRenewInterval, Duration shutdownTimeout) {
+    this(workerThreads, defaultMaxRetries, maxAllowedRetries, pollInterval, leaseDuration, leaseRenewInterval, shutdownTimeout, 0, 0, LeaseMode.PER_ITEM,
+      0, Duration.ofMillis(50), ExecutionMode.PLATFORM_THREADS,
+      false, 1, null);
   }
 
   /**
@@ -57,20 +124,172 @@ public record ProcessorConfig(
    * leaseDuration = 30s
    * leaseRenewInterval = 10s
    * shutdownTimeout = 30s
+   * prefetchSize = 0
+   * prefetchLowWatermark = 0
+   * leaseMode = PER_ITEM
+   * completionBatchSize = 0
+   * completionFlushInterval = 50ms
+   * executionMode = PLATFORM_THREADS
+   * adaptiveConcurrency = false
+   * minWorkerThreads = 1
+   * priorityAgingInterval = null (disabled)
    *
    * @return default processor configuration
    */
   public static ProcessorConfig defaults() {
-    int cpu = Runtime.getRuntime().availableProcessors();
-
-    return new ProcessorConfig(
-      Math.max(1, cpu),                 // workerThreads
-      3,                                 // defaultMaxRetries
-      10,                                // maxAllowedRetries
-      Duration.ofSeconds(1),             // pollInterval
-      Duration.ofSeconds(30),            // leaseDuration
-      Duration.ofSeconds(10),            // leaseRenewInterval
-      Duration.ofSeconds(30)            // shutdownTimeout
-    );
+    return builder().build();
+  }
+
+  /**
+   * Creates a new builder initialized with the values of {@link #defaults()}.
+   *
+   * @return a new builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Fluent builder for {@link ProcessorConfig}. Validation happens in {@link #build()}.
+   */
+  public static class Builder {
+    private int workerThreads = Math.max(1, Runtime.getRuntime().availableProcessors());
+    private int defaultMaxRetries = 3;
+    private int maxAllowedRetries = 10;
+    private Duration pollInterval = Duration.ofSeconds(1);
+    private Duration leaseDuration = Duration.ofSeconds(30);
+    private Duration leaseRenewInterval = Duration.ofSeconds(10);
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+    private int prefetchSize = 0;
+    private int prefetchLowWatermark = 0;
+    private LeaseMode leaseMode = LeaseMode.PER_ITEM;
+    private int completionBatchSize = 0;
+    private Duration completionFlushInterval = Duration.ofMillis(50);
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM_THREADS;
+    private boolean adaptiveConcurrency = false;
+    private int minWorkerThreads = 1;
+    private Duration priorityAgingInterval;
+
+    public Builder() {
+    }
+
+    public Builder workerThreads(int workerThreads) {
+      this.workerThreads = workerThreads;
+      return this;
+    }
+
+    public Builder defaultMaxRetries(int defaultMaxRetries) {
+      this.defaultMaxRetries = defaultMaxRetries;
+      return this;
+    }
+
+    public Builder maxAllowedRetries(int maxAllowedRetries) {
+      this.maxAllowedRetries = maxAllowedRetries;
+      return this;
+    }
+
+    public Builder pollInterval(Duration pollInterval) {
+      this.pollInterval = pollInterval;
+      return this;
+    }
+
+    public Builder leaseDuration(Duration leaseDuration) {
+      this.leaseDuration = leaseDuration;
+      return this;
+    }
+
+    public Builder leaseRenewInterval(Duration leaseRenewInterval) {
+      this.leaseRenewInterval = leaseRenewInterval;
+      return this;
+    }
+
+    public Builder shutdownTimeout(Duration shutdownTimeout) {
+      this.shutdownTimeout = shutdownTimeout;
+      return this;
+    }
+
+    /**
+     * Sets how many items to claim beyond free worker threads (default 0, disabled).
+     */
+    public Builder prefetchSize(int prefetchSize) {
+      this.prefetchSize = prefetchSize;
+      return this;
+    }
+
+    /**
+     * Sets the buffer size at which the next claim is triggered early (default 0).
+     */
+    public Builder prefetchLowWatermark(int prefetchLowWatermark) {
+      this.prefetchLowWatermark = prefetchLowWatermark;
+      return this;
+    }
+
+    /**
+     * Sets how claimed items are leased (default {@link LeaseMode#PER_ITEM}).
+     */
+    public Builder leaseMode(LeaseMode leaseMode) {
+      this.leaseMode = leaseMode;
+      return this;
+    }
+
+    /**
+     * Sets the batch size of the write-behind completion queue (default 0, completions are written synchronously).
+     */
+    public Builder completionBatchSize(int completionBatchSize) {
+      this.completionBatchSize = completionBatchSize;
+      return this;
+    }
+
+    /**
+     * Sets how long a queued completion may wait before its batch is written (default 50ms).
+     */
+    public Builder completionFlushInterval(Duration completionFlushInterval) {
+      this.completionFlushInterval = completionFlushInterval;
+      return this;
+    }
+
+    /**
+     * Sets the kind of threads handlers run on (default {@link ExecutionMode#PLATFORM_THREADS}).
+     */
+    public Builder executionMode(ExecutionMode executionMode) {
+      this.executionMode = executionMode;
+      return this;
+    }
+
+    /**
+     * Enables adapting concurrency to handler latency and errors (default false).
+     */
+    public Builder adaptiveConcurrency(boolean adaptiveConcurrency) {
+      this.adaptiveConcurrency = adaptiveConcurrency;
+      return this;
+    }
+
+    /**
+     * Sets the lower bound of the adaptive concurrency limit (default 1).
+     */
+    public Builder minWorkerThreads(int minWorkerThreads) {
+      this.minWorkerThreads = minWorkerThreads;
+      return this;
+    }
+
+    /**
+     * Sets how long a NEW item waits before its priority is raised by one level (default null, disabled).
+     */
+    public Builder priorityAgingInterval(Duration priorityAgingInterval) {
+      this.priorityAgingInterval = priorityAgingInterval;
+      return this;
+    }
+
+    /**
+     * Validates inputs and constructs an immutable {@link ProcessorConfig}.
+     *
+     * @return configuration instance
+     * @throws IllegalArgumentException if any constraint is violated
+     */
+    public ProcessorConfig build() {
+      return new ProcessorConfig(workerThreads, defaultMaxRetries, maxAllowedRetries, pollInterval, leaseDuration,
+        leaseRenewInterval, shutdownTimeout, prefetchSize, prefetchLowWatermark, leaseMode, completionBatchSize,
+        completionFlushInterval, executionMode, adaptiveConcurrency, minWorkerThreads, priorityAgingInterval);
+    }
   }
 }
@@ -0,0 +1,18 @@
+package org.anthills.api.work;
+
+/**
+ * What work retention does with terminal work requests once they are old enough.
+ */
+public enum RetentionMode {
+
+  /**
+   * Terminal requests are deleted.
+   */
+  DELETE,
+
+  /**
+   * Terminal requests are moved to an archive, out of the way of claims, where they can still be
+   * inspected and purged on their own schedule.
+   */
+  ARCHIVE
+}
@@ -0,0 +1,147 @@
+package org.anthills.api.work;
+
+import java.time.Duration;
+
+/**
+ * Settings of the background job that removes terminal (SUCCEEDED, FAILED, CANCELLED) work requests.
+ *
+ * @param retainFor how long a terminal request is kept after it completed
+ * @param mode whether old requests are deleted or moved to the archive
+ * @param batchSize maximum number of requests removed per transaction; small batches keep locks short
+ * @param maxBatchesPerRun maximum number of batches per run, bounding how long a run takes
+ * @param pauseBetweenBatches time to wait between batches, leaving room for claims and replication
+ * @param interval time between runs
+ */
+public record RetentionPolicy(
+  Duration retainFor,
+  RetentionMode mode,
+  int batchSize,
+  int maxBatchesPerRun,
+  Duration pauseBetweenBatches,
+  Duration interval
+) {
+
+  /**
+   * Validates configuration invariants:
+   * - retainFor >= 0
+   * - mode != null
+   * - batchSize > 0
+   * - maxBatchesPerRun > 0
+   * - pauseBetweenBatches >= 0
+   * - interval > 0
+   *
+   * @throws IllegalArgumentException if configuration is invalid
+   */
+  public RetentionPolicy {
+    if (retainFor == null || retainFor.isNegative()) {
+      throw new IllegalArgumentException("retainFor must be >= 0");
+    }
+    if (mode == null) {
+      throw new IllegalArgumentException("mode is required");
+    }
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be > 0");
+    }
+    if (maxBatchesPerRun <= 0) {
+      throw new IllegalArgumentException("maxBatchesPerRun must be > 0");
+    }
+    if (pauseBetweenBatches == null || pauseBetweenBatches.isNegative()) {
+      throw new IllegalArgumentException("pauseBetweenBatches must be >= 0");
+    }
+    if (interval == null || interval.isZero() || interval.isNegative()) {
+      throw new IllegalArgumentException("interval must be > 0");
+    }
+  }
+
+  /**
+   * Returns the default settings: delete requests 7 days after completion, in batches of 1000, at most
+   * 100 batches per run with 50ms between them, every 10 minutes.
+   *
+   * @return default settings
+   */
+  public static RetentionPolicy defaults() {
+    return builder().build();
+  }
+
+  /**
+   * Creates a new builder initialized with the defaults.
+   *
+   * @return a new builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Fluent builder for {@link RetentionPolicy}. Validation happens in {@link #build()}.
+   */
+  public static class Builder {
+    private Duration retainFor = Duration.ofDays(7);
+    private RetentionMode mode = RetentionMode.DELETE;
+    private int batchSize = 1000;
+    private int maxBatchesPerRun = 100;
+    private Duration pauseBetweenBatches = Duration.ofMillis(50);
+    private Duration interval = Duration.ofMinutes(10);
+
+    public Builder() {
+    }
+
+    /**
+     * Sets how long terminal requests are kept after completion (default 7 days).
+     */
+    public Builder retainFor(Duration retainFor) {
+      this.retainFor = retainFor;
+      return this;
+    }
+
+    /**
+     * Sets whether old requests are deleted or archived (default {@link RetentionMode#DELETE}).
+     */
+    public Builder mode(RetentionMode mode) {
+      this.mode = mode;
+      return this;
+    }
+
+    /**
+     * Sets the number of requests removed per transaction (default 1000).
+     */
+    public Builder batchSize(int batchSize) {
+      this.batchSize = batchSize;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of batches per run (default 100).
+     */
+    public Builder maxBatchesPerRun(int maxBatchesPerRun) {
+      this.maxBatchesPerRun = maxBatchesPerRun;
+      return this;
+    }
+
+    /**
+     * Sets the pause between batches (default 50ms).
+     */
+    public Builder pauseBetweenBatches(Duration pauseBetweenBatches) {
+      this.pauseBetweenBatches = pauseBetweenBatches;
+      return this;
+    }
+
+    /**
+     * Sets the time between runs (default 10 minutes).
+     */
+    public Builder interval(Duration interval) {
+      this.interval = interval;
+      return this;
+    }
+
+    /**
+     * Validates inputs and constructs an immutable {@link RetentionPolicy}.
+     *
+     * @return configuration instance
+     * @throws IllegalArgumentException if any constraint is violated
+     */
+    public RetentionPolicy build() {
+      return new RetentionPolicy(retainFor, mode, batchSize, maxBatchesPerRun, pauseBetweenBatches, interval);
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package org.anthills.api.work;
 
+import java.time.Instant;
+
 /**
  * Options that influence how a work request is submitted and processed.
  *
@@ -7,20 +9,198 @@ package org.anthills.api.work;
  * @param codec name of the {@link org.anthills.api.codec.PayloadCodec} to use (e.g., "json")
  * @param maxAttempts optional cap on how many times the request may be attempted;
  *                    if {@code null}, the processor's default/max policy is applied
+ * @param priority claim priority between {@link #MIN_PRIORITY} and {@link #MAX_PRIORITY}; items with a
+ *                 higher priority are claimed before older items with a lower one
+ * @param notBefore optional earliest time the request may be claimed; if {@code null}, it is claimable
+ *                  as soon as it is stored
+ * @param idempotencyKey optional key identifying the request within its work type; submitting again with a
+ *                       key that is already stored returns the existing request instead of creating a new one
+ * @param coalesceKey optional key of a logical job of which only one pending request is kept; while a request of
+ *                    the same work type and key is still waiting to be claimed, submitting again updates or keeps
+ *                    that request (see {@code coalesceMode}) instead of adding another one
+ * @param coalesceMode how a repeated {@code coalesceKey} is applied; {@link CoalesceMode#REPLACE} if {@code null}
  */
 public record SubmissionOptions(
   int payloadVersion,
   String codec,
-  Integer maxAttempts
+  Integer maxAttempts,
+  int priority,
+  Instant notBefore,
+  String idempotencyKey,
+  String coalesceKey,
+  CoalesceMode coalesceMode
 ) {
 
+  /** Lowest priority, and the default. */
+  public static final int MIN_PRIORITY = 0;
+
+  /** Highest priority. Priority aging never raises items to this level, so it stays reserved for urgent work. */
+  public static final int MAX_PRIORITY = 9;
+
+  /** Maximum length of an {@link #idempotencyKey()} or a {@link #coalesceKey()}. */
+  public static final int MAX_KEY_LENGTH = 200;
+
+  /**
+   * Validates that {@code priority} is within {@link #MIN_PRIORITY} and {@link #MAX_PRIORITY}, that given
+   * keys are neither blank nor longer than {@link #MAX_KEY_LENGTH}, and that an idempotency key and a
+   * coalesce key are not combined. Defaults {@code coalesceMode} to {@link CoalesceMode#REPLACE}.
+   *
+   * @throws IllegalArgumentException if a constraint is violated
+   */
+  public SubmissionOptions {
+    if (priority < MIN_PRIORITY || priority > MAX_PRIORITY) {
+      throw new IllegalArgumentException("priority must be between " + MIN_PRIORITY + " and " + MAX_PRIORITY);
+    }
+    validateKey("idempotencyKey", idempotencyKey);
+    validateKey("coalesceKey", coalesceKey);
+    if (idempotencyKey != null && coalesceKey != null) {
+      throw new IllegalArgumentException("idempotencyKey and coalesceKey cannot be combined");
+    }
+    if (coalesceMode == null) {
+      coalesceMode = CoalesceMode.REPLACE;
+    }
+  }
+
+  private static void validateKey(String name, String key) {
+    if (key != null && (key.isBlank() || key.length() > MAX_KEY_LENGTH)) {
+      throw new IllegalArgumentException(name + " must not be blank or longer than " + MAX_KEY_LENGTH + " characters");
+    }
+  }
+
+  /**
+   * Creates options without a coalesce key.
+   *
+   * @param payloadVersion semantic version of the payload schema
+   * @param codec name of the codec to use
+   * @param maxAttempts optional cap on attempts
+   * @param priority claim priority
+   * @param notBefore optional earliest claim time
+   * @param idempotencyKey optional idempotency key
+   */
+  public SubmissionOptions(int payloadVersion, String codec, Integer maxAttempts, int priority, Instant notBefore, String idempotencyKey) {
+    this(payloadVersion, codec, maxAttempts, priority, notBefore, idempotencyKey, null, null);
+  }
+
+  /**
+   * Creates options without an idempotency or coalesce key.
+   *
+   * @param payloadVersion semantic version of the payload schema
+   * @param codec name of the codec to use
+   * @param maxAttempts optional cap on attempts
+   * @param priority claim priority
+   * @param notBefore optional earliest claim time
+   */
+  public SubmissionOptions(int payloadVersion, String codec, Integer maxAttempts, int priority, Instant notBefore) {
+    this(payloadVersion, codec, maxAttempts, priority, notBefore, null);
+  }
+
+  /**
+   * Creates options that are claimable immediately.
+   *
+   * @param payloadVersion semantic version of the payload schema
+   * @param codec name of the codec to use
+   * @param maxAttempts optional cap on attempts
+   * @param priority claim priority
+   */
+  public SubmissionOptions(int payloadVersion, String codec, Integer maxAttempts, int priority) {
+    this(payloadVersion, codec, maxAttempts, priority, null, null);
+  }
+
+  /**
+   * Creates options with the lowest priority that are claimable immediately.
+   *
+   * @param payloadVersion semantic version of the payload schema
+   * @param codec name of the codec to use
+   * @param maxAttempts optional cap on attempts
+   */
+  public SubmissionOptions(int payloadVersion, String codec, Integer maxAttempts) {
+    this(payloadVersion, codec, maxAttempts, MIN_PRIORITY);
+  }
+
   /**
    * Returns a sensible default submission configuration:
-   * payloadVersion=1, codec="json", maxAttempts unbounded (delegate to processor defaults).
+   * payloadVersion=1, codec="json", maxAttempts unbounded (delegate to processor defaults), lowest priority,
+   * claimable immediately, no idempotency or coalesce key.
    *
    * @return default submission options
    */
   public static SubmissionOptions defaults() {
     return new SubmissionOptions(1, "json", null);
   }
+
+  /**
+   * Creates a new builder initialized with the {@link #defaults()}.
+   *
+   * @return a new builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Fluent builder for {@link SubmissionOptions}. Validation happens in {@link #build()}.
+   */
+  public static class Builder {
+    private int payloadVersion = 1;
+    private String codec = "json";
+    private Integer maxAttempts;
+    private int priority = MIN_PRIORITY;
+    private Instant notBefore;
+    private String idempotencyKey;
+    private String coalesceKey;
+    private CoalesceMode coalesceMode = CoalesceMode.REPLACE;
+
+    public Builder() {
+    }
+
+    public Builder payloadVersion(int payloadVersion) {
+      this.payloadVersion = payloadVersion;
+      return this;
+    }
+
+    public Builder codec(String codec) {
+      this.codec = codec;
+      return this;
+    }
+
+    public Builder maxAttempts(Integer maxAttempts) {
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    public Builder priority(int priority) {
+      this.priority = priority;
+      return this;
+    }
+
+    public Builder notBefore(Instant notBefore) {
+      this.notBefore = notBefore;
+      return this;
+    }
+
+    public Builder idempotencyKey(String idempotencyKey) {
+      this.idempotencyKey = idempotencyKey;
+      return this;
+    }
+
+    public Builder coalesceKey(String coalesceKey) {
+      this.coalesceKey = coalesceKey;
+      return this;
+    }
+
+    public Builder coalesceMode(CoalesceMode coalesceMode) {
+      this.coalesceMode = coalesceMode;
+      return this;
+    }
+
+    /**
+     * Validates inputs and constructs immutable {@link SubmissionOptions}.
+     *
+     * @return options instance
+     * @throws IllegalArgumentException if any constraint is violated
+     */
+    public SubmissionOptions build() {
+      return new SubmissionOptions(payloadVersion, codec, maxAttempts, priority, notBefore, idempotencyKey, coalesceKey, coalesceMode);
+    }
+  }
 }
@@ -0,0 +1,24 @@
+package org.anthills.api.work;
+
+/**
+ * Handle for a registered callback, such as a work-available listener.
+ * Closing the subscription stops further callbacks. Closing is idempotent.
+ */
+@FunctionalInterface
+public interface Subscription extends AutoCloseable {
+
+  /**
+   * A subscription that has nothing to release.
+   *
+   * @return no-op subscription
+   */
+  static Subscription noop() {
+    return () -> {};
+  }
+
+  /**
+   * Cancels the registration. Never throws checked exceptions.
+   */
+  @Override
+  void close();
+}
@@ -1,5 +1,6 @@
 package org.anthills.api.work;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,6 +32,31 @@ public interface WorkClient {
    */
   <T> WorkRequest<T> submit(String workType, T payload, SubmissionOptions options);
 
+  /**
+   * Creates many work requests of the same type in one bulk operation with default
+   * {@link SubmissionOptions#defaults()}.
+   *
+   * @param workType logical routing key that identifies the kind of work/handler
+   * @param payloads typed payloads to be processed
+   * @param <T> payload type
+   * @return the created {@link WorkRequest}s, in iteration order of {@code payloads}
+   * @throws IllegalArgumentException if inputs are invalid
+   */
+  <T> List<WorkRequest<T>> submitAll(String workType, Collection<T> payloads);
+
+  /**
+   * Creates many work requests of the same type in one bulk operation with explicit submission options.
+   * Prefer this over repeated {@link #submit(String, Object, SubmissionOptions)} calls for large fan-outs.
+   *
+   * @param workType logical routing key that identifies the kind of work/handler
+   * @param payloads typed payloads to be processed
+   * @param options serialization/codec and retry options applied to every request
+   * @param <T> payload type
+   * @return the created {@link WorkRequest}s, in iteration order of {@code payloads}
+   * @throws IllegalArgumentException if inputs are invalid
+   */
+  <T> List<WorkRequest<T>> submitAll(String workType, Collection<T> payloads, SubmissionOptions options);
+
   /**
    * Fetches a work request by id and decodes its payload into the requested type.
    *
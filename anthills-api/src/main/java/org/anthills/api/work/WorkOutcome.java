@@ -0,0 +1,76 @@
+package org.anthills.api.work;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Result of processing a claimed work item, to be written back to the {@link WorkStore}.
+ * Outcomes let processors record completions in bulk via {@link WorkStore#applyOutcomes(String, java.util.List)}.
+ *
+ * @param workId id of the processed work item
+ * @param type kind of outcome
+ * @param failureReason reason recorded for {@link Type#FAILED}; otherwise null
+ * @param retryDelay delay before the item becomes claimable again for {@link Type#RESCHEDULED}; otherwise null
+ */
+public record WorkOutcome(
+  String workId,
+  Type type,
+  String failureReason,
+  Duration retryDelay
+) {
+
+  /**
+   * Kind of outcome, mirroring {@link WorkStore#markSucceeded}, {@link WorkStore#markFailed}
+   * and {@link WorkStore#reschedule}.
+   */
+  public enum Type {
+    SUCCEEDED,
+    FAILED,
+    RESCHEDULED
+  }
+
+  /**
+   * Validates that the id and type are present and that rescheduled outcomes carry a delay.
+   *
+   * @throws NullPointerException if a required value is missing
+   */
+  public WorkOutcome {
+    Objects.requireNonNull(workId, "workId is required");
+    Objects.requireNonNull(type, "type is required");
+    if (type == Type.RESCHEDULED) {
+      Objects.requireNonNull(retryDelay, "retryDelay is required for rescheduled outcomes");
+    }
+  }
+
+  /**
+   * Creates a successful outcome.
+   *
+   * @param workId work id
+   * @return outcome
+   */
+  public static WorkOutcome succeeded(String workId) {
+    return new WorkOutcome(workId, Type.SUCCEEDED, null, null);
+  }
+
+  /**
+   * Creates a terminal failure outcome.
+   *
+   * @param workId work id
+   * @param failureReason brief description and/or truncated stack trace
+   * @return outcome
+   */
+  public static WorkOutcome failed(String workId, String failureReason) {
+    return new WorkOutcome(workId, Type.FAILED, failureReason, null);
+  }
+
+  /**
+   * Creates an outcome that returns the item to the queue after {@code retryDelay}.
+   *
+   * @param workId work id
+   * @param retryDelay delay before it becomes claimable again
+   * @return outcome
+   */
+  public static WorkOutcome rescheduled(String workId, Duration retryDelay) {
+    return new WorkOutcome(workId, Type.RESCHEDULED, null, retryDelay);
+  }
+}
@@ -5,6 +5,7 @@ import java.util.Set;
 import java.util.Collection;
 import java.util.LinkedHashSet;
 import java.util.EnumSet;
+import java.util.Objects;
 
 /**
  * Criteria for listing {@link WorkRequest}s.
@@ -15,6 +16,11 @@ import java.util.EnumSet;
  * @param createdAfter  include requests created strictly after this instant; {@code null} to ignore
  * @param createdBefore include requests created strictly before this instant; {@code null} to ignore
  * @param page          paging configuration (limit/offset), required
+ * @param after         keyset cursor: include only requests listed after this position in the
+ *                      {@code createdTs} descending, {@code id} descending order; {@code null} to start
+ *                      from the newest request
+ * @param projection    which columns of the matching requests are read; {@code null} means
+ *                      {@link Projection#FULL}
  */
 public record WorkQuery(
   Set<String> ids,
@@ -22,9 +28,79 @@ public record WorkQuery(
   Set<WorkRequest.Status> statuses,
   Instant createdAfter,
   Instant createdBefore,
-  Page page
+  Page page,
+  Cursor after,
+  Projection projection
 ) {
 
+  public WorkQuery {
+    if (projection == null) {
+      projection = Projection.FULL;
+    }
+  }
+
+  /**
+   * Creates a query without a keyset cursor that reads full records.
+   *
+   * @param ids           optional set of specific request IDs to include
+   * @param workType      logical routing key to filter by; may be {@code null} to include all
+   * @param statuses      optional set of statuses to include; {@code null} means all
+   * @param createdAfter  include requests created strictly after this instant; {@code null} to ignore
+   * @param createdBefore include requests created strictly before this instant; {@code null} to ignore
+   * @param page          paging configuration (limit/offset), required
+   */
+  public WorkQuery(Set<String> ids, String workType, Set<WorkRequest.Status> statuses, Instant createdAfter,
+                   Instant createdBefore, Page page) {
+    this(ids, workType, statuses, createdAfter, createdBefore, page, null, Projection.FULL);
+  }
+
+  /**
+   * Parts of a work request read by a listing.
+   */
+  public enum Projection {
+
+    /**
+     * Every attribute, including the payload and the failure reason.
+     */
+    FULL,
+
+    /**
+     * Every attribute except the payload and the failure reason, which are left {@code null} in the
+     * returned records. Suits listings that only display or filter on metadata: the store does not
+     * read the (potentially large) payloads. Load a single request with
+     * {@link WorkStore#getWork(String)} to get them.
+     */
+    METADATA
+  }
+
+  /**
+   * Position of the last request of a page, from which the next page continues.
+   *
+   * Paging with a cursor instead of a growing offset lets the store seek directly to the next page
+   * using its {@code (created_ts, id)} index, so every page costs the same however deep it is. Pass
+   * the cursor of the last request of a page, with offset 0, to fetch the following page.
+   *
+   * @param createdTs creation time of the last request seen
+   * @param id        id of the last request seen, breaking ties between equal creation times
+   */
+  public record Cursor(Instant createdTs, String id) {
+
+    public Cursor {
+      Objects.requireNonNull(createdTs, "createdTs is required");
+      Objects.requireNonNull(id, "id is required");
+    }
+
+    /**
+     * Returns the cursor positioned at the given record, typically the last one of a page.
+     *
+     * @param last last record seen
+     * @return cursor continuing after {@code last}
+     */
+    public static Cursor of(WorkRecord last) {
+      return new Cursor(last.createdTs(), last.id());
+    }
+  }
+
   /**
    * Paging configuration with fixed limit and offset.
    *
@@ -73,6 +149,8 @@ public record WorkQuery(
     private Instant createdAfter;
     private Instant createdBefore;
     private Page page;
+    private Cursor after;
+    private Projection projection = Projection.FULL;
     private int limit = 1;
     private int offset;
 
@@ -193,6 +271,29 @@ public record WorkQuery(
       return this;
     }
 
+    /**
+     * Sets the keyset cursor to continue after, typically {@link Cursor#of} the last record of the
+     * previous page. A {@code null} value starts from the newest request.
+     *
+     * @param after position to continue after; may be {@code null}
+     * @return this builder
+     */
+    public Builder after(Cursor after) {
+      this.after = after;
+      return this;
+    }
+
+    /**
+     * Sets which parts of the matching requests are read (default {@link Projection#FULL}).
+     *
+     * @param projection projection to use; {@code null} means {@link Projection#FULL}
+     * @return this builder
+     */
+    public Builder projection(Projection projection) {
+      this.projection = projection;
+      return this;
+    }
+
     /**
      * Sets the paging configuration explicitly.
      * If set, it takes precedence over {@link #limit(int)} and {@link #offset(int)}.
@@ -251,7 +352,7 @@ public record WorkQuery(
       Set<String> idsCopy = (this.ids == null) ? Set.of() : Set.copyOf(this.ids);
       Set<WorkRequest.Status> statusesCopy = (this.statuses == null) ? null : Set.copyOf(this.statuses);
 
-      return new WorkQuery(idsCopy, this.workType, statusesCopy, this.createdAfter, this.createdBefore, p);
+      return new WorkQuery(idsCopy, this.workType, statusesCopy, this.createdAfter, this.createdBefore, p, this.after, this.projection);
     }
   }
 }
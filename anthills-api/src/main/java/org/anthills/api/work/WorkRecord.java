@@ -12,29 +12,37 @@ import java.time.Instant;
  * Record components:
  * - id: unique identifier
  * - workType: routing key
+ * - idempotencyKey: optional submission key, unique within the work type
+ * - coalesceKey: optional key of the logical job pending submissions are coalesced into
  * - payload: serialized bytes
  * - payloadType: fully qualified class name of the original payload
  * - payloadVersion: semantic schema version used by the codec
  * - codec: name of the codec used to serialize the payload
  * - status: lifecycle state
+ * - priority: claim priority, higher first
  * - maxRetries: optional cap on attempts
  * - attemptCount: number of attempts so far
  * - ownerId: current lease owner
  * - leaseUntil: lease expiration
+ * - visibleAt: earliest time a NEW item may be claimed
  * - failureReason: brief description/truncated stack trace
  * - createdTs/updatedTs/startedTs/completedTs: lifecycle timestamps
  *
  * @param id unique identifier
  * @param workType logical routing key
- * @param payload serialized payload bytes
+ * @param idempotencyKey optional key the request was submitted with; unique within {@code workType}
+ * @param coalesceKey optional coalesce key the request was submitted with
+ * @param payload serialized payload bytes; {@code null} if read with {@link WorkQuery.Projection#METADATA}
  * @param payloadType fully qualified class name of the payload
  * @param payloadVersion payload schema version
  * @param codec name of the codec used
  * @param status lifecycle status
+ * @param priority claim priority; higher priorities are claimed first
  * @param maxRetries optional cap on allowed attempts
  * @param attemptCount number of attempts so far
  * @param ownerId logical owner currently holding the lease
  * @param leaseUntil lease expiration timestamp
+ * @param visibleAt earliest time the item may be claimed while NEW (submission {@code notBefore} or retry time)
  * @param failureReason brief description/truncated stack trace for failures
  * @param createdTs creation time
  * @param updatedTs last update time
@@ -46,6 +54,8 @@ public record WorkRecord(
 
   // Routing
   String workType,
+  String idempotencyKey,
+  String coalesceKey,
 
   // Payload
   byte[] payload,
@@ -55,11 +65,13 @@ public record WorkRecord(
 
   // Execution
   WorkRequest.Status status,
+  int priority,
   // total allowed executions. null -> use processor default value. non-null -> min(request.maxRetries, processor.maxAllowedRetries)
   Integer maxRetries,
   int attemptCount, // number of executions so far
   String ownerId,
   Instant leaseUntil,
+  Instant visibleAt,
 
   // Short human-readable error; may include truncated stack trace
   String failureReason, // optional, stack trace
@@ -74,7 +86,7 @@ public record WorkRecord(
    * Decodes the stored payload to its declared {@code payloadType} using the provided codec.
    *
    * @param codec payload codec to use for decoding
-   * @return a typed {@link WorkRequest} with the decoded payload
+   * @return a typed {@link WorkRequest} with the decoded payload, or a null payload if the record was read without it
    * @throws IllegalStateException if the payload type cannot be loaded or decoding fails
    * @throws IllegalArgumentException if the codec rejects the payload
    */
@@ -82,7 +94,8 @@ public record WorkRecord(
     Object decoded;
     try {
       Class<?> actualPayloadType = Class.forName(this.payloadType);
-      decoded = codec.decode(this.payload(), actualPayloadType, this.payloadVersion);
+      // a record listed with the METADATA projection carries no payload
+      decoded = this.payload == null ? null : codec.decode(this.payload(), actualPayloadType, this.payloadVersion);
     } catch (ClassNotFoundException e) {
       throw new IllegalStateException("Failed to deserialize WorkRequest " + this.id + " Class not found " + this.payloadType);
     } catch (IllegalArgumentException e) {
@@ -122,7 +135,7 @@ public record WorkRecord(
    * @param codec payload codec to use for decoding
    * @param expectedPayloadType target payload class; must be assignable from the stored {@code payloadType}
    * @param <T> typed payload class
-   * @return a typed {@link WorkRequest} with the decoded payload
+   * @return a typed {@link WorkRequest} with the decoded payload, or a null payload if the record was read without it
    * @throws IllegalArgumentException if the stored payload type is incompatible with {@code expectedPayloadType}
    * @throws IllegalStateException if the payload type cannot be loaded or decoding fails
    */
@@ -137,7 +150,7 @@ public record WorkRecord(
       if (!actualPayloadType.isAssignableFrom(expectedPayloadType)) {
         throw new IllegalArgumentException("Cannot deserialize WorkRequest " + this.id + " to " + expectedPayloadType.getName() + ". Actual Type " + this.payloadType);
       }
-      decoded = (T) codec.decode(this.payload(), actualPayloadType, this.payloadVersion);
+      decoded = this.payload == null ? null : (T) codec.decode(this.payload(), actualPayloadType, this.payloadVersion);
     } catch (ClassNotFoundException e) {
       throw new IllegalStateException("Failed to deserialize WorkRequest " + this.id + " Class not found " + this.payloadType);
     } catch (IllegalArgumentException e) {
@@ -189,15 +202,19 @@ public record WorkRecord(
     return new Builder()
       .id(this.id())
       .workType(this.workType())
+      .idempotencyKey(this.idempotencyKey())
+      .coalesceKey(this.coalesceKey())
       .payload(this.payload())
       .payloadType(this.payloadType())
       .payloadVersion(this.payloadVersion())
       .codec(this.codec())
       .status(this.status())
+      .priority(this.priority())
       .maxRetries(this.maxRetries())
       .attemptCount(this.attemptCount())
       .ownerId(this.ownerId())
       .leaseUntil(this.leaseUntil())
+      .visibleAt(this.visibleAt())
       .failureReason(this.failureReason())
       .createdTs(this.createdTs())
       .updatedTs(this.updatedTs())
@@ -215,6 +232,8 @@ public record WorkRecord(
 
     // Routing
     private String workType;
+    private String idempotencyKey;
+    private String coalesceKey;
 
     // Payload
     private byte[] payload;
@@ -224,10 +243,12 @@ public record WorkRecord(
 
     // Execution
     private WorkRequest.Status status;
+    private int priority;
     private Integer maxRetries;
     private int attemptCount;
     private String ownerId;
     private Instant leaseUntil;
+    private Instant visibleAt;
 
     // Error
     private String failureReason;
@@ -251,6 +272,16 @@ public record WorkRecord(
       return this;
     }
 
+    public Builder idempotencyKey(String idempotencyKey) {
+      this.idempotencyKey = idempotencyKey;
+      return this;
+    }
+
+    public Builder coalesceKey(String coalesceKey) {
+      this.coalesceKey = coalesceKey;
+      return this;
+    }
+
     public Builder payload(byte[] payload) {
       this.payload = payload;
       return this;
@@ -281,6 +312,11 @@ public record WorkRecord(
       return this;
     }
 
+    public Builder priority(int priority) {
+      this.priority = priority;
+      return this;
+    }
+
     public Builder maxRetries(Integer maxRetries) {
       this.maxRetries = maxRetries;
       return this;
@@ -301,6 +337,11 @@ public record WorkRecord(
       return this;
     }
 
+    public Builder visibleAt(Instant visibleAt) {
+      this.visibleAt = visibleAt;
+      return this;
+    }
+
     public Builder failureReason(String failureReason) {
       this.failureReason = failureReason;
       return this;
@@ -335,15 +376,19 @@ public record WorkRecord(
     public Builder from(WorkRecord r) {
       this.id = r.id();
       this.workType = r.workType();
+      this.idempotencyKey = r.idempotencyKey();
+      this.coalesceKey = r.coalesceKey();
       this.payload = r.payload();
       this.payloadType = r.payloadType();
       this.payloadVersion = r.payloadVersion();
       this.codec = r.codec();
       this.status = r.status();
+      this.priority = r.priority();
       this.maxRetries = r.maxRetries();
       this.attemptCount = r.attemptCount();
       this.ownerId = r.ownerId();
       this.leaseUntil = r.leaseUntil();
+      this.visibleAt = r.visibleAt();
       this.failureReason = r.failureReason();
       this.createdTs = r.createdTs();
       this.updatedTs = r.updatedTs();
@@ -361,15 +406,19 @@ public record WorkRecord(
       return new WorkRecord(
         id,
         workType,
+        idempotencyKey,
+        coalesceKey,
         payload,
         payloadType,
         payloadVersion,
         codec,
         status,
+        priority,
         maxRetries,
         attemptCount,
         ownerId,
         leaseUntil,
+        visibleAt,
         failureReason,
         createdTs,
         updatedTs,
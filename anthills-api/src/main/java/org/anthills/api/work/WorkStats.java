@@ -0,0 +1,132 @@
+package org.anthills.api.work;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Snapshot of the number of work requests per work type and status, as returned by
+ * {@link WorkStore#stats()}. Combinations without any request have no entry.
+ *
+ * @param entries one entry per (work type, status) holding at least one request
+ * @param computedAt when the snapshot was computed; snapshots may be shared for a short while
+ */
+public record WorkStats(
+  List<Entry> entries,
+  Instant computedAt
+) {
+
+  public WorkStats {
+    entries = List.copyOf(Objects.requireNonNull(entries, "entries is required"));
+    Objects.requireNonNull(computedAt, "computedAt is required");
+  }
+
+  /**
+   * Number of requests of a work type in a status.
+   *
+   * @param workType routing key
+   * @param status status of the requests
+   * @param count number of requests, always > 0
+   * @param oldestVisibleAt earliest {@link WorkRecord#visibleAt()} among them; for NEW requests, the
+   *                        time since then is how long the oldest claimable request has waited
+   */
+  public record Entry(
+    String workType,
+    WorkRequest.Status status,
+    long count,
+    Instant oldestVisibleAt
+  ) {
+
+    public Entry {
+      Objects.requireNonNull(workType, "workType is required");
+      Objects.requireNonNull(status, "status is required");
+    }
+  }
+
+  /**
+   * Returns the work types holding at least one request, in the order of the entries.
+   *
+   * @return work types
+   */
+  public Set<String> workTypes() {
+    Set<String> workTypes = new LinkedHashSet<>();
+    for (Entry e : entries) {
+      workTypes.add(e.workType());
+    }
+    return workTypes;
+  }
+
+  /**
+   * Returns the number of requests of a work type in a status.
+   *
+   * @param workType routing key
+   * @param status status to count
+   * @return number of requests, 0 if there are none
+   */
+  public long count(String workType, WorkRequest.Status status) {
+    for (Entry e : entries) {
+      if (e.workType().equals(workType) && e.status() == status) {
+        return e.count();
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Returns the number of requests in a status across all work types.
+   *
+   * @param status status to count
+   * @return number of requests, 0 if there are none
+   */
+  public long count(WorkRequest.Status status) {
+    long count = 0;
+    for (Entry e : entries) {
+      if (e.status() == status) {
+        count += e.count();
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of requests across all work types and statuses.
+   *
+   * @return total number of requests
+   */
+  public long total() {
+    long total = 0;
+    for (Entry e : entries) {
+      total += e.count();
+    }
+    return total;
+  }
+
+  /**
+   * Returns the number of requests of a work type currently claimed by a worker (IN_PROGRESS).
+   *
+   * @param workType routing key
+   * @return number of in-flight requests
+   */
+  public long inFlight(String workType) {
+    return count(workType, WorkRequest.Status.IN_PROGRESS);
+  }
+
+  /**
+   * Returns how long the oldest NEW request of a work type has been claimable, as of
+   * {@link #computedAt()}. Requests deferred into the future do not count as waiting.
+   *
+   * @param workType routing key
+   * @return age of the oldest pending request, {@link Duration#ZERO} if none is claimable
+   */
+  public Duration oldestPendingAge(String workType) {
+    for (Entry e : entries) {
+      if (e.workType().equals(workType) && e.status() == WorkRequest.Status.NEW && e.oldestVisibleAt() != null) {
+        return e.oldestVisibleAt().isBefore(computedAt) ? Duration.between(e.oldestVisibleAt(), computedAt) : Duration.ZERO;
+      }
+    }
+    return Duration.ZERO;
+  }
+}
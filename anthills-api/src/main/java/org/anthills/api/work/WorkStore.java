@@ -3,8 +3,16 @@ package org.anthills.api.work;
 import org.anthills.api.scheduler.SchedulerLease;
 
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 /**
  * Persistence abstraction for storing, querying and leasing work requests and scheduler leases.
@@ -12,6 +20,9 @@ import java.util.Optional;
  */
 public interface WorkStore {
 
+  /** Number of items changed per transaction by {@link #bulkUpdate(WorkQuery, BulkAction)}. */
+  int DEFAULT_BULK_CHUNK_SIZE = 1000;
+
   // ------------------------------------------------------------------
   // WorkRequest Operations
   // ------------------------------------------------------------------
@@ -28,6 +39,67 @@ public interface WorkStore {
    */
   WorkRecord createWork(String workType, byte[] payload, String payloadType, int payloadVersion, String codec, Integer maxRetries);
 
+  /**
+   * Persists many units of work of the same type in bulk. All items share the same
+   * payload version, codec and retry cap. The default implementation delegates to
+   * {@link #createWork(String, byte[], String, int, String, Integer)} for each payload;
+   * implementations are encouraged to batch writes instead.
+   *
+   * @param workType logical routing key
+   * @param payloads serialized payloads with their class names
+   * @param payloadVersion semantic schema version for the payloads
+   * @param codec name of the codec used to serialize the payloads
+   * @param maxRetries optional cap on retry attempts; {@code null} to use processor defaults
+   * @return the stored {@link WorkRecord}s, in the same order as {@code payloads}
+   */
+  default List<WorkRecord> createWorkBatch(String workType, List<EncodedPayload> payloads, int payloadVersion, String codec, Integer maxRetries) {
+    List<WorkRecord> records = new ArrayList<>(payloads.size());
+    for (EncodedPayload p : payloads) {
+      records.add(createWork(workType, p.payload(), p.payloadType(), payloadVersion, codec, maxRetries));
+    }
+    return records;
+  }
+
+  /**
+   * Persists a new unit of work with the given submission options. If the options carry an
+   * {@link SubmissionOptions#idempotencyKey()} already stored for {@code workType}, nothing is written
+   * and the existing record is returned, even if its payload differs. If the options carry a
+   * {@link SubmissionOptions#coalesceKey()} and a NEW item of {@code workType} with that key is still
+   * waiting to be claimed, that item is updated or kept according to {@link SubmissionOptions#coalesceMode()}
+   * and returned instead of inserting another one.
+   *
+   * The default implementation delegates to {@link #createWork(String, byte[], String, int, String, Integer)}
+   * and ignores the options that method cannot express, such as the priority, {@code notBefore} and
+   * the idempotency and coalesce keys.
+   *
+   * @param workType logical routing key
+   * @param payload serialized payload bytes and class name
+   * @param options payload version, codec, retry cap, priority and earliest claim time
+   * @return the stored {@link WorkRecord}, or the existing one for a repeated idempotency or coalesce key
+   */
+  default WorkRecord createWork(String workType, EncodedPayload payload, SubmissionOptions options) {
+    return createWork(workType, payload.payload(), payload.payloadType(), options.payloadVersion(), options.codec(), options.maxAttempts());
+  }
+
+  /**
+   * Persists many units of work of the same type in bulk with the given submission options. The
+   * default implementation delegates to {@link #createWorkBatch(String, List, int, String, Integer)}
+   * and ignores the options that method cannot express, such as the priority and {@code notBefore}.
+   * Idempotency and coalesce keys identify a single request, so batches must not carry one.
+   *
+   * @param workType logical routing key
+   * @param payloads serialized payloads with their class names
+   * @param options payload version, codec, retry cap, priority and earliest claim time shared by all items
+   * @return the stored {@link WorkRecord}s, in the same order as {@code payloads}
+   * @throws IllegalArgumentException if {@code options} has an idempotency or coalesce key
+   */
+  default List<WorkRecord> createWorkBatch(String workType, List<EncodedPayload> payloads, SubmissionOptions options) {
+    if (options.idempotencyKey() != null || options.coalesceKey() != null) {
+      throw new IllegalArgumentException("idempotencyKey and coalesceKey are not supported for batch submissions");
+    }
+    return createWorkBatch(workType, payloads, options.payloadVersion(), options.codec(), options.maxAttempts());
+  }
+
   /**
    * Fetches a single work item by id.
    *
@@ -44,9 +116,42 @@ public interface WorkStore {
    */
   List<WorkRecord> listWork(WorkQuery query);
 
+  /**
+   * Streams every work item matching the filters of {@code query}, in the order of
+   * {@link #listWork(WorkQuery)}. The page limit and offset are ignored; a cursor
+   * ({@link WorkQuery#after()}) and the projection are honored. Items are read as the stream is
+   * consumed, so memory use does not grow with the number of matches.
+   *
+   * The stream may hold database resources until it is closed; use it in a try-with-resources
+   * statement. The default implementation lists the first {@link Integer#MAX_VALUE} matches eagerly.
+   *
+   * @param query filter parameters
+   * @return lazily populated stream of matching work records; must be closed
+   */
+  default Stream<WorkRecord> streamWork(WorkQuery query) {
+    WorkQuery all = new WorkQuery(query.ids(), query.workType(), query.statuses(), query.createdAfter(),
+      query.createdBefore(), WorkQuery.Page.of(Integer.MAX_VALUE, 0), query.after(), query.projection());
+    return listWork(all).stream();
+  }
+
+  /**
+   * Counts the stored work items per work type and status, for dashboards and metrics. The counts are
+   * computed in one aggregate query rather than by listing items. Implementations may return the same
+   * snapshot to callers for a short while (see {@link WorkStats#computedAt()}), so that frequent
+   * callers share one computation.
+   *
+   * @return counts per (work type, status)
+   * @throws UnsupportedOperationException if the store does not support statistics
+   */
+  default WorkStats stats() {
+    throw new UnsupportedOperationException("Statistics are not supported by " + getClass().getSimpleName());
+  }
+
   /**
    * Atomically claims up to {@code limit} items of type {@code workType} for the owner,
-   * assigning a lease with the given duration. Implementations must ensure that items are
+   * assigning a lease with the given duration. Only NEW items whose {@link WorkRecord#visibleAt()}
+   * has passed are claimable. Items are claimed highest priority first and, within a priority, in the
+   * order they became visible. Implementations must ensure that items are
    * not simultaneously claimed by multiple owners.
    *
    * @param workType routing key
@@ -57,6 +162,74 @@ public interface WorkStore {
    */
   List<WorkRecord> claimWork(String workType, String ownerId, int limit, Duration leaseDuration);
 
+  /**
+   * Claims up to {@code limit} items like {@link #claimWork(String, String, int, Duration)}, using
+   * the given lease mode. With {@link LeaseMode#OWNER_HEARTBEAT} the claimed items carry no
+   * per-item lease; instead the owner's heartbeat is (re)established to live for
+   * {@code leaseDuration} and must be kept alive with {@link #renewOwnerHeartbeat(String, Duration)}.
+   * The default implementation supports only {@link LeaseMode#PER_ITEM}.
+   *
+   * @param workType routing key
+   * @param ownerId logical owner/worker identifier
+   * @param limit maximum number of items to claim
+   * @param leaseDuration per-item lease length, or the owner heartbeat lifetime
+   * @param leaseMode how ownership of the claimed items is maintained
+   * @return claimed work records (size ≤ limit)
+   * @throws UnsupportedOperationException if the lease mode is not supported by the store
+   */
+  default List<WorkRecord> claimWork(String workType, String ownerId, int limit, Duration leaseDuration, LeaseMode leaseMode) {
+    if (leaseMode != LeaseMode.PER_ITEM) {
+      throw new UnsupportedOperationException("Lease mode " + leaseMode + " is not supported by " + getClass().getSimpleName());
+    }
+    return claimWork(workType, ownerId, limit, leaseDuration);
+  }
+
+  /**
+   * Claims up to the given number of items of each work type, highest priority and then earliest visible first within each type, like
+   * {@link #claimWork(String, String, int, Duration, LeaseMode)}. Lets a caller split its capacity
+   * between types, so that a backlog of one type cannot crowd out the others. The default
+   * implementation claims the types one after another; implementations are encouraged to claim all
+   * types with one statement.
+   *
+   * @param limits maximum number of items to claim per routing key; types with a limit ≤ 0 are skipped
+   * @param ownerId logical owner/worker identifier
+   * @param leaseDuration per-item lease length, or the owner heartbeat lifetime
+   * @param leaseMode how ownership of the claimed items is maintained
+   * @return claimed work records of the given types (at most the limit of each type)
+   * @throws UnsupportedOperationException if the lease mode is not supported by the store
+   */
+  default List<WorkRecord> claimWork(Map<String, Integer> limits, String ownerId, Duration leaseDuration, LeaseMode leaseMode) {
+    List<WorkRecord> claimed = new ArrayList<>();
+    limits.forEach((workType, limit) -> {
+      if (limit > 0) {
+        claimed.addAll(claimWork(workType, ownerId, limit, leaseDuration, leaseMode));
+      }
+    });
+    return claimed;
+  }
+
+  /**
+   * Extends the heartbeat of {@code ownerId}, keeping every item it claimed in
+   * {@link LeaseMode#OWNER_HEARTBEAT} mode owned for another {@code ttl}.
+   *
+   * @param ownerId owner whose heartbeat to renew
+   * @param ttl heartbeat lifetime from now
+   * @throws UnsupportedOperationException if the store does not support owner heartbeats
+   */
+  default void renewOwnerHeartbeat(String ownerId, Duration ttl) {
+    throw new UnsupportedOperationException("Owner heartbeats are not supported by " + getClass().getSimpleName());
+  }
+
+  /**
+   * Removes the heartbeat of {@code ownerId} (best-effort), making any items it still holds in
+   * {@link LeaseMode#OWNER_HEARTBEAT} mode claimable by other owners right away.
+   * The default implementation does nothing.
+   *
+   * @param ownerId owner whose heartbeat to remove
+   */
+  default void releaseOwnerHeartbeat(String ownerId) {
+  }
+
   /**
    * Renews the worker lease for a claimed work item if owned by {@code ownerId}.
    *
@@ -68,7 +241,51 @@ public interface WorkStore {
   boolean renewWorkerLease(String id, String ownerId, Duration leaseDuration);
 
   /**
-   * Reschedules a non-terminal work item to be retried after the given delay.
+   * Renews the worker leases of many claimed work items owned by {@code ownerId} in bulk.
+   * The default implementation delegates to {@link #renewWorkerLease(String, String, Duration)}
+   * for each id; implementations are encouraged to renew all ids with a single statement.
+   *
+   * @param ownerId expected owner
+   * @param ids work ids to renew
+   * @param leaseDuration new lease duration from now
+   * @return ids whose lease could not be renewed (not owned, no longer in progress, or missing)
+   */
+  default Set<String> renewWorkerLeases(String ownerId, Collection<String> ids, Duration leaseDuration) {
+    Set<String> lost = new HashSet<>();
+    for (String id : ids) {
+      if (!renewWorkerLease(id, ownerId, leaseDuration)) {
+        lost.add(id);
+      }
+    }
+    return lost;
+  }
+
+  /**
+   * Returns items claimed by {@code ownerId} but never handed to a handler to NEW, claimable right away,
+   * and takes back the attempt counted by their claim. Items no longer IN_PROGRESS under
+   * {@code ownerId} are left untouched. The default implementation looks up each item and
+   * {@linkplain #reschedule reschedules} it without delay if it is still IN_PROGRESS under {@code ownerId};
+   * it keeps the attempt counted and does not fence against an owner change between the two calls.
+   *
+   * @param ownerId owner that claimed the items
+   * @param ids work ids to release
+   * @return number of items released
+   */
+  default int releaseClaims(String ownerId, Collection<String> ids) {
+    int released = 0;
+    for (String id : ids) {
+      Optional<WorkRecord> record = getWork(id);
+      if (record.isPresent() && record.get().status() == WorkRequest.Status.IN_PROGRESS && ownerId.equals(record.get().ownerId())) {
+        reschedule(id, Duration.ZERO);
+        released++;
+      }
+    }
+    return released;
+  }
+
+  /**
+   * Reschedules a non-terminal work item to be retried after the given delay. The item returns to NEW
+   * with its {@link WorkRecord#visibleAt()} set to now plus {@code delay}.
    *
    * @param id work id
    * @param delay delay before it becomes claimable again
@@ -92,6 +309,94 @@ public interface WorkStore {
    */
   void markFailed(String id, String ownerId, String failureReason);
 
+  /**
+   * Records the outcomes of many work items processed by {@code ownerId} in bulk. Terminal
+   * outcomes are applied only to items still owned by {@code ownerId}; implementations should
+   * fence rescheduling the same way. The default implementation delegates to
+   * {@link #markSucceeded}, {@link #markFailed} and {@link #reschedule} for each outcome;
+   * implementations are encouraged to apply all outcomes in one batched transaction.
+   *
+   * @param ownerId expected owner of every item
+   * @param outcomes outcomes to record
+   */
+  default void applyOutcomes(String ownerId, List<WorkOutcome> outcomes) {
+    for (WorkOutcome o : outcomes) {
+      switch (o.type()) {
+        case SUCCEEDED -> markSucceeded(o.workId(), ownerId);
+        case FAILED -> markFailed(o.workId(), ownerId, o.failureReason());
+        case RESCHEDULED -> reschedule(o.workId(), o.retryDelay());
+      }
+    }
+  }
+
+  /**
+   * Raises the priority of NEW items of {@code workType} by one level if they have been claimable and
+   * not updated for {@code waitingLongerThan}, up to {@code maxPriority}. Since raising an item updates it, an item
+   * rises at most one level per {@code waitingLongerThan} however often this is called, which keeps
+   * low-priority items from starving behind a steady stream of higher-priority ones.
+   * Implementations may raise only a bounded number of the longest waiting items per level and call,
+   * so a large backlog is aged gradually from its head rather than all at once.
+   * The default implementation does not support aging and returns 0.
+   *
+   * @param workType routing key whose items to age
+   * @param waitingLongerThan time an item must have waited since its last update
+   * @param maxPriority priority an item is never raised beyond
+   * @return number of items raised
+   */
+  default int agePriorities(String workType, Duration waitingLongerThan, int maxPriority) {
+    return 0;
+  }
+
+  /**
+   * Removes up to {@code limit} terminal (SUCCEEDED, FAILED, CANCELLED) items that completed before
+   * {@code completedBefore}, deleting them or moving them to the archive according to {@code mode}.
+   * Each call is one short transaction; callers remove a large backlog by calling repeatedly until
+   * fewer than {@code limit} items are removed. The default implementation does not support
+   * retention and returns 0.
+   *
+   * @param completedBefore items completed at or after this instant are kept
+   * @param limit maximum number of items to remove
+   * @param mode whether the items are deleted or archived
+   * @return number of items removed
+   */
+  default int purgeTerminalWork(Instant completedBefore, int limit, RetentionMode mode) {
+    return 0;
+  }
+
+  /**
+   * Applies {@code action} to every work item matching the filters of {@code query} with
+   * {@link #DEFAULT_BULK_CHUNK_SIZE} items per transaction.
+   *
+   * @param query filter parameters; the page, cursor and projection are ignored
+   * @param action change to apply
+   * @return number of items changed
+   * @throws UnsupportedOperationException if the store does not support bulk updates
+   * @see #bulkUpdate(WorkQuery, BulkAction, int, LongConsumer)
+   */
+  default long bulkUpdate(WorkQuery query, BulkAction action) {
+    return bulkUpdate(query, action, DEFAULT_BULK_CHUNK_SIZE, null);
+  }
+
+  /**
+   * Applies {@code action} to every work item matching the filters of {@code query} whose status is
+   * one of {@link BulkAction#statuses()}, such as requeueing all FAILED items of a work type after an
+   * outage. Items are changed by set-based statements in chunks of at most {@code chunkSize} items,
+   * each chunk in its own short transaction, until no match is left or the thread is interrupted;
+   * items are not read into memory. If a chunk fails, previously committed chunks remain applied.
+   * The filters are combined as by {@link #listWork(WorkQuery)}; the page, cursor and projection
+   * are ignored. The default implementation does not support bulk updates.
+   *
+   * @param query filter parameters
+   * @param action change to apply
+   * @param chunkSize maximum number of items changed per transaction; must be > 0
+   * @param progress called after every chunk with the number of items changed so far; may be {@code null}
+   * @return number of items changed
+   * @throws UnsupportedOperationException if the store does not support bulk updates
+   */
+  default long bulkUpdate(WorkQuery query, BulkAction action, int chunkSize, LongConsumer progress) {
+    throw new UnsupportedOperationException("Bulk updates are not supported by " + getClass().getSimpleName());
+  }
+
   /**
    * Best-effort cancellation; if already terminal, this is a no-op.
    *
@@ -99,6 +404,21 @@ public interface WorkStore {
    */
   void markCancelled(String id);
 
+  /**
+   * Registers a callback that is invoked when new work of {@code workType} may be available,
+   * allowing processors to poll immediately instead of waiting for the next polling tick.
+   * Notifications are hints only: callbacks may be spurious or missed, so consumers must keep
+   * polling as a fallback. Callbacks run on an implementation thread and must return quickly.
+   * The default implementation does not support push notifications and returns a no-op subscription.
+   *
+   * @param workType routing key to watch
+   * @param listener callback to invoke
+   * @return subscription that unregisters the callback when closed
+   */
+  default Subscription onWorkAvailable(String workType, Runnable listener) {
+    return Subscription.noop();
+  }
+
 
   // ============================================================
   // Scheduler lease Operations (LeasedScheduler)
@@ -0,0 +1,110 @@
+package org.anthills.api.work;
+
+/**
+ * Per-work-type settings of a processor that serves several work types from one shared worker pool.
+ *
+ * @param weight relative share of claims and free workers given to this type when several types have work waiting
+ * @param maxConcurrency maximum number of handlers of this type running at once
+ * @param minConcurrency number of workers reserved for this type; other types never use them, so this type
+ *                       always gets at least this many workers as soon as it has work
+ */
+public record WorkTypeConfig(
+  int weight,
+  int maxConcurrency,
+  int minConcurrency
+) {
+
+  /**
+   * Validates configuration invariants:
+   * - weight > 0
+   * - maxConcurrency > 0
+   * - 0 <= minConcurrency <= maxConcurrency
+   *
+   * @throws IllegalArgumentException if configuration is invalid
+   */
+  public WorkTypeConfig {
+    if (weight <= 0) {
+      throw new IllegalArgumentException("weight must be > 0");
+    }
+    if (maxConcurrency <= 0) {
+      throw new IllegalArgumentException("maxConcurrency must be > 0");
+    }
+    if (minConcurrency < 0 || minConcurrency > maxConcurrency) {
+      throw new IllegalArgumentException("minConcurrency must be >= 0 and <= maxConcurrency");
+    }
+  }
+
+  /**
+   * Creates settings without reserved workers.
+   *
+   * @param weight relative share of claims and free workers
+   * @param maxConcurrency maximum number of handlers of this type running at once
+   */
+  public WorkTypeConfig(int weight, int maxConcurrency) {
+    this(weight, maxConcurrency, 0);
+  }
+
+  /**
+   * Returns the default settings: weight 1, no reserved workers and no per-type concurrency cap beyond the shared pool.
+   *
+   * @return default settings
+   */
+  public static WorkTypeConfig defaults() {
+    return builder().build();
+  }
+
+  /**
+   * Creates a new builder initialized with the defaults.
+   *
+   * @return a new builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Fluent builder for {@link WorkTypeConfig}. Validation happens in {@link #build()}.
+   */
+  public static class Builder {
+    private int weight = 1;
+    private int maxConcurrency = Integer.MAX_VALUE;
+    private int minConcurrency = 0;
+
+    public Builder() {
+    }
+
+    /**
+     * Sets the relative share of free workers (default 1).
+     */
+    public Builder weight(int weight) {
+      this.weight = weight;
+      return this;
+    }
+
+    /**
+     * Sets the per-type concurrency cap (default unbounded).
+     */
+    public Builder maxConcurrency(int maxConcurrency) {
+      this.maxConcurrency = maxConcurrency;
+      return this;
+    }
+
+    /**
+     * Sets the number of workers reserved for this type (default 0).
+     */
+    public Builder minConcurrency(int minConcurrency) {
+      this.minConcurrency = minConcurrency;
+      return this;
+    }
+
+    /**
+     * Validates inputs and constructs an immutable {@link WorkTypeConfig}.
+     *
+     * @return configuration instance
+     * @throws IllegalArgumentException if any constraint is violated
+     */
+    public WorkTypeConfig build() {
+      return new WorkTypeConfig(weight, maxConcurrency, minConcurrency);
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package org.anthills.core;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Functional contract used to renew many leases in one operation.
+ * Implementations should attempt a best-effort renewal of all ids and report
+ * the ones that are no longer held.
+ */
+@FunctionalInterface
+public interface BatchLeaseRenewer {
+    /**
+     * Attempts to renew the leases identified by {@code ids}.
+     *
+     * @param ids identifiers of the leases to renew
+     * @return ids whose lease could not be renewed; empty if all are still held
+     */
+    Set<String> renew(Collection<String> ids);
+}
@@ -0,0 +1,55 @@
+package org.anthills.core.concurrent;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * {@link Semaphore} whose total number of permits can be changed at runtime. Shrinking the
+ * total while permits are held does not revoke them; the available count may become negative
+ * until enough permits are released.
+ *
+ * Thread-safety: safe for concurrent use; resizing is serialized.
+ */
+public final class AdjustableSemaphore extends Semaphore {
+
+  private int maxPermits;
+
+  /**
+   * Creates a semaphore with {@code permits} total permits.
+   *
+   * @param permits initial total number of permits; must be >= 0
+   */
+  public AdjustableSemaphore(int permits) {
+    super(permits);
+    if (permits < 0) {
+      throw new IllegalArgumentException("permits must be >= 0");
+    }
+    this.maxPermits = permits;
+  }
+
+  /**
+   * Returns the current total number of permits.
+   *
+   * @return total permits
+   */
+  public synchronized int maxPermits() {
+    return maxPermits;
+  }
+
+  /**
+   * Changes the total number of permits, releasing or reducing the difference.
+   *
+   * @param permits new total number of permits; must be >= 0
+   */
+  public synchronized void setMaxPermits(int permits) {
+    if (permits < 0) {
+      throw new IllegalArgumentException("permits must be >= 0");
+    }
+    int delta = permits - maxPermits;
+    if (delta > 0) {
+      release(delta);
+    } else if (delta < 0) {
+      reducePermits(-delta);
+    }
+    maxPermits = permits;
+  }
+}
@@ -0,0 +1,104 @@
+package org.anthills.core.concurrent;
+
+import java.time.Duration;
+
+/**
+ * Adaptive concurrency limit in the spirit of gradient-based TCP congestion control. Every
+ * completed task reports its latency; the limiter compares a short-term latency average with a
+ * long-term baseline and scales the limit by their ratio:
+ *
+ * <pre>
+ * gradient = clamp(longTermLatency / shortTermLatency, 0.5, 1.0)
+ * newLimit = limit * gradient + sqrt(limit)
+ * </pre>
+ *
+ * While latency stays at its baseline the {@code sqrt(limit)} headroom lets the limit grow; when a
+ * dependency slows down the gradient drops below one and the limit shrinks. Failed tasks reduce the
+ * limit multiplicatively, so a rising error rate also backs off. The limit only grows while at
+ * least half of it is in use, and it always stays within {@code [min, max]}.
+ *
+ * Thread-safety: safe for concurrent use.
+ */
+public final class GradientConcurrencyLimiter {
+
+  // Exponential moving average weights: roughly the last 10 and the last 100 samples
+  private static final double SHORT_TERM_WEIGHT = 0.1;
+  private static final double LONG_TERM_WEIGHT = 0.01;
+  private static final double MIN_GRADIENT = 0.5;
+  private static final double SMOOTHING = 0.2;
+  private static final double FAILURE_BACKOFF = 0.9;
+  // After a latency drop (baseline more than twice the short-term average; the gradient is already
+  // clamped to 1 then), lets the baseline fall faster than its average so a later rise is measured
+  // against the new, lower latency rather than the old one
+  private static final double BASELINE_DRIFT_RATIO = 2.0;
+  private static final double BASELINE_DECAY = 0.95;
+
+  private final int min;
+  private final int max;
+  private double limit;
+  private double shortTermNanos;
+  private double longTermNanos;
+
+  /**
+   * Creates a limiter starting at {@code max}.
+   *
+   * @param min lower bound of the limit; must be > 0
+   * @param max upper bound of the limit; must be >= min
+   */
+  public GradientConcurrencyLimiter(int min, int max) {
+    if (min <= 0) {
+      throw new IllegalArgumentException("min must be > 0");
+    }
+    if (max < min) {
+      throw new IllegalArgumentException("max must be >= min");
+    }
+    this.min = min;
+    this.max = max;
+    this.limit = max;
+  }
+
+  /**
+   * Returns the current concurrency limit.
+   *
+   * @return limit within [min, max]
+   */
+  public synchronized int limit() {
+    return (int) limit;
+  }
+
+  /**
+   * Records the outcome of a completed task and returns the updated limit.
+   *
+   * @param latency how long the task took
+   * @param failed whether the task failed
+   * @param inFlight number of tasks running when this one completed, including itself
+   * @return updated limit within [min, max]
+   */
+  public synchronized int onSample(Duration latency, boolean failed, int inFlight) {
+    double sample = Math.max(1, latency.toNanos());
+    if (shortTermNanos == 0) {
+      shortTermNanos = sample;
+      longTermNanos = sample;
+    } else {
+      shortTermNanos += SHORT_TERM_WEIGHT * (sample - shortTermNanos);
+      longTermNanos += LONG_TERM_WEIGHT * (sample - longTermNanos);
+    }
+    if (longTermNanos / shortTermNanos > BASELINE_DRIFT_RATIO) {
+      longTermNanos *= BASELINE_DECAY;
+    }
+
+    if (failed) {
+      limit = clamp(limit * FAILURE_BACKOFF);
+    } else if (inFlight >= limit / 2) {
+      double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, longTermNanos / shortTermNanos));
+      double target = limit * gradient + Math.sqrt(limit);
+      limit = clamp(limit * (1 - SMOOTHING) + target * SMOOTHING);
+    }
+    // else: not using the limit says nothing about whether it is too high or too low
+    return (int) limit;
+  }
+
+  private double clamp(double value) {
+    return Math.max(min, Math.min(max, value));
+  }
+}
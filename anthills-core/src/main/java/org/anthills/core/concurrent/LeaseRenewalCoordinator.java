@@ -0,0 +1,126 @@
+package org.anthills.core.concurrent;
+
+import org.anthills.core.BatchLeaseRenewer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Renews a dynamic set of leases together. Instead of one renewal task per lease (see
+ * {@link LeaseBoundExecutor}), all registered leases are passed to a single
+ * {@link org.anthills.core.BatchLeaseRenewer} call on every {@code renewInterval} tick.
+ * Leases reported as lost are unregistered and handed to the {@code onLost} callback.
+ *
+ * A failed renewal attempt keeps all leases registered so that they are retried on the next tick.
+ *
+ * Thread-safety: {@link #register(String)} and {@link #unregister(String)} may be called
+ * concurrently from any thread. Renewals run on a single internal daemon thread.
+ */
+public final class LeaseRenewalCoordinator {
+
+  private final Duration renewInterval;
+  private final BatchLeaseRenewer renewer;
+  private final Consumer<String> onLost;
+  private final ScheduledExecutorService renewScheduler;
+  private final Set<String> leases = ConcurrentHashMap.newKeySet();
+  private final AtomicBoolean started = new AtomicBoolean(false);
+
+  /**
+   * Creates a coordinator that renews registered leases on a fixed interval once started.
+   *
+   * @param renewInterval how often to renew; must be positive
+   * @param threadNamePrefix prefix used to name the renewal thread
+   * @param renewer bulk renewal callback
+   * @param onLost invoked with each lease id that could not be renewed
+   * @throws NullPointerException if any argument is null
+   */
+  public LeaseRenewalCoordinator(Duration renewInterval, String threadNamePrefix, BatchLeaseRenewer renewer, Consumer<String> onLost) {
+    this.renewInterval = Objects.requireNonNull(renewInterval, "renewInterval is required");
+    this.renewer = Objects.requireNonNull(renewer, "renewer is required");
+    this.onLost = Objects.requireNonNull(onLost, "onLost is required");
+    this.renewScheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory(threadNamePrefix + "-lease-renew", true));
+  }
+
+  /**
+   * Starts periodic renewal. Idempotent.
+   */
+  public void start() {
+    if (!started.compareAndSet(false, true)) {
+      return;
+    }
+    long millis = renewInterval.toMillis();
+    renewScheduler.scheduleAtFixedRate(this::renewAll, millis, millis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Adds a lease to be renewed on subsequent ticks.
+   *
+   * @param id lease identifier
+   */
+  public void register(String id) {
+    leases.add(id);
+  }
+
+  /**
+   * Stops renewing a lease, e.g. after its work completed or was released.
+   *
+   * @param id lease identifier
+   */
+  public void unregister(String id) {
+    leases.remove(id);
+  }
+
+  /**
+   * Returns the number of leases currently registered.
+   *
+   * @return registered lease count
+   */
+  public int size() {
+    return leases.size();
+  }
+
+  /**
+   * Renews all registered leases with one call to the renewer. Invoked on every tick; exposed
+   * for callers that need an immediate renewal.
+   */
+  public void renewAll() {
+    List<String> snapshot = List.copyOf(leases);
+    if (snapshot.isEmpty()) {
+      return;
+    }
+    Set<String> lost;
+    try {
+      lost = renewer.renew(snapshot);
+    } catch (Exception e) {
+      return; // best-effort; retried on the next tick
+    }
+    if (lost == null) {
+      return;
+    }
+    for (String id : lost) {
+      // Leases unregistered while the renewal ran are expected to be gone and are not reported
+      if (leases.remove(id)) {
+        onLost.accept(id);
+      }
+    }
+  }
+
+  /**
+   * Stops periodic renewal and waits up to {@code timeout} for a running tick to finish.
+   *
+   * @param timeout maximum time to wait
+   * @throws InterruptedException if interrupted while waiting
+   */
+  public void shutdown(Duration timeout) throws InterruptedException {
+    renewScheduler.shutdown();
+    renewScheduler.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+  }
+}
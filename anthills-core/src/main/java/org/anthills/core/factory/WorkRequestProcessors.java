@@ -4,8 +4,12 @@ import org.anthills.api.codec.PayloadCodec;
 import org.anthills.api.work.ProcessorConfig;
 import org.anthills.api.work.WorkRequestProcessor;
 import org.anthills.api.work.WorkStore;
+import org.anthills.api.work.WorkTypeConfig;
 import org.anthills.core.JsonPayloadCodec;
 import org.anthills.core.work.DefaultWorkRequestProcessor;
+import org.anthills.core.work.MultiWorkTypeProcessor;
+
+import java.util.Map;
 
 /**
  * Factory utilities for creating {@link WorkRequestProcessor} instances.
@@ -43,4 +47,39 @@ public final class WorkRequestProcessors {
   public static WorkRequestProcessor create(String workType, WorkStore store, ProcessorConfig config) {
     return create(workType, store, JsonPayloadCodec.defaultInstance(), config);
   }
+
+  /**
+   * Creates a {@link WorkRequestProcessor} serving several work types from one poller and worker pool.
+   * Claims and workers are shared between the types by weighted fair scheduling: each type gets a
+   * share of capacity proportional to its {@link WorkTypeConfig#weight()}, never more than its
+   * {@link WorkTypeConfig#maxConcurrency()}, and always the workers reserved by its
+   * {@link WorkTypeConfig#minConcurrency()}.
+   *
+   * @param workTypes routing keys the processor will handle, with their weights and concurrency bounds
+   * @param store persistence used to claim/renew/mark work
+   * @param codec codec used to decode stored payloads
+   * @param config tuning parameters (threads, polling, retries, leases) shared by all types
+   * @return a processor instance ready to {@link WorkRequestProcessor#start()}
+   * @throws NullPointerException if any argument is null
+   * @throws IllegalArgumentException if {@code workTypes} is empty or reserves more workers than {@code workerThreads}
+   */
+  public static WorkRequestProcessor create(Map<String, WorkTypeConfig> workTypes, WorkStore store, PayloadCodec codec, ProcessorConfig config) {
+    return new MultiWorkTypeProcessor(workTypes, store, codec, config);
+  }
+
+  /**
+   * Creates a {@link WorkRequestProcessor} serving several work types from one poller and worker pool,
+   * scheduled fairly as in {@link #create(Map, WorkStore, PayloadCodec, ProcessorConfig)}.
+   * Uses JsonPayloadCodec as the default codec.
+   *
+   * @param workTypes routing keys the processor will handle, with their weights and concurrency bounds
+   * @param store persistence used to claim/renew/mark work
+   * @param config tuning parameters (threads, polling, retries, leases) shared by all types
+   * @return a processor instance ready to {@link WorkRequestProcessor#start()}
+   * @throws NullPointerException if any argument is null
+   * @throws IllegalArgumentException if {@code workTypes} is empty or reserves more workers than {@code workerThreads}
+   */
+  public static WorkRequestProcessor create(Map<String, WorkTypeConfig> workTypes, WorkStore store, ProcessorConfig config) {
+    return create(workTypes, store, JsonPayloadCodec.defaultInstance(), config);
+  }
 }
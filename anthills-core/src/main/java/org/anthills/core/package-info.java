@@ -16,6 +16,8 @@
  *   <li>{@link org.anthills.core.work.DefaultWorkClient} — submit, query, and cancel work items.</li>
  *   <li>{@link org.anthills.core.work.DefaultWorkRequestProcessor} — poll, claim, and dispatch
  *       work to handlers with automatic lease renewal and retry/backoff.</li>
+ *   <li>{@link org.anthills.core.work.MultiWorkTypeProcessor} — serve several work types from one
+ *       poller and worker pool with weighted fair (deficit round robin) scheduling between them.</li>
  *   <li>Factories: {@link org.anthills.core.factory.WorkClients},
  *       {@link org.anthills.core.factory.WorkRequestProcessors}</li>
  * </ul>
@@ -24,6 +26,11 @@
  * <ul>
  *   <li>{@link org.anthills.core.concurrent.LeaseBoundExecutor} — runs tasks while periodically
  *       renewing a lease.</li>
+ *   <li>{@link org.anthills.core.concurrent.LeaseRenewalCoordinator} — renews many leases with one
+ *       bulk call per interval.</li>
+ *   <li>{@link org.anthills.core.concurrent.GradientConcurrencyLimiter} — adapts a concurrency limit to
+ *       observed latency and failures.</li>
+ *   <li>{@link org.anthills.core.concurrent.AdjustableSemaphore} — semaphore resizable at runtime.</li>
  *   <li>{@link org.anthills.core.concurrent.NamedThreadFactory} — consistent thread naming and setup.</li>
  * </ul>
  *
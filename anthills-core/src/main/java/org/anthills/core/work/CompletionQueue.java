@@ -0,0 +1,179 @@
+package org.anthills.core.work;
+
+import org.anthills.api.work.WorkOutcome;
+import org.anthills.api.work.WorkStore;
+import org.anthills.core.concurrent.NamedThreadFactory;
+import org.anthills.core.util.Backoff;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind queue for work outcomes. Worker threads {@link #submit(WorkOutcome)} outcomes and
+ * return immediately; a single writer thread flushes them with {@link WorkStore#applyOutcomes}
+ * once {@code batchSize} outcomes are pending or {@code flushInterval} has passed since the first
+ * pending one, whichever comes first.
+ *
+ * A failed flush is retried with exponential backoff; {@code onFlushed} is only invoked once the
+ * batch is done with, so the caller keeps renewing the leases of the items in the meantime and they
+ * stay owned. After {@value #BATCH_ATTEMPTS} failed attempts the outcomes are written one by one, so a
+ * single outcome the store keeps rejecting cannot block the queue: it is logged and skipped, and its
+ * item stays IN_PROGRESS under the owner until its lease, no longer renewed, expires.
+ *
+ * After {@link #close(Duration)} the writer drains what is pending and stops; outcomes submitted
+ * later are written synchronously on the submitting thread.
+ */
+final class CompletionQueue {
+
+  private static final Logger log = LoggerFactory.getLogger(CompletionQueue.class);
+
+  static final int BATCH_ATTEMPTS = 3;
+  private static final Backoff RETRY_BACKOFF = Backoff.exponential(Duration.ofMillis(100), Duration.ofSeconds(5), true);
+
+  private final WorkStore store;
+  private final String ownerId;
+  private final int batchSize;
+  private final long flushIntervalNanos;
+  private final Consumer<List<WorkOutcome>> onFlushed;
+  private final LinkedBlockingQueue<WorkOutcome> queue = new LinkedBlockingQueue<>();
+  private final Thread writer;
+  private volatile boolean closed;
+
+  /**
+   * Creates and starts a completion queue.
+   *
+   * @param store store the outcomes are written to
+   * @param ownerId owner used to fence every outcome
+   * @param batchSize number of pending outcomes that triggers a flush; must be > 0
+   * @param flushInterval maximum time an outcome waits before being flushed; must be positive
+   * @param threadNamePrefix prefix used to name the writer thread
+   * @param onFlushed invoked with outcomes once they were written or skipped
+   */
+  CompletionQueue(WorkStore store, String ownerId, int batchSize, Duration flushInterval, String threadNamePrefix,
+                  Consumer<List<WorkOutcome>> onFlushed) {
+    this.store = Objects.requireNonNull(store);
+    this.ownerId = Objects.requireNonNull(ownerId);
+    if (batchSize <= 0) {
+      throw new IllegalArgumentException("batchSize must be > 0");
+    }
+    this.batchSize = batchSize;
+    this.flushIntervalNanos = flushInterval.toNanos();
+    this.onFlushed = Objects.requireNonNull(onFlushed);
+    this.writer = new NamedThreadFactory(threadNamePrefix + "-completions", true).newThread(this::run);
+    this.writer.start();
+  }
+
+  /**
+   * Queues an outcome for the next flush, or writes it right away once the queue is closed.
+   *
+   * @param outcome outcome to record
+   */
+  void submit(WorkOutcome outcome) {
+    queue.add(outcome);
+    if (closed) {
+      // The writer may already be gone; whoever drains an outcome first writes it
+      drainAndFlush();
+    }
+  }
+
+  /**
+   * Returns the number of outcomes waiting to be written.
+   *
+   * @return pending outcome count
+   */
+  int pending() {
+    return queue.size();
+  }
+
+  /**
+   * Stops accepting background work, flushes pending outcomes and waits up to {@code timeout}
+   * for the writer thread to finish.
+   *
+   * @param timeout maximum time to wait
+   * @throws InterruptedException if interrupted while waiting
+   */
+  void close(Duration timeout) throws InterruptedException {
+    closed = true;
+    writer.join(Math.max(1, timeout.toMillis()));
+  }
+
+  private void run() {
+    long waitNanos = TimeUnit.MILLISECONDS.toNanos(100);
+    while (!closed) {
+      try {
+        WorkOutcome first = queue.poll(waitNanos, TimeUnit.NANOSECONDS);
+        if (first == null) {
+          continue;
+        }
+        List<WorkOutcome> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize && !closed) {
+          queue.drainTo(batch, batchSize - batch.size());
+          long remaining = deadline - System.nanoTime();
+          if (batch.size() >= batchSize || remaining <= 0) {
+            break;
+          }
+          WorkOutcome next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        flush(batch);
+      } catch (InterruptedException _) {
+        break;
+      }
+    }
+    drainAndFlush();
+  }
+
+  private void drainAndFlush() {
+    List<WorkOutcome> batch = new ArrayList<>();
+    while (queue.drainTo(batch, batchSize) > 0) {
+      flush(batch);
+      batch = new ArrayList<>();
+    }
+  }
+
+  private void flush(List<WorkOutcome> batch) {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        store.applyOutcomes(ownerId, batch);
+        onFlushed.accept(batch);
+        return;
+      } catch (RuntimeException e) {
+        if (attempt >= BATCH_ATTEMPTS) {
+          log.warn("Failed to write {} work outcomes after {} attempts, writing them one by one", batch.size(), attempt, e);
+          break;
+        }
+        Duration delay = RETRY_BACKOFF.nextDelay(attempt);
+        log.warn("Failed to write {} work outcomes (attempt {}), retrying in {} ms", batch.size(), attempt, delay.toMillis(), e);
+        try {
+          Thread.sleep(delay);
+        } catch (InterruptedException _) {
+          Thread.currentThread().interrupt();
+          log.error("Interrupted while retrying {} work outcomes; the items stay IN_PROGRESS under owner {}", batch.size(), ownerId);
+          return;
+        }
+      }
+    }
+    // One outcome the store rejects must not hold back the others
+    for (WorkOutcome outcome : batch) {
+      try {
+        store.applyOutcomes(ownerId, List.of(outcome));
+      } catch (RuntimeException e) {
+        log.error("Failed to write the outcome of work {}, skipping it; the item stays IN_PROGRESS under owner {} until its lease expires",
+          outcome.workId(), ownerId, e);
+      }
+      onFlushed.accept(List.of(outcome));
+    }
+  }
+}
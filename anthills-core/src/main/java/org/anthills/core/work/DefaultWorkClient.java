@@ -1,6 +1,7 @@
 package org.anthills.core.work;
 
 import org.anthills.api.codec.PayloadCodec;
+import org.anthills.api.work.EncodedPayload;
 import org.anthills.api.work.SubmissionOptions;
 import org.anthills.api.work.WorkClient;
 import org.anthills.api.work.WorkQuery;
@@ -9,6 +10,7 @@ import org.anthills.api.work.WorkRequest;
 import org.anthills.api.work.WorkStore;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -17,22 +19,63 @@ import java.util.stream.Collectors;
 /**
  * Default {@link WorkClient} implementation that persists requests via a {@link WorkStore}
  * and encodes/decodes payloads using a {@link org.anthills.api.codec.PayloadCodec}.
+ *
+ * Submissions with an {@link SubmissionOptions#idempotencyKey()} are deduplicated by the store. The
+ * client also remembers the most recently used keys, so a producer retrying the same submission is
+ * answered from memory without encoding the payload or calling the store. Submissions with a
+ * {@link SubmissionOptions#coalesceKey()} are merged by the store into the pending request of that key
+ * and always reach it.
  */
 public class DefaultWorkClient implements WorkClient {
 
+  /** Number of idempotency keys remembered by default. */
+  public static final int DEFAULT_RECENT_KEYS_CAPACITY = 1024;
+
   private final WorkStore store;
   private final PayloadCodec codec;
+  private final LocalWorkSignalBus signalBus;
+  private final RecentSubmissions recentKeys;
 
   /**
-   * Creates a client that uses the given store and codec.
+   * Creates a client that uses the given store and codec, signalling submissions on
+   * {@link LocalWorkSignalBus#defaultInstance()}.
    *
    * @param store persistence used to create and query work
    * @param codec codec used to serialize and deserialize payloads
    * @throws NullPointerException if any argument is null
    */
   public DefaultWorkClient(WorkStore store, PayloadCodec codec) {
+    this(store, codec, LocalWorkSignalBus.defaultInstance());
+  }
+
+  /**
+   * Creates a client that uses the given store and codec and signals submissions on {@code signalBus}.
+   *
+   * @param store persistence used to create and query work
+   * @param codec codec used to serialize and deserialize payloads
+   * @param signalBus bus used to wake up processors in this JVM
+   * @throws NullPointerException if any argument is null
+   */
+  public DefaultWorkClient(WorkStore store, PayloadCodec codec, LocalWorkSignalBus signalBus) {
+    this(store, codec, signalBus, DEFAULT_RECENT_KEYS_CAPACITY);
+  }
+
+  /**
+   * Creates a client that uses the given store and codec, signals submissions on {@code signalBus}
+   * and remembers up to {@code recentKeysCapacity} idempotency keys.
+   *
+   * @param store persistence used to create and query work
+   * @param codec codec used to serialize and deserialize payloads
+   * @param signalBus bus used to wake up processors in this JVM
+   * @param recentKeysCapacity number of idempotency keys to remember; 0 always asks the store
+   * @throws NullPointerException if any object argument is null
+   * @throws IllegalArgumentException if {@code recentKeysCapacity} is negative
+   */
+  public DefaultWorkClient(WorkStore store, PayloadCodec codec, LocalWorkSignalBus signalBus, int recentKeysCapacity) {
     this.store = Objects.requireNonNull(store, "store is required");
     this.codec = Objects.requireNonNull(codec, "codec is required");
+    this.signalBus = Objects.requireNonNull(signalBus, "signalBus is required");
+    this.recentKeys = new RecentSubmissions(recentKeysCapacity);
   }
 
   /**
@@ -51,13 +94,17 @@ public class DefaultWorkClient implements WorkClient {
   }
 
   /**
-   * Submits a new work request using the supplied options.
+   * Submits a new work request using the supplied options. If the options carry an idempotency key
+   * that was already submitted for {@code workType}, the request created by that submission is
+   * returned and nothing is stored; a repeated key is expected to come with the same payload.
    *
    * @param workType routing key for dispatch
    * @param payload typed payload to be serialized and stored
-   * @param options submission parameters (codec name, version, retry cap)
+   * @param options submission parameters (codec name, version, retry cap, priority, earliest claim time, idempotency
+   *                or coalesce key)
    * @param <T> payload type
-   * @return created request with decoded payload
+   * @return created request with decoded payload, or the earlier request for a repeated idempotency key, or the
+   *         pending request a coalesce key was merged into
    * @throws IllegalArgumentException if encoding fails
    * @throws NullPointerException if any argument is null
    */
@@ -67,14 +114,104 @@ public class DefaultWorkClient implements WorkClient {
     Objects.requireNonNull(workType, "workType");
     Objects.requireNonNull(payload, "payload");
     Objects.requireNonNull(options, "options");
-    byte[] encodedPayload;
+    String key = options.idempotencyKey();
+    if (key != null) {
+      WorkRequest<?> recent = recentKeys.get(workType, key);
+      if (recent != null) {
+        return (WorkRequest<T>) recent;
+      }
+    }
+    byte[] encodedPayload = encode(payload, options);
+    WorkRecord record = store.createWork(workType, new EncodedPayload(encodedPayload, payload.getClass().getName()), options);
+    signalBus.publish(workType);
+    WorkRequest<T> request = (WorkRequest<T>) record.toWorkRequest(codec);
+    if (key != null) {
+      recentKeys.put(workType, key, request);
+    }
+    return request;
+  }
+
+  /**
+   * Submits many work requests using {@link SubmissionOptions#defaults()}.
+   *
+   * @param workType routing key for dispatch
+   * @param payloads typed payloads to be serialized and stored
+   * @param <T> payload type
+   * @return created requests, in iteration order of {@code payloads}
+   * @throws IllegalArgumentException if encoding fails
+   * @throws NullPointerException if any argument or payload is null
+   */
+  @Override
+  public <T> List<WorkRequest<T>> submitAll(String workType, Collection<T> payloads) {
+    return submitAll(workType, payloads, SubmissionOptions.defaults());
+  }
+
+  /**
+   * Submits many work requests using the supplied options. Payloads are encoded in parallel and
+   * persisted with a single {@link WorkStore#createWorkBatch} call. The returned requests carry the
+   * original payload instances rather than decoding the stored bytes again.
+   *
+   * @param workType routing key for dispatch
+   * @param payloads typed payloads to be serialized and stored
+   * @param options submission parameters (codec name, version, retry cap, priority, earliest claim time) applied to every request
+   * @param <T> payload type
+   * @return created requests, in iteration order of {@code payloads}
+   * @throws IllegalArgumentException if encoding fails or {@code options} has an idempotency or coalesce key
+   * @throws NullPointerException if any argument or payload is null
+   */
+  @Override
+  public <T> List<WorkRequest<T>> submitAll(String workType, Collection<T> payloads, SubmissionOptions options) {
+    Objects.requireNonNull(workType, "workType");
+    Objects.requireNonNull(payloads, "payloads");
+    Objects.requireNonNull(options, "options");
+    if (options.idempotencyKey() != null || options.coalesceKey() != null) {
+      throw new IllegalArgumentException("idempotencyKey and coalesceKey are not supported for batch submissions");
+    }
+    if (payloads.isEmpty()) return List.of();
+
+    List<T> items = List.copyOf(payloads); // rejects null payloads and fixes the order
+    List<EncodedPayload> encoded = items.parallelStream()
+      .map(payload -> new EncodedPayload(encode(payload, options), payload.getClass().getName()))
+      .toList();
+
+    List<WorkRecord> records = store.createWorkBatch(workType, encoded, options);
+    signalBus.publish(workType);
+    List<WorkRequest<T>> created = new ArrayList<>(records.size());
+    for (int i = 0; i < records.size(); i++) {
+      created.add(toWorkRequest(records.get(i), items.get(i)));
+    }
+    return created;
+  }
+
+  private byte[] encode(Object payload, SubmissionOptions options) {
     try {
-      encodedPayload = codec.encode(payload, options.payloadVersion());
+      return codec.encode(payload, options.payloadVersion());
     } catch (Exception e) {
       throw new IllegalArgumentException("Failed to encode payload of type " + payload.getClass().getName(), e);
     }
-    WorkRecord record = store.createWork(workType, encodedPayload, payload.getClass().getName(), options.payloadVersion(), options.codec(), options.maxAttempts());
-    return (WorkRequest<T>) record.toWorkRequest(codec);
+  }
+
+  /**
+   * Builds a typed request from a stored record and the payload it was encoded from.
+   */
+  private static <T> WorkRequest<T> toWorkRequest(WorkRecord r, T payload) {
+    return WorkRequest.<T>builder()
+      .id(r.id())
+      .workType(r.workType())
+      .payload(payload)
+      .payloadVersion(r.payloadVersion())
+      .codec(r.codec())
+      .status(r.status())
+      .attemptCount(r.attemptCount())
+      .maxRetries(r.maxRetries())
+      .ownerId(r.ownerId())
+      .leaseUntil(r.leaseUntil())
+      .failureReason(r.failureReason())
+      .createdTs(r.createdTs())
+      .updatedTs(r.updatedTs())
+      .startedTs(r.startedTs())
+      .completedTs(r.completedTs())
+      .build();
   }
 
   /**
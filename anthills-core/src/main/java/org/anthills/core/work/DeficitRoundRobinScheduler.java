@@ -0,0 +1,223 @@
+package org.anthills.core.work;
+
+import org.anthills.api.work.WorkRecord;
+import org.anthills.api.work.WorkTypeConfig;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Weighted fair scheduler for claimed work of several types sharing one worker pool, based on
+ * deficit round robin. It decides how much of each type to claim per poll and in which order
+ * claimed items are handed to free workers.
+ *
+ * - Claims: first each type's unmet {@link WorkTypeConfig#minConcurrency()} is covered, then the
+ *   remaining capacity is dealt out in rounds of {@link WorkTypeConfig#weight()} items per type, never
+ *   beyond a type's {@link WorkTypeConfig#maxConcurrency()}.
+ * - Workers: a type below its reserved share is served first. Otherwise types are visited round
+ *   robin; a type whose turn starts receives a quantum of {@code weight} items and keeps the turn
+ *   until the quantum is used up or it runs out of queued items. Workers reserved for other types
+ *   are never handed out.
+ *
+ * Not thread-safe; callers must serialize access.
+ */
+final class DeficitRoundRobinScheduler {
+
+  private final Map<String, TypeQueue> byType = new LinkedHashMap<>();
+  private final List<TypeQueue> ring;
+  private int cursor;
+  private int queued;
+
+  /**
+   * Creates a scheduler for the given work types. The iteration order of {@code types} is the
+   * round robin order.
+   *
+   * @param types work types with their weights and concurrency bounds
+   */
+  DeficitRoundRobinScheduler(Map<String, WorkTypeConfig> types) {
+    types.forEach((type, config) -> byType.put(type, new TypeQueue(type, config)));
+    this.ring = List.copyOf(byType.values());
+  }
+
+  /**
+   * Splits {@code capacity} claim slots between the types that have room for more items.
+   *
+   * @param capacity number of items the caller can take
+   * @param exhausted types known to have nothing to claim right now; they get no quota
+   * @return claim limit per type, only for types with a positive limit, in round robin order
+   */
+  Map<String, Integer> claimQuotas(int capacity, Set<String> exhausted) {
+    Map<String, Integer> quotas = new LinkedHashMap<>();
+    int n = ring.size();
+    long[] room = new long[n];
+    for (int i = 0; i < n; i++) {
+      TypeQueue t = ring.get(i);
+      room[i] = exhausted.contains(t.type) ? 0 : (long) t.config.maxConcurrency() - t.running - t.queue.size();
+    }
+    int remaining = capacity;
+    for (int i = 0; i < n && remaining > 0; i++) {
+      TypeQueue t = ring.get(i);
+      long shortfall = Math.min(room[i], t.config.minConcurrency() - t.running - t.queue.size());
+      if (shortfall > 0) {
+        int give = (int) Math.min(shortfall, remaining);
+        quotas.merge(t.type, give, Integer::sum);
+        room[i] -= give;
+        remaining -= give;
+      }
+    }
+    boolean granted = true;
+    while (remaining > 0 && granted) {
+      granted = false;
+      for (int k = 0; k < n && remaining > 0; k++) {
+        int i = (cursor + k) % n;
+        if (room[i] <= 0) {
+          continue;
+        }
+        TypeQueue t = ring.get(i);
+        int give = (int) Math.min(Math.min(t.config.weight(), room[i]), remaining);
+        quotas.merge(t.type, give, Integer::sum);
+        room[i] -= give;
+        remaining -= give;
+        granted = true;
+      }
+    }
+    return quotas;
+  }
+
+  /**
+   * Queues a claimed record for its type.
+   *
+   * @param record claimed record
+   * @return false if the record's type is not scheduled here
+   */
+  boolean offer(WorkRecord record) {
+    TypeQueue t = byType.get(record.workType());
+    if (t == null) {
+      return false;
+    }
+    t.queue.add(record);
+    queued++;
+    return true;
+  }
+
+  /**
+   * Takes the next record to run and counts it as running until {@link #completed(String)}.
+   *
+   * @param freeWorkers number of workers currently free, including the one asking
+   * @return the record to run, or {@code null} if no type may run one right now
+   */
+  WorkRecord next(int freeWorkers) {
+    int n = ring.size();
+    int reserved = 0;
+    for (TypeQueue t : ring) {
+      reserved += Math.max(0, t.config.minConcurrency() - t.running);
+    }
+    for (int k = 0; k < n; k++) {
+      TypeQueue t = ring.get((cursor + k) % n);
+      if (!t.queue.isEmpty() && t.running < t.config.minConcurrency()) {
+        return take(t);
+      }
+    }
+    if (freeWorkers <= reserved) {
+      return null;
+    }
+    for (int k = 0; k < n; k++) {
+      TypeQueue t = ring.get(cursor);
+      if (!t.queue.isEmpty() && t.running < t.config.maxConcurrency()) {
+        if (t.deficit == 0) {
+          t.deficit = t.config.weight();
+        }
+        t.deficit--;
+        if (t.deficit == 0) {
+          advance();
+        }
+        return take(t);
+      }
+      if (t.queue.isEmpty()) {
+        t.deficit = 0;
+      }
+      advance();
+    }
+    return null;
+  }
+
+  /**
+   * Records that a record of {@code workType} returned by {@link #next(int)} has finished.
+   */
+  void completed(String workType) {
+    TypeQueue t = byType.get(workType);
+    if (t != null) {
+      t.running--;
+    }
+  }
+
+  /**
+   * Removes a queued record.
+   *
+   * @return true if it was queued
+   */
+  boolean remove(String workId) {
+    for (TypeQueue t : ring) {
+      if (t.queue.removeIf(record -> record.id().equals(workId))) {
+        queued--;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Removes and returns every queued record.
+   */
+  List<WorkRecord> drain() {
+    List<WorkRecord> drained = new ArrayList<>(queued);
+    for (TypeQueue t : ring) {
+      drained.addAll(t.queue);
+      t.queue.clear();
+      t.deficit = 0;
+    }
+    queued = 0;
+    return drained;
+  }
+
+  /**
+   * Returns the number of queued records of all types.
+   */
+  int queued() {
+    return queued;
+  }
+
+  /**
+   * Returns the number of running records of {@code workType}.
+   */
+  int running(String workType) {
+    return byType.get(workType).running;
+  }
+
+  private WorkRecord take(TypeQueue t) {
+    t.running++;
+    queued--;
+    return t.queue.poll();
+  }
+
+  private void advance() {
+    cursor = (cursor + 1) % ring.size();
+  }
+
+  private static final class TypeQueue {
+    final String type;
+    final WorkTypeConfig config;
+    final ArrayDeque<WorkRecord> queue = new ArrayDeque<>();
+    int running;
+    int deficit;
+
+    TypeQueue(String type, WorkTypeConfig config) {
+      this.type = type;
+      this.config = config;
+    }
+  }
+}
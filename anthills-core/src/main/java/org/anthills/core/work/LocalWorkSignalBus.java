@@ -0,0 +1,78 @@
+package org.anthills.core.work;
+
+import org.anthills.api.work.Subscription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process, store-agnostic signal bus that tells processors in the same JVM that new work of a
+ * given type was submitted. {@link DefaultWorkClient} publishes after each successful submission
+ * and {@link DefaultWorkRequestProcessor} subscribes for its work type to poll immediately.
+ *
+ * Signals are hints: they only reach processors in the same JVM and never replace polling.
+ * Listeners run on the publishing thread and must return quickly.
+ *
+ * Thread-safety: safe for concurrent publish/subscribe.
+ */
+public final class LocalWorkSignalBus {
+
+  private static final Logger log = LoggerFactory.getLogger(LocalWorkSignalBus.class);
+
+  private static final LocalWorkSignalBus DEFAULT = new LocalWorkSignalBus();
+
+  private final Map<String, List<Runnable>> listeners = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the JVM-wide bus shared by clients and processors created without an explicit bus.
+   *
+   * @return shared bus instance
+   */
+  public static LocalWorkSignalBus defaultInstance() {
+    return DEFAULT;
+  }
+
+  /**
+   * Signals that work of {@code workType} was submitted, invoking all listeners for that type.
+   * Listener failures are logged and do not propagate to the publisher.
+   *
+   * @param workType routing key of the submitted work
+   */
+  public void publish(String workType) {
+    for (Runnable listener : listeners.getOrDefault(workType, List.of())) {
+      try {
+        listener.run();
+      } catch (RuntimeException e) {
+        log.warn("Work signal listener failed for workType {}", workType, e);
+      }
+    }
+  }
+
+  /**
+   * Registers a listener for submissions of {@code workType}.
+   *
+   * @param workType routing key to watch
+   * @param listener callback invoked on the publishing thread
+   * @return subscription that unregisters the listener when closed
+   * @throws NullPointerException if any argument is null
+   */
+  public Subscription subscribe(String workType, Runnable listener) {
+    Objects.requireNonNull(workType, "workType is required");
+    Objects.requireNonNull(listener, "listener is required");
+    // added under the same bin lock as the removal below, which may be dropping an emptied list
+    listeners.compute(workType, (_, list) -> {
+      List<Runnable> updated = list == null ? new CopyOnWriteArrayList<>() : list;
+      updated.add(listener);
+      return updated;
+    });
+    return () -> listeners.computeIfPresent(workType, (_, list) -> {
+      list.remove(listener);
+      return list.isEmpty() ? null : list;
+    });
+  }
+}
@@ -0,0 +1,243 @@
+package org.anthills.core.work;
+
+import org.anthills.api.codec.PayloadCodec;
+import org.anthills.api.work.LeaseMode;
+import org.anthills.api.work.ProcessorConfig;
+import org.anthills.api.work.WorkHandler;
+import org.anthills.api.work.WorkRecord;
+import org.anthills.api.work.WorkRequestProcessor;
+import org.anthills.api.work.WorkStore;
+import org.anthills.api.work.WorkTypeConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * {@link WorkRequestProcessor} that serves several work types from one poller, one worker pool
+ * and one lease renewer, instead of running a {@link DefaultWorkRequestProcessor} per type.
+ *
+ * Behavior
+ * - Claims as many items as there are free workers plus free prefetch space, split between the types
+ *   by a {@link DeficitRoundRobinScheduler} according to their {@link WorkTypeConfig} and claimed with
+ *   one store call per poll ({@link WorkStore#claimWork(Map, String, Duration, LeaseMode)}). Capacity
+ *   a type could not use is offered to the other types in a follow-up claim, so a backlog of one type
+ *   cannot crowd out the others while no capacity is left idle.
+ * - Claimed items wait in per-type queues. The scheduler hands them to free workers by deficit round
+ *   robin over {@link WorkTypeConfig#weight()}, within each type's concurrency cap and keeping the
+ *   workers reserved by {@link WorkTypeConfig#minConcurrency()} free for their type.
+ * - Retries, backoff, prefetch, lease modes, signals, priority aging, adaptive concurrency and
+ *   write-behind completions behave as in {@link DefaultWorkRequestProcessor}, with which this class
+ *   shares its polling, dispatch and outcome handling. With adaptive concurrency, the workers reserved
+ *   by {@link WorkTypeConfig#minConcurrency()} must fit within {@code minWorkerThreads}.
+ * - Work types are matched ignoring case when registering handlers.
+ *
+ * Thread-safety: designed for multi-threaded processing with an internal worker pool
+ * and a single-threaded poller. Start/stop are idempotent.
+ */
+public class MultiWorkTypeProcessor implements WorkRequestProcessor {
+
+  private final WorkStore store;
+  private final ProcessorConfig config;
+  private final DeficitRoundRobinScheduler scheduler;
+  private final WorkDispatcher dispatcher;
+
+  // Guards the scheduler
+  private final Object lock = new Object();
+
+  /**
+   * Creates a processor for the given work types.
+   *
+   * @param workTypes routing keys this processor is responsible for, with their weights and caps
+   * @param store persistence used to claim, renew, and mark work
+   * @param codec codec used to decode stored payloads
+   * @param config tuning parameters for threads, leasing, and polling, shared by all types
+   * @throws NullPointerException if any argument is null
+   * @throws IllegalArgumentException if {@code workTypes} is empty, holds two types differing only in case, or
+   *                                  reserves more workers than {@code workerThreads} (than {@code minWorkerThreads}
+   *                                  with adaptive concurrency)
+   */
+  public MultiWorkTypeProcessor(Map<String, WorkTypeConfig> workTypes, WorkStore store, PayloadCodec codec, ProcessorConfig config) {
+    this(workTypes, store, codec, config, LocalWorkSignalBus.defaultInstance());
+  }
+
+  /**
+   * Creates a processor for the given work types that also wakes up on submissions
+   * signalled through {@code signalBus} by clients in the same JVM.
+   *
+   * @param workTypes routing keys this processor is responsible for, with their weights and caps
+   * @param store persistence used to claim, renew, and mark work
+   * @param codec codec used to decode stored payloads
+   * @param config tuning parameters for threads, leasing, and polling, shared by all types
+   * @param signalBus in-process bus shared with {@link DefaultWorkClient}s
+   * @throws NullPointerException if any argument is null
+   * @throws IllegalArgumentException if {@code workTypes} is empty, holds two types differing only in case, or
+   *                                  reserves more workers than {@code workerThreads} (than {@code minWorkerThreads}
+   *                                  with adaptive concurrency)
+   */
+  public MultiWorkTypeProcessor(Map<String, WorkTypeConfig> workTypes, WorkStore store, PayloadCodec codec, ProcessorConfig config, LocalWorkSignalBus signalBus) {
+    Objects.requireNonNull(workTypes);
+    if (workTypes.isEmpty()) {
+      throw new IllegalArgumentException("workTypes must not be empty");
+    }
+    this.store = Objects.requireNonNull(store);
+    this.config = Objects.requireNonNull(config);
+
+    Map<String, WorkTypeConfig> types = new LinkedHashMap<>();
+    workTypes.forEach((type, typeConfig) -> types.put(Objects.requireNonNull(type), Objects.requireNonNull(typeConfig)));
+    int reserved = types.values().stream().mapToInt(WorkTypeConfig::minConcurrency).sum();
+    if (reserved > config.workerThreads()) {
+      throw new IllegalArgumentException("minConcurrency of all work types must be <= workerThreads");
+    }
+    if (config.adaptiveConcurrency() && reserved > config.minWorkerThreads()) {
+      // the adaptive limit may shrink to minWorkerThreads, leaving no worker for unreserved types
+      throw new IllegalArgumentException("minConcurrency of all work types must be <= minWorkerThreads with adaptive concurrency");
+    }
+    this.scheduler = new DeficitRoundRobinScheduler(types);
+    this.dispatcher = new WorkDispatcher(List.copyOf(types.keySet()), store, codec, config, signalBus, new Queues());
+  }
+
+  @Override
+  /**
+   * Starts polling and dispatching if not already running. Idempotent.
+   */
+  public void start() {
+    dispatcher.start();
+  }
+
+  /**
+   * Signals that new work of any of the types may be available. The pending polling tick is
+   * replaced by an immediate poll on the poller thread and the idle backoff is reset. Concurrent
+   * signals are coalesced into a single poll. Safe to call from any thread.
+   */
+  public void wakeUp() {
+    dispatcher.wakeUp();
+  }
+
+  @Override
+  /**
+   * Requests a graceful stop, shutting down the poller and worker pool, and
+   * stopping the lease renewer. Queued items that were not started are released back
+   * to the store and queued completions are flushed. Idempotent.
+   */
+  public void stop() {
+    dispatcher.stop();
+  }
+
+  @Override
+  /**
+   * Blocks until the worker pool terminates or the configured shutdown timeout elapses.
+   *
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  public void awaitTermination() throws InterruptedException {
+    dispatcher.awaitTermination();
+  }
+
+  @Override
+  /**
+   * Registers a handler for the given payload type name within one of this processor's work types.
+   * Replaces any existing handler for the same work type and payload type.
+   *
+   * @param workType one of this processor's work types, ignoring case
+   * @param payloadType expected payload class for the handler
+   * @param handler business logic to execute
+   * @param <T> payload type
+   * @throws IllegalArgumentException if {@code workType} is not handled by this processor
+   * @throws NullPointerException if any argument is null
+   */
+  public <T> void registerHandler(String workType, Class<T> payloadType, WorkHandler<T> handler) {
+    dispatcher.registerHandler(workType, payloadType, handler);
+  }
+
+  /**
+   * Per-type queues of the {@link DeficitRoundRobinScheduler}.
+   */
+  private final class Queues implements WorkDispatcher.ClaimQueue {
+
+    /**
+     * Claims work up to {@code capacity}, split between the types by the scheduler. Capacity left by
+     * types that returned fewer items than their quota is offered to the remaining types.
+     */
+    @Override
+    public int claim(int capacity) {
+      Set<String> exhausted = new HashSet<>();
+      int claimedTotal = 0;
+      while (dispatcher.isRunning()) {
+        Map<String, Integer> quotas;
+        synchronized (lock) {
+          int free = claimedTotal == 0 ? capacity : dispatcher.freeWorkers() + config.prefetchSize() - scheduler.queued();
+          quotas = free > 0 ? scheduler.claimQuotas(free, exhausted) : Map.of();
+        }
+        if (quotas.isEmpty()) {
+          break;
+        }
+        List<WorkRecord> records = store.claimWork(quotas, dispatcher.ownerId(), config.leaseDuration(), config.leaseMode());
+        claimedTotal += records.size();
+        dispatcher.claimed(records);
+        Map<String, Integer> counts = new HashMap<>();
+        List<WorkRecord> unknown = new ArrayList<>();
+        synchronized (lock) {
+          for (WorkRecord record : records) {
+            counts.merge(record.workType(), 1, Integer::sum);
+            if (!scheduler.offer(record)) {
+              unknown.add(record);
+            }
+          }
+        }
+        dispatcher.release(unknown);
+        dispatcher.dispatch();
+        quotas.forEach((type, quota) -> {
+          if (counts.getOrDefault(type, 0) < quota) {
+            exhausted.add(type);
+          }
+        });
+        if (records.isEmpty() || exhausted.isEmpty()) {
+          break;
+        }
+      }
+      return claimedTotal;
+    }
+
+    @Override
+    public WorkRecord next(int freeWorkers) {
+      synchronized (lock) {
+        return scheduler.next(freeWorkers);
+      }
+    }
+
+    @Override
+    public void finished(WorkRecord record) {
+      synchronized (lock) {
+        scheduler.completed(record.workType());
+      }
+    }
+
+    @Override
+    public int size() {
+      synchronized (lock) {
+        return scheduler.queued();
+      }
+    }
+
+    @Override
+    public void remove(String workId) {
+      synchronized (lock) {
+        scheduler.remove(workId);
+      }
+    }
+
+    @Override
+    public List<WorkRecord> drain() {
+      synchronized (lock) {
+        return scheduler.drain();
+      }
+    }
+  }
+}
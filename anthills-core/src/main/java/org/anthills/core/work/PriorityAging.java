@@ -0,0 +1,63 @@
+package org.anthills.core.work;
+
+import org.anthills.api.work.SubmissionOptions;
+import org.anthills.api.work.WorkStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Raises the priority of NEW items that have waited for {@code interval} by one level through
+ * {@link WorkStore#agePriorities}, up to {@code SubmissionOptions.MAX_PRIORITY - 1}. Processors call
+ * {@link #maybeRun()} on every polling tick; the store is asked at most four times per interval, so an
+ * item rises between one and one and a quarter intervals after it became eligible, unless the store
+ * bounds how many items it raises per level and call, in which case the longest waiting ones go first.
+ *
+ * Several processors of the same type may age concurrently: the store raises an item at most once
+ * per interval. Failures are logged and retried on the next run.
+ *
+ * Not thread-safe; intended to be called from a single poller thread.
+ */
+final class PriorityAging {
+
+  private static final Logger log = LoggerFactory.getLogger(PriorityAging.class);
+
+  private final WorkStore store;
+  private final List<String> workTypes;
+  private final Duration interval;
+  private final long runEveryNanos;
+  private long nextRunNanos;
+
+  /**
+   * @param store store whose items to age
+   * @param workTypes routing keys to age
+   * @param interval waiting time per level, or {@code null} to disable aging
+   */
+  PriorityAging(WorkStore store, List<String> workTypes, Duration interval) {
+    this.store = Objects.requireNonNull(store);
+    this.workTypes = List.copyOf(workTypes);
+    this.interval = interval;
+    this.runEveryNanos = interval != null ? Math.max(1, interval.toNanos() / 4) : 0;
+    this.nextRunNanos = System.nanoTime();
+  }
+
+  /**
+   * Ages the work types if aging is enabled and the last run is long enough ago.
+   */
+  void maybeRun() {
+    if (interval == null || System.nanoTime() - nextRunNanos < 0) {
+      return;
+    }
+    nextRunNanos = System.nanoTime() + runEveryNanos;
+    for (String workType : workTypes) {
+      try {
+        store.agePriorities(workType, interval, SubmissionOptions.MAX_PRIORITY - 1);
+      } catch (RuntimeException e) {
+        log.warn("Failed to age priorities of work type {}", workType, e);
+      }
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package org.anthills.core.work;
+
+import org.anthills.api.work.WorkRequest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded cache of recently submitted idempotency keys and the requests they resolved to, evicting
+ * the least recently used key once {@code capacity} is exceeded. It lets a client answer an obvious
+ * repeat without a store round trip; keys that are not (or no longer) cached are deduplicated by the
+ * store.
+ *
+ * Thread-safe.
+ */
+final class RecentSubmissions {
+
+  private final int capacity;
+  private final Map<Key, WorkRequest<?>> entries;
+
+  /**
+   * @param capacity maximum number of keys to remember; 0 disables the cache
+   * @throws IllegalArgumentException if {@code capacity} is negative
+   */
+  RecentSubmissions(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity must be >= 0");
+    }
+    this.capacity = capacity;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, WorkRequest<?>> eldest) {
+        return size() > RecentSubmissions.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * Returns the request remembered for the key, or {@code null}.
+   */
+  synchronized WorkRequest<?> get(String workType, String idempotencyKey) {
+    return entries.get(new Key(workType, idempotencyKey));
+  }
+
+  /**
+   * Remembers the request a key resolved to.
+   */
+  synchronized void put(String workType, String idempotencyKey, WorkRequest<?> request) {
+    if (capacity > 0) {
+      entries.put(new Key(workType, idempotencyKey), request);
+    }
+  }
+
+  /**
+   * Returns the number of remembered keys.
+   */
+  synchronized int size() {
+    return entries.size();
+  }
+
+  private record Key(String workType, String idempotencyKey) {
+  }
+}
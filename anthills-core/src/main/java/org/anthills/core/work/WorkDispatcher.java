@@ -0,0 +1,546 @@
+package org.anthills.core.work;
+
+import org.anthills.api.codec.PayloadCodec;
+import org.anthills.api.work.ExecutionMode;
+import org.anthills.api.work.LeaseMode;
+import org.anthills.api.work.ProcessorConfig;
+import org.anthills.api.work.Subscription;
+import org.anthills.api.work.WorkHandler;
+import org.anthills.api.work.WorkOutcome;
+import org.anthills.api.work.WorkRecord;
+import org.anthills.api.work.WorkRequest;
+import org.anthills.api.work.WorkStore;
+import org.anthills.core.concurrent.AdjustableSemaphore;
+import org.anthills.core.concurrent.GradientConcurrencyLimiter;
+import org.anthills.core.concurrent.LeaseRenewalCoordinator;
+import org.anthills.core.concurrent.NamedThreadFactory;
+import org.anthills.core.util.Backoff;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.anthills.core.util.Utils.min;
+
+/**
+ * Polling, dispatch, completion and failure handling shared by {@link DefaultWorkRequestProcessor}
+ * and {@link MultiWorkTypeProcessor}. The processors differ only in how they claim work and in which
+ * order claimed records reach the workers; each supplies that as a {@link ClaimQueue}.
+ *
+ * - Polls on a timer that backs off while no work is found, and immediately when new work is
+ *   signalled by the store or through a {@link LocalWorkSignalBus}.
+ * - Hands queued records to the worker pool while worker slots are free. With adaptive concurrency, a
+ *   {@link GradientConcurrencyLimiter} resizes the slots between {@code minWorkerThreads} and
+ *   {@code workerThreads}.
+ * - Renews the leases of claimed records (or the owner heartbeat) until their outcome is written,
+ *   synchronously or through a {@link CompletionQueue}, and retries failed handlers with backoff.
+ * - Releases claimed but unstarted records back to the store on stop.
+ *
+ * Work types are matched ignoring case, when registering handlers and when routing records.
+ *
+ * Thread-safety: safe for concurrent use by the poller and the workers.
+ */
+final class WorkDispatcher {
+
+  /**
+   * Claimed records waiting for a worker. Called from the poller thread and from workers; implementations
+   * must be thread-safe.
+   */
+  interface ClaimQueue {
+
+    /**
+     * Claims up to {@code capacity} records, registers them with {@link WorkDispatcher#claimed(List)} and
+     * queues them. May call {@link WorkDispatcher#dispatch()} between claims.
+     *
+     * @param capacity free worker slots plus free prefetch space
+     * @return number of records claimed
+     */
+    int claim(int capacity);
+
+    /**
+     * Takes the next record to run, if any.
+     *
+     * @param freeWorkers worker slots free, including the one acquired for the record
+     * @return next record or {@code null}
+     */
+    WorkRecord next(int freeWorkers);
+
+    /**
+     * Invoked when a record taken with {@link #next(int)} has finished or could not be started.
+     */
+    void finished(WorkRecord record);
+
+    /**
+     * Returns the number of queued records.
+     */
+    int size();
+
+    /**
+     * Drops a queued record whose lease was lost.
+     */
+    void remove(String workId);
+
+    /**
+     * Removes and returns every queued record.
+     */
+    List<WorkRecord> drain();
+  }
+
+  private static final Logger log = LoggerFactory.getLogger(WorkDispatcher.class);
+
+  private static final Backoff RETRY_BACKOFF = Backoff.exponential(Duration.ofSeconds(1), Duration.ofMinutes(5), true); // TODO these params should be in config
+
+  private final List<String> workTypes;
+  private final WorkStore store;
+  private final PayloadCodec codec;
+  private final ProcessorConfig config;
+  private final LocalWorkSignalBus signalBus;
+  private final ClaimQueue queue;
+
+  private final ExecutorService workerPool;
+  private final ScheduledExecutorService poller;
+  private final LeaseRenewalCoordinator leaseRenewals;
+  private final CompletionQueue completions;
+  private final PriorityAging priorityAging;
+
+  // Handlers by lower-case work type, then by payload type
+  private final Map<String, Map<String, WorkHandler<?>>> handlers = new ConcurrentHashMap<>();
+
+  private final AtomicBoolean running = new AtomicBoolean(false);
+  private final String ownerId = UUID.randomUUID().toString();
+
+  private final Duration minPoll;
+  private final Duration maxPoll;
+  private volatile Duration currentPoll;
+  private volatile ScheduledFuture<?> nextPoll;
+  private final AtomicBoolean wakeUpPending = new AtomicBoolean(false);
+  private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+  // Workers free to take a record hold a slot permit
+  private final AdjustableSemaphore workerSlots;
+  private final GradientConcurrencyLimiter limiter;
+  private volatile boolean lastClaimReturnedWork;
+
+  /**
+   * @param workTypes routing keys served; must not be empty or contain two keys differing only in case
+   * @param store persistence used to claim, renew, and mark work
+   * @param codec codec used to decode stored payloads
+   * @param config tuning parameters for threads, leasing, and polling
+   * @param signalBus in-process bus shared with {@link DefaultWorkClient}s
+   * @param queue where claimed records wait for a worker
+   * @throws IllegalArgumentException if {@code workTypes} is empty or has duplicates ignoring case
+   */
+  WorkDispatcher(List<String> workTypes, WorkStore store, PayloadCodec codec, ProcessorConfig config, LocalWorkSignalBus signalBus,
+                 ClaimQueue queue) {
+    this.workTypes = List.copyOf(workTypes);
+    if (this.workTypes.isEmpty()) {
+      throw new IllegalArgumentException("workTypes must not be empty");
+    }
+    for (String workType : this.workTypes) {
+      if (handlers.putIfAbsent(key(workType), new ConcurrentHashMap<>()) != null) {
+        throw new IllegalArgumentException("Work types must differ in more than case: " + this.workTypes);
+      }
+    }
+    this.store = Objects.requireNonNull(store);
+    this.codec = Objects.requireNonNull(codec);
+    this.config = Objects.requireNonNull(config);
+    this.signalBus = Objects.requireNonNull(signalBus);
+    this.queue = Objects.requireNonNull(queue);
+
+    String name = "work-" + String.join("-", this.workTypes);
+    this.workerPool = config.executionMode() == ExecutionMode.VIRTUAL_THREADS
+      ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory())
+      : Executors.newFixedThreadPool(config.workerThreads(), new NamedThreadFactory(name));
+    this.workerSlots = new AdjustableSemaphore(config.workerThreads());
+    this.limiter = config.adaptiveConcurrency()
+      ? new GradientConcurrencyLimiter(config.minWorkerThreads(), config.workerThreads())
+      : null;
+    this.poller = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("poller-" + String.join("-", this.workTypes)));
+    this.leaseRenewals = new LeaseRenewalCoordinator(
+      config.leaseRenewInterval(),
+      name,
+      this::renewLeases,
+      this::onLeaseLost
+    );
+
+    this.completions = config.completionBatchSize() > 0
+      ? new CompletionQueue(store, ownerId, config.completionBatchSize(), config.completionFlushInterval(), name, this::onOutcomesWritten)
+      : null;
+
+    this.priorityAging = new PriorityAging(store, this.workTypes, config.priorityAgingInterval());
+
+    this.minPoll = config.pollInterval();
+    this.maxPoll = config.pollInterval().multipliedBy(10);
+    this.currentPoll = minPoll;
+  }
+
+  String ownerId() {
+    return ownerId;
+  }
+
+  boolean isRunning() {
+    return running.get();
+  }
+
+  /**
+   * Returns the number of workers free to take a record. May be negative right after the adaptive
+   * limit shrank.
+   */
+  int freeWorkers() {
+    return workerSlots.availablePermits();
+  }
+
+  /**
+   * Starts polling and dispatching if not already running. Idempotent.
+   */
+  void start() {
+    if (!running.compareAndSet(false, true)) {
+      return;
+    }
+    leaseRenewals.start();
+    scheduleNextPoll();
+    for (String workType : workTypes) {
+      subscriptions.add(signalBus.subscribe(workType, this::wakeUp));
+      subscriptions.add(store.onWorkAvailable(workType, this::wakeUp));
+    }
+  }
+
+  /**
+   * Schedules the next polling tick using the current backoff-aware delay.
+   * Always re-schedules itself while the processor remains running.
+   */
+  private void scheduleNextPoll() {
+    nextPoll = poller.schedule(this::pollTick, currentPoll.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  private void pollTick() {
+    try {
+      priorityAging.maybeRun();
+      pollAndDispatch();
+    } finally {
+      if (running.get()) {
+        scheduleNextPoll();
+      }
+    }
+  }
+
+  /**
+   * Signals that new work may be available, e.g. from a store notification. The pending
+   * polling tick is replaced by an immediate poll on the poller thread and the idle backoff is
+   * reset. Concurrent signals are coalesced into a single poll. Safe to call from any thread.
+   */
+  void wakeUp() {
+    if (!running.get() || !wakeUpPending.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      poller.execute(() -> {
+        wakeUpPending.set(false);
+        // Runs on the poller thread, so the pending tick cannot be executing right now
+        ScheduledFuture<?> pending = nextPoll;
+        if (!running.get() || pending == null || !pending.cancel(false)) {
+          return;
+        }
+        currentPoll = minPoll;
+        pollTick();
+      });
+    } catch (RejectedExecutionException _) {
+      // stopped concurrently
+    }
+  }
+
+  /**
+   * Requests a graceful stop, shutting down the poller and worker pool, and
+   * stopping the lease renewer. Queued records that were not started, including those of a
+   * poll still running when stop was requested, are released back to the store and queued
+   * completions are flushed. Idempotent.
+   */
+  void stop() {
+    running.set(false);
+    subscriptions.forEach(WorkDispatcher::closeQuietly);
+    subscriptions.clear();
+    poller.shutdown();
+    workerPool.shutdown();
+    try {
+      // a running poll still queues what it claims
+      poller.awaitTermination(config.shutdownTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException _) {
+      Thread.currentThread().interrupt();
+    }
+    release(queue.drain());
+    if (completions != null) {
+      try {
+        completions.close(config.shutdownTimeout());
+      } catch (InterruptedException _) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    try {
+      leaseRenewals.shutdown(config.shutdownTimeout());
+    } catch (InterruptedException _) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void closeQuietly(Subscription subscription) {
+    if (subscription != null) {
+      subscription.close();
+    }
+  }
+
+  /**
+   * Blocks until the worker pool terminates or the configured shutdown timeout elapses.
+   *
+   * @throws InterruptedException if the waiting thread is interrupted
+   */
+  void awaitTermination() throws InterruptedException {
+    boolean terminated = workerPool.awaitTermination(config.shutdownTimeout().getSeconds(), TimeUnit.SECONDS);
+    if (terminated && config.leaseMode() == LeaseMode.OWNER_HEARTBEAT) {
+      try {
+        store.releaseOwnerHeartbeat(ownerId);
+      } catch (RuntimeException _) {
+        // the heartbeat expires on its own
+      }
+    }
+  }
+
+  private Set<String> renewLeases(Collection<String> ids) {
+    if (config.leaseMode() == LeaseMode.OWNER_HEARTBEAT) {
+      // one write keeps every item of this owner alive; lost items surface as fenced completions
+      store.renewOwnerHeartbeat(ownerId, config.leaseDuration());
+      return Set.of();
+    }
+    return store.renewWorkerLeases(ownerId, ids, config.leaseDuration());
+  }
+
+  /**
+   * Claims up to the number of free worker slots plus free prefetch space and dispatches claimed
+   * records to the worker pool. Applies backoff when no work is found.
+   */
+  private void pollAndDispatch() {
+    if (!running.get()) {
+      return;
+    }
+    int capacity = workerSlots.availablePermits() + config.prefetchSize() - queue.size();
+    if (capacity <= 0) {
+      return;
+    }
+    int claimed = queue.claim(capacity);
+    lastClaimReturnedWork = claimed > 0;
+    currentPoll = claimed > 0 ? minPoll : min(currentPoll.multipliedBy(5), maxPoll);
+    dispatch();
+  }
+
+  /**
+   * Registers freshly claimed records for lease renewal. Call before queueing them.
+   */
+  void claimed(List<WorkRecord> records) {
+    records.forEach(record -> leaseRenewals.register(record.id()));
+  }
+
+  /**
+   * Hands queued records to the worker pool while worker slots are free. Safe to call from
+   * the poller and from workers; a slot is acquired before a record is taken.
+   */
+  void dispatch() {
+    while (running.get()) {
+      if (!workerSlots.tryAcquire()) {
+        return;
+      }
+      WorkRecord record = queue.next(workerSlots.availablePermits() + 1);
+      if (record == null) {
+        workerSlots.release();
+        return;
+      }
+      try {
+        workerPool.execute(() -> runWorker(record));
+      } catch (RejectedExecutionException e) {
+        finished(record);
+        release(List.of(record));
+        return;
+      }
+    }
+  }
+
+  private void finished(WorkRecord record) {
+    queue.finished(record);
+    workerSlots.release();
+  }
+
+  private void runWorker(WorkRecord record) {
+    try {
+      process(record);
+    } catch (RuntimeException e) {
+      leaseRenewals.unregister(record.id());
+      throw e;
+    } finally {
+      finished(record);
+      dispatch();
+      if (config.prefetchSize() > 0 && lastClaimReturnedWork && queue.size() <= config.prefetchLowWatermark()) {
+        wakeUp();
+      }
+    }
+  }
+
+  /**
+   * Invoked when a lease could not be renewed. A queued record is dropped since another owner
+   * may claim it; a running handler is allowed to complete.
+   */
+  private void onLeaseLost(String workId) {
+    queue.remove(workId);
+  }
+
+  /**
+   * Returns claimed but unstarted records to the store so that they can be claimed again right away.
+   */
+  void release(List<WorkRecord> records) {
+    if (records.isEmpty()) {
+      return;
+    }
+    List<String> ids = records.stream().map(WorkRecord::id).toList();
+    ids.forEach(leaseRenewals::unregister);
+    try {
+      store.releaseClaims(ownerId, ids);
+    } catch (RuntimeException e) {
+      // the items stay IN_PROGRESS under this owner until their lease or heartbeat expires
+      log.warn("Failed to release {} unstarted work items of owner {}", ids.size(), ownerId, e);
+    }
+  }
+
+  /**
+   * Processes a single claimed record by decoding it and invoking the handler registered
+   * for its work type and payload type. Failures are handled according to {@link #handleFailure(WorkRecord, Exception)}.
+   */
+  @SuppressWarnings("unchecked")
+  private void process(WorkRecord record) {
+    if (!codec.name().equalsIgnoreCase(record.codec())) {
+      complete(WorkOutcome.failed(record.id(), "Payload with codec " + record.codec() + " is not supported by the processor."));
+      return;
+    }
+    WorkRequest<Object> workRequest = record.toWorkRequest(codec, Object.class);
+    Map<String, WorkHandler<?>> typeHandlers = handlers.get(key(record.workType()));
+    WorkHandler<Object> handler = typeHandlers != null ? (WorkHandler<Object>) typeHandlers.get(record.payloadType()) : null;
+    if (handler == null) {
+      complete(WorkOutcome.failed(record.id(), "No handler registered registered for payload type"));
+      return;
+    }
+    long startNanos = System.nanoTime();
+    try {
+      handler.handle(workRequest);
+    } catch (Exception e) {
+      adaptConcurrency(startNanos, true);
+      handleFailure(record, e);
+      return;
+    }
+    adaptConcurrency(startNanos, false);
+    complete(WorkOutcome.succeeded(record.id()));
+  }
+
+  /**
+   * Feeds a handler's latency and outcome to the adaptive limiter, if enabled, and resizes the
+   * worker slots to the new limit. Called while the handler still holds its slot.
+   */
+  private void adaptConcurrency(long startNanos, boolean failed) {
+    if (limiter == null) {
+      return;
+    }
+    int inFlight = workerSlots.maxPermits() - workerSlots.availablePermits();
+    int newLimit = limiter.onSample(Duration.ofNanos(System.nanoTime() - startNanos), failed, inFlight);
+    workerSlots.setMaxPermits(newLimit);
+  }
+
+  /**
+   * Handles handler failures by either marking the record failed if the attempt limit
+   * has been reached, or rescheduling it after a backoff interval.
+   *
+   * @param record the failed work record
+   * @param error the exception raised by the handler
+   */
+  private void handleFailure(WorkRecord record, Exception error) {
+    int attempts = record.attemptCount();
+    int maxRetries = effectiveMaxRetries(record);
+    if (attempts >= maxRetries) {
+      complete(WorkOutcome.failed(record.id(), error.getMessage()));
+      return;
+    }
+    Duration backOffDelay = RETRY_BACKOFF.nextDelay(attempts);
+    complete(WorkOutcome.rescheduled(record.id(), backOffDelay));
+  }
+
+  /**
+   * Records an outcome, either synchronously on the worker thread or through the completion
+   * queue. With the queue, the item's lease stays registered until the outcome is written.
+   */
+  private void complete(WorkOutcome outcome) {
+    if (completions != null) {
+      completions.submit(outcome);
+      return;
+    }
+    try {
+      switch (outcome.type()) {
+        case SUCCEEDED -> store.markSucceeded(outcome.workId(), ownerId);
+        case FAILED -> store.markFailed(outcome.workId(), ownerId, outcome.failureReason());
+        case RESCHEDULED -> store.reschedule(outcome.workId(), outcome.retryDelay());
+      }
+    } finally {
+      leaseRenewals.unregister(outcome.workId());
+    }
+  }
+
+  private void onOutcomesWritten(List<WorkOutcome> outcomes) {
+    outcomes.forEach(outcome -> leaseRenewals.unregister(outcome.workId()));
+  }
+
+  /**
+   * Computes the effective retry cap as the minimum of the request-specific limit (if any)
+   * and the processor's configured maximum.
+   *
+   * @param record the work record
+   * @return maximum number of attempts allowed
+   */
+  private int effectiveMaxRetries(WorkRecord record) {
+    int requestMax = record.maxRetries() != null ? record.maxRetries() : config.defaultMaxRetries();
+    return Math.min(requestMax, config.maxAllowedRetries());
+  }
+
+  /**
+   * Registers a handler for a payload type within one of the served work types, ignoring case.
+   * Replaces any existing handler for the same work type and payload type.
+   *
+   * @throws IllegalArgumentException if {@code workType} is not served
+   * @throws NullPointerException if any argument is null
+   */
+  <T> void registerHandler(String workType, Class<T> payloadType, WorkHandler<T> handler) {
+    Objects.requireNonNull(handler);
+    Objects.requireNonNull(workType);
+    Objects.requireNonNull(payloadType);
+
+    Map<String, WorkHandler<?>> typeHandlers = handlers.get(key(workType));
+    if (typeHandlers == null) {
+      throw new IllegalArgumentException(workTypes.size() == 1
+        ? "This processor handles only workType=" + workTypes.getFirst()
+        : "This processor handles only workTypes=" + workTypes);
+    }
+    typeHandlers.put(payloadType.getName(), handler);
+  }
+
+  private static String key(String workType) {
+    return workType.toLowerCase(Locale.ROOT);
+  }
+}
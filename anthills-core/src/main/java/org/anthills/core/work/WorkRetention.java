@@ -0,0 +1,99 @@
+package org.anthills.core.work;
+
+import org.anthills.api.scheduler.Job;
+import org.anthills.api.scheduler.LeasedScheduler;
+import org.anthills.api.scheduler.Schedule;
+import org.anthills.api.work.RetentionPolicy;
+import org.anthills.api.work.WorkStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Scheduled job that removes terminal work requests older than {@link RetentionPolicy#retainFor()},
+ * keeping the work table and its claim index small.
+ *
+ * Each run removes requests through {@link WorkStore#purgeTerminalWork} in batches of
+ * {@link RetentionPolicy#batchSize()}, one short transaction each, pausing between batches. A run
+ * ends when a batch comes back short or after {@link RetentionPolicy#maxBatchesPerRun()} batches; a
+ * larger backlog is worked off by the following runs.
+ *
+ * Register it with a {@link LeasedScheduler} (see {@link #register}) so that a single node of the
+ * cluster purges at a time.
+ */
+public final class WorkRetention implements Job {
+
+  /** Name of the scheduled job and of its scheduler lease. */
+  public static final String JOB_NAME = "anthills-work-retention";
+
+  private static final Logger log = LoggerFactory.getLogger(WorkRetention.class);
+
+  private final WorkStore store;
+  private final RetentionPolicy policy;
+
+  /**
+   * @param store store whose terminal requests to remove
+   * @param policy retention settings
+   * @throws NullPointerException if any argument is null
+   */
+  public WorkRetention(WorkStore store, RetentionPolicy policy) {
+    this.store = Objects.requireNonNull(store, "store");
+    this.policy = Objects.requireNonNull(policy, "policy");
+  }
+
+  /**
+   * Schedules this job as {@link #JOB_NAME} to run every {@link RetentionPolicy#interval()}.
+   * Must be called before the scheduler is started.
+   *
+   * @param scheduler scheduler to register with
+   */
+  public void register(LeasedScheduler scheduler) {
+    scheduler.schedule(JOB_NAME, Schedule.FixedRate.every(policy.interval()), this);
+  }
+
+  @Override
+  public void run() {
+    purge();
+  }
+
+  /**
+   * Runs one purge: removes batches of requests completed before now minus
+   * {@link RetentionPolicy#retainFor()} until a batch comes back short, the batch budget is spent or
+   * the thread is interrupted.
+   *
+   * @return number of requests removed
+   */
+  public int purge() {
+    Instant cutoff = Instant.now().minus(policy.retainFor());
+    int total = 0;
+    for (int batch = 0; batch < policy.maxBatchesPerRun(); batch++) {
+      if (batch > 0 && !pause()) {
+        break;
+      }
+      int removed = store.purgeTerminalWork(cutoff, policy.batchSize(), policy.mode());
+      total += removed;
+      if (removed < policy.batchSize()) {
+        break;
+      }
+    }
+    if (total > 0) {
+      log.info("Work retention removed {} terminal work requests completed before {} ({})", total, cutoff, policy.mode());
+    }
+    return total;
+  }
+
+  private boolean pause() {
+    if (policy.pauseBetweenBatches().isZero()) {
+      return !Thread.currentThread().isInterrupted();
+    }
+    try {
+      Thread.sleep(policy.pauseBetweenBatches());
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package org.anthills.core.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdjustableSemaphoreTest {
+
+  @Test
+  void growingReleasesAdditionalPermits() {
+    AdjustableSemaphore s = new AdjustableSemaphore(2);
+    assertTrue(s.tryAcquire(2));
+    assertFalse(s.tryAcquire());
+
+    s.setMaxPermits(3);
+    assertEquals(3, s.maxPermits());
+    assertTrue(s.tryAcquire());
+  }
+
+  @Test
+  void shrinkingDoesNotRevokeHeldPermits() {
+    AdjustableSemaphore s = new AdjustableSemaphore(4);
+    assertTrue(s.tryAcquire(3));
+
+    s.setMaxPermits(1);
+    assertEquals(-2, s.availablePermits());
+    assertFalse(s.tryAcquire());
+
+    s.release(3);
+    assertEquals(1, s.availablePermits());
+  }
+
+  @Test
+  void rejectsNegativePermits() {
+    assertThrows(IllegalArgumentException.class, () -> new AdjustableSemaphore(-1));
+    assertThrows(IllegalArgumentException.class, () -> new AdjustableSemaphore(1).setMaxPermits(-1));
+  }
+}
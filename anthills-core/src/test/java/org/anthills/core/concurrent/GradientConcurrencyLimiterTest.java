@@ -0,0 +1,71 @@
+package org.anthills.core.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GradientConcurrencyLimiterTest {
+
+  @Test
+  void startsAtMaxAndValidatesBounds() {
+    assertEquals(20, new GradientConcurrencyLimiter(2, 20).limit());
+    assertThrows(IllegalArgumentException.class, () -> new GradientConcurrencyLimiter(0, 5));
+    assertThrows(IllegalArgumentException.class, () -> new GradientConcurrencyLimiter(6, 5));
+  }
+
+  @Test
+  void risingLatencyShrinksLimitToMin() {
+    GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(2, 50);
+    for (int i = 0; i < 200; i++) {
+      limiter.onSample(Duration.ofMillis(10), false, limiter.limit());
+    }
+    assertEquals(50, limiter.limit());
+
+    for (int i = 0; i < 50; i++) {
+      limiter.onSample(Duration.ofMillis(200), false, limiter.limit());
+    }
+    assertTrue(limiter.limit() < 25, "limit should shrink while latency is high, was " + limiter.limit());
+  }
+
+  @Test
+  void steadyLatencyGrowsLimitBackToMax() {
+    GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(1, 40);
+    for (int i = 0; i < 30; i++) {
+      limiter.onSample(Duration.ofMillis(10), true, limiter.limit());
+    }
+    int reduced = limiter.limit();
+    assertTrue(reduced < 5);
+
+    for (int i = 0; i < 500; i++) {
+      limiter.onSample(Duration.ofMillis(10), false, limiter.limit());
+    }
+    assertEquals(40, limiter.limit());
+  }
+
+  @Test
+  void failuresBackOffButNeverBelowMin() {
+    GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(3, 10);
+    int previous = limiter.limit();
+    limiter.onSample(Duration.ofMillis(1), true, 10);
+    assertTrue(limiter.limit() < previous);
+    for (int i = 0; i < 100; i++) {
+      limiter.onSample(Duration.ofMillis(1), true, 10);
+    }
+    assertEquals(3, limiter.limit());
+  }
+
+  @Test
+  void underusedLimitDoesNotGrow() {
+    GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(1, 100);
+    for (int i = 0; i < 20; i++) {
+      limiter.onSample(Duration.ofMillis(1), true, 1);
+    }
+    int reduced = limiter.limit();
+    for (int i = 0; i < 100; i++) {
+      limiter.onSample(Duration.ofMillis(1), false, 0);
+    }
+    assertEquals(reduced, limiter.limit());
+  }
+}
@@ -0,0 +1,82 @@
+package org.anthills.core.concurrent;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LeaseRenewalCoordinatorTest {
+
+  @Test
+  void renewAllPassesAllRegisteredLeasesInOneCall() {
+    List<Collection<String>> calls = new ArrayList<>();
+    LeaseRenewalCoordinator coordinator = new LeaseRenewalCoordinator(Duration.ofMinutes(1), "test", ids -> {
+      calls.add(ids);
+      return Set.of();
+    }, _ -> fail("nothing lost"));
+
+    coordinator.register("a");
+    coordinator.register("b");
+    coordinator.register("c");
+    coordinator.unregister("c");
+    coordinator.renewAll();
+
+    assertEquals(1, calls.size());
+    assertEquals(Set.of("a", "b"), Set.copyOf(calls.get(0)));
+  }
+
+  @Test
+  void lostLeasesAreReportedOnceAndUnregistered() {
+    List<String> lost = new ArrayList<>();
+    LeaseRenewalCoordinator coordinator = new LeaseRenewalCoordinator(Duration.ofMinutes(1), "test", _ -> Set.of("b"), lost::add);
+
+    coordinator.register("a");
+    coordinator.register("b");
+    coordinator.renewAll();
+    coordinator.renewAll();
+
+    assertEquals(List.of("b"), lost);
+    assertEquals(1, coordinator.size());
+  }
+
+  @Test
+  void failedRenewalKeepsLeasesForNextTick() {
+    LeaseRenewalCoordinator coordinator = new LeaseRenewalCoordinator(Duration.ofMinutes(1), "test", _ -> {
+      throw new IllegalStateException("db down");
+    }, _ -> fail("nothing lost"));
+
+    coordinator.register("a");
+    assertDoesNotThrow(coordinator::renewAll);
+    assertEquals(1, coordinator.size());
+  }
+
+  @Test
+  void emptyRegistrySkipsRenewer() {
+    LeaseRenewalCoordinator coordinator = new LeaseRenewalCoordinator(Duration.ofMinutes(1), "test", _ -> fail("no call expected"), _ -> {});
+    assertDoesNotThrow(coordinator::renewAll);
+  }
+
+  @Test
+  @Timeout(5)
+  void startRenewsPeriodically() throws Exception {
+    List<Collection<String>> calls = new CopyOnWriteArrayList<>();
+    LeaseRenewalCoordinator coordinator = new LeaseRenewalCoordinator(Duration.ofMillis(20), "test", ids -> {
+      calls.add(ids);
+      return Set.of();
+    }, _ -> {});
+    coordinator.register("a");
+    coordinator.start();
+
+    while (calls.size() < 2) {
+      Thread.sleep(10);
+    }
+    coordinator.shutdown(Duration.ofSeconds(1));
+  }
+}
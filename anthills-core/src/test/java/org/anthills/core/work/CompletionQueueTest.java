@@ -0,0 +1,126 @@
+package org.anthills.core.work;
+
+import org.anthills.api.work.WorkOutcome;
+import org.anthills.api.work.WorkStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CompletionQueueTest {
+
+  @Mock
+  WorkStore store;
+
+  @Test
+  @Timeout(5)
+  void flushesWhenBatchSizeIsReached() throws Exception {
+    CompletionQueue queue = new CompletionQueue(store, "owner-1", 3, Duration.ofMinutes(1), "test", _ -> {});
+    queue.submit(WorkOutcome.succeeded("a"));
+    queue.submit(WorkOutcome.failed("b", "boom"));
+    queue.submit(WorkOutcome.rescheduled("c", Duration.ofSeconds(1)));
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<WorkOutcome>> batch = ArgumentCaptor.forClass(List.class);
+    verify(store, timeout(1000)).applyOutcomes(eq("owner-1"), batch.capture());
+    assertEquals(List.of("a", "b", "c"), batch.getValue().stream().map(WorkOutcome::workId).toList());
+    queue.close(Duration.ofSeconds(1));
+  }
+
+  @Test
+  @Timeout(5)
+  void flushesPartialBatchAfterInterval() throws Exception {
+    List<List<WorkOutcome>> flushed = new CopyOnWriteArrayList<>();
+    CompletionQueue queue = new CompletionQueue(store, "owner-1", 100, Duration.ofMillis(20), "test", flushed::add);
+    queue.submit(WorkOutcome.succeeded("a"));
+
+    verify(store, timeout(1000)).applyOutcomes("owner-1", List.of(WorkOutcome.succeeded("a")));
+    while (flushed.isEmpty()) {
+      Thread.sleep(5);
+    }
+    assertEquals(0, queue.pending());
+    queue.close(Duration.ofSeconds(1));
+  }
+
+  @Test
+  void closeFlushesPendingAndLaterSubmitsAreWrittenSynchronously() throws Exception {
+    CompletionQueue queue = new CompletionQueue(store, "owner-1", 100, Duration.ofMinutes(1), "test", _ -> {});
+    queue.submit(WorkOutcome.succeeded("a"));
+    queue.close(Duration.ofSeconds(1));
+    verify(store).applyOutcomes("owner-1", List.of(WorkOutcome.succeeded("a")));
+
+    queue.submit(WorkOutcome.succeeded("b"));
+    verify(store).applyOutcomes("owner-1", List.of(WorkOutcome.succeeded("b")));
+  }
+
+  @Test
+  @Timeout(5)
+  void failedFlushIsRetriedAndReportedOnlyOnceWritten() throws Exception {
+    List<List<WorkOutcome>> flushed = new CopyOnWriteArrayList<>();
+    doThrow(new RuntimeException("db down")).doNothing().when(store).applyOutcomes(anyString(), anyList());
+    CompletionQueue queue = new CompletionQueue(store, "owner-1", 1, Duration.ofMinutes(1), "test", flushed::add);
+
+    queue.submit(WorkOutcome.succeeded("a"));
+    verify(store, timeout(2000).times(2)).applyOutcomes("owner-1", List.of(WorkOutcome.succeeded("a")));
+    queue.submit(WorkOutcome.succeeded("b"));
+    queue.close(Duration.ofSeconds(1));
+
+    verify(store, times(3)).applyOutcomes(eq("owner-1"), anyList());
+    assertEquals(List.of(List.of(WorkOutcome.succeeded("a")), List.of(WorkOutcome.succeeded("b"))), flushed);
+  }
+
+  @Test
+  @Timeout(5)
+  void aBatchThatKeepsFailingIsWrittenOneByOneSkippingTheFailingOutcome() throws Exception {
+    List<List<WorkOutcome>> flushed = new CopyOnWriteArrayList<>();
+    doAnswer(inv -> {
+      List<WorkOutcome> batch = inv.getArgument(1);
+      if (batch.contains(WorkOutcome.succeeded("b"))) {
+        throw new RuntimeException("constraint violated");
+      }
+      return null;
+    }).when(store).applyOutcomes(anyString(), anyList());
+    CompletionQueue queue = new CompletionQueue(store, "owner-1", 3, Duration.ofMinutes(1), "test", flushed::add);
+
+    queue.submit(WorkOutcome.succeeded("a"));
+    queue.submit(WorkOutcome.succeeded("b"));
+    queue.submit(WorkOutcome.succeeded("c"));
+
+    verify(store, timeout(3000)).applyOutcomes("owner-1", List.of(WorkOutcome.succeeded("c")));
+    verify(store, times(CompletionQueue.BATCH_ATTEMPTS)).applyOutcomes("owner-1",
+      List.of(WorkOutcome.succeeded("a"), WorkOutcome.succeeded("b"), WorkOutcome.succeeded("c")));
+    verify(store).applyOutcomes("owner-1", List.of(WorkOutcome.succeeded("a")));
+    verify(store).applyOutcomes("owner-1", List.of(WorkOutcome.succeeded("b")));
+    while (flushed.size() < 3) {
+      Thread.sleep(5);
+    }
+    queue.close(Duration.ofSeconds(1));
+  }
+
+  @Test
+  @Timeout(5)
+  void closeGivesUpOnABatchThatKeepsFailing() throws Exception {
+    List<List<WorkOutcome>> flushed = new CopyOnWriteArrayList<>();
+    doThrow(new RuntimeException("db down")).when(store).applyOutcomes(anyString(), anyList());
+    CompletionQueue queue = new CompletionQueue(store, "owner-1", 1, Duration.ofMinutes(1), "test", flushed::add);
+
+    queue.submit(WorkOutcome.succeeded("a"));
+    verify(store, timeout(1000)).applyOutcomes(eq("owner-1"), anyList());
+    queue.close(Duration.ofSeconds(3));
+
+    verify(store, times(CompletionQueue.BATCH_ATTEMPTS + 1)).applyOutcomes(eq("owner-1"), anyList());
+    // skipped, so its lease is no longer renewed
+    assertEquals(List.of(List.of(WorkOutcome.succeeded("a"))), flushed);
+  }
+}
@@ -1,6 +1,7 @@
 package org.anthills.core.work;
 
 import org.anthills.api.codec.PayloadCodec;
+import org.anthills.api.work.EncodedPayload;
 import org.anthills.api.work.SubmissionOptions;
 import org.anthills.api.work.WorkQuery;
 import org.anthills.api.work.WorkRecord;
@@ -29,10 +30,15 @@ public class DefaultWorkClientTest {
   @Mock
   PayloadCodec codec;
 
+  private static EncodedPayload payloadOf(byte[] encoded) {
+    return argThat(p -> p.payload() == encoded && String.class.getName().equals(p.payloadType()));
+  }
+
   @Test
   void constructorNulls() {
     assertThrows(NullPointerException.class, () -> new DefaultWorkClient(null, codec));
     assertThrows(NullPointerException.class, () -> new DefaultWorkClient(store, null));
+    assertThrows(NullPointerException.class, () -> new DefaultWorkClient(store, codec, null));
   }
 
   @Test
@@ -61,7 +67,7 @@ public class DefaultWorkClientTest {
       .createdTs(Instant.now())
       .build();
 
-    when(store.createWork(eq(workType), same(encoded), eq(String.class.getName()), eq(version), eq(codecName), isNull())).thenReturn(record);
+    when(store.createWork(eq(workType), payloadOf(encoded), eq(SubmissionOptions.defaults()))).thenReturn(record);
     when(codec.decode(encoded, String.class, version)).thenReturn(payload);
 
     WorkRequest<String> result = client.submit(workType, payload);
@@ -75,7 +81,7 @@ public class DefaultWorkClientTest {
 
     // Verify interactions
     verify(codec).encode(payload, version);
-    verify(store).createWork(eq(workType), same(encoded), eq(String.class.getName()), eq(version), eq(codecName), isNull());
+    verify(store).createWork(eq(workType), payloadOf(encoded), eq(SubmissionOptions.defaults()));
     verify(codec).decode(encoded, String.class, version);
   }
 
@@ -85,7 +91,7 @@ public class DefaultWorkClientTest {
 
     String workType = "task";
     String payload = "p";
-    SubmissionOptions options = new SubmissionOptions(2, "bin", 5);
+    SubmissionOptions options = SubmissionOptions.builder().payloadVersion(2).codec("bin").maxAttempts(5).priority(7).build();
 
     byte[] encoded = new byte[]{9, 8};
     when(codec.encode(payload, 2)).thenReturn(encoded);
@@ -102,14 +108,37 @@ public class DefaultWorkClientTest {
       .createdTs(Instant.now())
       .build();
 
-    when(store.createWork(eq(workType), same(encoded), eq(String.class.getName()), eq(2), eq("bin"), eq(5))).thenReturn(record);
+    when(store.createWork(eq(workType), payloadOf(encoded), eq(options))).thenReturn(record);
     when(codec.decode(encoded, String.class, 2)).thenReturn(payload);
 
     WorkRequest<String> result = client.submit(workType, payload, options);
     assertEquals("id-2", result.id());
     assertEquals(payload, result.payload());
 
-    verify(store).createWork(eq(workType), same(encoded), eq(String.class.getName()), eq(2), eq("bin"), eq(5));
+    verify(store).createWork(eq(workType), payloadOf(encoded), eq(options));
+  }
+
+  @Test
+  void submitSignalsLocalProcessorsAfterCreate() {
+    LocalWorkSignalBus bus = new LocalWorkSignalBus();
+    java.util.concurrent.atomic.AtomicInteger signals = new java.util.concurrent.atomic.AtomicInteger();
+    bus.subscribe("email", signals::incrementAndGet);
+    DefaultWorkClient client = new DefaultWorkClient(store, codec, bus);
+
+    byte[] encoded = new byte[]{1};
+    when(codec.encode("hello", 1)).thenReturn(encoded);
+    WorkRecord record = WorkRecord.builder()
+      .id("id-s").workType("email").payload(encoded).payloadType(String.class.getName())
+      .payloadVersion(1).codec("json").status(WorkRequest.Status.NEW).attemptCount(0).createdTs(Instant.now()).build();
+    when(store.createWork(anyString(), any(), any())).thenReturn(record);
+    when(codec.decode(encoded, String.class, 1)).thenReturn("hello");
+
+    client.submit("email", "hello");
+    assertEquals(1, signals.get());
+
+    when(store.createWork(anyString(), any(), any())).thenThrow(new RuntimeException("db down"));
+    assertThrows(RuntimeException.class, () -> client.submit("email", "hello"));
+    assertEquals(1, signals.get(), "failed submissions must not signal");
   }
 
   @Test
@@ -124,7 +153,7 @@ public class DefaultWorkClientTest {
     assertTrue(ex.getMessage().contains("Failed to encode payload of type java.lang.String"));
     assertNotNull(ex.getCause());
     assertEquals("boom", ex.getCause().getMessage());
-    verify(store, never()).createWork(anyString(), any(), anyString(), anyInt(), anyString(), any());
+    verify(store, never()).createWork(anyString(), any(), any());
   }
 
   @Test
@@ -135,6 +164,160 @@ public class DefaultWorkClientTest {
     assertThrows(NullPointerException.class, () -> client.submit("type", "p", null));
   }
 
+  @Test
+  void submitAllEncodesAndCreatesBatchWithoutDecoding() {
+    DefaultWorkClient client = new DefaultWorkClient(store, codec);
+
+    byte[] e1 = new byte[]{1};
+    byte[] e2 = new byte[]{2};
+    when(codec.encode("a", 2)).thenReturn(e1);
+    when(codec.encode("b", 2)).thenReturn(e2);
+
+    WorkRecord r1 = WorkRecord.builder()
+      .id("b1").workType("task").payload(e1).payloadType(String.class.getName())
+      .payloadVersion(2).codec("bin").maxRetries(5).status(WorkRequest.Status.NEW).attemptCount(0).createdTs(Instant.now()).build();
+    WorkRecord r2 = WorkRecord.builder()
+      .id("b2").workType("task").payload(e2).payloadType(String.class.getName())
+      .payloadVersion(2).codec("bin").maxRetries(5).status(WorkRequest.Status.NEW).attemptCount(0).createdTs(Instant.now()).build();
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<EncodedPayload>> payloads = ArgumentCaptor.forClass(List.class);
+    when(store.createWorkBatch(eq("task"), payloads.capture(), eq(new SubmissionOptions(2, "bin", 5)))).thenReturn(List.of(r1, r2));
+
+    List<WorkRequest<String>> out = client.submitAll("task", List.of("a", "b"), new SubmissionOptions(2, "bin", 5));
+
+    assertEquals(2, out.size());
+    assertEquals("b1", out.get(0).id());
+    assertEquals("a", out.get(0).payload());
+    assertEquals("b2", out.get(1).id());
+    assertEquals("b", out.get(1).payload());
+    assertEquals(5, out.get(1).maxRetries());
+
+    assertEquals(2, payloads.getValue().size());
+    assertSame(e1, payloads.getValue().get(0).payload());
+    assertSame(e2, payloads.getValue().get(1).payload());
+    assertEquals(String.class.getName(), payloads.getValue().get(0).payloadType());
+    verify(codec, never()).decode(any(), any(), anyInt());
+    verify(store, never()).createWork(anyString(), any(), any());
+  }
+
+  @Test
+  void repeatedIdempotencyKeyIsAnsweredFromRecentKeysWithoutStore() {
+    DefaultWorkClient client = new DefaultWorkClient(store, codec);
+    SubmissionOptions options = SubmissionOptions.builder().idempotencyKey("order-42").build();
+
+    byte[] encoded = new byte[]{4, 2};
+    when(codec.encode("p", 1)).thenReturn(encoded);
+    WorkRecord record = WorkRecord.builder()
+      .id("id-42")
+      .workType("task")
+      .idempotencyKey("order-42")
+      .payload(encoded)
+      .payloadType(String.class.getName())
+      .payloadVersion(1)
+      .codec("json")
+      .status(WorkRequest.Status.NEW)
+      .createdTs(Instant.now())
+      .build();
+    when(store.createWork(eq("task"), payloadOf(encoded), eq(options))).thenReturn(record);
+    when(codec.decode(encoded, String.class, 1)).thenReturn("p");
+
+    WorkRequest<String> first = client.submit("task", "p", options);
+    WorkRequest<String> again = client.submit("task", "p", options);
+
+    assertEquals("id-42", first.id());
+    assertSame(first, again);
+    verify(codec, times(1)).encode("p", 1);
+    verify(store, times(1)).createWork(anyString(), any(EncodedPayload.class), any(SubmissionOptions.class));
+  }
+
+  @Test
+  void recentKeysAreScopedByWorkTypeAndCanBeDisabled() {
+    DefaultWorkClient client = new DefaultWorkClient(store, codec, new LocalWorkSignalBus(), 0);
+    SubmissionOptions options = SubmissionOptions.builder().idempotencyKey("k").build();
+    when(codec.encode(any(), anyInt())).thenReturn(new byte[]{1});
+    when(store.createWork(anyString(), any(EncodedPayload.class), any(SubmissionOptions.class))).thenAnswer(inv -> WorkRecord.builder()
+      .id("id-" + inv.getArgument(0))
+      .workType(inv.getArgument(0))
+      .payload(new byte[]{1})
+      .payloadType(String.class.getName())
+      .payloadVersion(1)
+      .codec("json")
+      .status(WorkRequest.Status.NEW)
+      .build());
+    when(codec.decode(any(), eq(String.class), anyInt())).thenReturn("p");
+
+    client.submit("a", "p", options);
+    client.submit("a", "p", options);
+    client.submit("b", "p", options);
+
+    // the store deduplicates; without a cache every submission reaches it
+    verify(store, times(2)).createWork(eq("a"), any(EncodedPayload.class), eq(options));
+    verify(store).createWork(eq("b"), any(EncodedPayload.class), eq(options));
+    assertThrows(IllegalArgumentException.class, () -> new DefaultWorkClient(store, codec, new LocalWorkSignalBus(), -1));
+  }
+
+  @Test
+  void submitAllRejectsIdempotencyAndCoalesceKeys() {
+    DefaultWorkClient client = new DefaultWorkClient(store, codec);
+    SubmissionOptions keyed = SubmissionOptions.builder().idempotencyKey("k").build();
+    SubmissionOptions coalesced = SubmissionOptions.builder().coalesceKey("k").build();
+
+    assertThrows(IllegalArgumentException.class, () -> client.submitAll("task", List.of("p"), keyed));
+    assertThrows(IllegalArgumentException.class, () -> client.submitAll("task", List.of("p"), coalesced));
+    verifyNoInteractions(store, codec);
+  }
+
+  @Test
+  void repeatedCoalesceKeyAlwaysReachesStore() {
+    DefaultWorkClient client = new DefaultWorkClient(store, codec);
+    SubmissionOptions options = SubmissionOptions.builder().coalesceKey("refresh-7").build();
+    when(codec.encode(any(), anyInt())).thenReturn(new byte[]{1});
+    WorkRecord pending = WorkRecord.builder()
+      .id("id-1")
+      .workType("task")
+      .coalesceKey("refresh-7")
+      .payload(new byte[]{1})
+      .payloadType(String.class.getName())
+      .payloadVersion(1)
+      .codec("json")
+      .status(WorkRequest.Status.NEW)
+      .attemptCount(0)
+      .createdTs(Instant.now())
+      .build();
+    when(store.createWork(eq("task"), any(EncodedPayload.class), eq(options))).thenReturn(pending);
+    when(codec.decode(new byte[]{1}, String.class, 1)).thenReturn("p");
+
+    assertEquals("id-1", client.submit("task", "p1", options).id());
+    assertEquals("id-1", client.submit("task", "p2", options).id());
+    verify(store, times(2)).createWork(eq("task"), any(EncodedPayload.class), eq(options));
+  }
+
+  @Test
+  void submitAllEmptyDoesNotTouchStore() {
+    DefaultWorkClient client = new DefaultWorkClient(store, codec);
+    assertTrue(client.submitAll("task", List.of()).isEmpty());
+    verifyNoInteractions(store);
+  }
+
+  @Test
+  void submitAllWrapsEncodeFailure() {
+    DefaultWorkClient client = new DefaultWorkClient(store, codec);
+    when(codec.encode(any(), anyInt())).thenThrow(new RuntimeException("boom"));
+
+    assertThrows(IllegalArgumentException.class, () -> client.submitAll("x", List.of("p1", "p2")));
+    verify(store, never()).createWorkBatch(anyString(), any(), any());
+  }
+
+  @Test
+  void submitAllNullParamChecks() {
+    DefaultWorkClient client = new DefaultWorkClient(store, codec);
+    assertThrows(NullPointerException.class, () -> client.submitAll(null, List.of("p")));
+    assertThrows(NullPointerException.class, () -> client.submitAll("type", null));
+    assertThrows(NullPointerException.class, () -> client.submitAll("type", List.of("p"), null));
+    assertThrows(NullPointerException.class, () -> client.submitAll("type", java.util.Arrays.asList("p", null)));
+  }
+
   @Test
   void getReturnsDecodedWorkRequest() {
     DefaultWorkClient client = new DefaultWorkClient(store, codec);
@@ -203,6 +386,24 @@ public class DefaultWorkClientTest {
     assertEquals(42, out.get(1).payload());
   }
 
+  @Test
+  void listLeavesPayloadOfMetadataRecordsUndecoded() {
+    DefaultWorkClient client = new DefaultWorkClient(store, codec);
+
+    WorkRecord r = WorkRecord.builder()
+      .id("m1").workType("t").payloadType(Object.class.getName())
+      .payloadVersion(1).codec("json").status(WorkRequest.Status.FAILED).attemptCount(3).createdTs(Instant.now()).build();
+
+    WorkQuery q = WorkQuery.builder().workType("t").projection(WorkQuery.Projection.METADATA).build();
+    when(store.listWork(q)).thenReturn(List.of(r));
+
+    List<WorkRequest<?>> out = client.list(q);
+    assertEquals(1, out.size());
+    assertNull(out.getFirst().payload());
+    assertEquals(WorkRequest.Status.FAILED, out.getFirst().status());
+    verifyNoInteractions(codec);
+  }
+
   @Test
   void listNullParamChecks() {
     DefaultWorkClient client = new DefaultWorkClient(store, codec);
@@ -1,7 +1,12 @@
 package org.anthills.core.work;
 
 import org.anthills.api.codec.PayloadCodec;
+import org.anthills.api.work.ExecutionMode;
+import org.anthills.api.work.LeaseMode;
 import org.anthills.api.work.ProcessorConfig;
+import org.anthills.api.work.SubmissionOptions;
+import org.anthills.api.work.Subscription;
+import org.anthills.api.work.WorkOutcome;
 import org.anthills.api.work.WorkHandler;
 import org.anthills.api.work.WorkRecord;
 import org.anthills.api.work.WorkRequest;
@@ -18,6 +23,8 @@ import java.time.Instant;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -211,4 +218,372 @@ public class DefaultWorkRequestProcessorTest {
     p.stop();
     p.awaitTermination();
   }
+
+  @Test
+  @Timeout(10)
+  void workAvailableSignal_pollsImmediately_andUnsubscribesOnStop() throws Exception {
+    Subscription subscription = mock(Subscription.class);
+    ArgumentCaptor<Runnable> listener = ArgumentCaptor.forClass(Runnable.class);
+    when(store.onWorkAvailable(eq("email"), listener.capture())).thenReturn(subscription);
+    when(store.claimWork(eq("email"), anyString(), anyInt(), any())).thenReturn(List.of());
+
+    ProcessorConfig slowPolling = new ProcessorConfig(1, 2, 5, Duration.ofSeconds(30), Duration.ofSeconds(2), Duration.ofSeconds(1), Duration.ofSeconds(1));
+    DefaultWorkRequestProcessor p = new DefaultWorkRequestProcessor("email", store, codec, slowPolling);
+    p.start();
+
+    verify(store, after(200).never()).claimWork(anyString(), anyString(), anyInt(), any());
+
+    listener.getValue().run();
+    verify(store, timeout(1000).times(1)).claimWork(eq("email"), anyString(), anyInt(), any());
+
+    p.stop();
+    verify(subscription).close();
+    p.awaitTermination();
+  }
+
+  @Test
+  @Timeout(10)
+  void localSignal_pollsImmediately() throws Exception {
+    when(store.claimWork(eq("email"), anyString(), anyInt(), any())).thenReturn(List.of());
+    LocalWorkSignalBus bus = new LocalWorkSignalBus();
+
+    ProcessorConfig slowPolling = new ProcessorConfig(1, 2, 5, Duration.ofSeconds(30), Duration.ofSeconds(2), Duration.ofSeconds(1), Duration.ofSeconds(1));
+    DefaultWorkRequestProcessor p = new DefaultWorkRequestProcessor("email", store, codec, slowPolling, bus);
+    p.start();
+
+    bus.publish("sms");
+    verify(store, after(200).never()).claimWork(anyString(), anyString(), anyInt(), any());
+
+    bus.publish("email");
+    verify(store, timeout(1000).times(1)).claimWork(eq("email"), anyString(), anyInt(), any());
+
+    p.stop();
+    p.awaitTermination();
+  }
+
+  @Test
+  @Timeout(10)
+  void prefetch_claimsBeyondWorkers_andDrainsBufferThroughWorkers() throws Exception {
+    when(codec.name()).thenReturn("json");
+    List<WorkRecord> records = List.of(
+      record("p1", "email", "json", 0),
+      record("p2", "email", "json", 0),
+      record("p3", "email", "json", 0),
+      record("p4", "email", "json", 0));
+    when(store.claimWork(eq("email"), anyString(), anyInt(), any()))
+      .thenReturn(records)
+      .thenReturn(List.of());
+    when(codec.decode(any(), eq(Object.class), eq(1))).thenReturn(new Object());
+
+    ProcessorConfig prefetching = ProcessorConfig.builder()
+      .workerThreads(1)
+      .defaultMaxRetries(2)
+      .maxAllowedRetries(5)
+      .pollInterval(Duration.ofMillis(10))
+      .leaseDuration(Duration.ofMillis(200))
+      .leaseRenewInterval(Duration.ofMillis(50))
+      .shutdownTimeout(Duration.ofSeconds(1))
+      .prefetchSize(3)
+      .prefetchLowWatermark(1)
+      .build();
+    DefaultWorkRequestProcessor p = new DefaultWorkRequestProcessor("email", store, codec, prefetching, new LocalWorkSignalBus());
+    CountDownLatch handled = new CountDownLatch(4);
+    p.registerHandler("email", Object.class, req -> handled.countDown());
+    p.start();
+
+    assertTrue(handled.await(2, TimeUnit.SECONDS), "All prefetched records should be handled");
+    // 1 worker + 3 prefetched
+    verify(store, timeout(1000)).claimWork(eq("email"), anyString(), eq(4), any());
+    for (WorkRecord r : records) {
+      verify(store, timeout(1000)).markSucceeded(eq(r.id()), anyString());
+    }
+
+    p.stop();
+    p.awaitTermination();
+  }
+
+  @Test
+  @Timeout(10)
+  void prefetch_releasesUnstartedRecordsOnStop() throws Exception {
+    when(codec.name()).thenReturn("json");
+    when(store.claimWork(eq("email"), anyString(), anyInt(), any()))
+      .thenReturn(List.of(record("q1", "email", "json", 0), record("q2", "email", "json", 0), record("q3", "email", "json", 0)))
+      .thenReturn(List.of());
+    when(codec.decode(any(), eq(Object.class), eq(1))).thenReturn(new Object());
+
+    ProcessorConfig prefetching = ProcessorConfig.builder()
+      .workerThreads(1)
+      .pollInterval(Duration.ofMillis(10))
+      .leaseDuration(Duration.ofSeconds(2))
+      .leaseRenewInterval(Duration.ofSeconds(1))
+      .shutdownTimeout(Duration.ofSeconds(1))
+      .prefetchSize(2)
+      .build();
+    DefaultWorkRequestProcessor p = new DefaultWorkRequestProcessor("email", store, codec, prefetching, new LocalWorkSignalBus());
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    p.registerHandler("email", Object.class, req -> {
+      started.countDown();
+      release.await();
+    });
+    p.start();
+
+    assertTrue(started.await(2, TimeUnit.SECONDS));
+    p.stop();
+
+    verify(store).releaseClaims(anyString(), eq(List.of("q2", "q3")));
+    verify(store, never()).reschedule(anyString(), any());
+
+    release.countDown();
+    p.awaitTermination();
+  }
+
+  @Test
+  @Timeout(10)
+  void stop_releasesRecordsOfAPollStillRunning() throws Exception {
+    CountDownLatch claiming = new CountDownLatch(1);
+    CountDownLatch claimDone = new CountDownLatch(1);
+    when(store.claimWork(eq("email"), anyString(), anyInt(), any())).thenAnswer(inv -> {
+      claiming.countDown();
+      claimDone.await();
+      return List.of(record("s1", "email", "json", 0), record("s2", "email", "json", 0));
+    });
+
+    DefaultWorkRequestProcessor p = new DefaultWorkRequestProcessor("email", store, codec, cfg());
+    p.registerHandler("email", Object.class, req -> {});
+    p.start();
+    assertTrue(claiming.await(2, TimeUnit.SECONDS));
+
+    Thread stopper = new Thread(p::stop);
+    stopper.start();
+    Thread.sleep(100);
+    claimDone.countDown();
+    stopper.join(5000);
+
+    verify(store).releaseClaims(anyString(), eq(List.of("s1", "s2")));
+    p.awaitTermination();
+  }
+
+  @Test
+  @Timeout(10)
+  void runningLeasesAreRenewedInBulk() throws Exception {
+    when(codec.name()).thenReturn("json");
+    WorkRecord r = record("l1", "email", "json", 0);
+    when(store.claimWork(eq("email"), anyString(), anyInt(), any()))
+      .thenReturn(List.of(r))
+      .thenReturn(List.of());
+    when(codec.decode(r.payload(), Object.class, 1)).thenReturn(new Object());
+
+    DefaultWorkRequestProcessor p = new DefaultWorkRequestProcessor("email", store, codec, cfg(), new LocalWorkSignalBus());
+    CountDownLatch release = new CountDownLatch(1);
+    p.registerHandler("email", Object.class, req -> release.await());
+    p.start();
+
+    // renew interval is 50ms; the running item is renewed through the bulk operation
+    verify(store, timeout(1000).atLeast(2)).renewWorkerLeases(anyString(), eq(List.of("l1")), eq(Duration.ofMillis(200)));
+    verify(store, never()).renewWorkerLease(anyString(), anyString(), any());
+
+    release.countDown();
+    verify(store, timeout(1000)).markSucceeded(eq("l1"), anyString());
+    p.stop();
+    p.awaitTermination();
+  }
+
+  @Test
+  @Timeout(10)
+  void heartbeatModeRenewsOneOwnerHeartbeatInsteadOfItemLeases() throws Exception {
+    when(codec.name()).thenReturn("json");
+    WorkRecord r = record("hb1", "email", "json", 0);
+    when(store.claimWork(eq("email"), anyString(), anyInt(), any(), eq(LeaseMode.OWNER_HEARTBEAT)))
+      .thenReturn(List.of(r))
+      .thenReturn(List.of());
+    when(codec.decode(r.payload(), Object.class, 1)).thenReturn(new Object());
+
+    ProcessorConfig heartbeat = ProcessorConfig.builder()
+      .workerThreads(1)
+      .pollInterval(Duration.ofMillis(10))
+      .leaseDuration(Duration.ofMillis(200))
+      .leaseRenewInterval(Duration.ofMillis(50))
+      .shutdownTimeout(Duration.ofSeconds(1))
+      .leaseMode(LeaseMode.OWNER_HEARTBEAT)
+      .build();
+    DefaultWorkRequestProcessor p = new DefaultWorkRequestProcessor("email", store, codec, heartbeat, new LocalWorkSignalBus());
+    CountDownLatch release = new CountDownLatch(1);
+    p.registerHandler("email", Object.class, req -> release.await());
+    p.start();
+
+    verify(store, timeout(1000).atLeast(2)).renewOwnerHeartbeat(anyString(), eq(Duration.ofMillis(200)));
+    verify(store, never()).renewWorkerLeases(anyString(), any(), any());
+    verify(store, never()).claimWork(anyString(), anyString(), anyInt(), any());
+
+    release.countDown();
+    verify(store, timeout(1000)).markSucceeded(eq("hb1"), anyString());
+    p.stop();
+    p.awaitTermination();
+    verify(store).releaseOwnerHeartbeat(anyString());
+  }
+
+  @Test
+  @Timeout(10)
+  void writeBehindCompletionsAreAppliedInBatches() throws Exception {
+    when(codec.name()).thenReturn("json");
+    WorkRecord ok = record("w1", "email", "json", 1);
+    WorkRecord bad = record("w2", "email", "json", 1);
+    when(store.claimWork(eq("email"), anyString(), anyInt(), any()))
+      .thenReturn(List.of(ok, bad))
+      .thenReturn(List.of());
+    Object okPayload = new Object();
+    Object badPayload = new Object();
+    when(codec.decode(ok.payload(), Object.class, 1)).thenReturn(okPayload, badPayload);
+
+    ProcessorConfig writeBehind = ProcessorConfig.builder()
+      .workerThreads(2)
+      .pollInterval(Duration.ofMillis(10))
+      .leaseDuration(Duration.ofMillis(200))
+      .leaseRenewInterval(Duration.ofMillis(50))
+      .shutdownTimeout(Duration.ofSeconds(1))
+      .completionBatchSize(2)
+      .completionFlushInterval(Duration.ofSeconds(5))
+      .build();
+    DefaultWorkRequestProcessor p = new DefaultWorkRequestProcessor("email", store, codec, writeBehind, new LocalWorkSignalBus());
+    p.registerHandler("email", Object.class, req -> {
+      if (req.payload() == badPayload) throw new IllegalStateException("boom");
+    });
+    p.start();
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<WorkOutcome>> batch = ArgumentCaptor.forClass(List.class);
+    verify(store, timeout(2000)).applyOutcomes(anyString(), batch.capture());
+    assertEquals(2, batch.getValue().size());
+    assertTrue(batch.getValue().stream().anyMatch(o -> o.type() == WorkOutcome.Type.SUCCEEDED));
+    assertTrue(batch.getValue().stream().anyMatch(o -> o.type() == WorkOutcome.Type.RESCHEDULED));
+    verify(store, never()).markSucceeded(anyString(), anyString());
+    verify(store, never()).reschedule(anyString(), any());
+
+    p.stop();
+    p.awaitTermination();
+  }
+
+  @Test
+  @Timeout(10)
+  void virtualThreadModeBoundsConcurrencyWithSemaphore() throws Exception {
+    when(codec.name()).thenReturn("json");
+    WorkRecord r1 = record("v1", "email", "json", 1);
+    WorkRecord r2 = record("v2", "email", "json", 1);
+    WorkRecord r3 = record("v3", "email", "json", 1);
+    when(store.claimWork(eq("email"), anyString(), anyInt(), any()))
+      .thenReturn(List.of(r1, r2, r3))
+      .thenReturn(List.of());
+    when(codec.decode(any(), eq(Object.class), eq(1))).thenReturn(new Object());
+
+    ProcessorConfig virtual = ProcessorConfig.builder()
+      .workerThreads(2)
+      .pollInterval(Duration.ofMillis(10))
+      .leaseDuration(Duration.ofSeconds(2))
+      .leaseRenewInterval(Duration.ofSeconds(1))
+      .shutdownTimeout(Duration.ofSeconds(1))
+      .executionMode(ExecutionMode.VIRTUAL_THREADS)
+      .build();
+    DefaultWorkRequestProcessor p = new DefaultWorkRequestProcessor("email", store, codec, virtual, new LocalWorkSignalBus());
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    AtomicBoolean allVirtual = new AtomicBoolean(true);
+    CountDownLatch twoRunning = new CountDownLatch(2);
+    CountDownLatch release = new CountDownLatch(1);
+    p.registerHandler("email", Object.class, req -> {
+      allVirtual.compareAndSet(true, Thread.currentThread().isVirtual());
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      twoRunning.countDown();
+      release.await();
+      running.decrementAndGet();
+    });
+    p.start();
+
+    assertTrue(twoRunning.await(2, TimeUnit.SECONDS));
+    // the third item waits for a permit
+    Thread.sleep(100);
+    assertEquals(2, maxRunning.get());
+    verify(store, never()).markSucceeded(eq("v3"), anyString());
+
+    release.countDown();
+    verify(store, timeout(2000).times(3)).markSucceeded(anyString(), anyString());
+    assertEquals(2, maxRunning.get());
+    assertTrue(allVirtual.get());
+    p.stop();
+    p.awaitTermination();
+  }
+
+  @Test
+  @Timeout(10)
+  void adaptiveConcurrencyShrinksClaimSizeWhenHandlersFail() throws Exception {
+    when(codec.name()).thenReturn("json");
+    AtomicInteger ids = new AtomicInteger();
+    when(store.claimWork(eq("email"), anyString(), anyInt(), any())).thenAnswer(inv -> {
+      int limit = inv.getArgument(2);
+      return java.util.stream.IntStream.range(0, limit)
+        .mapToObj(_ -> record("a" + ids.incrementAndGet(), "email", "json", 5))
+        .toList();
+    });
+    when(codec.decode(any(), eq(Object.class), eq(1))).thenReturn(new Object());
+
+    ProcessorConfig adaptive = ProcessorConfig.builder()
+      .workerThreads(8)
+      .minWorkerThreads(2)
+      .adaptiveConcurrency(true)
+      .pollInterval(Duration.ofMillis(10))
+      .leaseDuration(Duration.ofSeconds(2))
+      .leaseRenewInterval(Duration.ofSeconds(1))
+      .shutdownTimeout(Duration.ofSeconds(1))
+      .build();
+    DefaultWorkRequestProcessor p = new DefaultWorkRequestProcessor("email", store, codec, adaptive, new LocalWorkSignalBus());
+    p.registerHandler("email", Object.class, req -> {
+      throw new IllegalStateException("downstream unavailable");
+    });
+    p.start();
+
+    // first claim uses the full limit; repeated failures back the claim size off towards the minimum
+    verify(store, timeout(2000)).claimWork(eq("email"), anyString(), eq(8), any());
+    verify(store, timeout(3000).atLeastOnce()).claimWork(eq("email"), anyString(), intThat(limit -> limit <= 2), any());
+    verify(store, never()).claimWork(eq("email"), anyString(), intThat(limit -> limit > 8), any());
+    p.stop();
+    p.awaitTermination();
+  }
+
+  @Test
+  @Timeout(10)
+  void agesWaitingItemsOfItsWorkTypeWhenConfigured() throws Exception {
+    when(store.claimWork(eq("email"), anyString(), anyInt(), any())).thenReturn(List.of());
+
+    ProcessorConfig aging = ProcessorConfig.builder()
+      .workerThreads(1)
+      .pollInterval(Duration.ofMillis(10))
+      .leaseDuration(Duration.ofMillis(200))
+      .leaseRenewInterval(Duration.ofMillis(50))
+      .shutdownTimeout(Duration.ofSeconds(1))
+      .priorityAgingInterval(Duration.ofMinutes(5))
+      .build();
+    DefaultWorkRequestProcessor p = new DefaultWorkRequestProcessor("email", store, codec, aging, new LocalWorkSignalBus());
+    p.start();
+
+    verify(store, timeout(1000)).agePriorities("email", Duration.ofMinutes(5), SubmissionOptions.MAX_PRIORITY - 1);
+    verify(store, timeout(1000).atLeast(3)).claimWork(eq("email"), anyString(), anyInt(), any());
+    // at most a few runs per interval, not one per poll
+    verify(store, times(1)).agePriorities(anyString(), any(), anyInt());
+    p.stop();
+    p.awaitTermination();
+  }
+
+  @Test
+  @Timeout(10)
+  void doesNotAgePrioritiesByDefault() throws Exception {
+    when(store.claimWork(eq("email"), anyString(), anyInt(), any())).thenReturn(List.of());
+
+    DefaultWorkRequestProcessor p = new DefaultWorkRequestProcessor("email", store, codec, cfg(), new LocalWorkSignalBus());
+    p.start();
+
+    verify(store, timeout(1000).atLeast(3)).claimWork(eq("email"), anyString(), anyInt(), any());
+    verify(store, never()).agePriorities(anyString(), any(), anyInt());
+    p.stop();
+    p.awaitTermination();
+  }
 }
@@ -0,0 +1,130 @@
+package org.anthills.core.work;
+
+import org.anthills.api.work.WorkRecord;
+import org.anthills.api.work.WorkRequest;
+import org.anthills.api.work.WorkTypeConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DeficitRoundRobinSchedulerTest {
+
+  private static WorkRecord record(String id, String workType) {
+    return WorkRecord.builder()
+      .id(id)
+      .workType(workType)
+      .payload(new byte[]{1})
+      .payloadType(Object.class.getName())
+      .payloadVersion(1)
+      .codec("json")
+      .status(WorkRequest.Status.IN_PROGRESS)
+      .attemptCount(1)
+      .createdTs(Instant.now())
+      .build();
+  }
+
+  private static DeficitRoundRobinScheduler scheduler(WorkTypeConfig sms, WorkTypeConfig email) {
+    Map<String, WorkTypeConfig> types = new LinkedHashMap<>();
+    types.put("sms", sms);
+    types.put("email", email);
+    return new DeficitRoundRobinScheduler(types);
+  }
+
+  private static void offer(DeficitRoundRobinScheduler s, String workType, int count) {
+    for (int i = 0; i < count; i++) {
+      assertTrue(s.offer(record(workType + i, workType)));
+    }
+  }
+
+  @Test
+  void claimQuotasFollowWeights() {
+    DeficitRoundRobinScheduler s = scheduler(WorkTypeConfig.builder().weight(3).build(), WorkTypeConfig.defaults());
+
+    assertEquals(Map.of("sms", 6, "email", 2), s.claimQuotas(8, Set.of()));
+    assertEquals(Map.of("sms", 3, "email", 1), s.claimQuotas(4, Set.of()));
+    assertEquals(Map.of(), s.claimQuotas(0, Set.of()));
+  }
+
+  @Test
+  void claimQuotasGiveExhaustedTypesNothing_andRespectCaps() {
+    DeficitRoundRobinScheduler s = scheduler(WorkTypeConfig.builder().maxConcurrency(2).build(), WorkTypeConfig.defaults());
+
+    assertEquals(Map.of("sms", 2, "email", 8), s.claimQuotas(10, Set.of()));
+    assertEquals(Map.of("email", 10), s.claimQuotas(10, Set.of("sms")));
+
+    offer(s, "sms", 2);
+    assertEquals(Map.of("email", 5), s.claimQuotas(5, Set.of()));
+  }
+
+  @Test
+  void claimQuotasCoverReservedWorkersFirst() {
+    DeficitRoundRobinScheduler s = scheduler(WorkTypeConfig.builder().minConcurrency(2).build(),
+      WorkTypeConfig.builder().weight(10).build());
+
+    // without the reservation email would get 3 of 4
+    assertEquals(Map.of("sms", 3, "email", 1), s.claimQuotas(4, Set.of()));
+  }
+
+  @Test
+  void workersAreHandedOutByDeficitRoundRobin() {
+    DeficitRoundRobinScheduler s = scheduler(WorkTypeConfig.builder().weight(2).build(), WorkTypeConfig.defaults());
+    offer(s, "sms", 3);
+    offer(s, "email", 3);
+
+    List<String> order = new ArrayList<>();
+    WorkRecord r;
+    while ((r = s.next(100)) != null) {
+      order.add(r.id());
+    }
+    assertEquals(List.of("sms0", "sms1", "email0", "sms2", "email1", "email2"), order);
+    assertEquals(0, s.queued());
+    assertEquals(3, s.running("sms"));
+  }
+
+  @Test
+  void typeAtItsCapIsSkippedUntilAnItemCompletes() {
+    DeficitRoundRobinScheduler s = scheduler(WorkTypeConfig.builder().maxConcurrency(1).build(), WorkTypeConfig.defaults());
+    offer(s, "sms", 2);
+
+    assertEquals("sms0", s.next(10).id());
+    assertNull(s.next(10));
+
+    s.completed("sms");
+    assertEquals("sms1", s.next(10).id());
+  }
+
+  @Test
+  void reservedWorkersAreKeptForTheirType() {
+    DeficitRoundRobinScheduler s = scheduler(WorkTypeConfig.builder().minConcurrency(1).build(), WorkTypeConfig.defaults());
+    offer(s, "email", 2);
+
+    // two free workers, one reserved for sms
+    assertEquals("email0", s.next(2).id());
+    assertNull(s.next(1));
+
+    offer(s, "sms", 1);
+    assertEquals("sms0", s.next(1).id());
+  }
+
+  @Test
+  void removeAndDrainForgetQueuedRecords() {
+    DeficitRoundRobinScheduler s = scheduler(WorkTypeConfig.defaults(), WorkTypeConfig.defaults());
+    offer(s, "sms", 2);
+    offer(s, "email", 1);
+
+    assertTrue(s.remove("sms1"));
+    assertFalse(s.remove("sms1"));
+    assertFalse(s.offer(record("x", "push")));
+    assertEquals(2, s.queued());
+    assertEquals(Set.of("sms0", "email0"), Set.copyOf(s.drain().stream().map(WorkRecord::id).toList()));
+    assertEquals(0, s.queued());
+    assertNull(s.next(10));
+  }
+}
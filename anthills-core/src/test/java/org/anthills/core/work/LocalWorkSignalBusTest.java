@@ -0,0 +1,72 @@
+package org.anthills.core.work;
+
+import org.anthills.api.work.Subscription;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LocalWorkSignalBusTest {
+
+  @Test
+  void publishInvokesListenersOfSameWorkTypeOnly() {
+    LocalWorkSignalBus bus = new LocalWorkSignalBus();
+    AtomicInteger email = new AtomicInteger();
+    AtomicInteger sms = new AtomicInteger();
+    bus.subscribe("email", email::incrementAndGet);
+    bus.subscribe("sms", sms::incrementAndGet);
+
+    bus.publish("email");
+    bus.publish("email");
+
+    assertEquals(2, email.get());
+    assertEquals(0, sms.get());
+  }
+
+  @Test
+  void closedSubscriptionStopsSignals() {
+    LocalWorkSignalBus bus = new LocalWorkSignalBus();
+    AtomicInteger calls = new AtomicInteger();
+    Subscription subscription = bus.subscribe("email", calls::incrementAndGet);
+
+    subscription.close();
+    subscription.close();
+    bus.publish("email");
+
+    assertEquals(0, calls.get());
+  }
+
+  @Test
+  void subscribeRacingTheLastCloseIsNotLost() {
+    for (int i = 0; i < 1_000; i++) {
+      LocalWorkSignalBus bus = new LocalWorkSignalBus();
+      Subscription last = bus.subscribe("email", () -> {});
+      AtomicInteger calls = new AtomicInteger();
+
+      CompletableFuture<Void> closing = CompletableFuture.runAsync(last::close);
+      bus.subscribe("email", calls::incrementAndGet);
+      closing.join();
+      bus.publish("email");
+
+      assertEquals(1, calls.get());
+    }
+  }
+
+  @Test
+  void failingListenerDoesNotAffectOthersOrPublisher() {
+    LocalWorkSignalBus bus = new LocalWorkSignalBus();
+    AtomicInteger calls = new AtomicInteger();
+    bus.subscribe("email", () -> { throw new IllegalStateException("boom"); });
+    bus.subscribe("email", calls::incrementAndGet);
+
+    assertDoesNotThrow(() -> bus.publish("email"));
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void defaultInstanceIsShared() {
+    assertSame(LocalWorkSignalBus.defaultInstance(), LocalWorkSignalBus.defaultInstance());
+  }
+}
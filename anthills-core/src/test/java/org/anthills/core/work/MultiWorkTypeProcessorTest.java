@@ -0,0 +1,253 @@
+package org.anthills.core.work;
+
+import org.anthills.api.codec.PayloadCodec;
+import org.anthills.api.work.LeaseMode;
+import org.anthills.api.work.ProcessorConfig;
+import org.anthills.api.work.WorkRecord;
+import org.anthills.api.work.WorkRequest;
+import org.anthills.api.work.WorkStore;
+import org.anthills.api.work.WorkTypeConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class MultiWorkTypeProcessorTest {
+
+  @Mock
+  WorkStore store;
+
+  @Mock
+  PayloadCodec codec;
+
+  private ProcessorConfig cfg(int workerThreads, int prefetchSize) {
+    return ProcessorConfig.builder()
+      .workerThreads(workerThreads)
+      .defaultMaxRetries(2)
+      .maxAllowedRetries(5)
+      .pollInterval(Duration.ofMillis(10))
+      .leaseDuration(Duration.ofMillis(200))
+      .leaseRenewInterval(Duration.ofMillis(50))
+      .shutdownTimeout(Duration.ofSeconds(1))
+      .prefetchSize(prefetchSize)
+      .build();
+  }
+
+  private WorkRecord record(String id, String workType) {
+    return WorkRecord.builder()
+      .id(id)
+      .workType(workType)
+      .payload(new byte[]{1, 2, 3})
+      .payloadType(Object.class.getName())
+      .payloadVersion(1)
+      .codec("json")
+      .status(WorkRequest.Status.NEW)
+      .attemptCount(1)
+      .createdTs(Instant.now())
+      .build();
+  }
+
+  private static Map<String, WorkTypeConfig> types(String a, WorkTypeConfig aConfig, String b, WorkTypeConfig bConfig) {
+    Map<String, WorkTypeConfig> types = new LinkedHashMap<>();
+    types.put(a, aConfig);
+    types.put(b, bConfig);
+    return types;
+  }
+
+  @Test
+  @Timeout(5)
+  void registerHandler_unknownWorkTypeThrows() {
+    MultiWorkTypeProcessor p = new MultiWorkTypeProcessor(
+      types("email", WorkTypeConfig.defaults(), "sms", WorkTypeConfig.defaults()), store, codec, cfg(1, 0), new LocalWorkSignalBus());
+    assertThrows(IllegalArgumentException.class, () -> p.registerHandler("push", Object.class, r -> {}));
+    p.stop();
+  }
+
+  @Test
+  @Timeout(10)
+  void claimsFairQuotasOfAllTypesInOneCall_andRoutesToTheHandlerOfEachType() throws Exception {
+    when(codec.name()).thenReturn("json");
+    when(codec.decode(any(), eq(Object.class), eq(1))).thenReturn(new Object());
+    when(store.claimWork(anyMap(), anyString(), any(), any()))
+      .thenReturn(List.of(record("e1", "email"), record("s1", "sms")))
+      .thenReturn(List.of());
+
+    MultiWorkTypeProcessor p = new MultiWorkTypeProcessor(
+      types("email", WorkTypeConfig.defaults(), "sms", WorkTypeConfig.defaults()), store, codec, cfg(2, 0), new LocalWorkSignalBus());
+    List<String> emails = Collections.synchronizedList(new ArrayList<>());
+    List<String> sms = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch handled = new CountDownLatch(2);
+    p.registerHandler("email", Object.class, req -> { emails.add(req.id()); handled.countDown(); });
+    p.registerHandler("sms", Object.class, req -> { sms.add(req.id()); handled.countDown(); });
+    p.start();
+
+    assertTrue(handled.await(2, TimeUnit.SECONDS));
+    assertEquals(List.of("e1"), emails);
+    assertEquals(List.of("s1"), sms);
+    verify(store, timeout(1000).atLeastOnce()).claimWork(eq(Map.of("email", 1, "sms", 1)), anyString(), any(), eq(LeaseMode.PER_ITEM));
+    verify(store, timeout(1000)).markSucceeded(eq("e1"), anyString());
+    verify(store, timeout(1000)).markSucceeded(eq("s1"), anyString());
+    verify(store, never()).claimWork(anyString(), anyString(), anyInt(), any());
+
+    p.stop();
+    p.awaitTermination();
+  }
+
+  @Test
+  @Timeout(10)
+  void typeAtItsCapWaitsWhileOtherTypesUseFreeWorkers() throws Exception {
+    when(codec.name()).thenReturn("json");
+    when(codec.decode(any(), eq(Object.class), eq(1))).thenReturn(new Object());
+    when(store.claimWork(anyMap(), anyString(), any(), any()))
+      .thenReturn(List.of(record("e1", "email"), record("e2", "email"), record("e3", "email"), record("s1", "sms")))
+      .thenReturn(List.of());
+
+    MultiWorkTypeProcessor p = new MultiWorkTypeProcessor(
+      types("email", WorkTypeConfig.builder().maxConcurrency(1).build(), "sms", WorkTypeConfig.defaults()),
+      store, codec, cfg(4, 0), new LocalWorkSignalBus());
+    AtomicInteger runningEmails = new AtomicInteger();
+    AtomicInteger maxRunningEmails = new AtomicInteger();
+    CountDownLatch smsHandled = new CountDownLatch(1);
+    CountDownLatch emailsHandled = new CountDownLatch(3);
+    p.registerHandler("email", Object.class, req -> {
+      maxRunningEmails.accumulateAndGet(runningEmails.incrementAndGet(), Math::max);
+      Thread.sleep(50);
+      runningEmails.decrementAndGet();
+      emailsHandled.countDown();
+    });
+    p.registerHandler("sms", Object.class, req -> smsHandled.countDown());
+    p.start();
+
+    assertTrue(smsHandled.await(1, TimeUnit.SECONDS), "sms should not wait behind capped email items");
+    assertTrue(emailsHandled.await(2, TimeUnit.SECONDS));
+    assertEquals(1, maxRunningEmails.get());
+
+    p.stop();
+    p.awaitTermination();
+  }
+
+  @Test
+  @Timeout(10)
+  void registerHandler_matchesWorkTypesIgnoringCase() throws Exception {
+    when(codec.name()).thenReturn("json");
+    when(codec.decode(any(), eq(Object.class), eq(1))).thenReturn(new Object());
+    when(store.claimWork(anyMap(), anyString(), any(), any()))
+      .thenReturn(List.of(record("e1", "email")))
+      .thenReturn(List.of());
+
+    MultiWorkTypeProcessor p = new MultiWorkTypeProcessor(
+      types("email", WorkTypeConfig.defaults(), "sms", WorkTypeConfig.defaults()), store, codec, cfg(1, 0), new LocalWorkSignalBus());
+    CountDownLatch handled = new CountDownLatch(1);
+    p.registerHandler("EMAIL", Object.class, req -> handled.countDown());
+    p.start();
+
+    assertTrue(handled.await(2, TimeUnit.SECONDS));
+    verify(store, timeout(1000)).markSucceeded(eq("e1"), anyString());
+
+    p.stop();
+    p.awaitTermination();
+  }
+
+  @Test
+  @Timeout(5)
+  void workTypesDifferingOnlyInCaseThrow() {
+    assertThrows(IllegalArgumentException.class, () -> new MultiWorkTypeProcessor(
+      types("email", WorkTypeConfig.defaults(), "Email", WorkTypeConfig.defaults()), store, codec, cfg(2, 0), new LocalWorkSignalBus()));
+  }
+
+  @Test
+  @Timeout(5)
+  void adaptiveConcurrencyRequiresReservedWorkersWithinTheMinimum() {
+    ProcessorConfig adaptive = ProcessorConfig.builder()
+      .workerThreads(4)
+      .minWorkerThreads(1)
+      .adaptiveConcurrency(true)
+      .build();
+    assertThrows(IllegalArgumentException.class, () -> new MultiWorkTypeProcessor(
+      types("email", WorkTypeConfig.builder().minConcurrency(1).build(), "sms", WorkTypeConfig.builder().minConcurrency(1).build()),
+      store, codec, adaptive, new LocalWorkSignalBus()));
+  }
+
+  @Test
+  @Timeout(5)
+  void reservingMoreWorkersThanThePoolThrows() {
+    assertThrows(IllegalArgumentException.class, () -> new MultiWorkTypeProcessor(
+      types("email", WorkTypeConfig.builder().minConcurrency(2).build(), "sms", WorkTypeConfig.builder().minConcurrency(1).build()),
+      store, codec, cfg(2, 0), new LocalWorkSignalBus()));
+  }
+
+  @Test
+  @Timeout(10)
+  void typeWhoseQuotaIsNotFilledLeavesCapacityToOthers() throws Exception {
+    when(codec.name()).thenReturn("json");
+    when(codec.decode(any(), eq(Object.class), eq(1))).thenReturn(new Object());
+    when(store.claimWork(anyMap(), anyString(), any(), any()))
+      .thenReturn(List.of(record("b1", "bulk"), record("b2", "bulk")))
+      .thenReturn(List.of(record("b3", "bulk"), record("b4", "bulk")))
+      .thenReturn(List.of());
+
+    MultiWorkTypeProcessor p = new MultiWorkTypeProcessor(
+      types("bulk", WorkTypeConfig.defaults(), "sms", WorkTypeConfig.defaults()), store, codec, cfg(4, 0), new LocalWorkSignalBus());
+    CountDownLatch gate = new CountDownLatch(1);
+    CountDownLatch handled = new CountDownLatch(4);
+    p.registerHandler("bulk", Object.class, req -> {
+      gate.await();
+      handled.countDown();
+    });
+    p.start();
+
+    // sms had nothing, so its half of the first poll is claimed for bulk right away
+    verify(store, timeout(1000)).claimWork(eq(Map.of("bulk", 2, "sms", 2)), anyString(), any(), any());
+    verify(store, timeout(1000)).claimWork(eq(Map.of("bulk", 2)), anyString(), any(), any());
+    gate.countDown();
+    assertTrue(handled.await(2, TimeUnit.SECONDS));
+
+    p.stop();
+    p.awaitTermination();
+  }
+
+  @Test
+  @Timeout(10)
+  void queuedItemsAreDispatchedByWeight() throws Exception {
+    when(codec.name()).thenReturn("json");
+    when(codec.decode(any(), eq(Object.class), eq(1))).thenReturn(new Object());
+    when(store.claimWork(anyMap(), anyString(), any(), any()))
+      .thenReturn(List.of(
+        record("a1", "bulk"), record("a2", "bulk"), record("a3", "bulk"), record("a4", "bulk"),
+        record("b1", "urgent"), record("b2", "urgent"), record("b3", "urgent"), record("b4", "urgent")))
+      .thenReturn(List.of());
+
+    MultiWorkTypeProcessor p = new MultiWorkTypeProcessor(
+      types("urgent", WorkTypeConfig.builder().weight(3).build(), "bulk", WorkTypeConfig.defaults()),
+      store, codec, cfg(1, 7), new LocalWorkSignalBus());
+    List<String> order = Collections.synchronizedList(new ArrayList<>());
+    CountDownLatch handled = new CountDownLatch(8);
+    p.registerHandler("urgent", Object.class, req -> { order.add(req.id()); handled.countDown(); });
+    p.registerHandler("bulk", Object.class, req -> { order.add(req.id()); handled.countDown(); });
+    p.start();
+
+    assertTrue(handled.await(2, TimeUnit.SECONDS));
+    // weight 3:1 -> three urgent, one bulk, then what is left
+    assertEquals(List.of("b1", "b2", "b3", "a1", "b4", "a2", "a3", "a4"), order);
+
+    p.stop();
+    p.awaitTermination();
+  }
+}
@@ -0,0 +1,47 @@
+package org.anthills.core.work;
+
+import org.anthills.api.work.WorkRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecentSubmissionsTest {
+
+  private static WorkRequest<String> request(String id) {
+    return WorkRequest.<String>builder().id(id).workType("task").payload("p").build();
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedKeyBeyondCapacity() {
+    RecentSubmissions recent = new RecentSubmissions(2);
+    recent.put("task", "k1", request("1"));
+    recent.put("task", "k2", request("2"));
+    assertEquals("1", recent.get("task", "k1").id()); // k1 is now the most recently used
+
+    recent.put("task", "k3", request("3"));
+
+    assertEquals(2, recent.size());
+    assertNull(recent.get("task", "k2"));
+    assertEquals("1", recent.get("task", "k1").id());
+    assertEquals("3", recent.get("task", "k3").id());
+  }
+
+  @Test
+  void keysAreScopedByWorkType() {
+    RecentSubmissions recent = new RecentSubmissions(10);
+    recent.put("email", "k", request("1"));
+
+    assertNull(recent.get("sms", "k"));
+    assertEquals("1", recent.get("email", "k").id());
+  }
+
+  @Test
+  void zeroCapacityRemembersNothing() {
+    RecentSubmissions recent = new RecentSubmissions(0);
+    recent.put("task", "k", request("1"));
+
+    assertNull(recent.get("task", "k"));
+    assertEquals(0, recent.size());
+    assertThrows(IllegalArgumentException.class, () -> new RecentSubmissions(-1));
+  }
+}
@@ -0,0 +1,79 @@
+package org.anthills.core.work;
+
+import org.anthills.api.scheduler.LeasedScheduler;
+import org.anthills.api.scheduler.Schedule;
+import org.anthills.api.work.RetentionMode;
+import org.anthills.api.work.RetentionPolicy;
+import org.anthills.api.work.WorkStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WorkRetentionTest {
+
+  @Mock
+  WorkStore store;
+
+  @Mock
+  LeasedScheduler scheduler;
+
+  private static RetentionPolicy policy(int maxBatches) {
+    return RetentionPolicy.builder()
+      .retainFor(Duration.ofDays(1))
+      .mode(RetentionMode.ARCHIVE)
+      .batchSize(10)
+      .maxBatchesPerRun(maxBatches)
+      .pauseBetweenBatches(Duration.ZERO)
+      .build();
+  }
+
+  @Test
+  void purgeRemovesBatchesUntilOneComesBackShort() {
+    when(store.purgeTerminalWork(any(), eq(10), eq(RetentionMode.ARCHIVE))).thenReturn(10, 10, 3);
+
+    Instant before = Instant.now().minus(Duration.ofDays(1));
+    assertEquals(23, new WorkRetention(store, policy(100)).purge());
+
+    ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+    verify(store, times(3)).purgeTerminalWork(cutoff.capture(), eq(10), eq(RetentionMode.ARCHIVE));
+    assertFalse(cutoff.getValue().isBefore(before));
+    assertFalse(cutoff.getValue().isAfter(Instant.now().minus(Duration.ofDays(1))));
+    assertEquals(1, cutoff.getAllValues().stream().distinct().count());
+  }
+
+  @Test
+  void purgeStopsAtTheBatchBudget() {
+    when(store.purgeTerminalWork(any(), anyInt(), any())).thenReturn(10);
+
+    assertEquals(20, new WorkRetention(store, policy(2)).purge());
+    verify(store, times(2)).purgeTerminalWork(any(), anyInt(), any());
+  }
+
+  @Test
+  void registerSchedulesTheJobAtThePolicyInterval() {
+    RetentionPolicy policy = RetentionPolicy.builder().interval(Duration.ofMinutes(3)).build();
+    WorkRetention retention = new WorkRetention(store, policy);
+
+    retention.register(scheduler);
+
+    verify(scheduler).schedule(WorkRetention.JOB_NAME, Schedule.FixedRate.every(Duration.ofMinutes(3)), retention);
+  }
+
+  @Test
+  void policyRejectsInvalidSettings() {
+    assertThrows(IllegalArgumentException.class, () -> RetentionPolicy.builder().batchSize(0).build());
+    assertThrows(IllegalArgumentException.class, () -> RetentionPolicy.builder().retainFor(Duration.ofSeconds(-1)).build());
+    assertThrows(IllegalArgumentException.class, () -> RetentionPolicy.builder().interval(Duration.ZERO).build());
+    assertThrows(IllegalArgumentException.class, () -> RetentionPolicy.builder().mode(null).build());
+  }
+}
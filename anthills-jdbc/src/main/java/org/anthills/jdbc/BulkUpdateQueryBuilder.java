@@ -0,0 +1,266 @@
+package org.anthills.jdbc;
+
+import org.anthills.api.work.BulkAction;
+import org.anthills.api.work.WorkQuery;
+import org.anthills.api.work.WorkRequest;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Builds the SQL of {@link JdbcWorkStore#bulkUpdate}, which applies a {@link BulkAction} to the work
+ * items matching a {@link WorkQuery} in bounded chunks.
+ *
+ * A chunk is changed by one statement that takes a row limit, in the cheapest form each database offers
+ * (as for retention, see {@link PurgeWorkQueryBuilder}):
+ * - MySQL: {@code UPDATE/DELETE ... LIMIT ?}
+ * - SQL Server: {@code UPDATE/DELETE TOP (?) ...}
+ * - H2: {@code UPDATE/DELETE ... FETCH FIRST ? ROWS ONLY}
+ * - Oracle: {@code UPDATE/DELETE ... AND ROWNUM <= ?}
+ * - DB2: {@code UPDATE/DELETE FROM (SELECT ... FETCH FIRST ? ROWS ONLY)}
+ * - PostgreSQL, SQLite: {@code UPDATE/DELETE ... WHERE id IN (SELECT id ... LIMIT ?)}
+ * Changed items no longer match (their status leaves {@link BulkAction#statuses()}), so repeating the
+ * statement until it changes fewer than the limit works off every match without an offset.
+ *
+ * Where items move between tables ({@link StorageLayout#HOT_COLD}), a chunk is selected by id
+ * ({@link #buildSelectIdsSql}) and changed with the by-id statements instead. Only ids are read.
+ *
+ * Statuses are always rendered as literals, as they come from {@link WorkRequest.Status}; the query's
+ * work type and creation range are bound as parameters. The filters are those of
+ * {@link ListWorkQueryBuilder}, without ids, paging, cursor or projection.
+ */
+public final class BulkUpdateQueryBuilder {
+
+  private static final String REQUEUE_SET = """
+    status = 'NEW', attempt_count = 0, owner_id = NULL, lease_until = NULL, visible_at = ?,
+        failure_reason = NULL, started_ts = NULL, completed_ts = NULL, updated_ts = ?""";
+
+  private static final String CANCEL_SET = "status = 'CANCELLED', owner_id = NULL, lease_until = NULL, completed_ts = ?, updated_ts = ?";
+
+  private final WorkQuery query;
+  private final BulkAction action;
+  private final DbInfo.Dialect dialect;
+  private final String table;
+  private final StringBuilder sql = new StringBuilder();
+  private final List<Object> params = new ArrayList<>();
+
+  /**
+   * Creates a builder bound to a specific query, action, dialect and table.
+   *
+   * @param query filters selecting the items
+   * @param action change to apply
+   * @param dialect target SQL dialect used to render the row limit
+   * @param table work_request or the history table
+   * @throws NullPointerException if any argument is null
+   */
+  public BulkUpdateQueryBuilder(WorkQuery query, BulkAction action, DbInfo.Dialect dialect, String table) {
+    this.query = Objects.requireNonNull(query, "query is required");
+    this.action = Objects.requireNonNull(action, "action is required");
+    this.dialect = Objects.requireNonNull(dialect, "dialect is required");
+    this.table = Objects.requireNonNull(table, "table is required");
+  }
+
+  /**
+   * Builds the statement changing one chunk of at most {@code limit} matching items.
+   * Call {@link #params()} afterwards to get the ordered parameter list.
+   *
+   * @param now time recorded on the changed items
+   * @param limit maximum number of items to change
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public String buildChunkSql(Instant now, int limit) {
+    List<Object> set = setParams(action, now);
+    String setClause = setClause(action);
+    String verb = setClause == null ? "DELETE FROM " : "UPDATE ";
+    String assignments = setClause == null ? "" : " SET " + setClause;
+    switch (dialect) {
+      case MySQL -> {
+        sql.append(verb).append(table).append(assignments);
+        params.addAll(set);
+        appendWhere();
+        sql.append(" LIMIT ?");
+        params.add(limit);
+      }
+      case MSSQL -> {
+        sql.append(setClause == null ? "DELETE TOP (?) FROM " : "UPDATE TOP (?) ").append(table).append(assignments);
+        params.add(limit);
+        params.addAll(set);
+        appendWhere();
+      }
+      case H2 -> {
+        sql.append(verb).append(table).append(assignments);
+        params.addAll(set);
+        appendWhere();
+        sql.append(" FETCH FIRST ? ROWS ONLY");
+        params.add(limit);
+      }
+      case Oracle -> {
+        sql.append(verb).append(table).append(assignments);
+        params.addAll(set);
+        appendWhere();
+        sql.append(" AND ROWNUM <= ?");
+        params.add(limit);
+      }
+      case DB2 -> {
+        sql.append(setClause == null ? "DELETE FROM (SELECT * FROM " : "UPDATE (SELECT * FROM ").append(table);
+        appendWhere();
+        sql.append(" FETCH FIRST ? ROWS ONLY)").append(assignments);
+        params.add(limit);
+        params.addAll(set);
+      }
+      case PostgresSQL, Sqlite -> {
+        // neither takes a row limit on UPDATE or DELETE
+        sql.append(verb).append(table).append(assignments);
+        params.addAll(set);
+        sql.append(" WHERE id IN (SELECT id FROM ").append(table);
+        appendWhere();
+        sql.append(" LIMIT ?)");
+        params.add(limit);
+      }
+    }
+    return sql.toString();
+  }
+
+  /**
+   * Builds the query reading the ids of one chunk of at most {@code limit} matching items.
+   * Call {@link #params()} afterwards to get the ordered parameter list.
+   *
+   * @param limit maximum number of ids to read
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public String buildSelectIdsSql(int limit) {
+    if (dialect == DbInfo.Dialect.MSSQL) {
+      sql.append("SELECT TOP (?) id FROM ").append(table);
+      params.add(limit);
+      appendWhere();
+      return sql.toString();
+    }
+    sql.append("SELECT id FROM ").append(table);
+    appendWhere();
+    switch (dialect) {
+      case H2, DB2 -> sql.append(" FETCH FIRST ? ROWS ONLY");
+      case Oracle -> sql.append(" AND ROWNUM <= ?");
+      default -> sql.append(" LIMIT ?");
+    }
+    params.add(limit);
+    return sql.toString();
+  }
+
+  /**
+   * Returns the parameters in the same order as the placeholders in the SQL
+   * produced by {@link #buildChunkSql} or {@link #buildSelectIdsSql}.
+   *
+   * @return ordered parameter values
+   */
+  public List<Object> params() {
+    return params;
+  }
+
+  /**
+   * Builds the statement applying {@code action} to {@code work_request} items by id: an UPDATE for
+   * {@link BulkAction#REQUEUE} and {@link BulkAction#CANCEL}, a DELETE for {@link BulkAction#PURGE}.
+   * Parameter order is: {@link #setParams}, followed by {@code count} ids.
+   *
+   * @param action change to apply
+   * @param statuses statuses an item must have to be changed; must not be empty
+   * @param count number of ids in the IN list; must be > 0
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildByIdsSql(BulkAction action, Set<WorkRequest.Status> statuses, int count) {
+    return buildByIdsSql(action, statuses, count, "work_request");
+  }
+
+  /**
+   * Builds the statement applying {@code action} to items of {@code table} by id.
+   * Parameter order is: {@link #setParams}, followed by {@code count} ids.
+   *
+   * @param action change to apply
+   * @param statuses statuses an item must have to be changed; must not be empty
+   * @param count number of ids in the IN list; must be > 0
+   * @param table work_request or the history table
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildByIdsSql(BulkAction action, Set<WorkRequest.Status> statuses, int count, String table) {
+    String setClause = setClause(action);
+    String head = setClause == null ? "DELETE FROM " + table : "UPDATE " + table + " SET " + setClause;
+    return head + " WHERE id IN (" + placeholders(count) + ") AND " + statusIn(statuses);
+  }
+
+  /**
+   * Builds the statement copying requeued history items back to {@code work_request} as NEW items.
+   * Delete them from the history table afterwards with
+   * {@link #buildByIdsSql(BulkAction, Set, int, String)} and {@link BulkAction#PURGE}.
+   * Parameter order is: visible_at, updated_ts, followed by {@code count} ids.
+   *
+   * @param statuses statuses an item must have to be requeued; must not be empty
+   * @param count number of ids in the IN list; must be > 0
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildRequeueFromHistorySql(Set<WorkRequest.Status> statuses, int count) {
+    return """
+      INSERT INTO work_request (
+          %s
+      )
+      SELECT id, work_type, idempotency_key, coalesce_key, payload, payload_type, payload_version, codec,
+          'NEW', 0, max_retries, priority, NULL, NULL, ?,
+          NULL, created_ts, ?, NULL, NULL
+      FROM %s
+      WHERE id IN (%s) AND %s""".formatted(PurgeWorkQueryBuilder.ARCHIVE_COLUMNS, HistoryQueryBuilder.HISTORY_TABLE,
+      placeholders(count), statusIn(statuses));
+  }
+
+  /**
+   * Returns the values bound to the SET clause of {@code action}, in order.
+   *
+   * @param action change to apply
+   * @param now time recorded on the changed items
+   * @return parameter values; empty for {@link BulkAction#PURGE}
+   */
+  public static List<Object> setParams(BulkAction action, Instant now) {
+    Timestamp ts = Timestamp.from(now);
+    return action == BulkAction.PURGE ? List.of() : List.of(ts, ts);
+  }
+
+  private static String setClause(BulkAction action) {
+    return switch (action) {
+      case REQUEUE -> REQUEUE_SET;
+      case CANCEL -> CANCEL_SET;
+      case PURGE -> null;
+    };
+  }
+
+  private void appendWhere() {
+    sql.append(" WHERE ").append(statusIn(action.statuses(query.statuses())));
+    if (query.workType() != null) {
+      sql.append(" AND work_type = ?");
+      params.add(query.workType());
+    }
+    if (query.createdAfter() != null) {
+      sql.append(" AND created_ts > ?");
+      params.add(Timestamp.from(query.createdAfter()));
+    }
+    if (query.createdBefore() != null) {
+      sql.append(" AND created_ts < ?");
+      params.add(Timestamp.from(query.createdBefore()));
+    }
+  }
+
+  private static String statusIn(Set<WorkRequest.Status> statuses) {
+    if (statuses.isEmpty()) {
+      return "1=0";
+    }
+    return statuses.stream()
+      .map(s -> "'" + s.name() + "'")
+      .collect(Collectors.joining(", ", "status IN (", ")"));
+  }
+
+  private static String placeholders(int count) {
+    return String.join(", ", Collections.nCopies(count, "?"));
+  }
+}
@@ -0,0 +1,522 @@
+package org.anthills.jdbc;
+
+import org.anthills.api.work.LeaseMode;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Builds the vendor-specific SQL used to claim work items.
+ *
+ * Where the database can update and return rows in one statement, the rendered SQL selects,
+ * locks, updates and returns the claimed rows in a single round trip:
+ * - PostgreSQL: CTE with {@code FOR UPDATE SKIP LOCKED} + {@code UPDATE ... RETURNING}
+ * - SQL Server: updatable CTE with {@code READPAST} hints + {@code OUTPUT inserted.*}
+ * - H2: {@code SELECT * FROM FINAL TABLE (MERGE ...)}
+ * - DB2: {@code SELECT * FROM FINAL TABLE (UPDATE ...)}
+ * - SQLite: {@code UPDATE ... RETURNING *}
+ *
+ * MySQL and Oracle cannot return updated rows from an UPDATE, so for them the SQL is a locking
+ * {@code SELECT *} of the candidate rows; the caller then updates the locked rows with one
+ * set-based statement (see {@link #returnsClaimedRows()}).
+ *
+ * NEW items are claimable once their {@code visible_at} has passed. Among them, the highest
+ * {@code priority} is claimed first and, within a priority, the item that became visible first. A retry
+ * or a scheduled submission thus waits its turn from the time it became due, not from its creation.
+ * The claim index {@code idx_wr_claim (work_type, status, priority DESC, visible_at)} is in that order,
+ * so each priority lane is a range scan on {@code visible_at} that stops at the claim limit, and
+ * deferred items (scheduled submissions and retries waiting for their backoff) are never read by a
+ * claim however many there are.
+ *
+ * Claims in {@link LeaseMode#OWNER_HEARTBEAT} mode also reclaim IN_PROGRESS items claimed in that mode
+ * (no per-item lease) whose owner no longer has a live row in {@code worker_heartbeat}. Items claimed in
+ * heartbeat mode are stored with a NULL {@code lease_until}. Claims in {@link LeaseMode#PER_ITEM} mode
+ * leave that branch out, so their predicate stays a single range without an OR.
+ *
+ * A claim across several work types takes a quota of each type with one statement: a
+ * {@code UNION ALL} of one branch per type, each reading its own range of {@code idx_wr_claim} in claim
+ * order and stopping at the quota of the type. On PostgreSQL, MySQL and SQL Server every branch also
+ * locks its rows, skipping those held by other claimers, so concurrent claimers fill their quotas with
+ * different rows.
+ *
+ * On a {@code work_request} table partitioned by {@code created_ts}, candidates are found through the
+ * local claim index of every partition. PostgreSQL joins the picked rows back on
+ * {@code (id, created_ts)}, its primary key there, so each update touches only the partition of its row.
+ */
+public final class ClaimWorkQueryBuilder {
+
+  // Parameter: now (visibility of NEW items)
+  private static final String CLAIMABLE = "status = 'NEW' AND visible_at <= ?";
+
+  // Parameters: now (visibility of NEW items), now (heartbeat expiry of the owner of IN_PROGRESS items)
+  private static final String CLAIMABLE_OR_ORPHANED = """
+    (
+        (status = 'NEW' AND visible_at <= ?)
+        OR (status = 'IN_PROGRESS' AND lease_until IS NULL AND NOT EXISTS (
+          SELECT 1 FROM worker_heartbeat h
+          WHERE h.owner_id = work_request.owner_id AND h.alive_until >= ?
+        ))
+      )""";
+
+  private static final String CLAIM_ASSIGNMENTS = """
+    status = 'IN_PROGRESS',
+        owner_id = ?,
+        lease_until = %s,
+        attempt_count = attempt_count + 1,
+        started_ts = COALESCE(started_ts, ?),
+        updated_ts = ?""";
+
+  private final Map<String, Integer> quotas;
+  private final String ownerId;
+  private final Instant now;
+  private final Instant leaseUntil;
+  private final DbInfo.Dialect dialect;
+  private final LeaseMode leaseMode;
+  private final StringBuilder sql = new StringBuilder();
+  private final List<Object> params = new ArrayList<>();
+
+  /**
+   * Creates a builder for a single claim attempt using per-item leases.
+   *
+   * @param workType routing key to claim
+   * @param ownerId owner the claimed items are leased to
+   * @param limit maximum number of items to claim
+   * @param now current instant used for lease expiry checks and timestamps
+   * @param leaseUntil lease expiry assigned to claimed items
+   * @param dialect target SQL dialect
+   * @throws NullPointerException if any object argument is null
+   */
+  public ClaimWorkQueryBuilder(String workType, String ownerId, int limit, Instant now, Instant leaseUntil, DbInfo.Dialect dialect) {
+    this(workType, ownerId, limit, now, leaseUntil, dialect, LeaseMode.PER_ITEM);
+  }
+
+  /**
+   * Creates a builder for a single claim attempt.
+   *
+   * @param workType routing key to claim
+   * @param ownerId owner the claimed items are leased to
+   * @param limit maximum number of items to claim
+   * @param now current instant used for lease expiry checks and timestamps
+   * @param leaseUntil lease expiry assigned to claimed items
+   * @param dialect target SQL dialect
+   * @param leaseMode lease mode of the claim; with {@link LeaseMode#OWNER_HEARTBEAT} the claimed items
+   *                  get no per-item lease and {@code leaseUntil} is not rendered
+   * @throws NullPointerException if any object argument is null
+   */
+  public ClaimWorkQueryBuilder(String workType, String ownerId, int limit, Instant now, Instant leaseUntil, DbInfo.Dialect dialect,
+                               LeaseMode leaseMode) {
+    this(Map.of(Objects.requireNonNull(workType, "workType is required"), limit), ownerId, now, leaseUntil, dialect, leaseMode);
+  }
+
+  /**
+   * Creates a builder for a single claim attempt across several work types, taking up to the quota
+   * of each type with one statement. A single type is claimed as by the single-type constructors.
+   *
+   * @param quotas maximum number of items to claim per routing key; must not be empty
+   * @param ownerId owner the claimed items are leased to
+   * @param now current instant used for lease expiry checks and timestamps
+   * @param leaseUntil lease expiry assigned to claimed items
+   * @param dialect target SQL dialect
+   * @param leaseMode lease mode of the claim
+   * @throws NullPointerException if any object argument is null
+   * @throws IllegalArgumentException if {@code quotas} is empty
+   */
+  public ClaimWorkQueryBuilder(Map<String, Integer> quotas, String ownerId, Instant now, Instant leaseUntil, DbInfo.Dialect dialect,
+                               LeaseMode leaseMode) {
+    this.quotas = new LinkedHashMap<>(Objects.requireNonNull(quotas, "quotas is required"));
+    if (this.quotas.isEmpty()) {
+      throw new IllegalArgumentException("quotas must not be empty");
+    }
+    this.ownerId = Objects.requireNonNull(ownerId, "ownerId is required");
+    this.now = Objects.requireNonNull(now, "now is required");
+    this.leaseUntil = Objects.requireNonNull(leaseUntil, "leaseUntil is required");
+    this.dialect = Objects.requireNonNull(dialect, "dialect is required");
+    this.leaseMode = Objects.requireNonNull(leaseMode, "leaseMode is required");
+  }
+
+  /**
+   * Whether the SQL produced by {@link #buildSql()} already updates and returns the claimed rows.
+   * When {@code false}, the statement only locks and returns candidate rows, and the caller must
+   * apply the claim using {@link #buildClaimByIdsSql(int)} within the same transaction.
+   *
+   * @return true if a single statement performs the whole claim
+   */
+  public boolean returnsClaimedRows() {
+    return dialect != DbInfo.Dialect.MySQL && dialect != DbInfo.Dialect.Oracle;
+  }
+
+  /**
+   * Builds and returns the SQL string with JDBC placeholders.
+   * Call {@link #params()} afterwards to get the ordered parameter list.
+   *
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public String buildSql() {
+    build();
+    return sql.toString();
+  }
+
+  /**
+   * Returns the parameters in the same order as the placeholders in the SQL
+   * produced by {@link #buildSql()}.
+   *
+   * @return ordered parameter values
+   */
+  public List<Object> params() {
+    return params;
+  }
+
+  /**
+   * Builds the set-based UPDATE that claims rows previously locked by the candidate SELECT.
+   * Parameter order is: owner_id, lease_until, started_ts, updated_ts, followed by {@code count} ids.
+   * Bind a NULL {@code lease_until} for claims in {@link LeaseMode#OWNER_HEARTBEAT} mode.
+   *
+   * @param count number of ids in the IN list; must be > 0
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildClaimByIdsSql(int count) {
+    StringBuilder sb = new StringBuilder("UPDATE work_request SET ")
+      .append(CLAIM_ASSIGNMENTS.formatted("?"))
+      .append(" WHERE id IN (");
+    for (int i = 0; i < count; i++) {
+      if (i > 0) sb.append(", ");
+      sb.append("?");
+    }
+    return sb.append(")").toString();
+  }
+
+  /**
+   * Renders the dialect-specific claim statement and collects its parameters.
+   */
+  private void build() {
+    if (quotas.size() > 1) {
+      buildPerType();
+      return;
+    }
+    Map.Entry<String, Integer> quota = quotas.entrySet().iterator().next();
+    String workType = quota.getKey();
+    int limit = quota.getValue();
+    String claimable = claimable();
+    String candidateFilter = "work_type = ?\n  AND " + claimable;
+    String assignments = assignments();
+    switch (dialect) {
+      case PostgresSQL -> {
+        sql.append("""
+          WITH picked AS (
+            SELECT id, created_ts FROM work_request
+            WHERE %s
+            ORDER BY priority DESC, visible_at
+            LIMIT ? FOR UPDATE SKIP LOCKED
+          )
+          UPDATE work_request w
+          SET %s
+          FROM picked
+          WHERE w.id = picked.id AND w.created_ts = picked.created_ts
+          RETURNING w.*
+          """.formatted(candidateFilter, assignments));
+        params.add(workType);
+        addClaimableParams();
+        params.add(limit);
+        addClaimParams();
+      }
+      case MSSQL -> {
+        // TOP + ORDER BY inside an updatable CTE keeps claim order, READPAST skips rows locked by other claimers
+        sql.append("""
+          WITH picked AS (
+            SELECT TOP (?) * FROM work_request WITH (READPAST, UPDLOCK, ROWLOCK)
+            WHERE %s
+            ORDER BY priority DESC, visible_at
+          )
+          UPDATE picked
+          SET %s
+          OUTPUT inserted.*
+          """.formatted(candidateFilter, assignments));
+        params.add(limit);
+        params.add(workType);
+        addClaimableParams();
+        addClaimParams();
+      }
+      case H2 -> {
+        // H2 may re-evaluate an IN (sub-select) while updating; a MERGE source is evaluated once.
+        // The match condition re-checks eligibility for rows another claimer took while we waited on them
+        sql.append("""
+          SELECT * FROM FINAL TABLE (
+            MERGE INTO work_request
+            USING (
+              SELECT id FROM work_request
+              WHERE %s
+              ORDER BY priority DESC, visible_at
+              FETCH FIRST ? ROWS ONLY
+            ) picked
+            ON work_request.id = picked.id
+            WHEN MATCHED AND %s THEN UPDATE
+            SET %s
+          )
+          """.formatted(candidateFilter, claimable, assignments));
+        params.add(workType);
+        addClaimableParams();
+        params.add(limit);
+        addClaimableParams();
+        addClaimParams();
+      }
+      case DB2 -> {
+        // The outer predicate re-checks eligibility for rows changed after the sub-select ran
+        sql.append("""
+          SELECT * FROM FINAL TABLE (
+            UPDATE work_request
+            SET %s
+            WHERE id IN (
+              SELECT id FROM work_request
+              WHERE %s
+              ORDER BY priority DESC, visible_at
+              FETCH FIRST ? ROWS ONLY
+            )
+            AND %s
+          )
+          """.formatted(assignments, candidateFilter, claimable));
+        addClaimParams();
+        params.add(workType);
+        addClaimableParams();
+        params.add(limit);
+        addClaimableParams();
+      }
+      case Sqlite -> {
+        // SQLite serializes writers, so the sub-select cannot race with another claim
+        sql.append("""
+          UPDATE work_request
+          SET %s
+          WHERE id IN (
+            SELECT id FROM work_request
+            WHERE %s
+            ORDER BY priority DESC, visible_at
+            LIMIT ?
+          )
+          RETURNING *
+          """.formatted(assignments, candidateFilter));
+        addClaimParams();
+        params.add(workType);
+        addClaimableParams();
+        params.add(limit);
+      }
+      case MySQL -> {
+        // MySQL 8+: lock full candidate rows, skipping rows locked by other claimers
+        sql.append("""
+          SELECT * FROM work_request
+          WHERE %s
+          ORDER BY priority DESC, visible_at
+          LIMIT ? FOR UPDATE SKIP LOCKED
+          """.formatted(candidateFilter));
+        params.add(workType);
+        addClaimableParams();
+        params.add(limit);
+      }
+      case Oracle -> {
+        // Oracle: inline view for ORDER BY + ROWNUM limiting; lock and skip locked
+        sql.append("""
+          SELECT * FROM (
+            SELECT * FROM work_request
+            WHERE %s
+            ORDER BY priority DESC, visible_at
+          )
+          WHERE ROWNUM <= ? FOR UPDATE SKIP LOCKED
+          """.formatted(candidateFilter));
+        params.add(workType);
+        addClaimableParams();
+        params.add(limit);
+      }
+    }
+  }
+
+  /**
+   * Renders the claim of several work types: every type takes its own branch, which reads the
+   * candidates of that type in claim order up to its quota (and locks them where the dialect allows),
+   * and the branches are combined with {@code UNION ALL}.
+   */
+  private void buildPerType() {
+    String claimable = claimable();
+    String candidateFilter = "work_type = ?\n  AND " + claimable;
+    String assignments = assignments();
+    String branch = switch (dialect) {
+      case PostgresSQL -> """
+        SELECT * FROM (
+            SELECT id, created_ts FROM work_request
+            WHERE %s
+            ORDER BY priority DESC, visible_at
+            LIMIT ? FOR UPDATE SKIP LOCKED
+          ) p%d""";
+      case MSSQL -> """
+        SELECT id FROM (
+            SELECT TOP (?) id FROM work_request WITH (READPAST, UPDLOCK, ROWLOCK)
+            WHERE %s
+            ORDER BY priority DESC, visible_at
+          ) p%d""";
+      case H2, DB2 -> """
+        SELECT id FROM (
+            SELECT id FROM work_request
+            WHERE %s
+            ORDER BY priority DESC, visible_at
+            FETCH FIRST ? ROWS ONLY
+          ) p%d""";
+      case Sqlite -> """
+        SELECT id FROM (
+            SELECT id FROM work_request
+            WHERE %s
+            ORDER BY priority DESC, visible_at
+            LIMIT ?
+          ) p%d""";
+      case MySQL -> """
+        (SELECT * FROM work_request
+            WHERE %s
+            ORDER BY priority DESC, visible_at
+            LIMIT ? FOR UPDATE SKIP LOCKED)""";
+      // Oracle cannot lock in a sub-select with ROWNUM, so rows locked by other claimers are only
+      // skipped by the outer statement, after each branch has stopped at its quota
+      case Oracle -> """
+        SELECT id FROM (
+            SELECT id FROM work_request
+            WHERE %s
+            ORDER BY priority DESC, visible_at
+          ) WHERE ROWNUM <= ?""";
+    };
+    List<String> branches = new ArrayList<>();
+    for (int i = 1; i <= quotas.size(); i++) {
+      branches.add(branch.formatted(candidateFilter, i));
+    }
+    String perType = String.join("\nUNION ALL\n", branches);
+    switch (dialect) {
+      case PostgresSQL -> {
+        sql.append("""
+          WITH picked AS (
+          %s
+          )
+          UPDATE work_request w
+          SET %s
+          FROM picked
+          WHERE w.id = picked.id AND w.created_ts = picked.created_ts
+          RETURNING w.*
+          """.formatted(perType, assignments));
+        addPerTypeParams();
+        addClaimParams();
+      }
+      case MSSQL -> {
+        sql.append("""
+          UPDATE work_request
+          SET %s
+          OUTPUT inserted.*
+          WHERE id IN (
+          %s
+          )
+          AND %s
+          """.formatted(assignments, perType, claimable));
+        addClaimParams();
+        addPerTypeParams();
+        addClaimableParams();
+      }
+      case H2 -> {
+        sql.append("""
+          SELECT * FROM FINAL TABLE (
+            MERGE INTO work_request
+            USING (
+          %s
+            ) picked
+            ON work_request.id = picked.id
+            WHEN MATCHED AND %s THEN UPDATE
+            SET %s
+          )
+          """.formatted(perType, claimable, assignments));
+        addPerTypeParams();
+        addClaimableParams();
+        addClaimParams();
+      }
+      case DB2 -> {
+        sql.append("""
+          SELECT * FROM FINAL TABLE (
+            UPDATE work_request
+            SET %s
+            WHERE id IN (
+          %s
+            )
+            AND %s
+          )
+          """.formatted(assignments, perType, claimable));
+        addClaimParams();
+        addPerTypeParams();
+        addClaimableParams();
+      }
+      case Sqlite -> {
+        sql.append("""
+          UPDATE work_request
+          SET %s
+          WHERE id IN (
+          %s
+          )
+          RETURNING *
+          """.formatted(assignments, perType));
+        addClaimParams();
+        addPerTypeParams();
+      }
+      case MySQL -> {
+        sql.append(perType);
+        addPerTypeParams();
+      }
+      case Oracle -> {
+        sql.append("""
+          SELECT * FROM work_request
+          WHERE id IN (
+          %s
+          )
+          AND %s
+          FOR UPDATE SKIP LOCKED
+          """.formatted(perType, claimable));
+        addPerTypeParams();
+        addClaimableParams();
+      }
+    }
+  }
+
+  private String claimable() {
+    return leaseMode == LeaseMode.OWNER_HEARTBEAT ? CLAIMABLE_OR_ORPHANED : CLAIMABLE;
+  }
+
+  private String assignments() {
+    return CLAIM_ASSIGNMENTS.formatted(leaseMode == LeaseMode.PER_ITEM ? "?" : "NULL");
+  }
+
+  /**
+   * Adds the parameters of the per-type branches: work type, now and quota of every type, with the
+   * quota first on SQL Server ({@code TOP (?)}).
+   */
+  private void addPerTypeParams() {
+    quotas.forEach((workType, quota) -> {
+      if (dialect == DbInfo.Dialect.MSSQL) {
+        params.add(quota);
+      }
+      params.add(workType);
+      addClaimableParams();
+      if (dialect != DbInfo.Dialect.MSSQL) {
+        params.add(quota);
+      }
+    });
+  }
+
+  private void addClaimableParams() {
+    params.add(Timestamp.from(now));
+    if (leaseMode == LeaseMode.OWNER_HEARTBEAT) {
+      params.add(Timestamp.from(now));
+    }
+  }
+
+  private void addClaimParams() {
+    params.add(ownerId);
+    if (leaseMode == LeaseMode.PER_ITEM) {
+      params.add(Timestamp.from(leaseUntil));
+    }
+    params.add(Timestamp.from(now));
+    params.add(Timestamp.from(now));
+  }
+}
@@ -0,0 +1,154 @@
+package org.anthills.jdbc;
+
+import java.util.Objects;
+
+/**
+ * Builds the SQL used to insert new work items.
+ *
+ * Items without an idempotency key use a plain {@code INSERT}. Items with a key use a statement that
+ * inserts only if no row of the same work type has that key yet, and affects no row otherwise:
+ * - PostgreSQL, SQLite: {@code INSERT ... ON CONFLICT (work_type, idempotency_key) DO NOTHING}
+ * - MySQL: {@code INSERT ... ON DUPLICATE KEY UPDATE id = id}; MySQL may report the unchanged
+ *   duplicate as an affected row, so callers must check which row holds the key
+ * - H2, Oracle, DB2, SQL Server: {@code MERGE ... WHEN NOT MATCHED THEN INSERT}, keyed on
+ *   {@code (work_type, idempotency_key)}
+ *
+ * The insert columns are always bound in the order of {@link #INSERT_COLUMNS}. The MERGE statements
+ * additionally take the work type and the idempotency key first (see {@link #leadingKeyParams}).
+ * Concurrent inserts of the same key are finally arbitrated by the unique index
+ * {@code ux_wr_idempotency}; a MERGE that loses that race fails with an integrity constraint violation.
+ * A partitioned PostgreSQL table has no such index, so there the lookup and a plain insert run under
+ * an advisory lock on the key instead (see {@link #buildLockKeySql}).
+ *
+ * Items with a coalesce key first look up a pending (NEW) item of the same work type and key and,
+ * in {@link org.anthills.api.work.CoalesceMode#REPLACE} mode, overwrite its submission attributes.
+ * The update is fenced on the item still being NEW, so an item claimed in the meantime is left
+ * alone and the caller inserts a new one.
+ */
+public final class CreateWorkQueryBuilder {
+
+  /** Columns written by every insert, in bind order. */
+  public static final String INSERT_COLUMNS = """
+    id, work_type, idempotency_key, coalesce_key, payload, payload_type, payload_version, codec,
+        status, attempt_count, max_retries, priority, visible_at,
+        created_ts, updated_ts""";
+
+  private static final String INSERT_VALUES = "?, ?, ?, ?, ?, ?, ?, ?, 'NEW', 0, ?, ?, ?, ?, ?";
+
+  private static final String INSERT_SQL = """
+    INSERT INTO work_request (
+        %s
+    )
+    VALUES (%s)""".formatted(INSERT_COLUMNS, INSERT_VALUES);
+
+  private static final String SELECT_BY_KEY_SQL =
+    "SELECT * FROM work_request WHERE idempotency_key = ? AND work_type = ?";
+
+  private static final String SELECT_PENDING_BY_COALESCE_KEY_SQL =
+    "SELECT * FROM work_request WHERE coalesce_key = ? AND work_type = ? AND status = 'NEW' ORDER BY created_ts";
+
+  private static final String REPLACE_PENDING_SQL = """
+    UPDATE work_request
+    SET payload = ?, payload_type = ?, payload_version = ?, codec = ?,
+        max_retries = ?, priority = ?, visible_at = ?, updated_ts = ?
+    WHERE id = ? AND status = 'NEW'""";
+
+  private CreateWorkQueryBuilder() {
+  }
+
+  /**
+   * Returns the plain INSERT for items without an idempotency key.
+   *
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildInsertSql() {
+    return INSERT_SQL;
+  }
+
+  /**
+   * Returns the insert-if-absent statement for items with an idempotency key.
+   *
+   * @param dialect target SQL dialect
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   * @throws NullPointerException if {@code dialect} is null
+   */
+  public static String buildInsertIfAbsentSql(DbInfo.Dialect dialect) {
+    Objects.requireNonNull(dialect, "dialect is required");
+    return switch (dialect) {
+      case PostgresSQL, Sqlite -> INSERT_SQL + "\nON CONFLICT (work_type, idempotency_key) DO NOTHING";
+      case MySQL -> INSERT_SQL + "\nON DUPLICATE KEY UPDATE id = id";
+      case H2 -> merge("MERGE INTO work_request w", "VARCHAR", "");
+      case Oracle -> merge("MERGE INTO work_request w", "VARCHAR2", " FROM dual");
+      case DB2 -> merge("MERGE INTO work_request w", "VARCHAR", " FROM sysibm.sysdummy1");
+      // HOLDLOCK keeps the key range locked between the match and the insert
+      case MSSQL -> merge("MERGE INTO work_request WITH (HOLDLOCK) w", "NVARCHAR", "") + ";";
+    };
+  }
+
+  /**
+   * Whether {@link #buildInsertIfAbsentSql} expects the work type and the idempotency key as its first
+   * two parameters, before the insert columns.
+   *
+   * @param dialect target SQL dialect
+   * @return true for the MERGE based dialects
+   */
+  public static boolean leadingKeyParams(DbInfo.Dialect dialect) {
+    return switch (dialect) {
+      case PostgresSQL, Sqlite, MySQL -> false;
+      case H2, Oracle, DB2, MSSQL -> true;
+    };
+  }
+
+  /**
+   * Returns the PostgreSQL query taking a transaction-scoped advisory lock on an idempotency key,
+   * hashed together with its work type. The lock is released when the transaction ends.
+   * Parameter order is: work_type, idempotency_key.
+   *
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildLockKeySql() {
+    return "SELECT pg_advisory_xact_lock(hashtext(CAST(? AS text) || ':' || CAST(? AS text)))";
+  }
+
+  /**
+   * Returns the query reading the item that holds an idempotency key.
+   * Parameter order is: idempotency_key, work_type.
+   *
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildSelectByKeySql() {
+    return SELECT_BY_KEY_SQL;
+  }
+
+  /**
+   * Returns the query reading the pending items of a coalesce key.
+   * Parameter order is: coalesce_key, work_type.
+   *
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildSelectPendingByCoalesceKeySql() {
+    return SELECT_PENDING_BY_COALESCE_KEY_SQL;
+  }
+
+  /**
+   * Returns the update replacing the submission attributes of a pending item.
+   * Parameter order is: payload, payload_type, payload_version, codec, max_retries, priority,
+   * visible_at, updated_ts, id.
+   *
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildReplacePendingSql() {
+    return REPLACE_PENDING_SQL;
+  }
+
+  private static String merge(String into, String varchar, String fromDual) {
+    return """
+      %s
+      USING (SELECT CAST(? AS %s(100)) AS work_type, CAST(? AS %s(200)) AS idempotency_key%s) s
+      ON (w.work_type = s.work_type AND w.idempotency_key = s.idempotency_key)
+      WHEN NOT MATCHED THEN INSERT (
+          %s
+      )
+      VALUES (%s)""".formatted(into, varchar, varchar, fromDual, INSERT_COLUMNS, INSERT_VALUES);
+  }
+}
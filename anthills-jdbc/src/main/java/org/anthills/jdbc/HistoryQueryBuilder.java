@@ -0,0 +1,68 @@
+package org.anthills.jdbc;
+
+import java.util.Collections;
+
+/**
+ * Builds the SQL of the {@link StorageLayout#HOT_COLD} layout, in which terminal work items are moved
+ * from {@code work_request} to {@code work_request_history}.
+ *
+ * An item is moved in the transaction that makes it terminal: the status update is followed by a copy
+ * of the row to the history table and its deletion from {@code work_request}. Both statements are
+ * restricted to terminal rows, so ids whose update was fenced off (e.g. reclaimed by another owner)
+ * are left in place.
+ *
+ * Readers look up {@code work_request} first and the history table second, which never misses an item
+ * being moved concurrently under read committed isolation.
+ */
+public final class HistoryQueryBuilder {
+
+  /** Name of the table holding terminal items. */
+  public static final String HISTORY_TABLE = "work_request_history";
+
+  private static final String TERMINAL = "status IN ('SUCCEEDED', 'FAILED', 'CANCELLED')";
+
+  private HistoryQueryBuilder() {
+  }
+
+  /**
+   * Builds the statement copying terminal items to the history table.
+   * Parameters are the {@code count} ids.
+   *
+   * @param count number of ids in the IN list; must be > 0
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildCopyTerminalSql(int count) {
+    return """
+      INSERT INTO %s (
+          %s
+      )
+      SELECT %s FROM work_request
+      WHERE id IN (%s) AND %s""".formatted(HISTORY_TABLE, PurgeWorkQueryBuilder.ARCHIVE_COLUMNS,
+      PurgeWorkQueryBuilder.ARCHIVE_COLUMNS, placeholders(count), TERMINAL);
+  }
+
+  /**
+   * Builds the statement deleting terminal items from {@code work_request} once copied.
+   * Parameters are the {@code count} ids.
+   *
+   * @param count number of ids in the IN list; must be > 0
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildDeleteTerminalSql(int count) {
+    return "DELETE FROM work_request WHERE id IN (" + placeholders(count) + ") AND " + TERMINAL;
+  }
+
+  /**
+   * Returns the query reading the history item that holds an idempotency key.
+   * Parameter order is: idempotency_key, work_type.
+   *
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildSelectByKeySql() {
+    return "SELECT * FROM " + HISTORY_TABLE + " WHERE idempotency_key = ? AND work_type = ?";
+  }
+
+  private static String placeholders(int count) {
+    return String.join(", ", Collections.nCopies(count, "?"));
+  }
+}
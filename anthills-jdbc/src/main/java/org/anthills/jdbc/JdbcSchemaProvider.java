@@ -22,6 +22,8 @@ import java.util.stream.Collectors;
  * Responsibilities:
  * - Detect if required tables already exist (vendor-neutral).
  * - Load vendor-specific DDL from classpath: /sqldb/schema-*.sql (with a safe fallback).
+ * - Optionally load a variant with {@code work_request} partitioned by day on {@code created_ts}
+ *   (/sqldb/schema-*-partitioned.sql) on databases that support it.
  * - Execute DDL statements in a transaction, ignoring benign "already exists" errors.
  *
  * Concurrency:
@@ -42,6 +44,20 @@ public class JdbcSchemaProvider {
    * @throws RuntimeException if initialization fails
    */
   public static void initializeSchema(DataSource dataSource, DbInfo dbInfo) {
+    initializeSchema(dataSource, dbInfo, false);
+  }
+
+  /**
+   * Ensures the schema for the given datasource is present like {@link #initializeSchema(DataSource, DbInfo)},
+   * creating {@code work_request} partitioned by day on {@code created_ts} if {@code partitioned} is set
+   * and the dialect supports it (see {@link #supportsPartitioning}). An existing schema is left as it is.
+   *
+   * @param dataSource the JDBC datasource
+   * @param dbInfo detected database info, including dialect and identity
+   * @param partitioned whether to create the partitioned variant
+   * @throws RuntimeException if initialization fails
+   */
+  public static void initializeSchema(DataSource dataSource, DbInfo dbInfo, boolean partitioned) {
     log.info("Initializing database schema");
     synchronized (schemaInitializedDataSources) {
       try (Connection conn = dataSource.getConnection()) {
@@ -56,7 +72,7 @@ public class JdbcSchemaProvider {
           return;
         }
         conn.setAutoCommit(false);
-        String schemaFile = getSchemaFile(dbInfo.dialect());
+        String schemaFile = getSchemaFile(dbInfo.dialect(), partitioned && supportsPartitioning(dbInfo.dialect()));
         log.debug("Schema file: {}", schemaFile);
         String sql = readSchemaFromClasspath("/sqldb/" + schemaFile);
         executeSqlStatements(conn, sql);
@@ -68,13 +84,56 @@ public class JdbcSchemaProvider {
     }
   }
 
+  /**
+   * Whether a day-partitioned schema variant exists for the dialect.
+   *
+   * @param dialect database dialect
+   * @return true for PostgreSQL and Oracle
+   */
+  public static boolean supportsPartitioning(DbInfo.Dialect dialect) {
+    return dialect == DbInfo.Dialect.PostgresSQL || dialect == DbInfo.Dialect.Oracle;
+  }
+
+  /**
+   * Whether {@code work_request} is partitioned, read from the catalog of the database. The
+   * {@code partitioned} option only shapes a new schema; an existing one is never converted, so
+   * stores decide from the table they find.
+   *
+   * @param dataSource the JDBC datasource
+   * @param dialect database dialect
+   * @return true if {@code work_request} is a partitioned table; always false where
+   *         {@link #supportsPartitioning} is false
+   * @throws RuntimeException if the catalog cannot be read
+   */
+  public static boolean isPartitioned(DataSource dataSource, DbInfo.Dialect dialect) {
+    String sql = switch (dialect) {
+      case PostgresSQL -> """
+        SELECT 1 FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid
+        WHERE c.relname = 'work_request' AND pg_table_is_visible(c.oid)""";
+      case Oracle -> "SELECT 1 FROM user_part_tables WHERE table_name = 'WORK_REQUEST'";
+      default -> null;
+    };
+    if (sql == null) return false;
+    try (Connection conn = dataSource.getConnection();
+         Statement st = conn.createStatement();
+         ResultSet rs = st.executeQuery(sql)) {
+      return rs.next();
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to read the partitioning of work_request", e);
+    }
+  }
+
   /**
    * Resolves the schema DDL file name for the given dialect.
    *
    * @param dialect detected database dialect
+   * @param partitioned whether to use the partitioned variant; must be supported by the dialect
    * @return file name under /sqldb/
    */
-  private static String getSchemaFile(DbInfo.Dialect dialect) {
+  static String getSchemaFile(DbInfo.Dialect dialect, boolean partitioned) {
+    if (partitioned) {
+      return dialect == DbInfo.Dialect.Oracle ? "schema-oracle-partitioned.sql" : "schema-postgresql-partitioned.sql";
+    }
     return switch (dialect) {
       case PostgresSQL -> "schema-postgresql.sql";
       case MySQL -> "schema-mysql.sql";
@@ -146,7 +205,8 @@ public class JdbcSchemaProvider {
    * @throws SQLException on metadata errors
    */
   private static boolean schemaExists(Connection conn) throws SQLException {
-    return tableExists(conn, "work_request") && tableExists(conn, "scheduler_lease");
+    return tableExists(conn, "work_request") && tableExists(conn, "scheduler_lease")
+      && tableExists(conn, "worker_heartbeat");
   }
 
   /**
@@ -159,7 +219,8 @@ public class JdbcSchemaProvider {
    */
   private static boolean tableExists(Connection conn, String tableName) throws SQLException {
     DatabaseMetaData meta = conn.getMetaData();
-    try (ResultSet rs = meta.getTables(conn.getCatalog(), null, null, new String[] {"TABLE"})) {
+    // PostgreSQL reports partitioned tables with their own table type
+    try (ResultSet rs = meta.getTables(conn.getCatalog(), null, null, new String[] {"TABLE", "PARTITIONED TABLE"})) {
       while (rs.next()) {
         String name = rs.getString("TABLE_NAME");
         if (name != null && name.equalsIgnoreCase(tableName)) {
@@ -3,11 +3,22 @@ package org.anthills.jdbc;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.anthills.api.scheduler.SchedulerLease;
+import org.anthills.api.work.BulkAction;
+import org.anthills.api.work.CoalesceMode;
+import org.anthills.api.work.EncodedPayload;
+import org.anthills.api.work.LeaseMode;
+import org.anthills.api.work.RetentionMode;
+import org.anthills.api.work.SubmissionOptions;
+import org.anthills.api.work.Subscription;
+import org.anthills.api.work.WorkOutcome;
 import org.anthills.api.work.WorkQuery;
 import org.anthills.api.work.WorkRecord;
 import org.anthills.api.work.WorkRequest;
+import org.anthills.api.work.WorkStats;
 import org.anthills.api.work.WorkStore;
 import org.anthills.jdbc.util.IdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
@@ -17,12 +28,23 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * JDBC-backed implementation of {@link WorkStore} with cross-vendor SQL.
@@ -30,23 +52,83 @@ import java.util.Optional;
  * - Automatic schema initialization using {@link JdbcSchemaProvider} and detected {@link DbInfo}.
  * - Vendor-aware SQL for claiming work with minimal lock contention.
  * - Transactional updates with explicit commits and rollback on failure.
+ * - Optionally, terminal items moved out of the claimable table (see {@link StorageLayout}).
  * Thread-safety: instances are safe to use concurrently; each operation uses its own connection.
+ * Close the store when the application shuts down to stop its background threads.
  */
-public final class JdbcWorkStore implements WorkStore {
+public final class JdbcWorkStore implements WorkStore, AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(JdbcWorkStore.class);
+
+  private static final int INSERT_BATCH_SIZE = 500;
+  // Stays below Oracle's limit of 1000 expressions in an IN list
+  private static final int IN_LIST_CHUNK_SIZE = 500;
+  // Items raised per priority level by one agePriorities call
+  private static final int AGING_BATCH_SIZE = 100;
+  // Order in which claim statements pick candidates of one type
+  private static final Comparator<WorkRecord> CLAIM_ORDER =
+    Comparator.comparingInt(WorkRecord::priority).reversed().thenComparing(WorkRecord::visibleAt);
 
   private final DataSource dataSource;
+  // pool created by create(JdbcSettings), closed with the store
+  private final HikariDataSource ownedDataSource;
   private final DbInfo dbInfo;
+  private final PgNotificationListener notificationListener;
+  // a partitioned PostgreSQL table cannot enforce idempotency keys with a unique index
+  private final boolean keysByLookup;
+  // terminal items are moved to work_request_history
+  private final boolean hotCold;
+  private final int streamFetchSize;
+  private final Duration statsCacheTtl;
+  private final Object statsLock = new Object();
+  private volatile WorkStats cachedStats;
 
   /**
    * Creates a store using the provided datasource, detecting DB info and ensuring the schema exists.
    *
    * @param dataSource JDBC datasource (connection pool recommended)
+   * @param options optional store behaviour
+   * @param ownedDataSource pool created for this store and closed with it, or null
    */
-  private JdbcWorkStore(DataSource dataSource) {
+  private JdbcWorkStore(DataSource dataSource, JdbcWorkStoreOptions options, HikariDataSource ownedDataSource) {
+    Objects.requireNonNull(options, "options must not be null");
     DbInfo dbInfo = DbInfo.detect(dataSource);
-    JdbcSchemaProvider.initializeSchema(dataSource, dbInfo);
+    JdbcSchemaProvider.initializeSchema(dataSource, dbInfo, partitioningEnabled(options, dbInfo));
+    // an existing schema is never converted, so the table decides rather than the option
+    boolean partitioned = JdbcSchemaProvider.isPartitioned(dataSource, dbInfo.dialect());
+    if (partitioned != options.partitioned() && JdbcSchemaProvider.supportsPartitioning(dbInfo.dialect())) {
+      log.warn("The existing work_request table is {}partitioned; the partitioned option is ignored", partitioned ? "" : "not ");
+    }
     this.dbInfo = dbInfo;
     this.dataSource = dataSource;
+    this.ownedDataSource = ownedDataSource;
+    this.notificationListener = notifyEnabled(options, dbInfo) ? new PgNotificationListener(dataSource) : null;
+    this.keysByLookup = partitioned && dbInfo.dialect() == DbInfo.Dialect.PostgresSQL;
+    this.hotCold = options.storageLayout() == StorageLayout.HOT_COLD;
+    this.streamFetchSize = options.streamFetchSize();
+    this.statsCacheTtl = options.statsCacheTtl();
+    if (partitioned) {
+      // partitions for the first days, in case PartitionMaintenance is not scheduled yet
+      new PartitionMaintenance(dataSource, dbInfo.dialect(), PartitionMaintenance.DEFAULT_DAYS_AHEAD, null).createPartitions();
+    }
+  }
+
+  private static boolean partitioningEnabled(JdbcWorkStoreOptions options, DbInfo dbInfo) {
+    if (!options.partitioned()) return false;
+    if (!JdbcSchemaProvider.supportsPartitioning(dbInfo.dialect())) {
+      log.warn("Partitioning is only supported on PostgreSQL and Oracle; {} uses an unpartitioned work_request table", dbInfo.dialect());
+      return false;
+    }
+    return true;
+  }
+
+  private static boolean notifyEnabled(JdbcWorkStoreOptions options, DbInfo dbInfo) {
+    if (!options.listenNotify()) return false;
+    if (dbInfo.dialect() != DbInfo.Dialect.PostgresSQL) {
+      log.warn("LISTEN/NOTIFY is only supported on PostgreSQL; {} will rely on polling", dbInfo.dialect());
+      return false;
+    }
+    return true;
   }
 
   /**
@@ -56,7 +138,19 @@ public final class JdbcWorkStore implements WorkStore {
    * @return a {@link JdbcWorkStore} bound to the datasource
    */
   public static JdbcWorkStore create(DataSource dataSource) {
-    return new JdbcWorkStore(dataSource);
+    return create(dataSource, JdbcWorkStoreOptions.defaults());
+  }
+
+  /**
+   * Factory method using an existing {@link DataSource} and explicit store options.
+   *
+   * @param dataSource JDBC datasource
+   * @param options optional store behaviour
+   * @return a {@link JdbcWorkStore} bound to the datasource
+   * @throws NullPointerException if {@code options} is null
+   */
+  public static JdbcWorkStore create(DataSource dataSource, JdbcWorkStoreOptions options) {
+    return new JdbcWorkStore(dataSource, options, null);
   }
 
   /**
@@ -68,6 +162,20 @@ public final class JdbcWorkStore implements WorkStore {
    * @throws NullPointerException if {@code jdbcSettings} is null
    */
   public static JdbcWorkStore create(JdbcSettings jdbcSettings) {
+    return create(jdbcSettings, JdbcWorkStoreOptions.defaults());
+  }
+
+  /**
+   * Factory method that constructs a pooled {@link javax.sql.DataSource} using {@link JdbcSettings}
+   * (HikariCP) and returns a store configured with the given options. The pool is closed when the
+   * store is closed.
+   *
+   * @param jdbcSettings connection and pool settings
+   * @param options optional store behaviour
+   * @return a {@link JdbcWorkStore}
+   * @throws NullPointerException if any argument is null
+   */
+  public static JdbcWorkStore create(JdbcSettings jdbcSettings, JdbcWorkStoreOptions options) {
     Objects.requireNonNull(jdbcSettings, "jdbcSettings must not be null");
     HikariConfig hikariConfig = new HikariConfig();
     hikariConfig.setJdbcUrl(jdbcSettings.jdbcUrl());
@@ -81,7 +189,13 @@ public final class JdbcWorkStore implements WorkStore {
     hikariConfig.addDataSourceProperty("prepStmtCacheSize", "10");
     hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
     hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
-    return create(new HikariDataSource(hikariConfig));
+    HikariDataSource pool = new HikariDataSource(hikariConfig);
+    try {
+      return new JdbcWorkStore(pool, options, pool);
+    } catch (RuntimeException e) {
+      pool.close();
+      throw e;
+    }
   }
 
   /**
@@ -98,40 +212,328 @@ public final class JdbcWorkStore implements WorkStore {
    */
   @Override
   public WorkRecord createWork(String workType, byte[] payload, String payloadType, int payloadVersion, String codec, Integer maxRetries) {
-    String id = IdGenerator.generateRandomId();
-    Instant now = now();
+    return createWork(workType, new EncodedPayload(payload, payloadType), new SubmissionOptions(payloadVersion, codec, maxRetries));
+  }
 
-    String sql = """
-      INSERT INTO work_request (
-          id, work_type, payload, payload_type, payload_version, codec,
-          status, attempt_count, max_retries,
-          created_ts, updated_ts
-      )
-      VALUES (?, ?, ?, ?, ?, ?, 'NEW', 0, ?, ?, ?)
-      """;
+  /**
+   * Persists a new work item with initial status NEW and the given options.
+   *
+   * With an idempotency key, the row is written by a dialect-specific insert-if-absent statement
+   * (see {@link CreateWorkQueryBuilder}). If another row of the work type already holds the key,
+   * including one inserted concurrently, that row is read and returned instead. On a partitioned
+   * PostgreSQL table, which has no unique index on the key, the key is looked up before a plain
+   * insert, both under a transaction-scoped advisory lock on the work type and key. With the
+   * {@link StorageLayout#HOT_COLD} layout the key is also looked up in the history table after the
+   * insert, and the insert is rolled back if a finished item holds it.
+   *
+   * With a coalesce key, a NEW row of the work type holding the key is looked up first. In
+   * {@link CoalesceMode#REPLACE} mode its payload, options and visibility are overwritten, in
+   * {@link CoalesceMode#KEEP_EXISTING} mode it is returned untouched. A new row is inserted only if
+   * there is no such row or it was claimed meanwhile. Coalescing is best-effort: no index enforces a
+   * single pending row per key, so concurrent first submissions of a key may each insert one.
+   *
+   * @param workType routing key
+   * @param payload serialized payload and its class name
+   * @param options payload version, codec, retry cap, priority, earliest claim time and idempotency or
+   *                coalesce key
+   * @return stored {@link WorkRecord}, or the existing one for a repeated idempotency or coalesce key
+   * @throws RuntimeException on SQL errors
+   */
+  @Override
+  public WorkRecord createWork(String workType, EncodedPayload payload, SubmissionOptions options) {
+    // Every column is supplied by the INSERT, so the stored row is known without reading it back
+    WorkRecord record = newWorkRecord(IdGenerator.generateRandomId(), workType, payload, options, now());
+    if (record.idempotencyKey() != null) {
+      return createWorkIfAbsent(record);
+    }
+    if (record.coalesceKey() != null) {
+      return createOrCoalesce(record, options.coalesceMode());
+    }
 
-    try (Connection c = getConnection();
-         PreparedStatement ps = c.prepareStatement(sql)) {
-      int idx = 1;
-      ps.setString(idx++, id);
-      ps.setString(idx++, workType);
-      ps.setBytes(idx++, payload);
-      ps.setString(idx++, payloadType);
-      ps.setInt(idx++, payloadVersion);
-      ps.setString(idx++, codec);
-      ps.setObject(idx++, maxRetries);
-      ps.setTimestamp(idx++, Timestamp.from(now));
-      ps.setTimestamp(idx++, Timestamp.from(now));
+    try (Connection c = getConnection()) {
+      insertWork(c, record);
+      c.commit();
+      return record;
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to create work", e);
+    }
+  }
+
+  private void insertWork(Connection c, WorkRecord record) throws SQLException {
+    try (PreparedStatement ps = c.prepareStatement(CreateWorkQueryBuilder.buildInsertSql())) {
+      bindInsertWork(ps, 1, record);
       ps.executeUpdate();
+    }
+    notifyWorkAvailable(c, record.workType());
+  }
+
+  private WorkRecord createOrCoalesce(WorkRecord record, CoalesceMode mode) {
+    try (Connection c = getConnection()) {
+      WorkRecord pending = findPendingByCoalesceKey(c, record.workType(), record.coalesceKey());
+      if (pending != null && mode == CoalesceMode.KEEP_EXISTING) {
+        c.commit();
+        return pending;
+      }
+      if (pending != null && replacePending(c, pending.id(), record)) {
+        c.commit();
+        return pending.toBuilder()
+          .payload(record.payload())
+          .payloadType(record.payloadType())
+          .payloadVersion(record.payloadVersion())
+          .codec(record.codec())
+          .maxRetries(record.maxRetries())
+          .priority(record.priority())
+          .visibleAt(record.visibleAt())
+          .updatedTs(record.updatedTs())
+          .build();
+      }
+      // nothing pending, or the pending item was claimed after it was read
+      insertWork(c, record);
+      c.commit();
+      return record;
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to create work", e);
+    }
+  }
+
+  private static WorkRecord findPendingByCoalesceKey(Connection c, String workType, String coalesceKey) throws SQLException {
+    try (PreparedStatement ps = c.prepareStatement(CreateWorkQueryBuilder.buildSelectPendingByCoalesceKeySql())) {
+      ps.setString(1, coalesceKey);
+      ps.setString(2, workType);
+      try (ResultSet rs = ps.executeQuery()) {
+        return rs.next() ? WorkRecordRowMapper.map(rs) : null;
+      }
+    }
+  }
+
+  private static boolean replacePending(Connection c, String id, WorkRecord r) throws SQLException {
+    try (PreparedStatement ps = c.prepareStatement(CreateWorkQueryBuilder.buildReplacePendingSql())) {
+      ps.setBytes(1, r.payload());
+      ps.setString(2, r.payloadType());
+      ps.setInt(3, r.payloadVersion());
+      ps.setString(4, r.codec());
+      ps.setObject(5, r.maxRetries());
+      ps.setInt(6, r.priority());
+      ps.setTimestamp(7, Timestamp.from(r.visibleAt()));
+      ps.setTimestamp(8, Timestamp.from(r.updatedTs()));
+      ps.setString(9, id);
+      return ps.executeUpdate() == 1;
+    }
+  }
+
+  private WorkRecord createWorkIfAbsent(WorkRecord record) {
+    DbInfo.Dialect dialect = dbInfo.dialect();
+    try (Connection c = getConnection()) {
+      if (keysByLookup) {
+        // no unique index arbitrates concurrent first submissions of a key, so they take turns
+        try (PreparedStatement ps = c.prepareStatement(CreateWorkQueryBuilder.buildLockKeySql())) {
+          ps.setString(1, record.workType());
+          ps.setString(2, record.idempotencyKey());
+          ps.executeQuery().close();
+        }
+        WorkRecord existing = findByIdempotencyKey(c, record.workType(), record.idempotencyKey());
+        if (existing != null) {
+          c.commit();
+          return existing;
+        }
+      }
+      int inserted;
+      String sql = keysByLookup ? CreateWorkQueryBuilder.buildInsertSql() : CreateWorkQueryBuilder.buildInsertIfAbsentSql(dialect);
+      try (PreparedStatement ps = c.prepareStatement(sql)) {
+        int idx = 1;
+        if (!keysByLookup && CreateWorkQueryBuilder.leadingKeyParams(dialect)) {
+          ps.setString(idx++, record.workType());
+          ps.setString(idx++, record.idempotencyKey());
+        }
+        bindInsertWork(ps, idx, record);
+        inserted = ps.executeUpdate();
+      } catch (SQLException e) {
+        if (!isIntegrityViolation(e)) throw e;
+        // lost the race against a concurrent insert of the same key
+        c.rollback();
+        inserted = 0;
+      }
+      if (inserted > 0 && hotCold) {
+        // the unique index only covers work_request; the holder of the key may have finished already
+        WorkRecord finished = findByIdempotencyKey(c, HistoryQueryBuilder.buildSelectByKeySql(), record.workType(), record.idempotencyKey());
+        if (finished != null) {
+          c.rollback();
+          return finished;
+        }
+      }
+      // MySQL reports a duplicate left unchanged as affected, so the holder of the key is checked
+      if (inserted > 0 && dialect != DbInfo.Dialect.MySQL) {
+        notifyWorkAvailable(c, record.workType());
+        c.commit();
+        return record;
+      }
+      WorkRecord existing = findByIdempotencyKey(c, record.workType(), record.idempotencyKey());
+      if (existing == null) {
+        throw new IllegalStateException("No work of type " + record.workType() + " holds idempotency key " + record.idempotencyKey());
+      }
+      boolean ours = existing.id().equals(record.id());
+      if (ours) {
+        notifyWorkAvailable(c, record.workType());
+      }
       c.commit();
-      return getWork(id).orElseThrow();
+      return ours ? record : existing;
     } catch (SQLException e) {
       throw new RuntimeException("Failed to create work", e);
     }
   }
 
+  private WorkRecord findByIdempotencyKey(Connection c, String workType, String idempotencyKey) throws SQLException {
+    WorkRecord r = findByIdempotencyKey(c, CreateWorkQueryBuilder.buildSelectByKeySql(), workType, idempotencyKey);
+    if (r == null && hotCold) {
+      r = findByIdempotencyKey(c, HistoryQueryBuilder.buildSelectByKeySql(), workType, idempotencyKey);
+    }
+    return r;
+  }
+
+  private static WorkRecord findByIdempotencyKey(Connection c, String sql, String workType, String idempotencyKey) throws SQLException {
+    try (PreparedStatement ps = c.prepareStatement(sql)) {
+      ps.setString(1, idempotencyKey);
+      ps.setString(2, workType);
+      try (ResultSet rs = ps.executeQuery()) {
+        return rs.next() ? WorkRecordRowMapper.map(rs) : null;
+      }
+    }
+  }
+
+  private static boolean isIntegrityViolation(SQLException e) {
+    return e.getSQLState() != null && e.getSQLState().startsWith("23");
+  }
+
   /**
-   * Retrieves a single work item by id.
+   * Persists many work items of the same type with status NEW using JDBC batching.
+   * Rows are written in chunks of {@value #INSERT_BATCH_SIZE}, each chunk in its own transaction,
+   * and the returned records are built from the inserted values rather than read back.
+   * If a chunk fails, previously committed chunks remain persisted.
+   *
+   * @param workType routing key
+   * @param payloads serialized payloads with their class names
+   * @param payloadVersion schema version
+   * @param codec codec name used to serialize payloads
+   * @param maxRetries optional retry cap; null to use defaults
+   * @return stored {@link WorkRecord}s in the same order as {@code payloads}
+   * @throws RuntimeException on SQL errors
+   */
+  @Override
+  public List<WorkRecord> createWorkBatch(String workType, List<EncodedPayload> payloads, int payloadVersion, String codec, Integer maxRetries) {
+    return createWorkBatch(workType, payloads, new SubmissionOptions(payloadVersion, codec, maxRetries));
+  }
+
+  /**
+   * Persists many work items of the same type and options like
+   * {@link #createWorkBatch(String, List, int, String, Integer)}.
+   *
+   * @param workType routing key
+   * @param payloads serialized payloads with their class names
+   * @param options payload version, codec, retry cap and priority shared by all items
+   * @return stored {@link WorkRecord}s in the same order as {@code payloads}
+   * @throws RuntimeException on SQL errors
+   */
+  @Override
+  public List<WorkRecord> createWorkBatch(String workType, List<EncodedPayload> payloads, SubmissionOptions options) {
+    Objects.requireNonNull(payloads, "payloads is required");
+    if (options.idempotencyKey() != null || options.coalesceKey() != null) {
+      throw new IllegalArgumentException("idempotencyKey and coalesceKey are not supported for batch submissions");
+    }
+    List<WorkRecord> created = new ArrayList<>(payloads.size());
+    if (payloads.isEmpty()) return created;
+
+    try (Connection c = getConnection();
+         PreparedStatement ps = c.prepareStatement(CreateWorkQueryBuilder.buildInsertSql())) {
+      for (int from = 0; from < payloads.size(); from += INSERT_BATCH_SIZE) {
+        List<EncodedPayload> chunk = payloads.subList(from, Math.min(from + INSERT_BATCH_SIZE, payloads.size()));
+        Instant now = now();
+        List<WorkRecord> records = new ArrayList<>(chunk.size());
+        for (EncodedPayload p : chunk) {
+          WorkRecord r = newWorkRecord(IdGenerator.generateRandomId(), workType, p, options, now);
+          bindInsertWork(ps, 1, r);
+          ps.addBatch();
+          records.add(r);
+        }
+        ps.executeBatch();
+        notifyWorkAvailable(c, workType);
+        c.commit();
+        created.addAll(records);
+      }
+      return created;
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to create work batch", e);
+    }
+  }
+
+  /**
+   * Publishes a work-available notification within the inserting transaction, so that it is
+   * delivered only if the insert commits. No-op unless LISTEN/NOTIFY is enabled.
+   */
+  private void notifyWorkAvailable(Connection c, String workType) throws SQLException {
+    if (notificationListener == null) return;
+    try (PreparedStatement ps = c.prepareStatement("SELECT pg_notify(?, '')")) {
+      ps.setString(1, PgNotificationListener.channelFor(workType));
+      ps.execute();
+    }
+  }
+
+  /**
+   * Registers a callback invoked when work of {@code workType} is submitted through any store
+   * sharing the database. Supported on PostgreSQL when {@link JdbcWorkStoreOptions#listenNotify()}
+   * is enabled; the first subscription dedicates one pooled connection to listening for the
+   * lifetime of the store. Otherwise returns a no-op subscription.
+   *
+   * @param workType routing key to watch
+   * @param listener callback to invoke on the listener thread
+   * @return subscription that unregisters the callback when closed
+   */
+  @Override
+  public Subscription onWorkAvailable(String workType, Runnable listener) {
+    Objects.requireNonNull(workType, "workType is required");
+    Objects.requireNonNull(listener, "listener is required");
+    if (notificationListener == null) return Subscription.noop();
+    return notificationListener.subscribe(workType, listener);
+  }
+
+  private static WorkRecord newWorkRecord(String id, String workType, EncodedPayload payload, SubmissionOptions options, Instant now) {
+    return WorkRecord.builder()
+      .id(id)
+      .workType(workType)
+      .idempotencyKey(options.idempotencyKey())
+      .coalesceKey(options.coalesceKey())
+      .payload(payload.payload())
+      .payloadType(payload.payloadType())
+      .payloadVersion(options.payloadVersion())
+      .codec(options.codec())
+      .status(WorkRequest.Status.NEW)
+      .priority(options.priority())
+      .maxRetries(options.maxAttempts())
+      .attemptCount(0)
+      .visibleAt(options.notBefore() != null ? options.notBefore() : now)
+      .createdTs(now)
+      .updatedTs(now)
+      .build();
+  }
+
+  private static void bindInsertWork(PreparedStatement ps, int idx, WorkRecord r) throws SQLException {
+    ps.setString(idx++, r.id());
+    ps.setString(idx++, r.workType());
+    ps.setString(idx++, r.idempotencyKey());
+    ps.setString(idx++, r.coalesceKey());
+    ps.setBytes(idx++, r.payload());
+    ps.setString(idx++, r.payloadType());
+    ps.setInt(idx++, r.payloadVersion());
+    ps.setString(idx++, r.codec());
+    ps.setObject(idx++, r.maxRetries());
+    ps.setInt(idx++, r.priority());
+    ps.setTimestamp(idx++, Timestamp.from(r.visibleAt()));
+    ps.setTimestamp(idx++, Timestamp.from(r.createdTs()));
+    ps.setTimestamp(idx++, Timestamp.from(r.updatedTs()));
+  }
+
+  /**
+   * Retrieves a single work item by id. With the {@link StorageLayout#HOT_COLD} layout an item not
+   * found in {@code work_request} is looked up in the history table.
    *
    * @param workId work id
    * @return present if found
@@ -139,24 +541,48 @@ public final class JdbcWorkStore implements WorkStore {
    */
   @Override
   public Optional<WorkRecord> getWork(String workId) {
-    String sql = "SELECT * FROM work_request WHERE id = ?";
+    try (Connection c = dataSource.getConnection()) {
+      WorkRecord r = getWork(c, "work_request", workId);
+      if (r == null && hotCold) {
+        r = getWork(c, HistoryQueryBuilder.HISTORY_TABLE, workId);
+      }
+      return Optional.ofNullable(r);
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
 
-    try (Connection c = dataSource.getConnection();
-         PreparedStatement ps = c.prepareStatement(sql)) {
+  private static WorkRecord getWork(Connection c, String table, String workId) throws SQLException {
+    try (PreparedStatement ps = c.prepareStatement("SELECT * FROM " + table + " WHERE id = ?")) {
       ps.setString(1, workId);
       ResultSet rs = ps.executeQuery();
-      if (!rs.next()) return Optional.empty();
-      return Optional.of(WorkRecordRowMapper.map(rs));
-    } catch (SQLException e) {
-      throw new RuntimeException(e);
+      return rs.next() ? WorkRecordRowMapper.map(rs) : null;
     }
   }
 
-  private List<WorkRecord> getWorkByIds(Connection c, List<String> ids) {
+  private List<WorkRecord> getWorkByIds(Connection c, List<String> ids, WorkQuery.Projection projection) {
     List<WorkRecord> ordered = new ArrayList<>();
     if (ids.isEmpty()) return ordered;
 
-    StringBuilder sb = new StringBuilder("SELECT * FROM work_request WHERE id IN (");
+    try {
+      Map<String, WorkRecord> byId = new HashMap<>();
+      selectByIds(c, "work_request", ids, projection, byId);
+      if (hotCold && byId.size() < new HashSet<>(ids).size()) {
+        selectByIds(c, HistoryQueryBuilder.HISTORY_TABLE, ids.stream().filter(id -> !byId.containsKey(id)).toList(), projection, byId);
+      }
+      for (String id : ids) {
+        WorkRecord r = byId.get(id);
+        if (r != null) ordered.add(r);
+      }
+      return ordered;
+    } catch (SQLException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void selectByIds(Connection c, String table, List<String> ids, WorkQuery.Projection projection,
+                                  Map<String, WorkRecord> byId) throws SQLException {
+    StringBuilder sb = new StringBuilder("SELECT " + WorkRecordRowMapper.columns(projection) + " FROM " + table + " WHERE id IN (");
     for (int i = 0; i < ids.size(); i++) {
       if (i > 0) sb.append(", ");
       sb.append("?");
@@ -167,24 +593,17 @@ public final class JdbcWorkStore implements WorkStore {
       for (int i = 0; i < ids.size(); i++) {
         ps.setString(i + 1, ids.get(i));
       }
-      List<WorkRecord> rows = WorkRecordRowMapper.retrieveWorkRecords(ps.executeQuery());
-      Map<String, WorkRecord> byId = new HashMap<>();
-      for (WorkRecord r : rows) {
+      for (WorkRecord r : WorkRecordRowMapper.retrieveWorkRecords(ps.executeQuery(), projection)) {
         byId.put(r.id(), r);
       }
-      for (String id : ids) {
-        WorkRecord r = byId.get(id);
-        if (r != null) ordered.add(r);
-      }
-      return ordered;
-    } catch (SQLException e) {
-      throw new RuntimeException(e);
     }
   }
 
   /**
    * Lists work items matching the provided query. If IDs are provided, they take precedence
-   * and other filters are ignored.
+   * and other filters are ignored. With the {@link StorageLayout#HOT_COLD} layout the history
+   * table is included as needed by the status filter (see {@link ListWorkQueryBuilder}). With
+   * {@link WorkQuery.Projection#METADATA} payloads and failure reasons are neither read nor returned.
    *
    * @param query filter and paging configuration
    * @return matching work records
@@ -197,37 +616,130 @@ public final class JdbcWorkStore implements WorkStore {
     // If ids are provided, fetch by ids and return immediately (ignore other filters)
     if (query.ids() != null && !query.ids().isEmpty()) {
       try (Connection c = dataSource.getConnection()) {
-        return getWorkByIds(c, new ArrayList<>(query.ids()));
+        return getWorkByIds(c, new ArrayList<>(query.ids()), query.projection());
       } catch (SQLException e) {
         throw new RuntimeException("Failed to list work by ids", e);
       }
     }
 
-    ListWorkQueryBuilder b = new ListWorkQueryBuilder(query, dbInfo.dialect());
+    ListWorkQueryBuilder b = new ListWorkQueryBuilder(query, dbInfo.dialect(), hotCold ? StorageLayout.HOT_COLD : StorageLayout.SINGLE_TABLE);
     String sql = b.buildSql();
     List<Object> params = b.params();
 
     try (Connection c = dataSource.getConnection();
          PreparedStatement ps = c.prepareStatement(sql)) {
 
-      int idx = 1;
-      for (Object p : params) {
-        switch (p) {
-          case Timestamp ts -> ps.setTimestamp(idx++, ts);
-          case Integer i -> ps.setInt(idx++, i);
-          case String s -> ps.setString(idx++, s);
-          case null, default -> ps.setObject(idx++, p);
-        }
-      }
-      return WorkRecordRowMapper.retrieveWorkRecords(ps.executeQuery());
+      bindParams(ps, params);
+      return WorkRecordRowMapper.retrieveWorkRecords(ps.executeQuery(), query.projection());
     } catch (SQLException e) {
       throw new RuntimeException("Failed to list work", e);
     }
   }
 
+  /**
+   * Streams every work item matching the query through a forward-only, read-only cursor
+   * (see {@link ListWorkQueryBuilder#buildScanSql()}). Rows are fetched
+   * {@link JdbcWorkStoreOptions#streamFetchSize()} at a time; on MySQL the fetch size
+   * {@link Integer#MIN_VALUE} streams them one by one, as the driver otherwise buffers the whole
+   * result. The connection is held in a transaction, which PostgreSQL requires to use a cursor,
+   * until the stream is closed. If IDs are provided, the matches are read at once as by
+   * {@link #listWork(WorkQuery)}.
+   *
+   * @param query filter configuration; the page is ignored
+   * @return stream of matching work records that must be closed
+   * @throws RuntimeException on SQL errors, including while the stream is consumed
+   */
+  @Override
+  public Stream<WorkRecord> streamWork(WorkQuery query) {
+    Objects.requireNonNull(query, "query is required");
+    if (query.ids() != null && !query.ids().isEmpty()) {
+      return listWork(query).stream();
+    }
+
+    ListWorkQueryBuilder b = new ListWorkQueryBuilder(query, dbInfo.dialect(), hotCold ? StorageLayout.HOT_COLD : StorageLayout.SINGLE_TABLE);
+    String sql = b.buildScanSql();
+    Connection c = null;
+    PreparedStatement ps = null;
+    try {
+      c = getConnection();
+      ps = c.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+      ps.setFetchSize(dbInfo.dialect() == DbInfo.Dialect.MySQL ? Integer.MIN_VALUE : streamFetchSize);
+      bindParams(ps, b.params());
+      WorkRecordSpliterator rows = new WorkRecordSpliterator(c, ps, ps.executeQuery(), query.projection());
+      return StreamSupport.stream(rows, false).onClose(rows::close);
+    } catch (SQLException e) {
+      closeQuietly(ps);
+      closeQuietly(c);
+      throw new RuntimeException("Failed to stream work", e);
+    }
+  }
+
+  private static void closeQuietly(AutoCloseable resource) {
+    if (resource == null) return;
+    try {
+      resource.close();
+    } catch (Exception e) {
+      log.debug("Failed to close {}", resource, e);
+    }
+  }
+
+  /**
+   * Counts work items per work type and status with one {@code GROUP BY} query (see
+   * {@link StatsQueryBuilder}). A snapshot is shared with every caller for
+   * {@link JdbcWorkStoreOptions#statsCacheTtl()}; callers arriving while it is being recomputed wait
+   * for that computation instead of running the query again.
+   *
+   * @return counts per (work type, status)
+   * @throws RuntimeException on SQL errors
+   */
+  @Override
+  public WorkStats stats() {
+    WorkStats stats = cachedStats;
+    if (isFresh(stats)) return stats;
+    synchronized (statsLock) {
+      stats = cachedStats;
+      if (isFresh(stats)) return stats;
+      stats = computeStats();
+      cachedStats = stats;
+      return stats;
+    }
+  }
+
+  private boolean isFresh(WorkStats stats) {
+    return stats != null && stats.computedAt().plus(statsCacheTtl).isAfter(now());
+  }
+
+  private WorkStats computeStats() {
+    Instant now = now();
+    Map<String, WorkStats.Entry> byGroup = new LinkedHashMap<>();
+    try (Connection c = getConnection();
+         PreparedStatement ps = c.prepareStatement(StatsQueryBuilder.buildSql(hotCold ? StorageLayout.HOT_COLD : StorageLayout.SINGLE_TABLE));
+         ResultSet rs = ps.executeQuery()) {
+      while (rs.next()) {
+        WorkStats.Entry e = new WorkStats.Entry(rs.getString("work_type"), WorkRequest.Status.valueOf(rs.getString("status")),
+          rs.getLong("item_count"), WorkRecordRowMapper.getInstantSafely(rs, "oldest_visible_at"));
+        // with the hot/cold layout, terminal items may be counted in both tables
+        byGroup.merge(e.workType() + ':' + e.status(), e, (a, b) -> new WorkStats.Entry(a.workType(), a.status(),
+          a.count() + b.count(), earliest(a.oldestVisibleAt(), b.oldestVisibleAt())));
+      }
+      c.commit();
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to compute work stats", e);
+    }
+    return new WorkStats(new ArrayList<>(byGroup.values()), now);
+  }
+
+  private static Instant earliest(Instant a, Instant b) {
+    if (a == null) return b;
+    if (b == null) return a;
+    return a.isBefore(b) ? a : b;
+  }
+
   /**
    * Attempts to atomically claim up to {@code limit} work items for the given type and owner.
-   * Uses vendor-specific SELECT/locking hints to avoid blocking where possible.
+   * Where the database supports it, candidate selection, locking, the claim update and the
+   * read-back happen in a single statement (see {@link ClaimWorkQueryBuilder}); otherwise the
+   * locked candidate rows are claimed with one set-based UPDATE in the same transaction.
    *
    * @param workType routing key to claim
    * @param ownerId logical owner id
@@ -238,67 +750,123 @@ public final class JdbcWorkStore implements WorkStore {
    */
   @Override
   public List<WorkRecord> claimWork(String workType, String ownerId, int limit, Duration leaseDuration) {
+    return claimWork(workType, ownerId, limit, leaseDuration, LeaseMode.PER_ITEM);
+  }
+
+  /**
+   * Claims up to {@code limit} work items using the given lease mode. In
+   * {@link LeaseMode#OWNER_HEARTBEAT} mode the owner's heartbeat is upserted first, in its own
+   * transaction, so that the claimed items (stored without a per-item lease) are never orphaned.
+   *
+   * @param workType routing key to claim
+   * @param ownerId logical owner id
+   * @param limit maximum number of items to claim
+   * @param leaseDuration per-item lease, or heartbeat lifetime in heartbeat mode
+   * @param leaseMode how ownership of the claimed items is maintained
+   * @return claimed records (size ≤ limit) in claim order: highest priority first, then earliest visible
+   * @throws RuntimeException on SQL errors
+   */
+  @Override
+  public List<WorkRecord> claimWork(String workType, String ownerId, int limit, Duration leaseDuration, LeaseMode leaseMode) {
+    if (limit <= 0) return List.of();
+    if (leaseMode == LeaseMode.OWNER_HEARTBEAT) {
+      renewOwnerHeartbeat(ownerId, leaseDuration);
+    }
     Instant now = now();
     Instant leaseUntil = now.plus(leaseDuration);
 
-    String selectSql = buildSelectIdsForClaimSql();
-    String updateSql = """
-      UPDATE work_request
-      SET status = 'IN_PROGRESS',
-          owner_id = ?,
-          lease_until = ?,
-          attempt_count = attempt_count + 1,
-          started_ts = COALESCE(started_ts, ?),
-          updated_ts = ?
-      WHERE id = ?
-        AND status = 'NEW'
-        AND (owner_id IS NULL OR lease_until < ?)
-      """;
-
-    List<String> claimedIds = new ArrayList<>();
-
-    try (Connection c = getConnection();
-         PreparedStatement select = c.prepareStatement(selectSql);
-         PreparedStatement update = c.prepareStatement(updateSql)) {
-
-      int sIdx = 1;
-      select.setString(sIdx++, workType);
-      select.setTimestamp(sIdx++, Timestamp.from(now));
-      // limit param position depends on dialect but buildSelectIdsForClaimSql always places it as last placeholder
-      select.setInt(sIdx, limit);
-
-      ResultSet rs = select.executeQuery();
+    try (Connection c = getConnection()) {
+      List<WorkRecord> rows = new ArrayList<>(claim(c, Map.of(workType, limit), ownerId, now, leaseUntil, leaseMode));
+      c.commit();
+      // the statement returns rows in no particular order
+      rows.sort(CLAIM_ORDER);
+      return rows;
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to claim work", e);
+    }
+  }
 
-      List<String> selectedIds = new ArrayList<>();
-      while (rs.next()) {
-        String id = rs.getString(1);
-        selectedIds.add(id);
+  /**
+   * Claims up to the given number of items of each type with one statement, which takes the first
+   * candidates of each type in claim order within the limit of their type.
+   *
+   * @param limits maximum number of items to claim per routing key
+   * @param ownerId logical owner id
+   * @param leaseDuration per-item lease, or heartbeat lifetime in heartbeat mode
+   * @param leaseMode how ownership of the claimed items is maintained
+   * @return claimed records, grouped by type in the iteration order of {@code limits}, each type in claim order
+   * @throws RuntimeException on SQL errors
+   */
+  @Override
+  public List<WorkRecord> claimWork(Map<String, Integer> limits, String ownerId, Duration leaseDuration, LeaseMode leaseMode) {
+    Map<String, Integer> wanted = new LinkedHashMap<>();
+    limits.forEach((type, limit) -> {
+      if (limit > 0) wanted.put(type, limit);
+    });
+    if (wanted.isEmpty()) return List.of();
+    if (leaseMode == LeaseMode.OWNER_HEARTBEAT) {
+      renewOwnerHeartbeat(ownerId, leaseDuration);
+    }
+    Instant now = now();
+    Instant leaseUntil = now.plus(leaseDuration);
 
-        int uIdx = 1;
-        update.setString(uIdx++, ownerId);
-        update.setTimestamp(uIdx++, Timestamp.from(leaseUntil));
-        update.setTimestamp(uIdx++, Timestamp.from(now));
-        update.setTimestamp(uIdx++, Timestamp.from(now));
-        update.setString(uIdx++, id);
-        update.setTimestamp(uIdx, Timestamp.from(now));
+    try (Connection c = getConnection()) {
+      List<WorkRecord> rows = new ArrayList<>(claim(c, wanted, ownerId, now, leaseUntil, leaseMode));
+      c.commit();
+      // the statement returns rows in no particular order
+      List<String> typeOrder = List.copyOf(wanted.keySet());
+      rows.sort(Comparator.<WorkRecord>comparingInt(r -> typeOrder.indexOf(r.workType())).thenComparing(CLAIM_ORDER));
+      return rows;
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to claim work", e);
+    }
+  }
 
-        update.addBatch();
+  private List<WorkRecord> claim(Connection c, Map<String, Integer> quotas, String ownerId, Instant now, Instant leaseUntil,
+                                 LeaseMode leaseMode) throws SQLException {
+    ClaimWorkQueryBuilder b = new ClaimWorkQueryBuilder(quotas, ownerId, now, leaseUntil, dbInfo.dialect(), leaseMode);
+    try (PreparedStatement ps = c.prepareStatement(b.buildSql())) {
+      bindParams(ps, b.params());
+      List<WorkRecord> rows = WorkRecordRowMapper.retrieveWorkRecords(ps.executeQuery());
+      if (!b.returnsClaimedRows()) {
+        rows = claimLockedRows(c, rows, ownerId, now, leaseMode == LeaseMode.PER_ITEM ? leaseUntil : null);
       }
+      return rows;
+    }
+  }
 
-      int[] counts = update.executeBatch();
-      for (int i = 0; i < counts.length; i++) {
-        int count = counts[i];
-        if (count == 1 || count == java.sql.Statement.SUCCESS_NO_INFO) {
-          claimedIds.add(selectedIds.get(i));
-        }
+  /**
+   * Claims rows already locked by the candidate SELECT with a single UPDATE and applies the same
+   * changes to the in-memory records, avoiding a second read of the (potentially large) payloads.
+   * A null {@code leaseUntil} claims the rows without a per-item lease (heartbeat mode).
+   */
+  private List<WorkRecord> claimLockedRows(Connection c, List<WorkRecord> locked, String ownerId, Instant now, Instant leaseUntil) throws SQLException {
+    if (locked.isEmpty()) return locked;
+
+    try (PreparedStatement ps = c.prepareStatement(ClaimWorkQueryBuilder.buildClaimByIdsSql(locked.size()))) {
+      int idx = 1;
+      ps.setString(idx++, ownerId);
+      ps.setTimestamp(idx++, leaseUntil != null ? Timestamp.from(leaseUntil) : null);
+      ps.setTimestamp(idx++, Timestamp.from(now));
+      ps.setTimestamp(idx++, Timestamp.from(now));
+      for (WorkRecord r : locked) {
+        ps.setString(idx++, r.id());
       }
+      ps.executeUpdate();
+    }
 
-      List<WorkRecord> claimed = getWorkByIds(c, claimedIds);
-      c.commit();
-      return claimed;
-    } catch (SQLException e) {
-      throw new RuntimeException("Failed to claim work", e);
+    List<WorkRecord> claimed = new ArrayList<>(locked.size());
+    for (WorkRecord r : locked) {
+      claimed.add(r.toBuilder()
+        .status(WorkRequest.Status.IN_PROGRESS)
+        .ownerId(ownerId)
+        .leaseUntil(leaseUntil)
+        .attemptCount(r.attemptCount() + 1)
+        .startedTs(r.startedTs() != null ? r.startedTs() : now)
+        .updatedTs(now)
+        .build());
     }
+    return claimed;
   }
 
   /**
@@ -337,7 +905,198 @@ public final class JdbcWorkStore implements WorkStore {
   }
 
   /**
-   * Resets the work item back to NEW and sets a future {@code lease_until} to delay re-claim.
+   * Renews the leases of many work items owned by {@code ownerId} with one UPDATE per chunk of
+   * {@value #IN_LIST_CHUNK_SIZE} ids, all in a single transaction. Only when the update count shows
+   * that some leases were not renewed are the still-owned ids selected to determine which were lost.
+   *
+   * @param ownerId expected owner
+   * @param ids work ids to renew
+   * @param leaseDuration lease extension from now
+   * @return ids that are no longer owned by {@code ownerId} or no longer in progress
+   * @throws RuntimeException on SQL errors
+   */
+  @Override
+  public Set<String> renewWorkerLeases(String ownerId, Collection<String> ids, Duration leaseDuration) {
+    Set<String> lost = new HashSet<>();
+    if (ids.isEmpty()) return lost;
+    List<String> all = List.copyOf(new LinkedHashSet<>(ids));
+    Instant now = now();
+
+    try (Connection c = getConnection()) {
+      for (int from = 0; from < all.size(); from += IN_LIST_CHUNK_SIZE) {
+        List<String> chunk = all.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, all.size()));
+        String sql = """
+          UPDATE work_request
+          SET lease_until = ?, updated_ts = ?
+          WHERE owner_id = ?
+            AND status = 'IN_PROGRESS'
+            AND id IN (%s)
+          """.formatted(placeholders(chunk.size()));
+        int updated;
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+          int idx = 1;
+          ps.setTimestamp(idx++, Timestamp.from(now.plus(leaseDuration)));
+          ps.setTimestamp(idx++, Timestamp.from(now));
+          ps.setString(idx++, ownerId);
+          for (String id : chunk) {
+            ps.setString(idx++, id);
+          }
+          updated = ps.executeUpdate();
+        }
+        if (updated < chunk.size()) {
+          Set<String> held = selectOwnedInProgress(c, ownerId, chunk);
+          for (String id : chunk) {
+            if (!held.contains(id)) lost.add(id);
+          }
+        }
+      }
+      c.commit();
+      return lost;
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to renew worker leases", e);
+    }
+  }
+
+  /**
+   * Returns unstarted items claimed by {@code ownerId} to NEW with one statement per chunk of ids,
+   * fenced on owner and status. The claim's attempt is taken back,
+   * and so is its start time on a first attempt.
+   *
+   * @param ownerId expected owner
+   * @param ids work ids to release
+   * @return number of items released
+   */
+  @Override
+  public int releaseClaims(String ownerId, Collection<String> ids) {
+    if (ids.isEmpty()) return 0;
+    List<String> all = List.copyOf(new LinkedHashSet<>(ids));
+    Instant now = now();
+    // started_ts is assigned before attempt_count: MySQL evaluates assignments left to right
+    int released = 0;
+    try (Connection c = getConnection()) {
+      for (int from = 0; from < all.size(); from += IN_LIST_CHUNK_SIZE) {
+        List<String> chunk = all.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, all.size()));
+        String sql = """
+          UPDATE work_request
+          SET status = 'NEW',
+              started_ts = CASE WHEN attempt_count <= 1 THEN NULL ELSE started_ts END,
+              attempt_count = CASE WHEN attempt_count > 0 THEN attempt_count - 1 ELSE 0 END,
+              owner_id = NULL,
+              lease_until = NULL,
+              visible_at = ?,
+              updated_ts = ?
+          WHERE owner_id = ?
+            AND status = 'IN_PROGRESS'
+            AND id IN (%s)
+          """.formatted(placeholders(chunk.size()));
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+          int idx = 1;
+          ps.setTimestamp(idx++, Timestamp.from(now));
+          ps.setTimestamp(idx++, Timestamp.from(now));
+          ps.setString(idx++, ownerId);
+          for (String id : chunk) {
+            ps.setString(idx++, id);
+          }
+          released += ps.executeUpdate();
+        }
+      }
+      c.commit();
+      return released;
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to release claimed work", e);
+    }
+  }
+
+  private Set<String> selectOwnedInProgress(Connection c, String ownerId, List<String> ids) throws SQLException {
+    String sql = """
+      SELECT id FROM work_request
+      WHERE owner_id = ?
+        AND status = 'IN_PROGRESS'
+        AND id IN (%s)
+      """.formatted(placeholders(ids.size()));
+    try (PreparedStatement ps = c.prepareStatement(sql)) {
+      int idx = 1;
+      ps.setString(idx++, ownerId);
+      for (String id : ids) {
+        ps.setString(idx++, id);
+      }
+      Set<String> held = new HashSet<>();
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) held.add(rs.getString(1));
+      }
+      return held;
+    }
+  }
+
+  private static String placeholders(int count) {
+    return String.join(", ", Collections.nCopies(count, "?"));
+  }
+
+  /**
+   * Extends (or creates) the heartbeat row of {@code ownerId}. Tries an UPDATE first and inserts
+   * the row when it does not exist yet; a concurrent insert by the same owner is resolved by
+   * retrying the UPDATE.
+   *
+   * @param ownerId owner whose heartbeat to renew
+   * @param ttl heartbeat lifetime from now
+   * @throws RuntimeException on SQL errors
+   */
+  @Override
+  public void renewOwnerHeartbeat(String ownerId, Duration ttl) {
+    String updateSql = "UPDATE worker_heartbeat SET alive_until = ? WHERE owner_id = ?";
+    String insertSql = "INSERT INTO worker_heartbeat (owner_id, alive_until) VALUES (?, ?)";
+    Timestamp aliveUntil = Timestamp.from(now().plus(ttl));
+
+    try (Connection c = getConnection()) {
+      if (updateHeartbeat(c, updateSql, ownerId, aliveUntil)) {
+        c.commit();
+        return;
+      }
+      try (PreparedStatement ins = c.prepareStatement(insertSql)) {
+        ins.setString(1, ownerId);
+        ins.setTimestamp(2, aliveUntil);
+        ins.executeUpdate();
+        c.commit();
+      } catch (SQLException se) {
+        c.rollback();
+        if (!isDuplicateKey(se)) throw se;
+        updateHeartbeat(c, updateSql, ownerId, aliveUntil);
+        c.commit();
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to renew heartbeat of owner " + ownerId, e);
+    }
+  }
+
+  private static boolean updateHeartbeat(Connection c, String sql, String ownerId, Timestamp aliveUntil) throws SQLException {
+    try (PreparedStatement ps = c.prepareStatement(sql)) {
+      ps.setTimestamp(1, aliveUntil);
+      ps.setString(2, ownerId);
+      return ps.executeUpdate() == 1;
+    }
+  }
+
+  /**
+   * Deletes the heartbeat row of {@code ownerId}, making its remaining heartbeat-leased items
+   * claimable immediately.
+   *
+   * @param ownerId owner whose heartbeat to remove
+   * @throws RuntimeException on SQL errors
+   */
+  @Override
+  public void releaseOwnerHeartbeat(String ownerId) {
+    try (Connection c = getConnection();
+         PreparedStatement ps = c.prepareStatement("DELETE FROM worker_heartbeat WHERE owner_id = ?")) {
+      ps.setString(1, ownerId);
+      ps.executeUpdate();
+      c.commit();
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to release heartbeat of owner " + ownerId, e);
+    }
+  }
+
+  /**
+   * Resets the work item back to NEW and sets a future {@code visible_at} to delay re-claim.
    *
    * @param id work id
    * @param delay delay before it becomes claimable again
@@ -350,7 +1109,8 @@ public final class JdbcWorkStore implements WorkStore {
       UPDATE work_request
       SET status = 'NEW',
           owner_id = NULL,
-          lease_until = ?,
+          lease_until = NULL,
+          visible_at = ?,
           updated_ts = ?
       WHERE id = ?
       """;
@@ -394,7 +1154,7 @@ public final class JdbcWorkStore implements WorkStore {
       UPDATE work_request
       SET status = ?, failure_reason = ?, lease_until = NULL,
           completed_ts = ?, updated_ts = ?
-      WHERE id = ? AND owner_id = ?
+      WHERE id = ? AND owner_id = ? AND status = 'IN_PROGRESS'
       """;
 
     Instant now = now();
@@ -409,7 +1169,9 @@ public final class JdbcWorkStore implements WorkStore {
       ps.setString(5, id);
       ps.setString(6, ownerId);
 
-      ps.executeUpdate();
+      if (ps.executeUpdate() == 1) {
+        moveToHistory(c, List.of(id));
+      }
       c.commit();
 
     } catch (SQLException e) {
@@ -418,7 +1180,346 @@ public final class JdbcWorkStore implements WorkStore {
   }
 
   /**
-   * Best-effort cancellation of a work item. If already terminal this is a no-op.
+   * With the {@link StorageLayout#HOT_COLD} layout, moves the terminal items among {@code ids} from
+   * {@code work_request} to the history table within the caller's transaction, in chunks of
+   * {@value #IN_LIST_CHUNK_SIZE} ids. Items that are not terminal are left in place. No-op otherwise.
+   */
+  private void moveToHistory(Connection c, List<String> ids) throws SQLException {
+    if (!hotCold || ids.isEmpty()) return;
+    for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK_SIZE) {
+      List<String> chunk = ids.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, ids.size()));
+      for (String sql : List.of(HistoryQueryBuilder.buildCopyTerminalSql(chunk.size()), HistoryQueryBuilder.buildDeleteTerminalSql(chunk.size()))) {
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
+          for (int i = 0; i < chunk.size(); i++) {
+            ps.setString(i + 1, chunk.get(i));
+          }
+          ps.executeUpdate();
+        }
+      }
+    }
+  }
+
+  /**
+   * Applies many outcomes in one transaction using two JDBC batches: one for terminal outcomes and
+   * one for reschedules. Every statement is fenced on {@code owner_id} and requires the item to
+   * still be IN_PROGRESS, so outcomes for items that were reclaimed by another owner or cancelled
+   * in the meantime are silently skipped. With the {@link StorageLayout#HOT_COLD}
+   * layout the items made terminal are moved to the history table in the same transaction.
+   *
+   * @param ownerId expected owner of every item
+   * @param outcomes outcomes to record
+   * @throws RuntimeException on SQL errors
+   */
+  @Override
+  public void applyOutcomes(String ownerId, List<WorkOutcome> outcomes) {
+    if (outcomes.isEmpty()) return;
+    String terminalSql = """
+      UPDATE work_request
+      SET status = ?, failure_reason = ?, lease_until = NULL,
+          completed_ts = ?, updated_ts = ?
+      WHERE id = ? AND owner_id = ? AND status = 'IN_PROGRESS'
+      """;
+    String rescheduleSql = """
+      UPDATE work_request
+      SET status = 'NEW',
+          owner_id = NULL,
+          lease_until = NULL,
+          visible_at = ?,
+          updated_ts = ?
+      WHERE id = ? AND owner_id = ? AND status = 'IN_PROGRESS'
+      """;
+    Instant now = now();
+    Timestamp nowTs = Timestamp.from(now);
+
+    try (Connection c = getConnection();
+         PreparedStatement terminal = c.prepareStatement(terminalSql);
+         PreparedStatement reschedule = c.prepareStatement(rescheduleSql)) {
+      List<String> terminalIds = new ArrayList<>();
+      boolean hasReschedule = false;
+      for (WorkOutcome o : outcomes) {
+        if (o.type() == WorkOutcome.Type.RESCHEDULED) {
+          reschedule.setTimestamp(1, Timestamp.from(now.plus(o.retryDelay())));
+          reschedule.setTimestamp(2, nowTs);
+          reschedule.setString(3, o.workId());
+          reschedule.setString(4, ownerId);
+          reschedule.addBatch();
+          hasReschedule = true;
+        } else {
+          WorkRequest.Status status = o.type() == WorkOutcome.Type.SUCCEEDED ? WorkRequest.Status.SUCCEEDED : WorkRequest.Status.FAILED;
+          terminal.setString(1, status.name());
+          terminal.setString(2, o.failureReason());
+          terminal.setTimestamp(3, nowTs);
+          terminal.setTimestamp(4, nowTs);
+          terminal.setString(5, o.workId());
+          terminal.setString(6, ownerId);
+          terminal.addBatch();
+          terminalIds.add(o.workId());
+        }
+      }
+      if (!terminalIds.isEmpty()) terminal.executeBatch();
+      if (hasReschedule) reschedule.executeBatch();
+      moveToHistory(c, terminalIds);
+      c.commit();
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to apply " + outcomes.size() + " work outcomes", e);
+    }
+  }
+
+  /**
+   * Raises the priority of NEW items of {@code workType} that have been visible and not updated for
+   * {@code waitingLongerThan} by one level, up to {@code maxPriority}. Each level below
+   * {@code maxPriority} is aged by its own statement, in its own transaction, which raises at most
+   * {@value #AGING_BATCH_SIZE} of its items, those visible the longest (see {@link PriorityAgingQueryBuilder}).
+   * A call thus reads and locks a bounded number of rows however large the backlog is, and only the
+   * longest waiting items of a level move up, instead of the whole backlog drifting to
+   * {@code maxPriority}. Deferred items are not aged before they become visible. Raising an item also
+   * sets its {@code updated_ts}, so an item rises at most one level per interval, even with
+   * concurrent processors aging the same type.
+   *
+   * @param workType routing key whose items to age
+   * @param waitingLongerThan time an item must have waited since its last update
+   * @param maxPriority priority an item is never raised beyond
+   * @return number of items raised
+   * @throws RuntimeException on SQL errors
+   */
+  @Override
+  public int agePriorities(String workType, Duration waitingLongerThan, int maxPriority) {
+    DbInfo.Dialect dialect = dbInfo.dialect();
+    String sql = PriorityAgingQueryBuilder.buildAgeLevelSql(dialect);
+    Instant now = now();
+    Instant cutoff = now.minus(waitingLongerThan);
+    try (Connection c = getConnection();
+         PreparedStatement ps = c.prepareStatement(sql)) {
+      int aged = 0;
+      // top level first, so an item raised by this call is not considered again on the level above
+      for (int level = maxPriority - 1; level >= SubmissionOptions.MIN_PRIORITY; level--) {
+        bindParams(ps, PriorityAgingQueryBuilder.params(dialect, now, workType, level, cutoff, AGING_BATCH_SIZE));
+        aged += ps.executeUpdate();
+        c.commit();
+      }
+      return aged;
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to age work priorities", e);
+    }
+  }
+
+  /**
+   * Removes up to {@code limit} terminal items completed before {@code completedBefore} in one
+   * transaction. {@link RetentionMode#DELETE} runs a single dialect-specific delete-with-limit;
+   * {@link RetentionMode#ARCHIVE} reads the ids of a batch, copies those rows to
+   * {@code work_request_archive} and deletes them, {@value #IN_LIST_CHUNK_SIZE} ids per statement
+   * (see {@link PurgeWorkQueryBuilder}). With the
+   * {@link StorageLayout#HOT_COLD} layout the history table is purged first, and {@code work_request}
+   * only for the rest of the limit, which covers terminal items left from a single table layout.
+   *
+   * @param completedBefore items completed at or after this instant are kept
+   * @param limit maximum number of items to remove
+   * @param mode whether the items are deleted or archived
+   * @return number of items removed
+   * @throws RuntimeException on SQL errors
+   */
+  @Override
+  public int purgeTerminalWork(Instant completedBefore, int limit, RetentionMode mode) {
+    Objects.requireNonNull(completedBefore, "completedBefore is required");
+    Objects.requireNonNull(mode, "mode is required");
+    if (limit <= 0) return 0;
+    DbInfo.Dialect dialect = dbInfo.dialect();
+    List<String> tables = hotCold ? List.of(HistoryQueryBuilder.HISTORY_TABLE, "work_request") : List.of("work_request");
+    try (Connection c = getConnection()) {
+      int removed = 0;
+      for (String table : tables) {
+        if (removed >= limit) break;
+        if (mode == RetentionMode.DELETE) {
+          try (PreparedStatement ps = c.prepareStatement(PurgeWorkQueryBuilder.buildDeleteSql(dialect, table))) {
+            bindPurgeBatch(ps, dialect, completedBefore, limit - removed);
+            removed += ps.executeUpdate();
+          }
+        } else {
+          removed += archiveBatch(c, dialect, table, completedBefore, limit - removed);
+        }
+      }
+      c.commit();
+      return removed;
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to purge terminal work", e);
+    }
+  }
+
+  private int archiveBatch(Connection c, DbInfo.Dialect dialect, String table, Instant completedBefore, int limit) throws SQLException {
+    List<String> ids = new ArrayList<>();
+    try (PreparedStatement ps = c.prepareStatement(PurgeWorkQueryBuilder.buildSelectIdsSql(dialect, table))) {
+      bindPurgeBatch(ps, dialect, completedBefore, limit);
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          ids.add(rs.getString(1));
+        }
+      }
+    }
+    Timestamp archivedTs = Timestamp.from(now());
+    int removed = 0;
+    for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK_SIZE) {
+      List<String> chunk = ids.subList(from, Math.min(from + IN_LIST_CHUNK_SIZE, ids.size()));
+      try (PreparedStatement ps = c.prepareStatement(PurgeWorkQueryBuilder.buildArchiveByIdsSql(chunk.size(), table))) {
+        ps.setTimestamp(1, archivedTs);
+        for (int i = 0; i < chunk.size(); i++) {
+          ps.setString(i + 2, chunk.get(i));
+        }
+        ps.executeUpdate();
+      }
+      try (PreparedStatement ps = c.prepareStatement(PurgeWorkQueryBuilder.buildDeleteByIdsSql(chunk.size(), table))) {
+        for (int i = 0; i < chunk.size(); i++) {
+          ps.setString(i + 1, chunk.get(i));
+        }
+        removed += ps.executeUpdate();
+      }
+    }
+    return removed;
+  }
+
+  private static void bindPurgeBatch(PreparedStatement ps, DbInfo.Dialect dialect, Instant completedBefore, int limit) throws SQLException {
+    boolean limitFirst = PurgeWorkQueryBuilder.limitFirst(dialect);
+    ps.setTimestamp(limitFirst ? 2 : 1, Timestamp.from(completedBefore));
+    ps.setInt(limitFirst ? 1 : 2, limit);
+  }
+
+  /**
+   * Applies {@code action} to the matching items in chunks, one transaction per chunk on a single
+   * connection. Each chunk is one dialect-specific UPDATE or DELETE with a row limit (see
+   * {@link BulkUpdateQueryBuilder}), repeated until it changes fewer items than the chunk size.
+   *
+   * With the {@link StorageLayout#HOT_COLD} layout, items that change tables are handled by id, in
+   * chunks of at most {@value #IN_LIST_CHUNK_SIZE}: cancelled items are moved to the history table,
+   * and requeued items of the history table are copied back to {@code work_request} and removed from
+   * the history. Only their ids are read. Purges delete from the history table first. If the query
+   * has ids, they are processed the same way, in chunks, and the other filters are ignored as by
+   * {@link #listWork(WorkQuery)}.
+   *
+   * Requeueing items of a single work type on PostgreSQL with
+   * {@link JdbcWorkStoreOptions#listenNotify()} wakes the processors of that type after each chunk.
+   *
+   * @param query filter parameters; the page, cursor and projection are ignored
+   * @param action change to apply
+   * @param chunkSize maximum number of items changed per transaction
+   * @param progress called after every chunk with the number of items changed so far; may be {@code null}
+   * @return number of items changed
+   * @throws IllegalArgumentException if {@code chunkSize} is not positive
+   * @throws RuntimeException on SQL errors; chunks committed before the error remain applied
+   */
+  @Override
+  public long bulkUpdate(WorkQuery query, BulkAction action, int chunkSize, LongConsumer progress) {
+    Objects.requireNonNull(query, "query is required");
+    Objects.requireNonNull(action, "action is required");
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("chunkSize must be > 0");
+    }
+    Set<WorkRequest.Status> statuses = action.statuses(query.statuses());
+    if (statuses.isEmpty()) return 0;
+    // active items are only in work_request; terminal ones may also be left there from a single table layout
+    List<String> tables = hotCold && action != BulkAction.CANCEL ? List.of(HistoryQueryBuilder.HISTORY_TABLE, "work_request") : List.of("work_request");
+    DbInfo.Dialect dialect = dbInfo.dialect();
+    long total = 0;
+    try (Connection c = getConnection()) {
+      if (query.ids() != null && !query.ids().isEmpty()) {
+        List<String> ids = new ArrayList<>(query.ids());
+        int size = Math.min(chunkSize, IN_LIST_CHUNK_SIZE);
+        for (int from = 0; from < ids.size() && !Thread.currentThread().isInterrupted(); from += size) {
+          List<String> chunk = ids.subList(from, Math.min(from + size, ids.size()));
+          Instant now = now();
+          int changed = 0;
+          for (String table : tables) {
+            changed += applyToIds(c, action, statuses, table, chunk, now);
+          }
+          total = commitChunk(c, query, action, total, changed, progress);
+        }
+        return total;
+      }
+      for (String table : tables) {
+        boolean byIds = hotCold && (action == BulkAction.CANCEL || (action == BulkAction.REQUEUE && table.equals(HistoryQueryBuilder.HISTORY_TABLE)));
+        int limit = byIds ? Math.min(chunkSize, IN_LIST_CHUNK_SIZE) : chunkSize;
+        int matched;
+        do {
+          if (Thread.currentThread().isInterrupted()) return total;
+          Instant now = now();
+          BulkUpdateQueryBuilder b = new BulkUpdateQueryBuilder(query, action, dialect, table);
+          int changed;
+          if (byIds) {
+            List<String> ids = selectIds(c, b.buildSelectIdsSql(limit), b.params());
+            matched = ids.size();
+            changed = applyToIds(c, action, statuses, table, ids, now);
+          } else {
+            try (PreparedStatement ps = c.prepareStatement(b.buildChunkSql(now, limit))) {
+              bindParams(ps, b.params());
+              changed = ps.executeUpdate();
+            }
+            matched = changed;
+          }
+          total = commitChunk(c, query, action, total, changed, progress);
+        } while (matched == limit);
+      }
+      return total;
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to apply " + action + " in bulk after " + total + " items", e);
+    }
+  }
+
+  private long commitChunk(Connection c, WorkQuery query, BulkAction action, long total, int changed, LongConsumer progress) throws SQLException {
+    if (action == BulkAction.REQUEUE && changed > 0 && query.workType() != null) {
+      notifyWorkAvailable(c, query.workType());
+    }
+    c.commit();
+    total += changed;
+    if (progress != null) {
+      progress.accept(total);
+    }
+    return total;
+  }
+
+  private static List<String> selectIds(Connection c, String sql, List<Object> params) throws SQLException {
+    List<String> ids = new ArrayList<>();
+    try (PreparedStatement ps = c.prepareStatement(sql)) {
+      bindParams(ps, params);
+      try (ResultSet rs = ps.executeQuery()) {
+        while (rs.next()) {
+          ids.add(rs.getString(1));
+        }
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Applies {@code action} to the items of {@code table} among {@code ids} (at most
+   * {@value #IN_LIST_CHUNK_SIZE}) within the caller's transaction.
+   */
+  private int applyToIds(Connection c, BulkAction action, Set<WorkRequest.Status> statuses, String table,
+                         List<String> ids, Instant now) throws SQLException {
+    if (ids.isEmpty()) return 0;
+    if (action == BulkAction.REQUEUE && table.equals(HistoryQueryBuilder.HISTORY_TABLE)) {
+      int requeued = executeByIds(c, BulkUpdateQueryBuilder.buildRequeueFromHistorySql(statuses, ids.size()),
+        BulkUpdateQueryBuilder.setParams(action, now), ids);
+      executeByIds(c, BulkUpdateQueryBuilder.buildByIdsSql(BulkAction.PURGE, statuses, ids.size(), table), List.of(), ids);
+      return requeued;
+    }
+    int changed = executeByIds(c, BulkUpdateQueryBuilder.buildByIdsSql(action, statuses, ids.size(), table),
+      BulkUpdateQueryBuilder.setParams(action, now), ids);
+    if (action == BulkAction.CANCEL) {
+      moveToHistory(c, ids);
+    }
+    return changed;
+  }
+
+  private static int executeByIds(Connection c, String sql, List<Object> params, List<String> ids) throws SQLException {
+    try (PreparedStatement ps = c.prepareStatement(sql)) {
+      List<Object> all = new ArrayList<>(params);
+      all.addAll(ids);
+      bindParams(ps, all);
+      return ps.executeUpdate();
+    }
+  }
+
+  /**
+   * Best-effort cancellation of a work item. If already terminal this is a no-op. With the
+   * {@link StorageLayout#HOT_COLD} layout the cancelled item is moved to the history table.
    *
    * @param id work id
    * @throws RuntimeException on SQL errors
@@ -427,7 +1528,7 @@ public final class JdbcWorkStore implements WorkStore {
   public void markCancelled(String id) {
     String sql = """
       UPDATE work_request
-      SET status = ?, lease_until = NULL,
+      SET status = ?, owner_id = NULL, lease_until = NULL,
           completed_ts = ?, updated_ts = ?
       WHERE id = ?
       """;
@@ -438,7 +1539,9 @@ public final class JdbcWorkStore implements WorkStore {
       ps.setTimestamp(2, Timestamp.from(now));
       ps.setTimestamp(3, Timestamp.from(now));
       ps.setString(4, id);
-      ps.executeUpdate();
+      if (ps.executeUpdate() == 1) {
+        moveToHistory(c, List.of(id));
+      }
       c.commit();
     } catch (SQLException e) {
       throw new RuntimeException(e);
@@ -582,70 +1685,31 @@ public final class JdbcWorkStore implements WorkStore {
   }
 
   /**
-   * Builds a vendor-aware SELECT that chooses claimable rows and minimizes lock contention.
-   * Parameter order is always: work_type, now_ts, limit (last).
-   */
-  private String buildSelectIdsForClaimSql() {
-    // Build a SELECT of candidate ids that avoids waiting on locked rows where supported.
-    // Parameter order is always: work_type, now_ts, limit (last placeholder).
-    DbInfo.Dialect d = dbInfo.dialect();
-
-    if (d == DbInfo.Dialect.PostgresSQL) {
-      // Lock and skip locked rows to avoid waiting; keep limit last
-      return """
-        SELECT id FROM work_request
-        WHERE work_type = ?
-          AND status = 'NEW'
-          AND (lease_until IS NULL OR lease_until < ?)
-        ORDER BY created_ts
-        LIMIT ? FOR UPDATE SKIP LOCKED
-        """;
-    } else if (d == DbInfo.Dialect.MySQL) {
-      // MySQL 8+: SKIP LOCKED supported with FOR UPDATE
-      return """
-        SELECT id FROM work_request
-        WHERE work_type = ?
-          AND status = 'NEW'
-          AND (lease_until IS NULL OR lease_until < ?)
-        ORDER BY created_ts
-        LIMIT ? FOR UPDATE SKIP LOCKED
-        """;
-    } else if (d == DbInfo.Dialect.MSSQL) {
-      // SQL Server: READPAST skips locked rows; UPDLOCK/ROWLOCK to take update locks during selection
-      return """
-        SELECT id FROM work_request WITH (READPAST, UPDLOCK, ROWLOCK)
-        WHERE work_type = ?
-          AND status = 'NEW'
-          AND (lease_until IS NULL OR lease_until < ?)
-        ORDER BY created_ts
-        OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY
-        """;
-    } else if (d == DbInfo.Dialect.Oracle) {
-      // Oracle: use inline view for ORDER BY + ROWNUM limiting; lock and skip locked
-      return """
-        SELECT id FROM (
-          SELECT id FROM work_request
-          WHERE work_type = ?
-            AND status = 'NEW'
-            AND (lease_until IS NULL OR lease_until < ?)
-          ORDER BY created_ts
-        )
-        WHERE ROWNUM <= ? FOR UPDATE SKIP LOCKED
-        """;
-    } else {
-      // DB2/Sqlite/H2/Unknown: simple limit/fetch without locking hints
-      String base = """
-        SELECT id FROM work_request
-        WHERE work_type = ?
-          AND status = 'NEW'
-          AND (lease_until IS NULL OR lease_until < ?)
-        ORDER BY created_ts
-        """;
-      if (d == DbInfo.Dialect.DB2) {
-        return base + " FETCH FIRST ? ROWS ONLY";
-      } else {
-        // H2, Sqlite and others
-        return base + " LIMIT ?";
+   * Stops the LISTEN/NOTIFY listener thread, if any, returning its connection, and closes the pool
+   * created by {@link #create(JdbcSettings, JdbcWorkStoreOptions)}. A datasource passed in by the
+   * caller is left open. Idempotent; the store must not be used afterwards.
+   */
+  @Override
+  public void close() {
+    if (notificationListener != null) {
+      notificationListener.close();
+    }
+    if (ownedDataSource != null) {
+      ownedDataSource.close();
+    }
+  }
+
+  /**
+   * Binds builder-produced parameters to the statement in order.
+   */
+  private static void bindParams(PreparedStatement ps, List<Object> params) throws SQLException {
+    int idx = 1;
+    for (Object p : params) {
+      switch (p) {
+        case Timestamp ts -> ps.setTimestamp(idx++, ts);
+        case Integer i -> ps.setInt(idx++, i);
+        case String s -> ps.setString(idx++, s);
+        case null, default -> ps.setObject(idx++, p);
       }
     }
   }
@@ -683,8 +1747,10 @@ public final class JdbcWorkStore implements WorkStore {
 
   /**
    * Abstraction for obtaining the current instant (facilitates testing).
+   * Truncated to microseconds, the finest TIMESTAMP precision of the supported databases,
+   * so records built in memory match what is persisted.
    */
   private Instant now() {
-    return Instant.now();
+    return Instant.now().truncatedTo(ChronoUnit.MICROS);
   }
 }
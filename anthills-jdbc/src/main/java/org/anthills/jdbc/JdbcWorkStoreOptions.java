@@ -0,0 +1,173 @@
+package org.anthills.jdbc;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Optional behaviour of a {@link JdbcWorkStore} that is independent of connection settings.
+ *
+ * @param listenNotify on PostgreSQL, publish a {@code pg_notify} for every submission and listen for
+ *                     notifications so processors wake up immediately; ignored on other databases
+ * @param partitioned on PostgreSQL and Oracle, create {@code work_request} range-partitioned by day on
+ *                    {@code created_ts} when the schema is initialized, so expired days can be dropped
+ *                    by {@link PartitionMaintenance} instead of deleted row by row; ignored on other
+ *                    databases and for an existing schema
+ * @param storageLayout whether terminal items stay in {@code work_request} or are moved to
+ *                      {@code work_request_history}
+ * @param streamFetchSize number of rows fetched per round trip by {@link JdbcWorkStore#streamWork};
+ *                        ignored on MySQL, where rows are always streamed one by one
+ * @param statsCacheTtl how long a result of {@link JdbcWorkStore#stats()} is shared with later callers;
+ *                      {@link Duration#ZERO} computes every call afresh
+ */
+public record JdbcWorkStoreOptions(
+  boolean listenNotify,
+  boolean partitioned,
+  StorageLayout storageLayout,
+  int streamFetchSize,
+  Duration statsCacheTtl
+) {
+
+  /** Default number of rows fetched per round trip when streaming work. */
+  public static final int DEFAULT_STREAM_FETCH_SIZE = 500;
+
+  /** Default time a statistics snapshot is shared. */
+  public static final Duration DEFAULT_STATS_CACHE_TTL = Duration.ofSeconds(5);
+
+  public JdbcWorkStoreOptions {
+    Objects.requireNonNull(storageLayout, "storageLayout must not be null");
+    Objects.requireNonNull(statsCacheTtl, "statsCacheTtl must not be null");
+    if (streamFetchSize <= 0) {
+      throw new IllegalArgumentException("streamFetchSize must be > 0");
+    }
+    if (statsCacheTtl.isNegative()) {
+      throw new IllegalArgumentException("statsCacheTtl must be >= 0");
+    }
+  }
+
+  /**
+   * Creates options with an unpartitioned, single table schema.
+   *
+   * @param listenNotify whether to use PostgreSQL LISTEN/NOTIFY based wake-ups
+   */
+  public JdbcWorkStoreOptions(boolean listenNotify) {
+    this(listenNotify, false);
+  }
+
+  /**
+   * Creates options with the {@link StorageLayout#SINGLE_TABLE} layout.
+   *
+   * @param listenNotify whether to use PostgreSQL LISTEN/NOTIFY based wake-ups
+   * @param partitioned whether to create the day-partitioned schema
+   */
+  public JdbcWorkStoreOptions(boolean listenNotify, boolean partitioned) {
+    this(listenNotify, partitioned, StorageLayout.SINGLE_TABLE);
+  }
+
+  /**
+   * Creates options with the {@link #DEFAULT_STREAM_FETCH_SIZE}.
+   *
+   * @param listenNotify whether to use PostgreSQL LISTEN/NOTIFY based wake-ups
+   * @param partitioned whether to create the day-partitioned schema
+   * @param storageLayout where terminal items are kept
+   */
+  public JdbcWorkStoreOptions(boolean listenNotify, boolean partitioned, StorageLayout storageLayout) {
+    this(listenNotify, partitioned, storageLayout, DEFAULT_STREAM_FETCH_SIZE);
+  }
+
+  /**
+   * Creates options with the {@link #DEFAULT_STATS_CACHE_TTL}.
+   *
+   * @param listenNotify whether to use PostgreSQL LISTEN/NOTIFY based wake-ups
+   * @param partitioned whether to create the day-partitioned schema
+   * @param storageLayout where terminal items are kept
+   * @param streamFetchSize rows fetched per round trip when streaming work
+   */
+  public JdbcWorkStoreOptions(boolean listenNotify, boolean partitioned, StorageLayout storageLayout, int streamFetchSize) {
+    this(listenNotify, partitioned, storageLayout, streamFetchSize, DEFAULT_STATS_CACHE_TTL);
+  }
+
+  /**
+   * Returns the default options: LISTEN/NOTIFY disabled, unpartitioned schema, single table layout.
+   *
+   * @return default options
+   */
+  public static JdbcWorkStoreOptions defaults() {
+    return builder().build();
+  }
+
+  /**
+   * Creates a new builder initialized with the defaults.
+   *
+   * @return a new builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Fluent builder for {@link JdbcWorkStoreOptions}.
+   */
+  public static class Builder {
+    private boolean listenNotify = false;
+    private boolean partitioned = false;
+    private StorageLayout storageLayout = StorageLayout.SINGLE_TABLE;
+    private int streamFetchSize = DEFAULT_STREAM_FETCH_SIZE;
+    private Duration statsCacheTtl = DEFAULT_STATS_CACHE_TTL;
+
+    public Builder() {
+    }
+
+    /**
+     * Enables PostgreSQL LISTEN/NOTIFY based wake-ups (default false).
+     */
+    public Builder listenNotify(boolean listenNotify) {
+      this.listenNotify = listenNotify;
+      return this;
+    }
+
+    /**
+     * Creates the day-partitioned schema on PostgreSQL and Oracle (default false).
+     */
+    public Builder partitioned(boolean partitioned) {
+      this.partitioned = partitioned;
+      return this;
+    }
+
+    /**
+     * Sets where terminal items are kept (default {@link StorageLayout#SINGLE_TABLE}).
+     */
+    public Builder storageLayout(StorageLayout storageLayout) {
+      this.storageLayout = storageLayout;
+      return this;
+    }
+
+    /**
+     * Sets the number of rows fetched per round trip when streaming work
+     * (default {@link #DEFAULT_STREAM_FETCH_SIZE}).
+     */
+    public Builder streamFetchSize(int streamFetchSize) {
+      this.streamFetchSize = streamFetchSize;
+      return this;
+    }
+
+    /**
+     * Sets how long a statistics snapshot is shared (default {@link #DEFAULT_STATS_CACHE_TTL});
+     * {@link Duration#ZERO} disables sharing.
+     */
+    public Builder statsCacheTtl(Duration statsCacheTtl) {
+      this.statsCacheTtl = statsCacheTtl;
+      return this;
+    }
+
+    /**
+     * Constructs immutable {@link JdbcWorkStoreOptions}.
+     *
+     * @return options instance
+     * @throws NullPointerException if the storage layout or the stats cache TTL is null
+     * @throws IllegalArgumentException if the stream fetch size is not positive or the stats cache TTL is negative
+     */
+    public JdbcWorkStoreOptions build() {
+      return new JdbcWorkStoreOptions(listenNotify, partitioned, storageLayout, streamFetchSize, statsCacheTtl);
+    }
+  }
+}
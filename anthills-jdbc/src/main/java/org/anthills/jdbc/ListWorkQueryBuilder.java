@@ -5,18 +5,35 @@ import org.anthills.api.work.WorkRequest;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
  * Builds a parametrized SQL query for listing work items based on WorkQuery.
  * Exposes the SQL string with placeholders and the ordered parameter list.
+ *
+ * With the {@link StorageLayout#HOT_COLD} layout, a query reads {@code work_request} for active
+ * statuses and {@link HistoryQueryBuilder#HISTORY_TABLE} for terminal ones. A status filter that
+ * falls on one side reads a single table; otherwise both are filtered separately and combined with
+ * {@code UNION ALL} before ordering and paging.
+ *
+ * Items are listed newest first, ordered by {@code created_ts DESC, id DESC}. A query with a
+ * {@link WorkQuery.Cursor} continues after that position with a seek predicate instead of an offset:
+ * - PostgreSQL, H2, DB2: the row value comparison {@code (created_ts, id) < (?, ?)}
+ * - MySQL, SQLite, Oracle, SQL Server: {@code (created_ts < ? OR (created_ts = ? AND id < ?))}
+ * Both are range scans of {@code idx_wr_created (created_ts, id)}, so deep pages cost as much as the first.
+ *
+ * With {@link WorkQuery.Projection#METADATA} only {@link WorkRecordRowMapper#METADATA_COLUMNS} are
+ * selected, leaving out the payload and failure reason.
  */
 public final class ListWorkQueryBuilder {
 
   private final WorkQuery query;
   private final DbInfo.Dialect dialect;
-  private final StringBuilder sql = new StringBuilder("SELECT * FROM work_request WHERE 1=1");
+  private final StorageLayout layout;
+  private final StringBuilder sql = new StringBuilder();
   private final List<Object> params = new ArrayList<>();
 
   /**
@@ -27,8 +44,21 @@ public final class ListWorkQueryBuilder {
    * @throws NullPointerException if any argument is null
    */
   public ListWorkQueryBuilder(WorkQuery query, DbInfo.Dialect dialect) {
+    this(query, dialect, StorageLayout.SINGLE_TABLE);
+  }
+
+  /**
+   * Creates a builder bound to a specific {@link WorkQuery}, database dialect and storage layout.
+   *
+   * @param query high-level filtering and paging criteria
+   * @param dialect target SQL dialect used to render LIMIT/OFFSET variants
+   * @param layout tables holding the work items
+   * @throws NullPointerException if any argument is null
+   */
+  public ListWorkQueryBuilder(WorkQuery query, DbInfo.Dialect dialect, StorageLayout layout) {
     this.query = Objects.requireNonNull(query, "query is required");
     this.dialect = Objects.requireNonNull(dialect, "dialect is required");
+    this.layout = Objects.requireNonNull(layout, "layout is required");
   }
 
   /**
@@ -38,13 +68,25 @@ public final class ListWorkQueryBuilder {
    * @return SQL string suitable for a {@link java.sql.PreparedStatement}
    */
   public String buildSql() {
-    build();
+    build(true);
+    return sql.toString();
+  }
+
+  /**
+   * Builds the same query as {@link #buildSql()} without paging, reading every match in order.
+   * Used to stream results through a cursor; {@link WorkQuery#page()} is ignored.
+   * Call {@link #params()} afterwards to get the ordered parameter list.
+   *
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public String buildScanSql() {
+    build(false);
     return sql.toString();
   }
 
   /**
    * Returns the parameters in the same order as the placeholders in the SQL
-   * produced by {@link #buildSql()}.
+   * produced by {@link #buildSql()} or {@link #buildScanSql()}.
    *
    * @return ordered parameter values
    */
@@ -54,11 +96,50 @@ public final class ListWorkQueryBuilder {
 
   /**
    * Internal builder that appends WHERE clauses based on {@link WorkQuery}, applies
-   * ordering, and renders paging syntax depending on {@link DbInfo.Dialect}.
+   * ordering, and renders paging syntax depending on {@link DbInfo.Dialect} if {@code paged}.
+   */
+  private void build(boolean paged) {
+    Set<WorkRequest.Status> statuses = query.statuses();
+    String columns = WorkRecordRowMapper.columns(query.projection());
+    if (layout == StorageLayout.SINGLE_TABLE || (statuses != null && statuses.isEmpty())) {
+      appendSelect(columns, "work_request", statuses);
+    } else {
+      Set<WorkRequest.Status> active = statuses != null ? EnumSet.noneOf(WorkRequest.Status.class) : null;
+      Set<WorkRequest.Status> terminal = statuses != null ? EnumSet.noneOf(WorkRequest.Status.class) : null;
+      if (statuses != null) {
+        for (WorkRequest.Status s : statuses) {
+          (s.isTerminal() ? terminal : active).add(s);
+        }
+      }
+      if (terminal != null && terminal.isEmpty()) {
+        appendSelect(columns, "work_request", active);
+      } else if (active != null && active.isEmpty()) {
+        appendSelect(columns, HistoryQueryBuilder.HISTORY_TABLE, terminal);
+      } else {
+        // both branches need an explicit, identical column order
+        String unionColumns = query.projection() == WorkQuery.Projection.METADATA
+          ? WorkRecordRowMapper.METADATA_COLUMNS : PurgeWorkQueryBuilder.ARCHIVE_COLUMNS;
+        sql.append("SELECT * FROM (");
+        appendSelect(unionColumns, "work_request", active);
+        sql.append(" UNION ALL ");
+        appendSelect(unionColumns, HistoryQueryBuilder.HISTORY_TABLE, terminal);
+        sql.append(") w");
+      }
+    }
+    // id breaks ties between equal creation times, so that a cursor designates a single position
+    sql.append(" ORDER BY created_ts DESC, id DESC");
+    if (paged) {
+      appendPage();
+    }
+  }
+
+  /**
+   * Appends a SELECT of {@code table} filtered by the query and the given statuses.
    */
-  private void build() {
+  private void appendSelect(String columns, String table, Set<WorkRequest.Status> statuses) {
+    sql.append("SELECT ").append(columns).append(" FROM ").append(table).append(" WHERE 1=1");
     // If explicitly provided an empty status set, force empty results.
-    if (query.statuses() != null && query.statuses().isEmpty()) {
+    if (statuses != null && statuses.isEmpty()) {
       sql.append(" AND 1=0");
     }
 
@@ -67,10 +148,10 @@ public final class ListWorkQueryBuilder {
       params.add(query.workType());
     }
 
-    if (query.statuses() != null && !query.statuses().isEmpty()) {
+    if (statuses != null && !statuses.isEmpty()) {
       sql.append(" AND status IN (");
       int i = 0;
-      for (WorkRequest.Status s : query.statuses()) {
+      for (WorkRequest.Status s : statuses) {
         if (i++ > 0) sql.append(", ");
         sql.append("?");
         params.add(s.name());
@@ -87,8 +168,31 @@ public final class ListWorkQueryBuilder {
       sql.append(" AND created_ts < ?");
       params.add(Timestamp.from(query.createdBefore()));
     }
-    sql.append(" ORDER BY created_ts DESC");
 
+    if (query.after() != null) {
+      appendSeek(query.after());
+    }
+  }
+
+  private void appendSeek(WorkQuery.Cursor after) {
+    Timestamp createdTs = Timestamp.from(after.createdTs());
+    switch (dialect) {
+      case PostgresSQL, H2, DB2 -> {
+        sql.append(" AND (created_ts, id) < (?, ?)");
+        params.add(createdTs);
+        params.add(after.id());
+      }
+      default -> {
+        // row value comparisons are not supported (Oracle, SQL Server) or not used for index seeks
+        sql.append(" AND (created_ts < ? OR (created_ts = ? AND id < ?))");
+        params.add(createdTs);
+        params.add(createdTs);
+        params.add(after.id());
+      }
+    }
+  }
+
+  private void appendPage() {
     int limit = query.page() != null ? query.page().limit() : 100;
     int offset = query.page() != null ? query.page().offset() : 0;
 
@@ -0,0 +1,281 @@
+package org.anthills.jdbc;
+
+import org.anthills.api.scheduler.Job;
+import org.anthills.api.scheduler.LeasedScheduler;
+import org.anthills.api.scheduler.Schedule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scheduled job maintaining the day partitions of a partitioned {@code work_request} table
+ * (see {@link JdbcWorkStoreOptions#partitioned()}):
+ * - creates the partitions of today and the next {@code daysAhead} days, so that submissions never
+ *   wait for a partition to be created and never land in the PostgreSQL default partition
+ * - drops the partitions of days that ended more than {@code retainFor} ago, removing a whole day of
+ *   rows in one catalog operation instead of deleting them row by row
+ *
+ * A partition that still holds NEW, IN_PROGRESS or PAUSED items is never dropped, as checked under an
+ * exclusive lock on the partition; it is logged and retried on the next run. Dropped rows are not archived; use
+ * {@code org.anthills.core.work.WorkRetention} in {@code ARCHIVE} mode for that.
+ *
+ * Register it with a {@link LeasedScheduler} (see {@link #register}) so that a single node of the
+ * cluster changes partitions at a time. Every step is idempotent.
+ */
+public final class PartitionMaintenance implements Job {
+
+  /** Name of the scheduled job and of its scheduler lease. */
+  public static final String JOB_NAME = "anthills-partition-maintenance";
+
+  /** Number of future days whose partitions are created by default. */
+  public static final int DEFAULT_DAYS_AHEAD = 3;
+
+  /** Time between runs when registered with a scheduler. */
+  public static final Duration RUN_INTERVAL = Duration.ofHours(1);
+
+  private static final Logger log = LoggerFactory.getLogger(PartitionMaintenance.class);
+
+  private static final Pattern HIGH_VALUE_DATE = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})");
+
+  private final DataSource dataSource;
+  private final DbInfo.Dialect dialect;
+  private final int daysAhead;
+  private final Duration retainFor;
+
+  /**
+   * Creates the job for the database behind {@code dataSource}.
+   *
+   * @param dataSource datasource of a partitioned schema
+   * @param daysAhead number of future days whose partitions are created
+   * @param retainFor how long after a day ended its partition is kept, or {@code null} to never drop partitions
+   * @throws IllegalArgumentException if {@code daysAhead} or {@code retainFor} is negative
+   * @throws UnsupportedOperationException if the database has no partitioned schema variant
+   */
+  public PartitionMaintenance(DataSource dataSource, int daysAhead, Duration retainFor) {
+    this(dataSource, DbInfo.detect(dataSource).dialect(), daysAhead, retainFor);
+  }
+
+  PartitionMaintenance(DataSource dataSource, DbInfo.Dialect dialect, int daysAhead, Duration retainFor) {
+    this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+    if (!JdbcSchemaProvider.supportsPartitioning(dialect)) {
+      throw new UnsupportedOperationException("Partitioning is not supported on " + dialect);
+    }
+    if (daysAhead < 0) {
+      throw new IllegalArgumentException("daysAhead must be >= 0");
+    }
+    if (retainFor != null && retainFor.isNegative()) {
+      throw new IllegalArgumentException("retainFor must be >= 0");
+    }
+    this.dialect = dialect;
+    this.daysAhead = daysAhead;
+    this.retainFor = retainFor;
+  }
+
+  /**
+   * Schedules this job as {@link #JOB_NAME} to run every {@link #RUN_INTERVAL}.
+   * Must be called before the scheduler is started.
+   *
+   * @param scheduler scheduler to register with
+   */
+  public void register(LeasedScheduler scheduler) {
+    scheduler.schedule(JOB_NAME, Schedule.FixedRate.every(RUN_INTERVAL), this);
+  }
+
+  @Override
+  public void run() {
+    createPartitions();
+    dropExpiredPartitions();
+  }
+
+  /**
+   * Creates the partitions of today and the next {@code daysAhead} days that do not exist yet.
+   * A day that cannot be created is logged and skipped; on PostgreSQL this happens when rows of
+   * that day already landed in the default partition, where they stay.
+   *
+   * @throws RuntimeException if no connection can be obtained
+   */
+  public void createPartitions() {
+    LocalDate today = LocalDate.now(ZoneId.systemDefault());
+    try (Connection c = connection();
+         Statement st = c.createStatement()) {
+      for (int i = 0; i <= daysAhead; i++) {
+        LocalDate day = today.plusDays(i);
+        try {
+          st.execute(PartitionQueryBuilder.buildCreatePartitionSql(dialect, day));
+          c.commit();
+        } catch (SQLException e) {
+          c.rollback();
+          log.warn("Failed to create the work_request partition of {}", day, e);
+        }
+      }
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to create work_request partitions", e);
+    }
+  }
+
+  /**
+   * Drops the partitions of days that ended more than {@code retainFor} ago and hold no live items.
+   * Does nothing if no retention is configured.
+   *
+   * Whether a partition holds live items is checked again under an exclusive lock on it, right
+   * before it is dropped, so an item that became live after the first check is never dropped:
+   * - PostgreSQL: the partition is first detached from {@code work_request}, {@code CONCURRENTLY}
+   *   unless the table has a default partition, then locked in {@code ACCESS EXCLUSIVE} mode and
+   *   dropped, or attached again if it holds live items after all
+   * - Oracle: the partition is locked in {@code EXCLUSIVE} mode and dropped
+   *
+   * A day that cannot be dropped is logged and skipped. A concurrent detach that was interrupted
+   * leaves the partition pending detach; finish it with {@code DETACH PARTITION ... FINALIZE}.
+   *
+   * @return days whose partitions were dropped
+   * @throws RuntimeException if no connection can be obtained or the partitions cannot be listed
+   */
+  public List<LocalDate> dropExpiredPartitions() {
+    List<LocalDate> dropped = new ArrayList<>();
+    if (retainFor == null) return dropped;
+    LocalDate firstKept = LocalDate.ofInstant(Instant.now().minus(retainFor), ZoneId.systemDefault());
+    try (Connection c = connection();
+         Statement st = c.createStatement()) {
+      boolean detachConcurrently = dialect == DbInfo.Dialect.PostgresSQL && !hasDefaultPartition(st);
+      for (LocalDate day : listPartitionDays(st)) {
+        if (!day.isBefore(firstKept)) continue;
+        // cheap check without a lock first, so that partitions in use are left alone
+        if (hasLiveItems(st, day)) {
+          log.warn("Keeping expired work_request partition of {}: it still holds unfinished work", day);
+          continue;
+        }
+        try {
+          if (dropPartition(c, st, day, detachConcurrently)) {
+            dropped.add(day);
+          } else {
+            log.warn("Keeping expired work_request partition of {}: work became unfinished while it was dropped", day);
+          }
+        } catch (SQLException e) {
+          c.rollback();
+          log.warn("Failed to drop the work_request partition of {}", day, e);
+        }
+      }
+      c.commit();
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to drop expired work_request partitions", e);
+    }
+    if (!dropped.isEmpty()) {
+      log.info("Dropped work_request partitions of {}", dropped);
+    }
+    return dropped;
+  }
+
+  private boolean dropPartition(Connection c, Statement st, LocalDate day, boolean detachConcurrently) throws SQLException {
+    if (dialect != DbInfo.Dialect.PostgresSQL) {
+      st.execute(PartitionQueryBuilder.buildLockPartitionSql(dialect, day));
+      if (hasLiveItems(st, day)) {
+        c.rollback();
+        return false;
+      }
+      st.execute(PartitionQueryBuilder.buildDropPartitionSql(dialect, day));
+      c.commit();
+      return true;
+    }
+    detach(c, st, day, detachConcurrently);
+    try {
+      st.execute(PartitionQueryBuilder.buildLockPartitionSql(dialect, day));
+      boolean live = hasLiveItems(st, day);
+      st.execute(live ? PartitionQueryBuilder.buildAttachPartitionSql(day) : PartitionQueryBuilder.buildDropPartitionSql(dialect, day));
+      c.commit();
+      return !live;
+    } catch (SQLException e) {
+      // a detached partition is no longer listed, so it is attached again to be retried on the next run
+      c.rollback();
+      try {
+        st.execute(PartitionQueryBuilder.buildAttachPartitionSql(day));
+        c.commit();
+      } catch (SQLException attachFailure) {
+        c.rollback();
+        e.addSuppressed(attachFailure);
+      }
+      throw e;
+    }
+  }
+
+  private void detach(Connection c, Statement st, LocalDate day, boolean concurrently) throws SQLException {
+    if (!concurrently) {
+      st.execute(PartitionQueryBuilder.buildDetachPartitionSql(day, false));
+      // releases the lock on work_request before the partition is checked
+      c.commit();
+      return;
+    }
+    // DETACH ... CONCURRENTLY cannot run inside a transaction block
+    c.setAutoCommit(true);
+    try {
+      st.execute(PartitionQueryBuilder.buildDetachPartitionSql(day, true));
+    } finally {
+      c.setAutoCommit(false);
+    }
+  }
+
+  private Connection connection() throws SQLException {
+    Connection c = dataSource.getConnection();
+    c.setAutoCommit(false);
+    return c;
+  }
+
+  private List<LocalDate> listPartitionDays(Statement st) throws SQLException {
+    List<LocalDate> days = new ArrayList<>();
+    try (ResultSet rs = st.executeQuery(PartitionQueryBuilder.buildListPartitionsSql(dialect))) {
+      while (rs.next()) {
+        LocalDate day = partitionDay(dialect, rs.getString(1));
+        if (day != null) days.add(day);
+      }
+    }
+    days.sort(null);
+    return days;
+  }
+
+  private boolean hasDefaultPartition(Statement st) throws SQLException {
+    try (ResultSet rs = st.executeQuery(PartitionQueryBuilder.buildHasDefaultPartitionSql())) {
+      return rs.next();
+    }
+  }
+
+  private boolean hasLiveItems(Statement st, LocalDate day) throws SQLException {
+    try (ResultSet rs = st.executeQuery(PartitionQueryBuilder.buildHasLiveItemsSql(dialect, day))) {
+      return rs.next();
+    }
+  }
+
+  /**
+   * Maps a row of {@link PartitionQueryBuilder#buildListPartitionsSql} to the day of the partition.
+   *
+   * @return the day, or {@code null} for partitions that are not day partitions (e.g. the default partition)
+   */
+  static LocalDate partitionDay(DbInfo.Dialect dialect, String value) {
+    if (value == null) return null;
+    try {
+      if (dialect == DbInfo.Dialect.PostgresSQL) {
+        if (!value.startsWith(PartitionQueryBuilder.PARTITION_PREFIX)) return null;
+        return LocalDate.parse(value.substring(PartitionQueryBuilder.PARTITION_PREFIX.length()), DateTimeFormatter.BASIC_ISO_DATE);
+      }
+      // the high value is the midnight after the day, e.g. TIMESTAMP' 2026-10-17 00:00:00'
+      Matcher m = HIGH_VALUE_DATE.matcher(value);
+      return m.find() ? LocalDate.parse(m.group(1)).minusDays(1) : null;
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+}
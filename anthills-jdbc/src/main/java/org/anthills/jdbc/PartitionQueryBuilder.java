@@ -0,0 +1,176 @@
+package org.anthills.jdbc;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+
+/**
+ * Builds the SQL used to maintain the day partitions of a partitioned {@code work_request} table
+ * (see {@link JdbcSchemaProvider#supportsPartitioning}).
+ *
+ * - PostgreSQL: each day is a table {@code work_request_pYYYYMMDD} attached as the range
+ *   {@code [day, day + 1)} of {@code created_ts}; it is detached before it is dropped, and dropping
+ *   it is then a catalog operation.
+ * - Oracle: days are interval partitions that the database creates on first use; locking the
+ *   partition of a day creates it ahead of time, and it is addressed with {@code PARTITION FOR}.
+ *
+ * Day boundaries are midnight in the JVM time zone, the zone in which {@link java.sql.Timestamp}
+ * values are written to the {@code TIMESTAMP} columns.
+ */
+public final class PartitionQueryBuilder {
+
+  /** Name prefix of the PostgreSQL day partitions. */
+  public static final String PARTITION_PREFIX = "work_request_p";
+
+  private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+  private static final String LIVE = "status IN ('NEW', 'IN_PROGRESS', 'PAUSED')";
+
+  private PartitionQueryBuilder() {
+  }
+
+  /**
+   * Returns the name of the PostgreSQL partition holding {@code day}.
+   *
+   * @param day partition day
+   * @return table name
+   */
+  public static String partitionName(LocalDate day) {
+    return PARTITION_PREFIX + PARTITION_SUFFIX.format(day);
+  }
+
+  /**
+   * Returns the statement creating the partition of {@code day} if it does not exist.
+   *
+   * @param dialect PostgreSQL or Oracle
+   * @param day partition day
+   * @return SQL string without parameters
+   * @throws IllegalArgumentException if the dialect has no partitioned schema
+   */
+  public static String buildCreatePartitionSql(DbInfo.Dialect dialect, LocalDate day) {
+    return switch (requireSupported(dialect)) {
+      case PostgresSQL -> "CREATE TABLE IF NOT EXISTS %s PARTITION OF work_request FOR VALUES FROM (%s) TO (%s)"
+        .formatted(partitionName(day), literal(day), literal(day.plusDays(1)));
+      default -> "LOCK TABLE work_request PARTITION FOR (TIMESTAMP %s) IN SHARE MODE".formatted(literal(day));
+    };
+  }
+
+  /**
+   * Returns the query listing the day partitions. On PostgreSQL it returns partition names
+   * (see {@link #partitionName}); on Oracle the {@code HIGH_VALUE} of each interval partition,
+   * the midnight after its day.
+   *
+   * @param dialect PostgreSQL or Oracle
+   * @return SQL string without parameters
+   * @throws IllegalArgumentException if the dialect has no partitioned schema
+   */
+  public static String buildListPartitionsSql(DbInfo.Dialect dialect) {
+    return switch (requireSupported(dialect)) {
+      case PostgresSQL -> """
+        SELECT c.relname FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        JOIN pg_class p ON p.oid = i.inhparent
+        WHERE p.relname = 'work_request'""";
+      default -> "SELECT high_value FROM user_tab_partitions WHERE table_name = 'WORK_REQUEST' AND interval = 'YES'";
+    };
+  }
+
+  /**
+   * Returns the query telling whether the partition of {@code day} still holds non-terminal items.
+   *
+   * @param dialect PostgreSQL or Oracle
+   * @param day partition day
+   * @return SQL string without parameters returning a row if so
+   * @throws IllegalArgumentException if the dialect has no partitioned schema
+   */
+  public static String buildHasLiveItemsSql(DbInfo.Dialect dialect, LocalDate day) {
+    return switch (requireSupported(dialect)) {
+      case PostgresSQL -> "SELECT 1 FROM %s WHERE %s LIMIT 1".formatted(partitionName(day), LIVE);
+      default -> "SELECT 1 FROM work_request PARTITION FOR (TIMESTAMP %s) WHERE %s AND ROWNUM = 1".formatted(literal(day), LIVE);
+    };
+  }
+
+  /**
+   * Returns the statement dropping the partition of {@code day}.
+   * On Oracle the global indexes are maintained as part of the drop.
+   *
+   * @param dialect PostgreSQL or Oracle
+   * @param day partition day
+   * @return SQL string without parameters
+   * @throws IllegalArgumentException if the dialect has no partitioned schema
+   */
+  public static String buildDropPartitionSql(DbInfo.Dialect dialect, LocalDate day) {
+    return switch (requireSupported(dialect)) {
+      case PostgresSQL -> "DROP TABLE IF EXISTS " + partitionName(day);
+      default -> "ALTER TABLE work_request DROP PARTITION FOR (TIMESTAMP %s) UPDATE GLOBAL INDEXES".formatted(literal(day));
+    };
+  }
+
+  /**
+   * Returns the statement locking the partition of {@code day} against every concurrent change:
+   * on PostgreSQL the (detached) partition table in {@code ACCESS EXCLUSIVE} mode, on Oracle the
+   * partition in {@code EXCLUSIVE} mode. The lock is held until the end of the transaction.
+   *
+   * @param dialect PostgreSQL or Oracle
+   * @param day partition day
+   * @return SQL string without parameters
+   * @throws IllegalArgumentException if the dialect has no partitioned schema
+   */
+  public static String buildLockPartitionSql(DbInfo.Dialect dialect, LocalDate day) {
+    return switch (requireSupported(dialect)) {
+      case PostgresSQL -> "LOCK TABLE %s IN ACCESS EXCLUSIVE MODE".formatted(partitionName(day));
+      default -> "LOCK TABLE work_request PARTITION FOR (TIMESTAMP %s) IN EXCLUSIVE MODE".formatted(literal(day));
+    };
+  }
+
+  /**
+   * Returns the PostgreSQL query telling whether {@code work_request} has a default partition, which
+   * rules out detaching partitions concurrently.
+   *
+   * @return SQL string without parameters returning a row if so
+   */
+  public static String buildHasDefaultPartitionSql() {
+    return """
+      SELECT 1 FROM pg_partitioned_table t
+      JOIN pg_class p ON p.oid = t.partrelid
+      WHERE p.relname = 'work_request' AND t.partdefid <> 0""";
+  }
+
+  /**
+   * Returns the PostgreSQL statement detaching the partition of {@code day} from {@code work_request}.
+   * Detaching {@code CONCURRENTLY} only takes a {@code SHARE UPDATE EXCLUSIVE} lock on
+   * {@code work_request}, so claims and submissions go on meanwhile; it must run outside a
+   * transaction block and is not possible while the table has a default partition. Otherwise
+   * {@code work_request} is locked in {@code ACCESS EXCLUSIVE} mode until the transaction ends.
+   *
+   * @param day partition day
+   * @param concurrently whether to detach concurrently
+   * @return SQL string without parameters
+   */
+  public static String buildDetachPartitionSql(LocalDate day, boolean concurrently) {
+    return "ALTER TABLE work_request DETACH PARTITION " + partitionName(day) + (concurrently ? " CONCURRENTLY" : "");
+  }
+
+  /**
+   * Returns the PostgreSQL statement attaching a detached partition of {@code day} back to {@code work_request}.
+   *
+   * @param day partition day
+   * @return SQL string without parameters
+   */
+  public static String buildAttachPartitionSql(LocalDate day) {
+    return "ALTER TABLE work_request ATTACH PARTITION %s FOR VALUES FROM (%s) TO (%s)"
+      .formatted(partitionName(day), literal(day), literal(day.plusDays(1)));
+  }
+
+  private static DbInfo.Dialect requireSupported(DbInfo.Dialect dialect) {
+    Objects.requireNonNull(dialect, "dialect is required");
+    if (!JdbcSchemaProvider.supportsPartitioning(dialect)) {
+      throw new IllegalArgumentException("Partitioning is not supported on " + dialect);
+    }
+    return dialect;
+  }
+
+  private static String literal(LocalDate day) {
+    return "'" + day + " 00:00:00'";
+  }
+}
@@ -0,0 +1,192 @@
+package org.anthills.jdbc;
+
+import org.anthills.api.work.Subscription;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Receives PostgreSQL notifications on a dedicated connection and dispatches them to listeners
+ * registered per channel.
+ *
+ * A single daemon thread owns the connection: it issues LISTEN/UNLISTEN as channels are added or
+ * removed and waits for notifications with {@link PGConnection#getNotifications(int)}. If the
+ * connection fails it reconnects after a short delay and invokes every listener once, since
+ * notifications sent while disconnected are lost. {@link #close()} stops the thread, which stops
+ * listening and returns the connection to the pool.
+ */
+final class PgNotificationListener implements AutoCloseable {
+
+  private static final Logger log = LoggerFactory.getLogger(PgNotificationListener.class);
+
+  private static final String CHANNEL_PREFIX = "anthills_";
+  private static final int MAX_CHANNEL_BYTES = 63; // PostgreSQL NAMEDATALEN - 1
+  private static final int WAIT_MILLIS = 500;
+  private static final long RECONNECT_DELAY_MILLIS = 5_000;
+  private static final long CLOSE_TIMEOUT_MILLIS = 5_000;
+
+  private final DataSource dataSource;
+  private final Map<String, List<Runnable>> listeners = new ConcurrentHashMap<>();
+  private final Object lock = new Object();
+  private Thread thread;
+  private boolean closed;
+
+  PgNotificationListener(DataSource dataSource) {
+    this.dataSource = dataSource;
+  }
+
+  /**
+   * Maps a work type to its notification channel. Names longer than PostgreSQL's identifier
+   * limit are replaced by a hash so that NOTIFY and LISTEN agree on the channel.
+   */
+  static String channelFor(String workType) {
+    String channel = CHANNEL_PREFIX + workType;
+    if (channel.getBytes(StandardCharsets.UTF_8).length <= MAX_CHANNEL_BYTES) {
+      return channel;
+    }
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(workType.getBytes(StandardCharsets.UTF_8));
+      return CHANNEL_PREFIX + HexFormat.of().formatHex(digest, 0, 24);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Registers a listener for the work type's channel, starting the listener thread on first use.
+   *
+   * @throws IllegalStateException if the listener is closed
+   */
+  Subscription subscribe(String workType, Runnable listener) {
+    String channel = channelFor(workType);
+    listeners.computeIfAbsent(channel, _ -> new CopyOnWriteArrayList<>()).add(listener);
+    ensureStarted();
+    return () -> listeners.computeIfPresent(channel, (_, list) -> {
+      list.remove(listener);
+      return list.isEmpty() ? null : list;
+    });
+  }
+
+  private void ensureStarted() {
+    synchronized (lock) {
+      if (closed) throw new IllegalStateException("PostgreSQL notification listener is closed");
+      if (thread != null) return;
+      thread = new Thread(this::run, "anthills-pg-listener");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  /**
+   * Stops the listener thread and waits for it to UNLISTEN and return its connection. Listeners
+   * are no longer invoked afterwards. Idempotent.
+   */
+  @Override
+  public void close() {
+    Thread t;
+    synchronized (lock) {
+      closed = true;
+      t = thread;
+    }
+    if (t == null) return;
+    t.interrupt();
+    try {
+      t.join(CLOSE_TIMEOUT_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    if (t.isAlive()) {
+      log.warn("PostgreSQL notification listener did not stop within {} ms", CLOSE_TIMEOUT_MILLIS);
+    }
+  }
+
+  /**
+   * Whether the listener thread is running.
+   */
+  boolean isRunning() {
+    synchronized (lock) {
+      return thread != null && thread.isAlive();
+    }
+  }
+
+  private void run() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try (Connection c = dataSource.getConnection()) {
+        c.setAutoCommit(true);
+        listen(c);
+      } catch (SQLException | RuntimeException e) {
+        log.warn("PostgreSQL notification listener failed, reconnecting in {} ms", RECONNECT_DELAY_MILLIS, e);
+      }
+      try {
+        Thread.sleep(RECONNECT_DELAY_MILLIS);
+      } catch (InterruptedException _) {
+        return;
+      }
+      // Notifications may have been missed while disconnected
+      listeners.keySet().forEach(this::dispatch);
+    }
+  }
+
+  private void listen(Connection c) throws SQLException {
+    PGConnection pg = c.unwrap(PGConnection.class);
+    Set<String> listening = new HashSet<>();
+    while (!Thread.currentThread().isInterrupted()) {
+      syncChannels(c, listening);
+      PGNotification[] notifications = pg.getNotifications(WAIT_MILLIS);
+      if (notifications == null) continue;
+      Set<String> channels = new HashSet<>();
+      for (PGNotification n : notifications) {
+        channels.add(n.getName());
+      }
+      channels.forEach(this::dispatch);
+    }
+    // closing: the connection goes back to the pool, which must not keep delivering to it
+    try (Statement st = c.createStatement()) {
+      st.execute("UNLISTEN *");
+    }
+  }
+
+  private void syncChannels(Connection c, Set<String> listening) throws SQLException {
+    Set<String> wanted = listeners.keySet();
+    if (listening.equals(wanted)) return;
+    try (Statement st = c.createStatement()) {
+      for (String channel : Set.copyOf(wanted)) {
+        if (listening.add(channel)) st.execute("LISTEN " + quote(channel));
+      }
+      for (String channel : Set.copyOf(listening)) {
+        if (!wanted.contains(channel) && listening.remove(channel)) st.execute("UNLISTEN " + quote(channel));
+      }
+    }
+  }
+
+  private void dispatch(String channel) {
+    for (Runnable listener : listeners.getOrDefault(channel, List.of())) {
+      try {
+        listener.run();
+      } catch (RuntimeException e) {
+        log.warn("Work available listener failed for channel {}", channel, e);
+      }
+    }
+  }
+
+  private static String quote(String identifier) {
+    return '"' + identifier.replace("\"", "\"\"") + '"';
+  }
+}
@@ -0,0 +1,87 @@
+package org.anthills.jdbc;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Builds the SQL of {@link JdbcWorkStore#agePriorities}, which raises waiting NEW items by one
+ * priority level.
+ *
+ * One statement ages one level of one work type, and only its head: at most a given number of the
+ * items that became visible first and have not been updated for the aging interval. They are found by a
+ * range scan of that level on {@code idx_wr_claim (work_type, status, priority DESC, visible_at)}, so a
+ * run reads and locks a bounded number of rows however large the backlog is, and only the longest
+ * waiting items move up: the bulk of every level stays where it was submitted. The row limit takes
+ * the cheapest form each database offers inside a sub-select:
+ * - MySQL: {@code UPDATE ... ORDER BY visible_at LIMIT ?}
+ * - SQL Server: {@code WHERE id IN (SELECT TOP (?) id ... WITH (READPAST) ORDER BY visible_at)}
+ * - PostgreSQL: {@code WHERE id IN (SELECT id ... LIMIT ? FOR UPDATE SKIP LOCKED)}, leaving rows
+ *   being claimed alone
+ * - H2, DB2: {@code WHERE id IN (SELECT id ... FETCH FIRST ? ROWS ONLY)}
+ * - SQLite: {@code WHERE id IN (SELECT id ... LIMIT ?)}
+ * - Oracle: {@code WHERE id IN (SELECT id FROM (SELECT id ... ORDER BY visible_at) WHERE ROWNUM <= ?)}
+ */
+public final class PriorityAgingQueryBuilder {
+
+  // Parameters: work_type, level, cutoff (visible_at), cutoff (updated_ts)
+  private static final String WAITING = """
+    work_type = ? AND status = 'NEW' AND priority = ? AND visible_at < ? AND updated_ts < ?""";
+
+  private static final String RAISE = "UPDATE work_request SET priority = priority + 1, updated_ts = ?";
+
+  private PriorityAgingQueryBuilder() {
+  }
+
+  /**
+   * Returns the statement raising the head of one priority level. Bind it with {@link #params}.
+   *
+   * @param dialect target SQL dialect
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   * @throws NullPointerException if {@code dialect} is null
+   */
+  public static String buildAgeLevelSql(DbInfo.Dialect dialect) {
+    Objects.requireNonNull(dialect, "dialect is required");
+    return switch (dialect) {
+      case MySQL -> RAISE + " WHERE " + WAITING + " ORDER BY visible_at LIMIT ?";
+      case MSSQL -> RAISE + " WHERE id IN (SELECT TOP (?) id FROM work_request WITH (READPAST) WHERE " + WAITING
+        + " ORDER BY visible_at)";
+      case PostgresSQL -> RAISE + " WHERE id IN (SELECT id FROM work_request WHERE " + WAITING
+        + " ORDER BY visible_at LIMIT ? FOR UPDATE SKIP LOCKED)";
+      case H2, DB2 -> RAISE + " WHERE id IN (SELECT id FROM work_request WHERE " + WAITING
+        + " ORDER BY visible_at FETCH FIRST ? ROWS ONLY)";
+      case Sqlite -> RAISE + " WHERE id IN (SELECT id FROM work_request WHERE " + WAITING + " ORDER BY visible_at LIMIT ?)";
+      case Oracle -> RAISE + " WHERE id IN (SELECT id FROM (SELECT id FROM work_request WHERE " + WAITING
+        + " ORDER BY visible_at) WHERE ROWNUM <= ?)";
+    };
+  }
+
+  /**
+   * Returns the parameters of {@link #buildAgeLevelSql} in placeholder order.
+   *
+   * @param dialect target SQL dialect
+   * @param now time recorded as {@code updated_ts} of the raised items
+   * @param workType routing key whose items to age
+   * @param level priority level whose head is raised
+   * @param cutoff items visible or updated at or after this instant are left alone
+   * @param limit maximum number of items to raise
+   * @return ordered parameter values
+   */
+  public static List<Object> params(DbInfo.Dialect dialect, Instant now, String workType, int level, Instant cutoff, int limit) {
+    List<Object> params = new ArrayList<>();
+    params.add(Timestamp.from(now));
+    if (dialect == DbInfo.Dialect.MSSQL) {
+      params.add(limit);
+    }
+    params.add(workType);
+    params.add(level);
+    params.add(Timestamp.from(cutoff));
+    params.add(Timestamp.from(cutoff));
+    if (dialect != DbInfo.Dialect.MSSQL) {
+      params.add(limit);
+    }
+    return params;
+  }
+}
@@ -0,0 +1,172 @@
+package org.anthills.jdbc;
+
+import java.util.Collections;
+import java.util.Objects;
+
+/**
+ * Builds the SQL used by work retention to remove old terminal work items in bounded batches.
+ *
+ * Deleting uses one statement per batch with the cheapest row limit each database offers:
+ * - MySQL: {@code DELETE ... LIMIT ?}
+ * - SQL Server: {@code DELETE TOP (?) ...}
+ * - H2: {@code DELETE ... FETCH FIRST ? ROWS ONLY}
+ * - Oracle: {@code DELETE ... AND ROWNUM <= ?}
+ * - DB2: {@code DELETE FROM (SELECT ... FETCH FIRST ? ROWS ONLY)}
+ * - PostgreSQL, SQLite: {@code DELETE ... WHERE id IN (SELECT id ... LIMIT ?)}, as their DELETE takes no limit
+ *
+ * Archiving first selects the ids of a batch ({@link #buildSelectIdsSql}), then copies those rows to
+ * {@code work_request_archive} and deletes them, all in one transaction.
+ *
+ * Candidates are terminal items with {@code completed_ts} before a cutoff, found by a range scan on
+ * {@code idx_wr_completed}. The statements that take a cutoff and a limit expect them in the order
+ * given by {@link #limitFirst}.
+ *
+ * Every statement has a variant taking the table to purge, {@code work_request} or, with the
+ * {@link StorageLayout#HOT_COLD} layout, {@link HistoryQueryBuilder#HISTORY_TABLE}; the other variants
+ * purge {@code work_request}.
+ */
+public final class PurgeWorkQueryBuilder {
+
+  /** Columns copied to the archive, in the order of the archive INSERT. */
+  public static final String ARCHIVE_COLUMNS = """
+    id, work_type, idempotency_key, coalesce_key, payload, payload_type, payload_version, codec,
+        status, attempt_count, max_retries, priority, owner_id, lease_until, visible_at,
+        failure_reason, created_ts, updated_ts, started_ts, completed_ts""";
+
+  private static final String WORK_TABLE = "work_request";
+
+  // Parameter: cutoff
+  private static final String PURGEABLE = "status IN ('SUCCEEDED', 'FAILED', 'CANCELLED') AND completed_ts < ?";
+
+  private PurgeWorkQueryBuilder() {
+  }
+
+  /**
+   * Returns the statement deleting one batch of purgeable items.
+   *
+   * @param dialect target SQL dialect
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   * @throws NullPointerException if {@code dialect} is null
+   */
+  public static String buildDeleteSql(DbInfo.Dialect dialect) {
+    return buildDeleteSql(dialect, WORK_TABLE);
+  }
+
+  /**
+   * Returns the statement deleting one batch of purgeable items from {@code table}.
+   *
+   * @param dialect target SQL dialect
+   * @param table work_request or the history table
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   * @throws NullPointerException if any argument is null
+   */
+  public static String buildDeleteSql(DbInfo.Dialect dialect, String table) {
+    Objects.requireNonNull(dialect, "dialect is required");
+    Objects.requireNonNull(table, "table is required");
+    return switch (dialect) {
+      case MySQL -> "DELETE FROM " + table + " WHERE " + PURGEABLE + " LIMIT ?";
+      case MSSQL -> "DELETE TOP (?) FROM " + table + " WHERE " + PURGEABLE;
+      case H2 -> "DELETE FROM " + table + " WHERE " + PURGEABLE + " FETCH FIRST ? ROWS ONLY";
+      case Oracle -> "DELETE FROM " + table + " WHERE " + PURGEABLE + " AND ROWNUM <= ?";
+      case DB2 -> "DELETE FROM (SELECT * FROM " + table + " WHERE " + PURGEABLE + " FETCH FIRST ? ROWS ONLY)";
+      case PostgresSQL, Sqlite -> "DELETE FROM " + table + " WHERE id IN (" + selectIds(dialect, table) + ")";
+    };
+  }
+
+  /**
+   * Returns the query reading the ids of one batch of purgeable items.
+   *
+   * @param dialect target SQL dialect
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   * @throws NullPointerException if {@code dialect} is null
+   */
+  public static String buildSelectIdsSql(DbInfo.Dialect dialect) {
+    return buildSelectIdsSql(dialect, WORK_TABLE);
+  }
+
+  /**
+   * Returns the query reading the ids of one batch of purgeable items of {@code table}.
+   *
+   * @param dialect target SQL dialect
+   * @param table work_request or the history table
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   * @throws NullPointerException if any argument is null
+   */
+  public static String buildSelectIdsSql(DbInfo.Dialect dialect, String table) {
+    Objects.requireNonNull(dialect, "dialect is required");
+    Objects.requireNonNull(table, "table is required");
+    return selectIds(dialect, table);
+  }
+
+  /**
+   * Whether the statements taking a cutoff and a limit expect the limit first.
+   *
+   * @param dialect target SQL dialect
+   * @return true for SQL Server ({@code TOP (?)}), false otherwise
+   */
+  public static boolean limitFirst(DbInfo.Dialect dialect) {
+    return dialect == DbInfo.Dialect.MSSQL;
+  }
+
+  /**
+   * Builds the statement copying items to the archive.
+   * Parameter order is: archived_ts, followed by {@code count} ids.
+   *
+   * @param count number of ids in the IN list; must be > 0
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildArchiveByIdsSql(int count) {
+    return buildArchiveByIdsSql(count, WORK_TABLE);
+  }
+
+  /**
+   * Builds the statement copying items of {@code table} to the archive.
+   * Parameter order is: archived_ts, followed by {@code count} ids.
+   *
+   * @param count number of ids in the IN list; must be > 0
+   * @param table work_request or the history table
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildArchiveByIdsSql(int count, String table) {
+    return """
+      INSERT INTO work_request_archive (
+          %s, archived_ts
+      )
+      SELECT %s, ? FROM %s
+      WHERE id IN (%s)""".formatted(ARCHIVE_COLUMNS, ARCHIVE_COLUMNS, table, placeholders(count));
+  }
+
+  /**
+   * Builds the statement deleting items by id.
+   *
+   * @param count number of ids in the IN list; must be > 0
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildDeleteByIdsSql(int count) {
+    return buildDeleteByIdsSql(count, WORK_TABLE);
+  }
+
+  /**
+   * Builds the statement deleting items of {@code table} by id.
+   *
+   * @param count number of ids in the IN list; must be > 0
+   * @param table work_request or the history table
+   * @return SQL string suitable for a {@link java.sql.PreparedStatement}
+   */
+  public static String buildDeleteByIdsSql(int count, String table) {
+    return "DELETE FROM " + table + " WHERE id IN (" + placeholders(count) + ")";
+  }
+
+  private static String selectIds(DbInfo.Dialect dialect, String table) {
+    return switch (dialect) {
+      case PostgresSQL, Sqlite, MySQL -> "SELECT id FROM " + table + " WHERE " + PURGEABLE + " LIMIT ?";
+      case MSSQL -> "SELECT TOP (?) id FROM " + table + " WHERE " + PURGEABLE;
+      case H2, DB2 -> "SELECT id FROM " + table + " WHERE " + PURGEABLE + " FETCH FIRST ? ROWS ONLY";
+      case Oracle -> "SELECT id FROM " + table + " WHERE " + PURGEABLE + " AND ROWNUM <= ?";
+    };
+  }
+
+  private static String placeholders(int count) {
+    return String.join(", ", Collections.nCopies(count, "?"));
+  }
+}
@@ -0,0 +1,45 @@
+package org.anthills.jdbc;
+
+import java.util.Objects;
+
+/**
+ * Builds the aggregate query behind {@link JdbcWorkStore#stats()}.
+ *
+ * The counts come from a single {@code GROUP BY work_type, status}. It only reads columns of
+ * {@code idx_wr_claim (work_type, status, priority DESC, visible_at)}, so on {@code work_request} the databases can
+ * answer it from the index alone, without touching the (payload-carrying) rows. The same SQL is valid
+ * on every supported dialect.
+ *
+ * With the {@link StorageLayout#HOT_COLD} layout, the history table is grouped as well and the two
+ * results are combined with {@code UNION ALL}. A status lives in one table at a time, except for
+ * terminal items left in {@code work_request} from a single table layout, so the caller adds up rows
+ * for the same (work type, status).
+ *
+ * Columns are: work_type, status, item count, earliest visible_at.
+ */
+public final class StatsQueryBuilder {
+
+  private static final String GROUPED = """
+    SELECT work_type, status, COUNT(*) AS item_count, MIN(visible_at) AS oldest_visible_at
+    FROM %s
+    GROUP BY work_type, status""";
+
+  private StatsQueryBuilder() {
+  }
+
+  /**
+   * Returns the query counting items per work type and status.
+   *
+   * @param layout tables holding the work items
+   * @return SQL string without parameters
+   * @throws NullPointerException if {@code layout} is null
+   */
+  public static String buildSql(StorageLayout layout) {
+    Objects.requireNonNull(layout, "layout is required");
+    String sql = GROUPED.formatted("work_request");
+    if (layout == StorageLayout.HOT_COLD) {
+      sql += " UNION ALL " + GROUPED.formatted(HistoryQueryBuilder.HISTORY_TABLE);
+    }
+    return sql;
+  }
+}
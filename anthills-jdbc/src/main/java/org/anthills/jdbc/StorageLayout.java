@@ -0,0 +1,21 @@
+package org.anthills.jdbc;
+
+/**
+ * Where a {@link JdbcWorkStore} keeps work items once they reach a terminal state.
+ */
+public enum StorageLayout {
+
+  /**
+   * All work items stay in {@code work_request} for their whole life. Terminal items remain next to
+   * the claimable ones until work retention removes them.
+   */
+  SINGLE_TABLE,
+
+  /**
+   * {@code work_request} holds only the active items (NEW, IN_PROGRESS, PAUSED). The transaction that
+   * makes an item terminal also moves it to {@code work_request_history}, so the table and the index
+   * scanned by claims are sized by the backlog rather than by the lifetime volume. Reads by id and
+   * listings cover both tables, and work retention purges the history table.
+   */
+  HOT_COLD
+}
@@ -1,5 +1,6 @@
 package org.anthills.jdbc;
 
+import org.anthills.api.work.WorkQuery;
 import org.anthills.api.work.WorkRecord;
 
 import java.sql.ResultSet;
@@ -13,11 +14,29 @@ import java.util.List;
  * Maps JDBC {@link ResultSet} rows to {@link org.anthills.api.work.WorkRecord} instances.
  *
  * Column expectations (case-insensitive):
- * id, work_type, payload, payload_type, payload_version, codec, status, max_retries,
- * attempt_count, owner_id, lease_until, failure_reason, created_ts, updated_ts, started_ts, completed_ts.
+ * id, work_type, idempotency_key, coalesce_key, payload, payload_type, payload_version, codec, status, priority, max_retries,
+ * attempt_count, owner_id, lease_until, visible_at, failure_reason, created_ts, updated_ts, started_ts, completed_ts.
+ * Rows read with {@link WorkQuery.Projection#METADATA} select {@link #METADATA_COLUMNS} only, without
+ * payload and failure_reason.
  */
 public final class WorkRecordRowMapper {
 
+  /** Columns selected for {@link WorkQuery.Projection#METADATA}: all but payload and failure_reason. */
+  public static final String METADATA_COLUMNS = """
+    id, work_type, idempotency_key, coalesce_key, payload_type, payload_version, codec,
+        status, attempt_count, max_retries, priority, owner_id, lease_until, visible_at,
+        created_ts, updated_ts, started_ts, completed_ts""";
+
+  /**
+   * Returns the select list of a projection.
+   *
+   * @param projection projection to read
+   * @return {@code *} for {@link WorkQuery.Projection#FULL}, {@link #METADATA_COLUMNS} otherwise
+   */
+  public static String columns(WorkQuery.Projection projection) {
+    return projection == WorkQuery.Projection.METADATA ? METADATA_COLUMNS : "*";
+  }
+
   /**
    * Maps the current row of the {@link ResultSet} to a {@link WorkRecord}.
    *
@@ -26,22 +45,39 @@ public final class WorkRecordRowMapper {
    * @throws SQLException if a JDBC access error occurs
    */
   public static WorkRecord map(ResultSet rs) throws SQLException {
+    return map(rs, WorkQuery.Projection.FULL);
+  }
+
+  /**
+   * Maps the current row of the {@link ResultSet}, read with the given projection, to a {@link WorkRecord}.
+   *
+   * @param rs positioned result set
+   * @param projection projection the row was selected with
+   * @return mapped WorkRecord; payload and failure reason are null for {@link WorkQuery.Projection#METADATA}
+   * @throws SQLException if a JDBC access error occurs
+   */
+  public static WorkRecord map(ResultSet rs, WorkQuery.Projection projection) throws SQLException {
+    boolean full = projection != WorkQuery.Projection.METADATA;
     return WorkRecord.builder()
       .id(rs.getString("id"))
       .workType(rs.getString("work_type"))
+      .idempotencyKey(rs.getString("idempotency_key"))
+      .coalesceKey(rs.getString("coalesce_key"))
 
-      .payload(rs.getBytes("payload"))
+      .payload(full ? rs.getBytes("payload") : null)
       .payloadType(rs.getString("payload_type"))
       .payloadVersion(rs.getInt("payload_version"))
       .codec(rs.getString("codec"))
 
       .status(rs.getString("status"))
+      .priority(rs.getInt("priority"))
       .maxRetries(rs.getObject("max_retries", Integer.class))
       .attemptCount(rs.getInt("attempt_count"))
       .ownerId(rs.getString("owner_id"))
       .leaseUntil(getInstantSafely(rs, "lease_until"))
+      .visibleAt(getInstantSafely(rs, "visible_at"))
 
-      .failureReason(rs.getString("failure_reason"))
+      .failureReason(full ? rs.getString("failure_reason") : null)
 
       .createdTs(getInstantSafely(rs, "created_ts"))
       .updatedTs(getInstantSafely(rs, "updated_ts"))
@@ -58,9 +94,22 @@ public final class WorkRecordRowMapper {
    * @throws SQLException if a JDBC access error occurs
    */
   public static List<WorkRecord> retrieveWorkRecords(ResultSet rs) throws SQLException {
+    return retrieveWorkRecords(rs, WorkQuery.Projection.FULL);
+  }
+
+  /**
+   * Iterates through the {@link ResultSet}, read with the given projection, and maps all rows to
+   * {@link WorkRecord}s.
+   *
+   * @param rs result set to iterate (will be consumed)
+   * @param projection projection the rows were selected with
+   * @return list of mapped work records (possibly empty)
+   * @throws SQLException if a JDBC access error occurs
+   */
+  public static List<WorkRecord> retrieveWorkRecords(ResultSet rs, WorkQuery.Projection projection) throws SQLException {
     List<WorkRecord> results = new ArrayList<>();
     while (rs.next()) {
-      results.add(WorkRecordRowMapper.map(rs));
+      results.add(WorkRecordRowMapper.map(rs, projection));
     }
     return results;
   }
@@ -0,0 +1,67 @@
+package org.anthills.jdbc;
+
+import org.anthills.api.work.WorkQuery;
+import org.anthills.api.work.WorkRecord;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+/**
+ * Ordered spliterator mapping the rows of an open cursor to {@link WorkRecord}s one at a time.
+ * It owns the connection, statement and result set, and releases them on {@link #close()}, which
+ * the stream built on it must call from {@link java.util.stream.Stream#onClose}.
+ * The cursor is read-only, so the transaction is rolled back rather than committed.
+ */
+final class WorkRecordSpliterator extends Spliterators.AbstractSpliterator<WorkRecord> implements AutoCloseable {
+
+  private final Connection connection;
+  private final PreparedStatement statement;
+  private final ResultSet resultSet;
+  private final WorkQuery.Projection projection;
+  private boolean closed;
+
+  WorkRecordSpliterator(Connection connection, PreparedStatement statement, ResultSet resultSet,
+                        WorkQuery.Projection projection) {
+    super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+    this.connection = connection;
+    this.statement = statement;
+    this.resultSet = resultSet;
+    this.projection = projection;
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super WorkRecord> action) {
+    if (closed) return false;
+    try {
+      if (!resultSet.next()) return false;
+      action.accept(WorkRecordRowMapper.map(resultSet, projection));
+      return true;
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to stream work", e);
+    }
+  }
+
+  /**
+   * Closes the cursor and returns the connection. Safe to call more than once.
+   *
+   * @throws RuntimeException if the connection cannot be released
+   */
+  @Override
+  public void close() {
+    if (closed) return;
+    closed = true;
+    try (connection) {
+      // the cursor is closed before the transaction ends
+      resultSet.close();
+      statement.close();
+      connection.rollback();
+    } catch (SQLException e) {
+      throw new RuntimeException("Failed to close work stream", e);
+    }
+  }
+}
@@ -5,6 +5,8 @@ CREATE TABLE IF NOT EXISTS work_request
 (
   id              VARCHAR(36)  PRIMARY KEY,
   work_type       VARCHAR(100) NOT NULL,
+  idempotency_key VARCHAR(200),
+  coalesce_key    VARCHAR(200),
 
   payload         BLOB         NOT NULL,
   payload_type    VARCHAR(500) NOT NULL,
@@ -14,9 +16,11 @@ CREATE TABLE IF NOT EXISTS work_request
   status          VARCHAR(20)  NOT NULL,
   attempt_count   INT          NOT NULL DEFAULT 0,
   max_retries     INT,
+  priority        INT          NOT NULL DEFAULT 0,
 
   owner_id        VARCHAR(100),
   lease_until     TIMESTAMP,
+  visible_at      TIMESTAMP    NOT NULL,
 
   failure_reason  TEXT,
 
@@ -26,7 +30,76 @@ CREATE TABLE IF NOT EXISTS work_request
   completed_ts    TIMESTAMP
 );
 
-CREATE INDEX IF NOT EXISTS idx_wr_claim ON work_request (work_type, status, lease_until);
+CREATE INDEX IF NOT EXISTS idx_wr_claim ON work_request (work_type, status, priority DESC, visible_at);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_wr_idempotency ON work_request (work_type, idempotency_key);
+CREATE INDEX IF NOT EXISTS idx_wr_coalesce ON work_request (work_type, coalesce_key);
+CREATE INDEX IF NOT EXISTS idx_wr_completed ON work_request (completed_ts);
+CREATE INDEX IF NOT EXISTS idx_wr_created ON work_request (created_ts, id);
+
+-- WorkRequest Archive Table (terminal rows moved by work retention)
+CREATE TABLE IF NOT EXISTS work_request_archive
+(
+  id              VARCHAR(36)  PRIMARY KEY,
+  work_type       VARCHAR(100) NOT NULL,
+  idempotency_key VARCHAR(200),
+  coalesce_key    VARCHAR(200),
+
+  payload         BLOB         NOT NULL,
+  payload_type    VARCHAR(500) NOT NULL,
+  payload_version INT          NOT NULL,
+  codec           VARCHAR(50)  NOT NULL,
+
+  status          VARCHAR(20)  NOT NULL,
+  attempt_count   INT          NOT NULL DEFAULT 0,
+  max_retries     INT,
+  priority        INT          NOT NULL DEFAULT 0,
+
+  owner_id        VARCHAR(100),
+  lease_until     TIMESTAMP,
+  visible_at      TIMESTAMP    NOT NULL,
+
+  failure_reason  TEXT,
+
+  created_ts      TIMESTAMP    NOT NULL,
+  updated_ts      TIMESTAMP    NOT NULL,
+  started_ts      TIMESTAMP,
+  completed_ts    TIMESTAMP,
+  archived_ts     TIMESTAMP    NOT NULL
+);
+
+-- WorkRequest History Table (terminal rows moved out of work_request by the HOT_COLD storage layout)
+CREATE TABLE IF NOT EXISTS work_request_history
+(
+  id              VARCHAR(36)  PRIMARY KEY,
+  work_type       VARCHAR(100) NOT NULL,
+  idempotency_key VARCHAR(200),
+  coalesce_key    VARCHAR(200),
+
+  payload         BLOB         NOT NULL,
+  payload_type    VARCHAR(500) NOT NULL,
+  payload_version INT          NOT NULL,
+  codec           VARCHAR(50)  NOT NULL,
+
+  status          VARCHAR(20)  NOT NULL,
+  attempt_count   INT          NOT NULL DEFAULT 0,
+  max_retries     INT,
+  priority        INT          NOT NULL DEFAULT 0,
+
+  owner_id        VARCHAR(100),
+  lease_until     TIMESTAMP,
+  visible_at      TIMESTAMP    NOT NULL,
+
+  failure_reason  TEXT,
+
+  created_ts      TIMESTAMP    NOT NULL,
+  updated_ts      TIMESTAMP    NOT NULL,
+  started_ts      TIMESTAMP,
+  completed_ts    TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_wrh_idempotency ON work_request_history (work_type, idempotency_key);
+CREATE INDEX IF NOT EXISTS idx_wrh_completed ON work_request_history (completed_ts);
+CREATE INDEX IF NOT EXISTS idx_wrh_created ON work_request_history (created_ts, id);
 
 -- Scheduler Lease Table
 CREATE TABLE IF NOT EXISTS scheduler_lease
@@ -35,3 +108,10 @@ CREATE TABLE IF NOT EXISTS scheduler_lease
   owner_id    VARCHAR(100) NOT NULL,
   lease_until TIMESTAMP    NOT NULL
 );
+
+-- Worker Heartbeat Table (owner-scoped leases)
+CREATE TABLE IF NOT EXISTS worker_heartbeat
+(
+  owner_id    VARCHAR(100) PRIMARY KEY,
+  alive_until TIMESTAMP    NOT NULL
+);
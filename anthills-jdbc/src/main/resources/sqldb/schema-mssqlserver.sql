@@ -5,6 +5,8 @@ CREATE TABLE work_request
 (
     id              VARCHAR(36)     NOT NULL PRIMARY KEY,
     work_type       NVARCHAR(100)   NOT NULL,
+    idempotency_key NVARCHAR(200)   NULL,
+    coalesce_key    NVARCHAR(200)   NULL,
 
     payload         VARBINARY(MAX)  NOT NULL,
     payload_type    NVARCHAR(500)   NOT NULL,
@@ -14,9 +16,11 @@ CREATE TABLE work_request
     status          NVARCHAR(20)    NOT NULL,
     attempt_count   INT             NOT NULL DEFAULT 0,
     max_retries     INT             NULL,
+    priority        INT             NOT NULL DEFAULT 0,
 
     owner_id        NVARCHAR(100)   NULL,
     lease_until     DATETIME2       NULL,
+    visible_at      DATETIME2       NOT NULL,
 
     failure_reason  NVARCHAR(MAX)   NULL,
 
@@ -26,7 +30,77 @@ CREATE TABLE work_request
     completed_ts    DATETIME2       NULL
 );
 
-CREATE INDEX idx_wr_claim ON work_request (work_type, status, lease_until);
+CREATE INDEX idx_wr_claim ON work_request (work_type, status, priority DESC, visible_at);
+-- Filtered, since SQL Server treats NULL keys as equal in a unique index
+CREATE UNIQUE INDEX ux_wr_idempotency ON work_request (work_type, idempotency_key) WHERE idempotency_key IS NOT NULL;
+CREATE INDEX idx_wr_coalesce ON work_request (work_type, coalesce_key) WHERE coalesce_key IS NOT NULL;
+CREATE INDEX idx_wr_completed ON work_request (completed_ts);
+CREATE INDEX idx_wr_created ON work_request (created_ts, id);
+
+-- WorkRequest Archive Table (terminal rows moved by work retention)
+CREATE TABLE work_request_archive
+(
+    id              VARCHAR(36)     NOT NULL PRIMARY KEY,
+    work_type       NVARCHAR(100)   NOT NULL,
+    idempotency_key NVARCHAR(200)   NULL,
+    coalesce_key    NVARCHAR(200)   NULL,
+
+    payload         VARBINARY(MAX)  NOT NULL,
+    payload_type    NVARCHAR(500)   NOT NULL,
+    payload_version INT             NOT NULL,
+    codec           NVARCHAR(50)    NOT NULL,
+
+    status          NVARCHAR(20)    NOT NULL,
+    attempt_count   INT             NOT NULL DEFAULT 0,
+    max_retries     INT             NULL,
+    priority        INT             NOT NULL DEFAULT 0,
+
+    owner_id        NVARCHAR(100)   NULL,
+    lease_until     DATETIME2       NULL,
+    visible_at      DATETIME2       NOT NULL,
+
+    failure_reason  NVARCHAR(MAX)   NULL,
+
+    created_ts      DATETIME2       NOT NULL,
+    updated_ts      DATETIME2       NOT NULL,
+    started_ts      DATETIME2       NULL,
+    completed_ts    DATETIME2       NULL,
+    archived_ts     DATETIME2       NOT NULL
+);
+
+-- WorkRequest History Table (terminal rows moved out of work_request by the HOT_COLD storage layout)
+CREATE TABLE work_request_history
+(
+    id              VARCHAR(36)     NOT NULL PRIMARY KEY,
+    work_type       NVARCHAR(100)   NOT NULL,
+    idempotency_key NVARCHAR(200)   NULL,
+    coalesce_key    NVARCHAR(200)   NULL,
+
+    payload         VARBINARY(MAX)  NOT NULL,
+    payload_type    NVARCHAR(500)   NOT NULL,
+    payload_version INT             NOT NULL,
+    codec           NVARCHAR(50)    NOT NULL,
+
+    status          NVARCHAR(20)    NOT NULL,
+    attempt_count   INT             NOT NULL DEFAULT 0,
+    max_retries     INT             NULL,
+    priority        INT             NOT NULL DEFAULT 0,
+
+    owner_id        NVARCHAR(100)   NULL,
+    lease_until     DATETIME2       NULL,
+    visible_at      DATETIME2       NOT NULL,
+
+    failure_reason  NVARCHAR(MAX)   NULL,
+
+    created_ts      DATETIME2       NOT NULL,
+    updated_ts      DATETIME2       NOT NULL,
+    started_ts      DATETIME2       NULL,
+    completed_ts    DATETIME2       NULL
+);
+
+CREATE INDEX idx_wrh_idempotency ON work_request_history (work_type, idempotency_key);
+CREATE INDEX idx_wrh_completed ON work_request_history (completed_ts);
+CREATE INDEX idx_wrh_created ON work_request_history (created_ts, id);
 
 -- Scheduler Lease Table
 CREATE TABLE scheduler_lease
@@ -35,3 +109,10 @@ CREATE TABLE scheduler_lease
     owner_id    NVARCHAR(100)  NOT NULL,
     lease_until DATETIME2      NOT NULL
 );
+
+-- Worker Heartbeat Table (owner-scoped leases)
+CREATE TABLE worker_heartbeat
+(
+    owner_id    NVARCHAR(100)  NOT NULL PRIMARY KEY,
+    alive_until DATETIME2      NOT NULL
+);
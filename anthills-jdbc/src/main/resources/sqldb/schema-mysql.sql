@@ -5,6 +5,8 @@ CREATE TABLE work_request
 (
     id              VARCHAR(36) PRIMARY KEY,
     work_type       VARCHAR(100) NOT NULL,
+    idempotency_key VARCHAR(200),
+    coalesce_key    VARCHAR(200),
 
     payload         BLOB         NOT NULL,
     payload_type    VARCHAR(500) NOT NULL,
@@ -14,24 +16,102 @@ CREATE TABLE work_request
     status          VARCHAR(20)  NOT NULL,
     attempt_count   INT          NOT NULL DEFAULT 0,
     max_retries     INT,
+    priority        INT          NOT NULL DEFAULT 0,
 
     owner_id        VARCHAR(100),
-    lease_until     DATETIME,
+    lease_until     DATETIME(6),
+    visible_at      DATETIME(6)  NOT NULL,
 
     failure_reason  TEXT,
 
-    created_ts      DATETIME     NOT NULL,
-    updated_ts      DATETIME     NOT NULL,
-    started_ts      DATETIME,
-    completed_ts    DATETIME
+    created_ts      DATETIME(6)  NOT NULL,
+    updated_ts      DATETIME(6)  NOT NULL,
+    started_ts      DATETIME(6),
+    completed_ts    DATETIME(6)
 );
 
-CREATE INDEX idx_wr_claim ON work_request (work_type, status, lease_until);
+CREATE INDEX idx_wr_claim ON work_request (work_type, status, priority DESC, visible_at);
+CREATE UNIQUE INDEX ux_wr_idempotency ON work_request (work_type, idempotency_key);
+CREATE INDEX idx_wr_coalesce ON work_request (work_type, coalesce_key);
+CREATE INDEX idx_wr_completed ON work_request (completed_ts);
+CREATE INDEX idx_wr_created ON work_request (created_ts, id);
+
+-- WorkRequest Archive Table (terminal rows moved by work retention)
+CREATE TABLE work_request_archive
+(
+    id              VARCHAR(36) PRIMARY KEY,
+    work_type       VARCHAR(100) NOT NULL,
+    idempotency_key VARCHAR(200),
+    coalesce_key    VARCHAR(200),
+
+    payload         BLOB         NOT NULL,
+    payload_type    VARCHAR(500) NOT NULL,
+    payload_version INT          NOT NULL,
+    codec           VARCHAR(50)  NOT NULL,
+
+    status          VARCHAR(20)  NOT NULL,
+    attempt_count   INT          NOT NULL DEFAULT 0,
+    max_retries     INT,
+    priority        INT          NOT NULL DEFAULT 0,
+
+    owner_id        VARCHAR(100),
+    lease_until     DATETIME(6),
+    visible_at      DATETIME(6)  NOT NULL,
+
+    failure_reason  TEXT,
+
+    created_ts      DATETIME(6)  NOT NULL,
+    updated_ts      DATETIME(6)  NOT NULL,
+    started_ts      DATETIME(6),
+    completed_ts    DATETIME(6),
+    archived_ts     DATETIME(6)  NOT NULL
+);
+
+-- WorkRequest History Table (terminal rows moved out of work_request by the HOT_COLD storage layout)
+CREATE TABLE work_request_history
+(
+    id              VARCHAR(36) PRIMARY KEY,
+    work_type       VARCHAR(100) NOT NULL,
+    idempotency_key VARCHAR(200),
+    coalesce_key    VARCHAR(200),
+
+    payload         BLOB         NOT NULL,
+    payload_type    VARCHAR(500) NOT NULL,
+    payload_version INT          NOT NULL,
+    codec           VARCHAR(50)  NOT NULL,
+
+    status          VARCHAR(20)  NOT NULL,
+    attempt_count   INT          NOT NULL DEFAULT 0,
+    max_retries     INT,
+    priority        INT          NOT NULL DEFAULT 0,
+
+    owner_id        VARCHAR(100),
+    lease_until     DATETIME(6),
+    visible_at      DATETIME(6)  NOT NULL,
+
+    failure_reason  TEXT,
+
+    created_ts      DATETIME(6)  NOT NULL,
+    updated_ts      DATETIME(6)  NOT NULL,
+    started_ts      DATETIME(6),
+    completed_ts    DATETIME(6)
+);
+
+CREATE INDEX idx_wrh_idempotency ON work_request_history (work_type, idempotency_key);
+CREATE INDEX idx_wrh_completed ON work_request_history (completed_ts);
+CREATE INDEX idx_wrh_created ON work_request_history (created_ts, id);
 
 -- Scheduler Lease Table
 CREATE TABLE scheduler_lease
 (
     job_name    VARCHAR(100) PRIMARY KEY,
     owner_id    VARCHAR(100) NOT NULL,
-    lease_until DATETIME     NOT NULL
+    lease_until DATETIME(6)  NOT NULL
+);
+
+-- Worker Heartbeat Table (owner-scoped leases)
+CREATE TABLE worker_heartbeat
+(
+    owner_id    VARCHAR(100) PRIMARY KEY,
+    alive_until DATETIME(6)  NOT NULL
 );
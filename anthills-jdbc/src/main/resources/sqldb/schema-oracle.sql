@@ -5,6 +5,8 @@ CREATE TABLE work_request
 (
     id              VARCHAR2(36)    PRIMARY KEY,
     work_type       VARCHAR2(100)   NOT NULL,
+    idempotency_key VARCHAR2(200),
+    coalesce_key    VARCHAR2(200),
 
     payload         BLOB            NOT NULL,
     payload_type    VARCHAR2(500)   NOT NULL,
@@ -14,9 +16,11 @@ CREATE TABLE work_request
     status          VARCHAR2(20)    NOT NULL,
     attempt_count   NUMBER(10)      DEFAULT 0 NOT NULL,
     max_retries     NUMBER(10),
+    priority        NUMBER(10)      DEFAULT 0 NOT NULL,
 
     owner_id        VARCHAR2(100),
     lease_until     TIMESTAMP,
+    visible_at      TIMESTAMP       NOT NULL,
 
     failure_reason  CLOB,
 
@@ -26,7 +30,78 @@ CREATE TABLE work_request
     completed_ts    TIMESTAMP
 );
 
-CREATE INDEX idx_wr_claim ON work_request (work_type, status, lease_until);
+CREATE INDEX idx_wr_claim ON work_request (work_type, status, priority DESC, visible_at);
+-- Rows without a key have an all-NULL entry and are left out of the index
+CREATE UNIQUE INDEX ux_wr_idempotency ON work_request (idempotency_key, CASE WHEN idempotency_key IS NOT NULL THEN work_type END);
+-- Rows without a coalesce key are not indexed
+CREATE INDEX idx_wr_coalesce ON work_request (coalesce_key);
+CREATE INDEX idx_wr_completed ON work_request (completed_ts);
+CREATE INDEX idx_wr_created ON work_request (created_ts, id);
+
+-- WorkRequest Archive Table (terminal rows moved by work retention)
+CREATE TABLE work_request_archive
+(
+    id              VARCHAR2(36)    PRIMARY KEY,
+    work_type       VARCHAR2(100)   NOT NULL,
+    idempotency_key VARCHAR2(200),
+    coalesce_key    VARCHAR2(200),
+
+    payload         BLOB            NOT NULL,
+    payload_type    VARCHAR2(500)   NOT NULL,
+    payload_version NUMBER(10)      NOT NULL,
+    codec           VARCHAR2(50)    NOT NULL,
+
+    status          VARCHAR2(20)    NOT NULL,
+    attempt_count   NUMBER(10)      DEFAULT 0 NOT NULL,
+    max_retries     NUMBER(10),
+    priority        NUMBER(10)      DEFAULT 0 NOT NULL,
+
+    owner_id        VARCHAR2(100),
+    lease_until     TIMESTAMP,
+    visible_at      TIMESTAMP       NOT NULL,
+
+    failure_reason  CLOB,
+
+    created_ts      TIMESTAMP       NOT NULL,
+    updated_ts      TIMESTAMP       NOT NULL,
+    started_ts      TIMESTAMP,
+    completed_ts    TIMESTAMP,
+    archived_ts     TIMESTAMP       NOT NULL
+);
+
+-- WorkRequest History Table (terminal rows moved out of work_request by the HOT_COLD storage layout)
+CREATE TABLE work_request_history
+(
+    id              VARCHAR2(36)    PRIMARY KEY,
+    work_type       VARCHAR2(100)   NOT NULL,
+    idempotency_key VARCHAR2(200),
+    coalesce_key    VARCHAR2(200),
+
+    payload         BLOB            NOT NULL,
+    payload_type    VARCHAR2(500)   NOT NULL,
+    payload_version NUMBER(10)      NOT NULL,
+    codec           VARCHAR2(50)    NOT NULL,
+
+    status          VARCHAR2(20)    NOT NULL,
+    attempt_count   NUMBER(10)      DEFAULT 0 NOT NULL,
+    max_retries     NUMBER(10),
+    priority        NUMBER(10)      DEFAULT 0 NOT NULL,
+
+    owner_id        VARCHAR2(100),
+    lease_until     TIMESTAMP,
+    visible_at      TIMESTAMP       NOT NULL,
+
+    failure_reason  CLOB,
+
+    created_ts      TIMESTAMP       NOT NULL,
+    updated_ts      TIMESTAMP       NOT NULL,
+    started_ts      TIMESTAMP,
+    completed_ts    TIMESTAMP
+);
+
+CREATE INDEX idx_wrh_idempotency ON work_request_history (work_type, idempotency_key);
+CREATE INDEX idx_wrh_completed ON work_request_history (completed_ts);
+CREATE INDEX idx_wrh_created ON work_request_history (created_ts, id);
 
 -- Scheduler Lease Table
 CREATE TABLE scheduler_lease
@@ -35,3 +110,10 @@ CREATE TABLE scheduler_lease
     owner_id    VARCHAR2(100)  NOT NULL,
     lease_until TIMESTAMP      NOT NULL
 );
+
+-- Worker Heartbeat Table (owner-scoped leases)
+CREATE TABLE worker_heartbeat
+(
+    owner_id    VARCHAR2(100)  PRIMARY KEY,
+    alive_until TIMESTAMP      NOT NULL
+);
@@ -0,0 +1,126 @@
+-- PostgreSQL schema equivalent to schema-postgresql.sql, with work_request range-partitioned by day on created_ts.
+-- Day partitions (work_request_pYYYYMMDD) are created and dropped by PartitionMaintenance; rows outside every
+-- day partition land in work_request_default.
+
+-- WorkRequest Table
+CREATE TABLE work_request
+(
+    id              VARCHAR(36)  NOT NULL,
+    work_type       VARCHAR(100) NOT NULL,
+    idempotency_key VARCHAR(200),
+    coalesce_key    VARCHAR(200),
+
+    payload         BYTEA        NOT NULL,
+    payload_type    VARCHAR(500) NOT NULL,
+    payload_version INT          NOT NULL,
+    codec           VARCHAR(50)  NOT NULL,
+
+    status          VARCHAR(20)  NOT NULL,
+    attempt_count   INT          NOT NULL DEFAULT 0,
+    max_retries     INT,
+    priority        INT          NOT NULL DEFAULT 0,
+
+    owner_id        VARCHAR(100),
+    lease_until     TIMESTAMP,
+    visible_at      TIMESTAMP    NOT NULL,
+
+    failure_reason  TEXT,
+
+    created_ts      TIMESTAMP    NOT NULL,
+    updated_ts      TIMESTAMP    NOT NULL,
+    started_ts      TIMESTAMP,
+    completed_ts    TIMESTAMP,
+
+    -- a primary key of a partitioned table must contain the partition key
+    PRIMARY KEY (id, created_ts)
+) PARTITION BY RANGE (created_ts);
+
+CREATE TABLE work_request_default PARTITION OF work_request DEFAULT;
+
+-- Indexes are created on every partition
+CREATE INDEX idx_wr_claim ON work_request (work_type, status, priority DESC, visible_at);
+-- A unique index would have to contain created_ts, so idempotency keys are checked by lookup under an advisory lock
+CREATE INDEX idx_wr_idempotency ON work_request (work_type, idempotency_key) WHERE idempotency_key IS NOT NULL;
+CREATE INDEX idx_wr_coalesce ON work_request (work_type, coalesce_key) WHERE coalesce_key IS NOT NULL;
+CREATE INDEX idx_wr_completed ON work_request (completed_ts);
+CREATE INDEX idx_wr_created ON work_request (created_ts, id);
+
+-- WorkRequest Archive Table (terminal rows moved by work retention)
+CREATE TABLE work_request_archive
+(
+    id              VARCHAR(36) PRIMARY KEY,
+    work_type       VARCHAR(100) NOT NULL,
+    idempotency_key VARCHAR(200),
+    coalesce_key    VARCHAR(200),
+
+    payload         BYTEA        NOT NULL,
+    payload_type    VARCHAR(500) NOT NULL,
+    payload_version INT          NOT NULL,
+    codec           VARCHAR(50)  NOT NULL,
+
+    status          VARCHAR(20)  NOT NULL,
+    attempt_count   INT          NOT NULL DEFAULT 0,
+    max_retries     INT,
+    priority        INT          NOT NULL DEFAULT 0,
+
+    owner_id        VARCHAR(100),
+    lease_until     TIMESTAMP,
+    visible_at      TIMESTAMP    NOT NULL,
+
+    failure_reason  TEXT,
+
+    created_ts      TIMESTAMP    NOT NULL,
+    updated_ts      TIMESTAMP    NOT NULL,
+    started_ts      TIMESTAMP,
+    completed_ts    TIMESTAMP,
+    archived_ts     TIMESTAMP    NOT NULL
+);
+
+-- WorkRequest History Table (terminal rows moved out of work_request by the HOT_COLD storage layout)
+CREATE TABLE work_request_history
+(
+    id              VARCHAR(36) PRIMARY KEY,
+    work_type       VARCHAR(100) NOT NULL,
+    idempotency_key VARCHAR(200),
+    coalesce_key    VARCHAR(200),
+
+    payload         BYTEA        NOT NULL,
+    payload_type    VARCHAR(500) NOT NULL,
+    payload_version INT          NOT NULL,
+    codec           VARCHAR(50)  NOT NULL,
+
+    status          VARCHAR(20)  NOT NULL,
+    attempt_count   INT          NOT NULL DEFAULT 0,
+    max_retries     INT,
+    priority        INT          NOT NULL DEFAULT 0,
+
+    owner_id        VARCHAR(100),
+    lease_until     TIMESTAMP,
+    visible_at      TIMESTAMP    NOT NULL,
+
+    failure_reason  TEXT,
+
+    created_ts      TIMESTAMP    NOT NULL,
+    updated_ts      TIMESTAMP    NOT NULL,
+    started_ts      TIMESTAMP,
+    completed_ts    TIMESTAMP
+);
+
+CREATE INDEX idx_wrh_idempotency ON work_request_history (work_type, idempotency_key);
+CREATE INDEX idx_wrh_completed ON work_request_history (completed_ts);
+CREATE INDEX idx_wrh_created ON work_request_history (created_ts, id);
+
+-- Scheduler Lease Table
+CREATE TABLE scheduler_lease
+(
+    job_name    VARCHAR(100) PRIMARY KEY,
+    owner_id    VARCHAR(100) NOT NULL,
+    lease_until TIMESTAMP    NOT NULL
+);
+
+-- Worker Heartbeat Table (owner-scoped leases)
+CREATE TABLE worker_heartbeat
+(
+    owner_id    VARCHAR(100) PRIMARY KEY,
+    alive_until TIMESTAMP    NOT NULL
+);
@@ -6,6 +6,8 @@ CREATE TABLE IF NOT EXISTS work_request
 (
     id              TEXT PRIMARY KEY,
     work_type       TEXT        NOT NULL,
+    idempotency_key TEXT,
+    coalesce_key    TEXT,
 
     payload         BLOB        NOT NULL,
     payload_type    TEXT        NOT NULL,
@@ -15,9 +17,11 @@ CREATE TABLE IF NOT EXISTS work_request
     status          TEXT        NOT NULL,
     attempt_count   INTEGER     NOT NULL DEFAULT 0,
     max_retries     INTEGER,
+    priority        INTEGER     NOT NULL DEFAULT 0,
 
     owner_id        TEXT,
     lease_until     TEXT,              -- ISO-8601 timestamp string
+    visible_at      TEXT        NOT NULL,
 
     failure_reason  TEXT,
 
@@ -27,7 +31,76 @@ CREATE TABLE IF NOT EXISTS work_request
     completed_ts    TEXT
 );
 
-CREATE INDEX IF NOT EXISTS idx_wr_claim ON work_request (work_type, status, lease_until);
+CREATE INDEX IF NOT EXISTS idx_wr_claim ON work_request (work_type, status, priority DESC, visible_at);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_wr_idempotency ON work_request (work_type, idempotency_key);
+CREATE INDEX IF NOT EXISTS idx_wr_coalesce ON work_request (work_type, coalesce_key) WHERE coalesce_key IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_wr_completed ON work_request (completed_ts);
+CREATE INDEX IF NOT EXISTS idx_wr_created ON work_request (created_ts, id);
+
+-- WorkRequest Archive Table (terminal rows moved by work retention)
+CREATE TABLE IF NOT EXISTS work_request_archive
+(
+    id              TEXT PRIMARY KEY,
+    work_type       TEXT        NOT NULL,
+    idempotency_key TEXT,
+    coalesce_key    TEXT,
+
+    payload         BLOB        NOT NULL,
+    payload_type    TEXT        NOT NULL,
+    payload_version INTEGER     NOT NULL,
+    codec           TEXT        NOT NULL,
+
+    status          TEXT        NOT NULL,
+    attempt_count   INTEGER     NOT NULL DEFAULT 0,
+    max_retries     INTEGER,
+    priority        INTEGER     NOT NULL DEFAULT 0,
+
+    owner_id        TEXT,
+    lease_until     TEXT,              -- ISO-8601 timestamp string
+    visible_at      TEXT        NOT NULL,
+
+    failure_reason  TEXT,
+
+    created_ts      TEXT        NOT NULL,
+    updated_ts      TEXT        NOT NULL,
+    started_ts      TEXT,
+    completed_ts    TEXT,
+    archived_ts     TEXT        NOT NULL
+);
+
+-- WorkRequest History Table (terminal rows moved out of work_request by the HOT_COLD storage layout)
+CREATE TABLE IF NOT EXISTS work_request_history
+(
+    id              TEXT PRIMARY KEY,
+    work_type       TEXT        NOT NULL,
+    idempotency_key TEXT,
+    coalesce_key    TEXT,
+
+    payload         BLOB        NOT NULL,
+    payload_type    TEXT        NOT NULL,
+    payload_version INTEGER     NOT NULL,
+    codec           TEXT        NOT NULL,
+
+    status          TEXT        NOT NULL,
+    attempt_count   INTEGER     NOT NULL DEFAULT 0,
+    max_retries     INTEGER,
+    priority        INTEGER     NOT NULL DEFAULT 0,
+
+    owner_id        TEXT,
+    lease_until     TEXT,              -- ISO-8601 timestamp string
+    visible_at      TEXT        NOT NULL,
+
+    failure_reason  TEXT,
+
+    created_ts      TEXT        NOT NULL,
+    updated_ts      TEXT        NOT NULL,
+    started_ts      TEXT,
+    completed_ts    TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_wrh_idempotency ON work_request_history (work_type, idempotency_key);
+CREATE INDEX IF NOT EXISTS idx_wrh_completed ON work_request_history (completed_ts);
+CREATE INDEX IF NOT EXISTS idx_wrh_created ON work_request_history (created_ts, id);
 
 -- Scheduler Lease Table
 CREATE TABLE IF NOT EXISTS scheduler_lease
@@ -36,3 +109,10 @@ CREATE TABLE IF NOT EXISTS scheduler_lease
     owner_id    TEXT NOT NULL,
     lease_until TEXT NOT NULL
 );
+
+-- Worker Heartbeat Table (owner-scoped leases)
+CREATE TABLE IF NOT EXISTS worker_heartbeat
+(
+    owner_id    TEXT PRIMARY KEY,
+    alive_until TEXT NOT NULL
+);
@@ -0,0 +1,113 @@
+package org.anthills.jdbc;
+
+import org.anthills.api.work.BulkAction;
+import org.anthills.api.work.WorkQuery;
+import org.anthills.api.work.WorkRequest;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class BulkUpdateQueryBuilderTest {
+
+  private static final Instant NOW = Instant.parse("2026-01-01T00:00:00Z");
+
+  private static long placeholders(String sql) {
+    return sql.chars().filter(ch -> ch == '?').count();
+  }
+
+  private static WorkQuery failedOfType(String workType) {
+    return WorkQuery.builder().workType(workType).statuses(Set.of(WorkRequest.Status.FAILED)).build();
+  }
+
+  @Test
+  void every_dialect_changes_a_bounded_chunk_of_matching_items() {
+    for (DbInfo.Dialect dialect : DbInfo.Dialect.values()) {
+      for (BulkAction action : BulkAction.values()) {
+        BulkUpdateQueryBuilder b = new BulkUpdateQueryBuilder(WorkQuery.builder().workType("typeA").build(), action, dialect, "work_request");
+        String sql = b.buildChunkSql(NOW, 100);
+
+        assertTrue(sql.startsWith(action == BulkAction.PURGE ? "DELETE" : "UPDATE"), dialect + " " + action);
+        assertTrue(sql.contains("work_type = ?"), dialect + " " + action);
+        assertEquals(placeholders(sql), b.params().size(), dialect + " " + action);
+        assertTrue(b.params().contains(100), dialect + " " + action);
+      }
+    }
+  }
+
+  @Test
+  void chunk_uses_the_native_row_limit_of_each_dialect() {
+    assertTrue(chunkSql(DbInfo.Dialect.MySQL, BulkAction.REQUEUE).endsWith("LIMIT ?"));
+    assertTrue(chunkSql(DbInfo.Dialect.MSSQL, BulkAction.REQUEUE).startsWith("UPDATE TOP (?) work_request SET"));
+    assertTrue(chunkSql(DbInfo.Dialect.MSSQL, BulkAction.PURGE).startsWith("DELETE TOP (?) FROM work_request"));
+    assertTrue(chunkSql(DbInfo.Dialect.H2, BulkAction.CANCEL).endsWith("FETCH FIRST ? ROWS ONLY"));
+    assertTrue(chunkSql(DbInfo.Dialect.Oracle, BulkAction.CANCEL).endsWith("ROWNUM <= ?"));
+    assertTrue(chunkSql(DbInfo.Dialect.DB2, BulkAction.REQUEUE).startsWith("UPDATE (SELECT * FROM work_request WHERE"));
+    assertTrue(chunkSql(DbInfo.Dialect.PostgresSQL, BulkAction.PURGE).contains("WHERE id IN (SELECT id FROM work_request WHERE"));
+  }
+
+  @Test
+  void params_follow_placeholder_order() {
+    BulkUpdateQueryBuilder mssql = new BulkUpdateQueryBuilder(failedOfType("typeA"), BulkAction.REQUEUE, DbInfo.Dialect.MSSQL, "work_request");
+    mssql.buildChunkSql(NOW, 50);
+    assertEquals(List.of(50, Timestamp.from(NOW), Timestamp.from(NOW), "typeA"), mssql.params());
+
+    BulkUpdateQueryBuilder db2 = new BulkUpdateQueryBuilder(failedOfType("typeA"), BulkAction.REQUEUE, DbInfo.Dialect.DB2, "work_request");
+    db2.buildChunkSql(NOW, 50);
+    assertEquals(List.of("typeA", 50, Timestamp.from(NOW), Timestamp.from(NOW)), db2.params());
+
+    BulkUpdateQueryBuilder pg = new BulkUpdateQueryBuilder(failedOfType("typeA"), BulkAction.REQUEUE, DbInfo.Dialect.PostgresSQL, "work_request");
+    pg.buildChunkSql(NOW, 50);
+    assertEquals(List.of(Timestamp.from(NOW), Timestamp.from(NOW), "typeA", 50), pg.params());
+  }
+
+  @Test
+  void statuses_are_limited_to_those_the_action_applies_to() {
+    String requeue = new BulkUpdateQueryBuilder(failedOfType("typeA"), BulkAction.REQUEUE, DbInfo.Dialect.H2, "work_request").buildChunkSql(NOW, 10);
+    assertTrue(requeue.contains("WHERE status IN ('FAILED')"));
+
+    String cancel = new BulkUpdateQueryBuilder(WorkQuery.builder().build(), BulkAction.CANCEL, DbInfo.Dialect.H2, "work_request").buildChunkSql(NOW, 10);
+    assertTrue(cancel.contains("WHERE status IN ('NEW', 'IN_PROGRESS', 'PAUSED')"));
+
+    assertEquals(EnumSet.noneOf(WorkRequest.Status.class), BulkAction.PURGE.statuses(Set.of(WorkRequest.Status.NEW)));
+  }
+
+  @Test
+  void select_ids_reads_a_bounded_chunk_of_the_given_table() {
+    for (DbInfo.Dialect dialect : DbInfo.Dialect.values()) {
+      BulkUpdateQueryBuilder b = new BulkUpdateQueryBuilder(failedOfType("typeA"), BulkAction.REQUEUE, dialect, HistoryQueryBuilder.HISTORY_TABLE);
+      String sql = b.buildSelectIdsSql(20);
+
+      assertTrue(sql.contains("id FROM work_request_history WHERE status IN ('FAILED') AND work_type = ?"), dialect.name());
+      assertEquals(2, placeholders(sql), dialect.name());
+      assertEquals(2, b.params().size(), dialect.name());
+    }
+  }
+
+  @Test
+  void by_ids_statements_guard_on_status() {
+    Set<WorkRequest.Status> terminal = BulkAction.PURGE.statuses();
+
+    assertEquals("DELETE FROM work_request WHERE id IN (?, ?) AND status IN ('CANCELLED', 'FAILED', 'SUCCEEDED')",
+      BulkUpdateQueryBuilder.buildByIdsSql(BulkAction.PURGE, terminal, 2));
+    assertTrue(BulkUpdateQueryBuilder.buildByIdsSql(BulkAction.CANCEL, BulkAction.CANCEL.statuses(), 1)
+      .startsWith("UPDATE work_request SET status = 'CANCELLED'"));
+
+    String requeue = BulkUpdateQueryBuilder.buildRequeueFromHistorySql(BulkAction.REQUEUE.statuses(), 3);
+    assertTrue(requeue.startsWith("INSERT INTO work_request ("));
+    assertTrue(requeue.contains("FROM work_request_history"));
+    assertTrue(requeue.endsWith("WHERE id IN (?, ?, ?) AND status IN ('CANCELLED', 'FAILED')"));
+    assertEquals(5, placeholders(requeue));
+    assertEquals(2, BulkUpdateQueryBuilder.setParams(BulkAction.REQUEUE, NOW).size());
+    assertTrue(BulkUpdateQueryBuilder.setParams(BulkAction.PURGE, NOW).isEmpty());
+  }
+
+  private static String chunkSql(DbInfo.Dialect dialect, BulkAction action) {
+    return new BulkUpdateQueryBuilder(failedOfType("typeA"), action, dialect, "work_request").buildChunkSql(NOW, 10);
+  }
+}
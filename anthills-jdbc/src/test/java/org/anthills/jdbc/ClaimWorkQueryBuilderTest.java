@@ -0,0 +1,229 @@
+package org.anthills.jdbc;
+
+import org.anthills.api.work.LeaseMode;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class ClaimWorkQueryBuilderTest {
+
+  private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+  private static final Instant LEASE_UNTIL = NOW.plusSeconds(60);
+
+  private static ClaimWorkQueryBuilder builder(DbInfo.Dialect dialect) {
+    return new ClaimWorkQueryBuilder("email", "owner-1", 5, NOW, LEASE_UNTIL, dialect);
+  }
+
+  @Test
+  void postgres_claims_with_update_returning_over_skip_locked_cte() {
+    ClaimWorkQueryBuilder b = builder(DbInfo.Dialect.PostgresSQL);
+    String sql = b.buildSql();
+    List<Object> params = b.params();
+
+    assertTrue(b.returnsClaimedRows());
+    assertTrue(sql.contains("FOR UPDATE SKIP LOCKED"));
+    assertTrue(sql.contains("UPDATE work_request w"));
+    assertTrue(sql.contains("RETURNING w.*"));
+    // joins on the full key so a partitioned table updates only the partition of each row
+    assertTrue(sql.contains("WHERE w.id = picked.id AND w.created_ts = picked.created_ts"));
+
+    // Order: work_type, now, limit, owner_id, lease_until, started_ts, updated_ts
+    assertEquals(7, params.size());
+    assertEquals("email", params.get(0));
+    assertEquals(Timestamp.from(NOW), params.get(1));
+    assertEquals(5, params.get(2));
+    assertEquals("owner-1", params.get(3));
+    assertEquals(Timestamp.from(LEASE_UNTIL), params.get(4));
+  }
+
+  @Test
+  void mssql_claims_with_output_clause_and_top_first() {
+    ClaimWorkQueryBuilder b = builder(DbInfo.Dialect.MSSQL);
+    String sql = b.buildSql();
+    List<Object> params = b.params();
+
+    assertTrue(b.returnsClaimedRows());
+    assertTrue(sql.contains("SELECT TOP (?) * FROM work_request WITH (READPAST, UPDLOCK, ROWLOCK)"));
+    assertTrue(sql.contains("OUTPUT inserted.*"));
+
+    // Order: limit, work_type, now, owner_id, lease_until, started_ts, updated_ts
+    assertEquals(7, params.size());
+    assertEquals(5, params.get(0));
+    assertEquals("email", params.get(1));
+    assertEquals("owner-1", params.get(3));
+  }
+
+  @Test
+  void h2_merges_from_limited_candidate_source() {
+    ClaimWorkQueryBuilder b = builder(DbInfo.Dialect.H2);
+    String sql = b.buildSql();
+    List<Object> params = b.params();
+
+    assertTrue(b.returnsClaimedRows());
+    assertTrue(sql.startsWith("SELECT * FROM FINAL TABLE ("));
+    assertTrue(sql.contains("MERGE INTO work_request"));
+    assertTrue(sql.contains("FETCH FIRST ? ROWS ONLY"));
+    // a row taken by another claimer while this one waited for its lock is left alone
+    assertTrue(sql.contains("WHEN MATCHED AND status = 'NEW' AND visible_at <= ? THEN UPDATE"));
+
+    // Order: work_type, now, limit, now, owner_id, lease_until, started_ts, updated_ts
+    assertEquals(8, params.size());
+    assertEquals("email", params.get(0));
+    assertEquals(5, params.get(2));
+    assertEquals(Timestamp.from(NOW), params.get(3));
+    assertEquals("owner-1", params.get(4));
+  }
+
+  @Test
+  void db2_selects_from_final_table_update() {
+    ClaimWorkQueryBuilder b = builder(DbInfo.Dialect.DB2);
+    String sql = b.buildSql();
+    List<Object> params = b.params();
+
+    assertTrue(b.returnsClaimedRows());
+    assertTrue(sql.startsWith("SELECT * FROM FINAL TABLE ("));
+    assertTrue(sql.contains("UPDATE work_request"));
+    assertTrue(sql.contains("FETCH FIRST ? ROWS ONLY"));
+
+    // Order: owner_id, lease_until, started_ts, updated_ts, work_type, now, limit, now
+    assertEquals(8, params.size());
+    assertEquals("owner-1", params.get(0));
+    assertEquals("email", params.get(4));
+    assertEquals(5, params.get(6));
+    assertEquals(Timestamp.from(NOW), params.get(7));
+  }
+
+  @Test
+  void sqlite_claims_with_update_returning() {
+    ClaimWorkQueryBuilder b = builder(DbInfo.Dialect.Sqlite);
+    String sql = b.buildSql();
+
+    assertTrue(b.returnsClaimedRows());
+    assertTrue(sql.contains("LIMIT ?"));
+    assertTrue(sql.strip().endsWith("RETURNING *"));
+    assertEquals(5, b.params().get(b.params().size() - 1));
+  }
+
+  @Test
+  void mysql_and_oracle_lock_full_candidate_rows() {
+    ClaimWorkQueryBuilder mysql = builder(DbInfo.Dialect.MySQL);
+    String mysqlSql = mysql.buildSql();
+    assertFalse(mysql.returnsClaimedRows());
+    assertTrue(mysqlSql.startsWith("SELECT * FROM work_request"));
+    assertTrue(mysqlSql.contains("LIMIT ? FOR UPDATE SKIP LOCKED"));
+    assertEquals(List.of("email", Timestamp.from(NOW), 5), mysql.params());
+
+    ClaimWorkQueryBuilder oracle = builder(DbInfo.Dialect.Oracle);
+    String oracleSql = oracle.buildSql();
+    assertFalse(oracle.returnsClaimedRows());
+    assertTrue(oracleSql.contains("WHERE ROWNUM <= ? FOR UPDATE SKIP LOCKED"));
+    assertEquals(List.of("email", Timestamp.from(NOW), 5), oracle.params());
+  }
+
+  @Test
+  void every_dialect_reclaims_items_of_owners_with_expired_heartbeat_in_heartbeat_mode() {
+    for (DbInfo.Dialect dialect : DbInfo.Dialect.values()) {
+      String sql = new ClaimWorkQueryBuilder("email", "owner-1", 5, NOW, LEASE_UNTIL, dialect, LeaseMode.OWNER_HEARTBEAT).buildSql();
+      assertTrue(sql.contains("FROM worker_heartbeat h"), dialect.name());
+      assertTrue(sql.contains("h.owner_id = work_request.owner_id AND h.alive_until >= ?"), dialect.name());
+    }
+  }
+
+  @Test
+  void per_item_claims_leave_out_the_heartbeat_branch() {
+    for (DbInfo.Dialect dialect : DbInfo.Dialect.values()) {
+      String sql = builder(dialect).buildSql();
+      assertFalse(sql.contains("worker_heartbeat"), dialect.name());
+      assertFalse(sql.contains(" OR "), dialect.name());
+    }
+  }
+
+  @Test
+  void heartbeat_mode_claims_without_per_item_lease() {
+    ClaimWorkQueryBuilder b = new ClaimWorkQueryBuilder("email", "owner-1", 5, NOW, LEASE_UNTIL, DbInfo.Dialect.PostgresSQL,
+      LeaseMode.OWNER_HEARTBEAT);
+    String sql = b.buildSql();
+
+    assertTrue(sql.contains("lease_until = NULL"));
+    // Order: work_type, now, now, limit, owner_id, started_ts, updated_ts
+    assertEquals(7, b.params().size());
+    assertEquals("owner-1", b.params().get(4));
+    assertFalse(b.params().contains(Timestamp.from(LEASE_UNTIL)));
+  }
+
+  @Test
+  void multiple_work_types_are_claimed_within_their_quotas_by_one_statement() {
+    Map<String, Integer> quotas = new LinkedHashMap<>();
+    quotas.put("email", 3);
+    quotas.put("sms", 2);
+    ClaimWorkQueryBuilder b = new ClaimWorkQueryBuilder(quotas, "owner-1", NOW, LEASE_UNTIL, DbInfo.Dialect.PostgresSQL,
+      LeaseMode.PER_ITEM);
+    String sql = b.buildSql();
+
+    assertFalse(sql.contains("ROW_NUMBER()"));
+    assertTrue(sql.contains("UNION ALL"));
+    // every type stops at its quota and skips rows locked by other claimers before the union
+    assertEquals(2, sql.split("LIMIT \\? FOR UPDATE SKIP LOCKED", -1).length - 1);
+    assertTrue(sql.contains("WHERE w.id = picked.id AND w.created_ts = picked.created_ts"));
+    // Order: (work type, now, quota) per type, owner_id, lease_until, started_ts, updated_ts
+    assertEquals(List.of("email", Timestamp.from(NOW), 3, "sms", Timestamp.from(NOW), 2, "owner-1",
+      Timestamp.from(LEASE_UNTIL), Timestamp.from(NOW), Timestamp.from(NOW)), b.params());
+  }
+
+  @Test
+  void every_dialect_claims_several_work_types_with_one_statement() {
+    Map<String, Integer> quotas = new LinkedHashMap<>();
+    quotas.put("email", 3);
+    quotas.put("sms", 2);
+    for (DbInfo.Dialect dialect : DbInfo.Dialect.values()) {
+      ClaimWorkQueryBuilder b = new ClaimWorkQueryBuilder(quotas, "owner-1", NOW, LEASE_UNTIL, dialect, LeaseMode.PER_ITEM);
+      String sql = b.buildSql();
+      assertEquals(2, sql.split("ORDER BY priority DESC, visible_at", -1).length - 1, dialect.name());
+      assertEquals(sql.chars().filter(ch -> ch == '?').count(), b.params().size(), dialect.name());
+    }
+
+    ClaimWorkQueryBuilder mssql = new ClaimWorkQueryBuilder(quotas, "owner-1", NOW, LEASE_UNTIL, DbInfo.Dialect.MSSQL, LeaseMode.PER_ITEM);
+    mssql.buildSql();
+    // Order: owner_id, lease_until, started_ts, updated_ts, then TOP (?) before the filter of each type
+    assertEquals(List.of(3, "email", Timestamp.from(NOW), 2, "sms", Timestamp.from(NOW)), mssql.params().subList(4, 10));
+  }
+
+  @Test
+  void a_single_quota_is_claimed_with_a_row_limit() {
+    ClaimWorkQueryBuilder b = new ClaimWorkQueryBuilder(Map.of("email", 5), "owner-1", NOW, LEASE_UNTIL, DbInfo.Dialect.PostgresSQL,
+      LeaseMode.PER_ITEM);
+    ClaimWorkQueryBuilder single = builder(DbInfo.Dialect.PostgresSQL);
+
+    assertEquals(single.buildSql(), b.buildSql());
+    assertEquals(single.params(), b.params());
+  }
+
+  @Test
+  void claim_by_ids_renders_in_list() {
+    String sql = ClaimWorkQueryBuilder.buildClaimByIdsSql(3);
+    assertTrue(sql.startsWith("UPDATE work_request SET "));
+    assertTrue(sql.endsWith("WHERE id IN (?, ?, ?)"));
+  }
+
+  @Test
+  void every_dialect_claims_highest_priority_then_earliest_visible_first() {
+    for (DbInfo.Dialect dialect : DbInfo.Dialect.values()) {
+      assertTrue(builder(dialect).buildSql().contains("ORDER BY priority DESC, visible_at"), dialect.name());
+    }
+  }
+
+  @Test
+  void new_items_are_claimable_by_a_range_on_visible_at() {
+    for (DbInfo.Dialect dialect : DbInfo.Dialect.values()) {
+      String sql = builder(dialect).buildSql();
+      assertTrue(sql.contains("status = 'NEW' AND visible_at <= ?"), dialect.name());
+      assertFalse(sql.contains("lease_until IS NULL OR"), dialect.name());
+    }
+  }
+}
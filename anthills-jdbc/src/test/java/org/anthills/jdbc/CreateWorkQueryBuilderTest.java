@@ -0,0 +1,68 @@
+package org.anthills.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class CreateWorkQueryBuilderTest {
+
+  private static long placeholders(String sql) {
+    return sql.chars().filter(ch -> ch == '?').count();
+  }
+
+  @Test
+  void plain_insert_binds_every_insert_column_except_constants() {
+    String sql = CreateWorkQueryBuilder.buildInsertSql();
+
+    assertTrue(sql.startsWith("INSERT INTO work_request"));
+    assertTrue(sql.contains("idempotency_key, coalesce_key"));
+    assertEquals(13, placeholders(sql));
+  }
+
+  @Test
+  void postgres_and_sqlite_skip_conflicting_keys() {
+    for (DbInfo.Dialect dialect : new DbInfo.Dialect[]{DbInfo.Dialect.PostgresSQL, DbInfo.Dialect.Sqlite}) {
+      String sql = CreateWorkQueryBuilder.buildInsertIfAbsentSql(dialect);
+      assertTrue(sql.endsWith("ON CONFLICT (work_type, idempotency_key) DO NOTHING"), dialect.name());
+      assertFalse(CreateWorkQueryBuilder.leadingKeyParams(dialect));
+      assertEquals(13, placeholders(sql));
+    }
+  }
+
+  @Test
+  void mysql_turns_duplicate_into_no_op_update() {
+    String sql = CreateWorkQueryBuilder.buildInsertIfAbsentSql(DbInfo.Dialect.MySQL);
+
+    assertTrue(sql.endsWith("ON DUPLICATE KEY UPDATE id = id"));
+    assertFalse(CreateWorkQueryBuilder.leadingKeyParams(DbInfo.Dialect.MySQL));
+  }
+
+  @Test
+  void merge_dialects_take_the_key_first() {
+    for (DbInfo.Dialect dialect : new DbInfo.Dialect[]{DbInfo.Dialect.H2, DbInfo.Dialect.Oracle, DbInfo.Dialect.DB2, DbInfo.Dialect.MSSQL}) {
+      String sql = CreateWorkQueryBuilder.buildInsertIfAbsentSql(dialect);
+      assertTrue(sql.startsWith("MERGE INTO work_request"), dialect.name());
+      assertTrue(sql.contains("WHEN NOT MATCHED THEN INSERT"), dialect.name());
+      assertTrue(CreateWorkQueryBuilder.leadingKeyParams(dialect));
+      assertEquals(15, placeholders(sql), dialect.name());
+    }
+    assertTrue(CreateWorkQueryBuilder.buildInsertIfAbsentSql(DbInfo.Dialect.Oracle).contains("FROM dual"));
+    assertTrue(CreateWorkQueryBuilder.buildInsertIfAbsentSql(DbInfo.Dialect.DB2).contains("FROM sysibm.sysdummy1"));
+    assertTrue(CreateWorkQueryBuilder.buildInsertIfAbsentSql(DbInfo.Dialect.MSSQL).contains("WITH (HOLDLOCK)"));
+  }
+
+  @Test
+  void replacing_a_pending_item_is_fenced_on_new() {
+    assertTrue(CreateWorkQueryBuilder.buildSelectPendingByCoalesceKeySql().contains("status = 'NEW'"));
+    String sql = CreateWorkQueryBuilder.buildReplacePendingSql();
+    assertTrue(sql.endsWith("WHERE id = ? AND status = 'NEW'"));
+    assertEquals(9, placeholders(sql));
+  }
+
+  @Test
+  void key_lock_hashes_work_type_and_key_into_a_transaction_lock() {
+    String sql = CreateWorkQueryBuilder.buildLockKeySql();
+    assertTrue(sql.contains("pg_advisory_xact_lock(hashtext("));
+    assertEquals(2, placeholders(sql));
+  }
+}
@@ -0,0 +1,25 @@
+package org.anthills.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class HistoryQueryBuilderTest {
+
+  @Test
+  void copy_and_delete_touch_only_terminal_rows() {
+    String copy = HistoryQueryBuilder.buildCopyTerminalSql(2);
+    String delete = HistoryQueryBuilder.buildDeleteTerminalSql(2);
+
+    assertTrue(copy.startsWith("INSERT INTO work_request_history"));
+    assertTrue(copy.contains("SELECT id, work_type"));
+    assertTrue(copy.endsWith("WHERE id IN (?, ?) AND status IN ('SUCCEEDED', 'FAILED', 'CANCELLED')"));
+    assertEquals("DELETE FROM work_request WHERE id IN (?, ?) AND status IN ('SUCCEEDED', 'FAILED', 'CANCELLED')", delete);
+  }
+
+  @Test
+  void key_lookup_reads_the_history_table() {
+    assertEquals("SELECT * FROM work_request_history WHERE idempotency_key = ? AND work_type = ?",
+      HistoryQueryBuilder.buildSelectByKeySql());
+  }
+}
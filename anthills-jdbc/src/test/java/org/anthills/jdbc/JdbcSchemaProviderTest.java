@@ -40,4 +40,29 @@ final class JdbcSchemaProviderTest {
     // identity should be recorded to avoid duplicate initialization
     assertTrue(JdbcSchemaProvider.schemaInitializedDataSources.contains(info.identity()));
   }
+
+  @Test
+  void partitioned_variant_is_used_only_where_supported() {
+    assertTrue(JdbcSchemaProvider.supportsPartitioning(DbInfo.Dialect.PostgresSQL));
+    assertTrue(JdbcSchemaProvider.supportsPartitioning(DbInfo.Dialect.Oracle));
+    assertFalse(JdbcSchemaProvider.supportsPartitioning(DbInfo.Dialect.H2));
+    assertEquals("schema-postgresql-partitioned.sql", JdbcSchemaProvider.getSchemaFile(DbInfo.Dialect.PostgresSQL, true));
+    assertEquals("schema-oracle-partitioned.sql", JdbcSchemaProvider.getSchemaFile(DbInfo.Dialect.Oracle, true));
+    assertEquals("schema-postgresql.sql", JdbcSchemaProvider.getSchemaFile(DbInfo.Dialect.PostgresSQL, false));
+    assertNotNull(JdbcSchemaProvider.class.getResourceAsStream("/sqldb/schema-postgresql-partitioned.sql"));
+    assertNotNull(JdbcSchemaProvider.class.getResourceAsStream("/sqldb/schema-oracle-partitioned.sql"));
+  }
+
+  @Test
+  void partitioned_option_falls_back_to_plain_schema_on_h2() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+
+    JdbcWorkStore store = JdbcWorkStore.create(ds, JdbcWorkStoreOptions.builder().partitioned(true).build());
+
+    try (Connection c = ds.getConnection()) {
+      assertTrue(TestJdbc.tableExists(c, "work_request"));
+    }
+    assertFalse(JdbcSchemaProvider.isPartitioned(ds, DbInfo.Dialect.H2));
+    assertNotNull(store.createWork("typeA", new byte[]{1}, "java.lang.String", 1, "json", null).id());
+  }
 }
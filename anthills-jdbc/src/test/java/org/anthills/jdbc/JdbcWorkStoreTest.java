@@ -1,17 +1,39 @@
 package org.anthills.jdbc;
 
 import com.zaxxer.hikari.HikariDataSource;
+import org.anthills.api.work.BulkAction;
+import org.anthills.api.work.CoalesceMode;
+import org.anthills.api.work.EncodedPayload;
+import org.anthills.api.work.LeaseMode;
+import org.anthills.api.work.RetentionMode;
+import org.anthills.api.work.SubmissionOptions;
+import org.anthills.api.work.Subscription;
+import org.anthills.api.work.WorkOutcome;
 import org.anthills.api.work.WorkQuery;
 import org.anthills.api.work.WorkRecord;
 import org.anthills.api.work.WorkRequest;
+import org.anthills.api.work.WorkStats;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -35,12 +57,88 @@ final class JdbcWorkStoreTest {
     try (Connection c = ds.getConnection()) {
       assertTrue(TestJdbc.tableExists(c, "work_request"));
       assertTrue(TestJdbc.tableExists(c, "scheduler_lease"));
+      assertTrue(TestJdbc.tableExists(c, "worker_heartbeat"));
     }
 
     // second create should be a no-op for schema init
     store = JdbcWorkStore.create(ds);
   }
 
+  @Test
+  void createWork_returns_record_matching_stored_row() {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    byte[] payload = new byte[]{5, 6};
+    WorkRecord created = store.createWork("typeA", payload, "java.lang.String", 3, "json", 7);
+
+    assertNotNull(created.id());
+    assertEquals(WorkRequest.Status.NEW, created.status());
+    assertEquals(0, created.attemptCount());
+    assertNull(created.ownerId());
+    assertNull(created.leaseUntil());
+
+    WorkRecord stored = store.getWork(created.id()).orElseThrow();
+    assertEquals("typeA", stored.workType());
+    assertArrayEquals(payload, stored.payload());
+    assertEquals(created.payloadType(), stored.payloadType());
+    assertEquals(created.payloadVersion(), stored.payloadVersion());
+    assertEquals(created.codec(), stored.codec());
+    assertEquals(created.maxRetries(), stored.maxRetries());
+    assertEquals(created.status(), stored.status());
+    assertEquals(created.createdTs(), stored.createdTs());
+    assertEquals(created.updatedTs(), stored.updatedTs());
+  }
+
+  @Test
+  void listenNotify_falls_back_to_polling_on_non_postgres() {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds, JdbcWorkStoreOptions.builder().listenNotify(true).build());
+
+    Subscription subscription = store.onWorkAvailable("typeA", () -> fail("no notifications expected"));
+    assertNotNull(subscription);
+    store.createWork("typeA", new byte[]{1}, "java.lang.String", 1, "json", null);
+    subscription.close();
+  }
+
+  @Test
+  void createWorkBatch_inserts_all_rows_across_chunks_in_order() {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    List<EncodedPayload> payloads = new ArrayList<>();
+    for (int i = 0; i < 1203; i++) {
+      payloads.add(new EncodedPayload(new byte[]{(byte) i}, "java.lang.String"));
+    }
+
+    List<WorkRecord> created = store.createWorkBatch("bulk", payloads, 2, "json", 4);
+    assertEquals(1203, created.size());
+    assertEquals(1203, created.stream().map(WorkRecord::id).distinct().count());
+
+    WorkRecord last = created.get(1202);
+    assertArrayEquals(payloads.get(1202).payload(), last.payload());
+    assertEquals(WorkRequest.Status.NEW, last.status());
+    assertEquals(0, last.attemptCount());
+    assertEquals(4, last.maxRetries());
+    assertNotNull(last.createdTs());
+
+    WorkRecord stored = store.getWork(last.id()).orElseThrow();
+    assertEquals("bulk", stored.workType());
+    assertArrayEquals(last.payload(), stored.payload());
+    assertEquals(2, stored.payloadVersion());
+    assertEquals(4, stored.maxRetries());
+    assertEquals(WorkRequest.Status.NEW, stored.status());
+
+    assertEquals(5, store.claimWork("bulk", "owner", 5, Duration.ofMinutes(1)).size());
+  }
+
+  @Test
+  void createWorkBatch_empty_returns_empty() {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+    assertTrue(store.createWorkBatch("bulk", List.of(), 1, "json", null).isEmpty());
+  }
+
   @Test
   void listWork_filters_and_paginates() throws Exception {
     ds = TestJdbc.newH2DataSource();
@@ -110,6 +208,95 @@ final class JdbcWorkStoreTest {
     assertEquals("i1", result.get(1).id());
   }
 
+  @Test
+  void listWork_with_cursor_pages_through_equal_creation_times_without_gaps() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    Instant t0 = Instant.now().minusSeconds(300);
+    byte[] payload = new byte[]{1};
+    try (Connection c = ds.getConnection()) {
+      TestJdbc.insertWork(c, "k1", "typeA", payload, "java.lang.String", 1, "json", "NEW", 5, 0, null, null, null, t0, t0, null, null);
+      TestJdbc.insertWork(c, "k2", "typeA", payload, "java.lang.String", 1, "json", "NEW", 5, 0, null, null, null, t0.plusSeconds(10), t0, null, null);
+      TestJdbc.insertWork(c, "k3", "typeA", payload, "java.lang.String", 1, "json", "NEW", 5, 0, null, null, null, t0.plusSeconds(10), t0, null, null);
+      TestJdbc.insertWork(c, "k4", "typeA", payload, "java.lang.String", 1, "json", "NEW", 5, 0, null, null, null, t0.plusSeconds(10), t0, null, null);
+      TestJdbc.insertWork(c, "k5", "typeB", payload, "java.lang.String", 1, "json", "NEW", 5, 0, null, null, null, t0.plusSeconds(20), t0, null, null);
+      c.commit();
+    }
+
+    List<String> seen = new ArrayList<>();
+    WorkQuery.Cursor after = null;
+    while (true) {
+      List<WorkRecord> page = store.listWork(WorkQuery.builder().workType("typeA").after(after).limit(2).build());
+      page.forEach(r -> seen.add(r.id()));
+      if (page.size() < 2) break;
+      after = WorkQuery.Cursor.of(page.getLast());
+    }
+
+    assertEquals(List.of("k4", "k3", "k2", "k1"), seen);
+  }
+
+  @Test
+  void streamWork_reads_all_matches_across_fetches_and_releases_connection_on_close() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds, JdbcWorkStoreOptions.builder().streamFetchSize(2).build());
+
+    Instant t0 = Instant.now().minusSeconds(300);
+    byte[] payload = new byte[]{1};
+    try (Connection c = ds.getConnection()) {
+      for (int i = 1; i <= 7; i++) {
+        TestJdbc.insertWork(c, "s" + i, "typeA", payload, "java.lang.String", 1, "json", "NEW", 5, 0, null, null, null, t0.plusSeconds(i), t0, null, null);
+      }
+      TestJdbc.insertWork(c, "other", "typeB", payload, "java.lang.String", 1, "json", "NEW", 5, 0, null, null, null, t0, t0, null, null);
+      c.commit();
+    }
+
+    // the page limit of 1 is ignored
+    List<String> ids;
+    try (Stream<WorkRecord> s = store.streamWork(WorkQuery.builder().workType("typeA").limit(1).build())) {
+      ids = s.map(WorkRecord::id).toList();
+      assertEquals(1, ds.getHikariPoolMXBean().getActiveConnections());
+    }
+    assertEquals(List.of("s7", "s6", "s5", "s4", "s3", "s2", "s1"), ids);
+    assertEquals(0, ds.getHikariPoolMXBean().getActiveConnections());
+
+    // a cursor is honored, and a partly consumed stream is released as well
+    try (Stream<WorkRecord> s = store.streamWork(WorkQuery.builder().workType("typeA")
+      .after(new WorkQuery.Cursor(t0.plusSeconds(5), "s5")).build())) {
+      assertEquals("s4", s.findFirst().orElseThrow().id());
+    }
+    assertEquals(0, ds.getHikariPoolMXBean().getActiveConnections());
+  }
+
+  @Test
+  void listWork_with_metadata_projection_leaves_out_payload_and_failure_reason() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds, JdbcWorkStoreOptions.builder().storageLayout(StorageLayout.HOT_COLD).build());
+
+    Instant t0 = Instant.now().minusSeconds(300);
+    try (Connection c = ds.getConnection()) {
+      TestJdbc.insertWork(c, "p1", "typeA", new byte[]{1, 2}, "java.lang.String", 3, "json", "IN_PROGRESS", 5, 1, "o", t0.plusSeconds(600), null, t0, t0, t0, null);
+      TestJdbc.insertWork(c, "p2", "typeA", new byte[]{3}, "java.lang.String", 3, "json", "NEW", 5, 0, null, null, null, t0.plusSeconds(10), t0, null, null);
+      c.commit();
+    }
+    store.markFailed("p1", "o", "boom");
+
+    List<WorkRecord> listed = store.listWork(WorkQuery.builder().projection(WorkQuery.Projection.METADATA).limit(100).build());
+    assertEquals(List.of("p2", "p1"), listed.stream().map(WorkRecord::id).toList());
+    WorkRecord failed = listed.get(1);
+    assertNull(failed.payload());
+    assertNull(failed.failureReason());
+    assertEquals(WorkRequest.Status.FAILED, failed.status());
+    assertEquals("java.lang.String", failed.payloadType());
+    assertEquals(3, failed.payloadVersion());
+    assertNotNull(failed.completedTs());
+
+    List<WorkRecord> byIds = store.listWork(new WorkQuery(Set.of("p1"), null, null, null, null, WorkQuery.Page.of(10, 0), null, WorkQuery.Projection.METADATA));
+    assertNull(byIds.getFirst().payload());
+    assertEquals("boom", store.getWork("p1").orElseThrow().failureReason());
+    assertArrayEquals(new byte[]{1, 2}, store.getWork("p1").orElseThrow().payload());
+  }
+
   @Test
   void claimWork_claims_up_to_limit_and_sets_fields() throws Exception {
     ds = TestJdbc.newH2DataSource();
@@ -131,6 +318,7 @@ final class JdbcWorkStoreTest {
 
     List<WorkRecord> claimed = store.claimWork("typeA", "owner-1", 3, Duration.ofMinutes(5));
     assertEquals(3, claimed.size(), "should claim up to limit");
+    assertEquals(Set.of("c1", "c2", "c3"), claimed.stream().map(WorkRecord::id).collect(java.util.stream.Collectors.toSet()), "oldest eligible first");
 
     for (WorkRecord r : claimed) {
       assertEquals("owner-1", r.ownerId());
@@ -138,13 +326,498 @@ final class JdbcWorkStoreTest {
       assertTrue(r.attemptCount() >= 1);
       assertNotNull(r.leaseUntil());
       assertTrue(r.leaseUntil().isAfter(Instant.now()), "lease should be in future");
+      assertNotNull(r.startedTs());
+      assertArrayEquals(payload, r.payload());
     }
 
+    // returned rows reflect the persisted state
+    WorkRecord stored = store.getWork(claimed.get(0).id()).orElseThrow();
+    assertEquals(WorkRequest.Status.IN_PROGRESS, stored.status());
+    assertEquals("owner-1", stored.ownerId());
+    assertEquals(1, stored.attemptCount());
+
     // Next attempt shouldn't return any more for typeA (the remaining NEW is not eligible due to future lease)
     List<WorkRecord> claimedAgain = store.claimWork("typeA", "owner-2", 5, Duration.ofMinutes(5));
     assertTrue(claimedAgain.isEmpty());
   }
 
+  @Test
+  void claimWork_with_per_type_limits_claims_each_type_up_to_its_limit() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    Instant now = Instant.now();
+    byte[] payload = new byte[]{7};
+    try (Connection c = ds.getConnection()) {
+      // a backlog of older bulk items must not crowd out the sms item
+      for (int i = 0; i < 5; i++) {
+        TestJdbc.insertWork(c, "b" + i, "bulk", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, now.minusSeconds(60 - i), now.minusSeconds(60 - i), null, null);
+      }
+      TestJdbc.insertWork(c, "s0", "sms", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, now.minusSeconds(10), now.minusSeconds(10), null, null);
+      c.commit();
+    }
+
+    Map<String, Integer> limits = new LinkedHashMap<>();
+    limits.put("bulk", 2);
+    limits.put("sms", 2);
+    limits.put("push", 0);
+    List<WorkRecord> claimed = store.claimWork(limits, "owner-1", Duration.ofMinutes(5), LeaseMode.PER_ITEM);
+    assertEquals(List.of("b0", "b1", "s0"), claimed.stream().map(WorkRecord::id).toList());
+    assertEquals("owner-1", store.getWork("s0").orElseThrow().ownerId());
+    assertEquals(WorkRequest.Status.NEW, store.getWork("b2").orElseThrow().status());
+    assertTrue(store.claimWork(Map.of("push", 3), "owner-1", Duration.ofMinutes(5), LeaseMode.PER_ITEM).isEmpty());
+  }
+
+  @Test
+  void createWork_with_options_stores_priority() {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    SubmissionOptions options = SubmissionOptions.builder().maxAttempts(4).priority(6).build();
+    WorkRecord created = store.createWork("typeA", new EncodedPayload(new byte[]{1}, "java.lang.String"), options);
+    List<WorkRecord> batch = store.createWorkBatch("typeA", List.of(new EncodedPayload(new byte[]{2}, "java.lang.String")), options);
+
+    assertEquals(6, created.priority());
+    assertEquals(4, created.maxRetries());
+    assertEquals(6, store.getWork(created.id()).orElseThrow().priority());
+    assertEquals(6, store.getWork(batch.getFirst().id()).orElseThrow().priority());
+    assertEquals(0, store.createWork("typeA", new byte[]{3}, "java.lang.String", 1, "json", 3).priority());
+  }
+
+  @Test
+  void createWork_with_repeated_idempotency_key_returns_existing_record() {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    SubmissionOptions keyed = SubmissionOptions.builder().idempotencyKey("order-42").build();
+    WorkRecord first = store.createWork("typeA", new EncodedPayload(new byte[]{1}, "java.lang.String"), keyed);
+    WorkRecord again = store.createWork("typeA", new EncodedPayload(new byte[]{2}, "java.lang.String"), keyed);
+    WorkRecord otherType = store.createWork("typeB", new EncodedPayload(new byte[]{3}, "java.lang.String"), keyed);
+    WorkRecord unkeyed1 = store.createWork("typeA", new EncodedPayload(new byte[]{4}, "java.lang.String"), SubmissionOptions.defaults());
+    WorkRecord unkeyed2 = store.createWork("typeA", new EncodedPayload(new byte[]{5}, "java.lang.String"), SubmissionOptions.defaults());
+
+    assertEquals("order-42", first.idempotencyKey());
+    assertEquals(first.id(), again.id());
+    assertArrayEquals(new byte[]{1}, again.payload());
+    assertEquals("order-42", again.idempotencyKey());
+    assertNotEquals(first.id(), otherType.id());
+    assertNotEquals(unkeyed1.id(), unkeyed2.id());
+    assertNull(store.getWork(unkeyed1.id()).orElseThrow().idempotencyKey());
+    assertEquals(4, store.listWork(WorkQuery.builder().limit(100).build()).size());
+  }
+
+  @Test
+  void createWork_with_idempotency_key_survives_concurrent_duplicates() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    SubmissionOptions keyed = SubmissionOptions.builder().idempotencyKey("dup").build();
+    int threads = 8;
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<WorkRecord>> futures = new ArrayList<>();
+    for (int i = 0; i < threads; i++) {
+      futures.add(pool.submit(() -> {
+        start.await();
+        return store.createWork("typeA", new EncodedPayload(new byte[]{1}, "java.lang.String"), keyed);
+      }));
+    }
+    start.countDown();
+    Set<String> ids = new HashSet<>();
+    for (var f : futures) {
+      ids.add(f.get(10, TimeUnit.SECONDS).id());
+    }
+    pool.shutdown();
+
+    assertEquals(1, ids.size());
+    assertEquals(1, store.listWork(WorkQuery.builder().limit(100).build()).size());
+  }
+
+  @Test
+  void createWorkBatch_rejects_idempotency_key() {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    SubmissionOptions keyed = SubmissionOptions.builder().idempotencyKey("k").build();
+    assertThrows(IllegalArgumentException.class,
+      () -> store.createWorkBatch("typeA", List.of(new EncodedPayload(new byte[]{1}, "java.lang.String")), keyed));
+  }
+
+  @Test
+  void createWork_with_coalesce_key_replaces_pending_record() {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    SubmissionOptions first = SubmissionOptions.builder().coalesceKey("refresh-7").build();
+    SubmissionOptions second = SubmissionOptions.builder().coalesceKey("refresh-7").priority(3).maxAttempts(2).build();
+    WorkRecord created = store.createWork("typeA", new EncodedPayload(new byte[]{1}, "java.lang.String"), first);
+    WorkRecord replaced = store.createWork("typeA", new EncodedPayload(new byte[]{2}, "java.lang.String"), second);
+    WorkRecord otherType = store.createWork("typeB", new EncodedPayload(new byte[]{3}, "java.lang.String"), first);
+
+    assertEquals(created.id(), replaced.id());
+    assertArrayEquals(new byte[]{2}, replaced.payload());
+    assertEquals("refresh-7", replaced.coalesceKey());
+    WorkRecord stored = store.getWork(created.id()).orElseThrow();
+    assertArrayEquals(new byte[]{2}, stored.payload());
+    assertEquals(3, stored.priority());
+    assertEquals(2, stored.maxRetries());
+    assertEquals(created.createdTs(), stored.createdTs());
+    assertNotEquals(created.id(), otherType.id());
+    assertEquals(2, store.listWork(WorkQuery.builder().limit(100).build()).size());
+  }
+
+  @Test
+  void createWork_with_coalesce_key_keep_existing_leaves_pending_record() {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    SubmissionOptions keep = SubmissionOptions.builder().coalesceKey("refresh-7").coalesceMode(CoalesceMode.KEEP_EXISTING).build();
+    WorkRecord created = store.createWork("typeA", new EncodedPayload(new byte[]{1}, "java.lang.String"), keep);
+    WorkRecord kept = store.createWork("typeA", new EncodedPayload(new byte[]{2}, "java.lang.String"), keep);
+
+    assertEquals(created.id(), kept.id());
+    assertArrayEquals(new byte[]{1}, kept.payload());
+    assertEquals(created.updatedTs(), store.getWork(created.id()).orElseThrow().updatedTs());
+    assertEquals(1, store.listWork(WorkQuery.builder().limit(100).build()).size());
+  }
+
+  @Test
+  void createWork_with_coalesce_key_inserts_again_once_pending_record_is_claimed() {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    SubmissionOptions coalesced = SubmissionOptions.builder().coalesceKey("refresh-7").build();
+    WorkRecord created = store.createWork("typeA", new EncodedPayload(new byte[]{1}, "java.lang.String"), coalesced);
+    assertEquals(1, store.claimWork("typeA", "owner", 1, Duration.ofMinutes(1)).size());
+    WorkRecord next = store.createWork("typeA", new EncodedPayload(new byte[]{2}, "java.lang.String"), coalesced);
+
+    assertNotEquals(created.id(), next.id());
+    assertArrayEquals(new byte[]{1}, store.getWork(created.id()).orElseThrow().payload());
+    assertEquals(WorkRequest.Status.NEW, store.getWork(next.id()).orElseThrow().status());
+  }
+
+  @Test
+  void createWorkBatch_rejects_coalesce_key() {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    SubmissionOptions coalesced = SubmissionOptions.builder().coalesceKey("k").build();
+    assertThrows(IllegalArgumentException.class,
+      () -> store.createWorkBatch("typeA", List.of(new EncodedPayload(new byte[]{1}, "java.lang.String")), coalesced));
+  }
+
+  @Test
+  void createWork_with_not_before_is_claimable_only_once_visible() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    Instant at = Instant.now().plus(Duration.ofHours(1));
+    SubmissionOptions later = SubmissionOptions.builder().notBefore(at).build();
+    WorkRecord scheduled = store.createWork("typeA", new EncodedPayload(new byte[]{1}, "java.lang.String"), later);
+    WorkRecord immediate = store.createWork("typeA", new EncodedPayload(new byte[]{2}, "java.lang.String"), SubmissionOptions.defaults());
+
+    assertEquals(at, scheduled.visibleAt());
+    assertEquals(immediate.createdTs(), immediate.visibleAt());
+    assertEquals(at.truncatedTo(java.time.temporal.ChronoUnit.MILLIS),
+      store.getWork(scheduled.id()).orElseThrow().visibleAt().truncatedTo(java.time.temporal.ChronoUnit.MILLIS));
+
+    List<WorkRecord> claimed = store.claimWork("typeA", "owner-1", 5, Duration.ofMinutes(5));
+    assertEquals(List.of(immediate.id()), claimed.stream().map(WorkRecord::id).toList());
+
+    setVisibleAt(scheduled.id(), Instant.now().minusSeconds(1));
+    assertEquals(List.of(scheduled.id()), store.claimWork("typeA", "owner-1", 5, Duration.ofMinutes(5)).stream().map(WorkRecord::id).toList());
+  }
+
+  @Test
+  void claimWork_claims_higher_priority_before_older_items() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    Instant now = Instant.now();
+    byte[] payload = new byte[]{7};
+    try (Connection c = ds.getConnection()) {
+      TestJdbc.insertWork(c, "old", "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, now.minusSeconds(50), now.minusSeconds(50), null, null);
+      TestJdbc.insertWork(c, "urgent", "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, now.minusSeconds(10), now.minusSeconds(10), null, null);
+      TestJdbc.insertWork(c, "high", "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, now.minusSeconds(20), now.minusSeconds(20), null, null);
+      TestJdbc.insertWork(c, "earlier-high", "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, now.minusSeconds(40), now.minusSeconds(40), null, null);
+      TestJdbc.exec(c, "UPDATE work_request SET priority = 9 WHERE id = 'urgent'");
+      TestJdbc.exec(c, "UPDATE work_request SET priority = 5 WHERE id IN ('high', 'earlier-high')");
+      c.commit();
+    }
+
+    // returned in claim order, which the prefetch buffer dispatches in
+    List<WorkRecord> claimed = store.claimWork("typeA", "owner-1", 3, Duration.ofMinutes(5));
+    assertEquals(List.of("urgent", "earlier-high", "high"), claimed.stream().map(WorkRecord::id).toList());
+    assertEquals(List.of(9, 5, 5), claimed.stream().map(WorkRecord::priority).toList());
+    assertEquals(WorkRequest.Status.NEW, store.getWork("old").orElseThrow().status());
+  }
+
+  @Test
+  void concurrent_claims_never_return_an_item_to_two_owners() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    Instant now = Instant.now();
+    byte[] payload = new byte[]{7};
+    try (Connection c = ds.getConnection()) {
+      for (int i = 0; i < 200; i++) {
+        TestJdbc.insertWork(c, "w" + i, "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, now.minusSeconds(300 - i), now.minusSeconds(300 - i), null, null);
+      }
+      c.commit();
+    }
+
+    int threads = 4;
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<List<String>>> futures = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      String owner = "owner-" + t;
+      futures.add(pool.submit(() -> {
+        start.await();
+        List<String> ids = new ArrayList<>();
+        List<WorkRecord> batch;
+        while (!(batch = store.claimWork("typeA", owner, 7, Duration.ofMinutes(5))).isEmpty()) {
+          batch.forEach(r -> ids.add(r.id()));
+        }
+        return ids;
+      }));
+    }
+    start.countDown();
+    List<String> all = new ArrayList<>();
+    for (Future<List<String>> f : futures) {
+      all.addAll(f.get(30, TimeUnit.SECONDS));
+    }
+    pool.shutdown();
+
+    assertEquals(200, all.size(), "an item was returned to more than one owner");
+    assertEquals(200, Set.copyOf(all).size());
+  }
+
+  @Test
+  void claimWork_takes_a_retried_item_in_the_order_it_became_visible() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    Instant now = Instant.now();
+    byte[] payload = new byte[]{7};
+    try (Connection c = ds.getConnection()) {
+      TestJdbc.insertWork(c, "retried", "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 1, null, null, "boom", now.minusSeconds(60), now.minusSeconds(5), null, null);
+      TestJdbc.insertWork(c, "waiting", "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, now.minusSeconds(30), now.minusSeconds(30), null, null);
+      c.commit();
+    }
+    // created first, but only due again after its backoff
+    setVisibleAt("retried", now.minusSeconds(5));
+
+    List<WorkRecord> claimed = store.claimWork("typeA", "owner-1", 1, Duration.ofMinutes(5));
+    assertEquals(List.of("waiting"), claimed.stream().map(WorkRecord::id).toList());
+    assertEquals(WorkRequest.Status.NEW, store.getWork("retried").orElseThrow().status());
+  }
+
+  @Test
+  void agePriorities_raises_waiting_new_items_once_per_interval_up_to_the_cap() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    Instant now = Instant.now();
+    Instant old = now.minus(Duration.ofMinutes(10));
+    byte[] payload = new byte[]{7};
+    try (Connection c = ds.getConnection()) {
+      TestJdbc.insertWork(c, "waiting", "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, old, old, null, null);
+      TestJdbc.insertWork(c, "capped", "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, old, old, null, null);
+      TestJdbc.insertWork(c, "fresh", "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, now, now, null, null);
+      TestJdbc.insertWork(c, "running", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 3, 1, "owner-1", now.plusSeconds(60), null, old, old, null, null);
+      TestJdbc.insertWork(c, "other", "typeB", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, old, old, null, null);
+      TestJdbc.insertWork(c, "deferred", "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, old, old, null, null);
+      TestJdbc.exec(c, "UPDATE work_request SET priority = 8 WHERE id = 'capped'");
+      c.commit();
+    }
+    setVisibleAt("deferred", now.plus(Duration.ofHours(1)));
+
+    assertEquals(1, store.agePriorities("typeA", Duration.ofMinutes(5), 8));
+    assertEquals(1, store.getWork("waiting").orElseThrow().priority());
+    assertEquals(8, store.getWork("capped").orElseThrow().priority());
+    assertEquals(0, store.getWork("fresh").orElseThrow().priority());
+    assertEquals(0, store.getWork("running").orElseThrow().priority());
+    assertEquals(0, store.getWork("other").orElseThrow().priority());
+    assertEquals(0, store.getWork("deferred").orElseThrow().priority());
+
+    // the raised item waits another interval before the next level
+    assertEquals(0, store.agePriorities("typeA", Duration.ofMinutes(5), 8));
+    assertEquals(1, store.getWork("waiting").orElseThrow().priority());
+  }
+
+  @Test
+  void agePriorities_raises_only_the_longest_waiting_items_of_each_level() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    Instant old = Instant.now().minus(Duration.ofHours(1));
+    byte[] payload = new byte[]{7};
+    try (Connection c = ds.getConnection()) {
+      for (int i = 0; i < 150; i++) {
+        Instant created = old.plusSeconds(i);
+        TestJdbc.insertWork(c, String.format("low-%03d", i), "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, created, created, null, null);
+      }
+      for (int i = 0; i < 3; i++) {
+        TestJdbc.insertWork(c, "mid-" + i, "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, old, old, null, null);
+      }
+      TestJdbc.exec(c, "UPDATE work_request SET priority = 2 WHERE id LIKE 'mid-%'");
+      c.commit();
+    }
+
+    // 100 per level: the head of level 0 and all of level 2
+    assertEquals(103, store.agePriorities("typeA", Duration.ofMinutes(5), 8));
+    assertEquals(1, store.getWork("low-000").orElseThrow().priority());
+    assertEquals(1, store.getWork("low-099").orElseThrow().priority());
+    assertEquals(0, store.getWork("low-100").orElseThrow().priority());
+    assertEquals(0, store.getWork("low-149").orElseThrow().priority());
+    assertEquals(3, store.getWork("mid-0").orElseThrow().priority());
+  }
+
+  @Test
+  void purgeTerminalWork_deletes_old_terminal_items_in_batches() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    insertPurgeCandidates();
+    Instant cutoff = Instant.now().minus(Duration.ofDays(1));
+
+    assertEquals(2, store.purgeTerminalWork(cutoff, 2, RetentionMode.DELETE));
+    assertEquals(1, store.purgeTerminalWork(cutoff, 2, RetentionMode.DELETE));
+    assertEquals(0, store.purgeTerminalWork(cutoff, 2, RetentionMode.DELETE));
+
+    assertEquals(Set.of("recent", "new", "running"),
+      Set.copyOf(store.listWork(WorkQuery.builder().limit(100).build()).stream().map(WorkRecord::id).toList()));
+    assertEquals(0, countArchived());
+  }
+
+  @Test
+  void purgeTerminalWork_archive_moves_rows_to_archive_table() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    insertPurgeCandidates();
+    Instant cutoff = Instant.now().minus(Duration.ofDays(1));
+
+    assertEquals(3, store.purgeTerminalWork(cutoff, 10, RetentionMode.ARCHIVE));
+
+    assertTrue(store.getWork("old-ok").isEmpty());
+    assertEquals(3, store.listWork(WorkQuery.builder().limit(100).build()).size());
+    assertEquals(3, countArchived());
+    try (Connection c = ds.getConnection();
+         PreparedStatement ps = c.prepareStatement("SELECT status, failure_reason, archived_ts FROM work_request_archive WHERE id = ?")) {
+      ps.setString(1, "old-failed");
+      try (var rs = ps.executeQuery()) {
+        assertTrue(rs.next());
+        assertEquals("FAILED", rs.getString(1));
+        assertEquals("boom", rs.getString(2));
+        assertNotNull(rs.getTimestamp(3));
+      }
+    }
+  }
+
+  @Test
+  void purgeTerminalWork_archive_moves_a_batch_larger_than_one_in_list() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    Instant old = Instant.now().minus(Duration.ofDays(10));
+    byte[] payload = new byte[]{1};
+    try (Connection c = ds.getConnection()) {
+      for (int i = 0; i < 1_201; i++) {
+        TestJdbc.insertWork(c, "done-" + i, "typeA", payload, "java.lang.String", 1, "json", "SUCCEEDED", 5, 1, null, null, null, old, old, old, old);
+      }
+      c.commit();
+    }
+
+    assertEquals(1_201, store.purgeTerminalWork(Instant.now().minus(Duration.ofDays(1)), 2_000, RetentionMode.ARCHIVE));
+    assertEquals(1_201, countArchived());
+    assertTrue(store.listWork(WorkQuery.builder().limit(10).build()).isEmpty());
+  }
+
+  private void insertPurgeCandidates() throws Exception {
+    Instant old = Instant.now().minus(Duration.ofDays(10));
+    Instant recent = Instant.now().minusSeconds(60);
+    byte[] payload = new byte[]{1};
+    try (Connection c = ds.getConnection()) {
+      TestJdbc.insertWork(c, "old-ok", "typeA", payload, "java.lang.String", 1, "json", "SUCCEEDED", 5, 1, null, null, null, old, old, old, old);
+      TestJdbc.insertWork(c, "old-failed", "typeA", payload, "java.lang.String", 1, "json", "FAILED", 5, 5, null, null, "boom", old, old, old, old.plusSeconds(1));
+      TestJdbc.insertWork(c, "old-cancelled", "typeB", payload, "java.lang.String", 1, "json", "CANCELLED", 5, 0, null, null, null, old, old, null, old.plusSeconds(2));
+      TestJdbc.insertWork(c, "recent", "typeA", payload, "java.lang.String", 1, "json", "SUCCEEDED", 5, 1, null, null, null, recent, recent, recent, recent);
+      TestJdbc.insertWork(c, "new", "typeA", payload, "java.lang.String", 1, "json", "NEW", 5, 0, null, null, null, old, old, null, null);
+      TestJdbc.insertWork(c, "running", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "o", Instant.now().plusSeconds(60), null, old, old, old, null);
+      c.commit();
+    }
+  }
+
+  private int countArchived() throws Exception {
+    try (Connection c = ds.getConnection();
+         PreparedStatement ps = c.prepareStatement("SELECT COUNT(*) FROM work_request_archive");
+         var rs = ps.executeQuery()) {
+      rs.next();
+      return rs.getInt(1);
+    }
+  }
+
+  @Test
+  void heartbeat_claims_are_reclaimed_only_after_owner_heartbeat_expires() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    Instant now = Instant.now();
+    byte[] payload = new byte[]{7};
+    try (Connection c = ds.getConnection()) {
+      TestJdbc.insertWork(c, "h1", "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, now.minusSeconds(20), now.minusSeconds(20), null, null);
+      TestJdbc.insertWork(c, "h2", "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, now.minusSeconds(10), now.minusSeconds(10), null, null);
+      // per-item lease that is still valid must not be taken over
+      TestJdbc.insertWork(c, "h3", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 3, 1, "owner-X", now.plusSeconds(600), null, now.minusSeconds(5), now.minusSeconds(5), now.minusSeconds(5), null);
+      c.commit();
+    }
+
+    List<WorkRecord> claimed = store.claimWork("typeA", "owner-A", 5, Duration.ofMinutes(5), LeaseMode.OWNER_HEARTBEAT);
+    assertEquals(List.of("h1", "h2"), claimed.stream().map(WorkRecord::id).toList());
+    for (WorkRecord r : claimed) {
+      assertEquals(WorkRequest.Status.IN_PROGRESS, r.status());
+      assertEquals("owner-A", r.ownerId());
+      assertNull(r.leaseUntil());
+    }
+    assertNull(store.getWork("h1").orElseThrow().leaseUntil());
+
+    // owner-A is alive: nothing to reclaim, in either mode
+    assertTrue(store.claimWork("typeA", "owner-B", 5, Duration.ofMinutes(5)).isEmpty());
+    store.renewOwnerHeartbeat("owner-A", Duration.ofMinutes(5));
+    assertTrue(store.claimWork("typeA", "owner-B", 5, Duration.ofMinutes(5), LeaseMode.OWNER_HEARTBEAT).isEmpty());
+
+    // owner-A's heartbeat lapses: its items become claimable again
+    try (Connection c = ds.getConnection()) {
+      TestJdbc.exec(c, "UPDATE worker_heartbeat SET alive_until = TIMESTAMP '2000-01-01 00:00:00' WHERE owner_id = 'owner-A'");
+      c.commit();
+    }
+    // per-item claims leave them to claims in heartbeat mode
+    assertTrue(store.claimWork("typeA", "owner-B", 5, Duration.ofMinutes(5)).isEmpty());
+    List<WorkRecord> reclaimed = store.claimWork("typeA", "owner-B", 5, Duration.ofMinutes(5), LeaseMode.OWNER_HEARTBEAT);
+    assertEquals(List.of("h1", "h2"), reclaimed.stream().map(WorkRecord::id).toList());
+    assertEquals(2, reclaimed.get(0).attemptCount());
+    assertEquals("owner-B", reclaimed.get(0).ownerId());
+
+    // owner-A can no longer complete the items it lost
+    store.markSucceeded("h1", "owner-A");
+    assertEquals(WorkRequest.Status.IN_PROGRESS, store.getWork("h1").orElseThrow().status());
+  }
+
+  @Test
+  void releaseOwnerHeartbeat_makes_items_claimable_immediately() {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    store.createWork("typeA", new byte[]{1}, "java.lang.String", 1, "json", null);
+    assertEquals(1, store.claimWork("typeA", "owner-A", 5, Duration.ofMinutes(5), LeaseMode.OWNER_HEARTBEAT).size());
+    assertTrue(store.claimWork("typeA", "owner-B", 5, Duration.ofMinutes(5), LeaseMode.OWNER_HEARTBEAT).isEmpty());
+
+    store.releaseOwnerHeartbeat("owner-A");
+    assertEquals(1, store.claimWork("typeA", "owner-B", 5, Duration.ofMinutes(5), LeaseMode.OWNER_HEARTBEAT).size());
+  }
+
   @Test
   void renewWorkerLease_succeeds_for_owner_only() throws Exception {
     ds = TestJdbc.newH2DataSource();
@@ -173,7 +846,72 @@ final class JdbcWorkStoreTest {
   }
 
   @Test
-  void reschedule_resets_to_new_and_sets_lease_until_in_future() throws Exception {
+  void renewWorkerLeases_renews_owned_and_reports_lost() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    byte[] payload = new byte[]{1};
+    Instant now = Instant.now();
+    Instant oldLease = now.plusSeconds(5);
+
+    try (Connection c = ds.getConnection()) {
+      TestJdbc.insertWork(c, "b1", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "owner-A", oldLease, null, now, now, now, null);
+      TestJdbc.insertWork(c, "b2", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "owner-A", oldLease, null, now, now, now, null);
+      TestJdbc.insertWork(c, "b3", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "owner-B", oldLease, null, now, now, now, null);
+      TestJdbc.insertWork(c, "b4", "typeA", payload, "java.lang.String", 1, "json", "SUCCEEDED", 5, 1, "owner-A", null, null, now, now, now, now);
+      c.commit();
+    }
+
+    Set<String> lost = store.renewWorkerLeases("owner-A", List.of("b1", "b2", "b3", "b4", "missing"), Duration.ofMinutes(10));
+    assertEquals(Set.of("b3", "b4", "missing"), lost);
+
+    assertTrue(store.getWork("b1").orElseThrow().leaseUntil().isAfter(oldLease));
+    assertTrue(store.getWork("b2").orElseThrow().leaseUntil().isAfter(oldLease));
+    assertEquals(oldLease.truncatedTo(java.time.temporal.ChronoUnit.MILLIS), store.getWork("b3").orElseThrow().leaseUntil().truncatedTo(java.time.temporal.ChronoUnit.MILLIS));
+
+    assertTrue(store.renewWorkerLeases("owner-A", List.of("b1", "b2"), Duration.ofMinutes(10)).isEmpty());
+    assertTrue(store.renewWorkerLeases("owner-A", List.of(), Duration.ofMinutes(10)).isEmpty());
+  }
+
+  @Test
+  void releaseClaims_returns_owned_items_to_new_and_takes_back_the_attempt() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    byte[] payload = new byte[]{1};
+    Instant now = Instant.now();
+    Instant lease = now.plusSeconds(60);
+
+    try (Connection c = ds.getConnection()) {
+      TestJdbc.insertWork(c, "r1", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "owner-A", lease, null, now, now, now, null);
+      TestJdbc.insertWork(c, "r2", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 3, "owner-A", lease, null, now, now, now, null);
+      TestJdbc.insertWork(c, "r3", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "owner-B", lease, null, now, now, now, null);
+      TestJdbc.insertWork(c, "r4", "typeA", payload, "java.lang.String", 1, "json", "SUCCEEDED", 5, 1, "owner-A", null, null, now, now, now, now);
+      c.commit();
+    }
+
+    assertEquals(2, store.releaseClaims("owner-A", List.of("r1", "r2", "r3", "r4", "missing")));
+
+    WorkRecord first = store.getWork("r1").orElseThrow();
+    assertEquals(WorkRequest.Status.NEW, first.status());
+    assertEquals(0, first.attemptCount());
+    assertNull(first.ownerId());
+    assertNull(first.leaseUntil());
+    assertNull(first.startedTs());
+    assertFalse(first.visibleAt().isAfter(Instant.now()));
+
+    WorkRecord retried = store.getWork("r2").orElseThrow();
+    assertEquals(WorkRequest.Status.NEW, retried.status());
+    assertEquals(2, retried.attemptCount());
+    assertNotNull(retried.startedTs());
+
+    assertEquals(WorkRequest.Status.IN_PROGRESS, store.getWork("r3").orElseThrow().status());
+    assertEquals(WorkRequest.Status.SUCCEEDED, store.getWork("r4").orElseThrow().status());
+    assertEquals(0, store.releaseClaims("owner-A", List.of()));
+  }
+
+  @Test
+  void reschedule_resets_to_new_and_sets_visible_at_in_future() throws Exception {
     ds = TestJdbc.newH2DataSource();
     store = JdbcWorkStore.create(ds);
 
@@ -190,8 +928,9 @@ final class JdbcWorkStoreTest {
     WorkRecord r = store.getWork("s1").orElseThrow();
     assertEquals(WorkRequest.Status.NEW, r.status());
     assertNull(r.ownerId());
-    assertNotNull(r.leaseUntil());
-    assertTrue(r.leaseUntil().isAfter(Instant.now().plusSeconds(9 * 60))); // approximately 10 min
+    assertNull(r.leaseUntil());
+    assertTrue(r.visibleAt().isAfter(Instant.now().plusSeconds(9 * 60))); // approximately 10 min
+    assertTrue(store.claimWork("typeA", "o", 5, Duration.ofMinutes(1)).isEmpty());
   }
 
   @Test
@@ -234,6 +973,303 @@ final class JdbcWorkStoreTest {
     assertNotNull(c3.completedTs());
   }
 
+  @Test
+  void applyOutcomes_writes_batch_fenced_on_owner() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    byte[] payload = new byte[]{1};
+    Instant now = Instant.now();
+    Instant lease = now.plusSeconds(60);
+    try (Connection c = ds.getConnection()) {
+      TestJdbc.insertWork(c, "o1", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "owner-A", lease, null, now, now, now, null);
+      TestJdbc.insertWork(c, "o2", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "owner-A", lease, null, now, now, now, null);
+      TestJdbc.insertWork(c, "o3", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "owner-A", lease, null, now, now, now, null);
+      TestJdbc.insertWork(c, "o4", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "owner-B", lease, null, now, now, now, null);
+      TestJdbc.insertWork(c, "o5", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "owner-B", lease, null, now, now, now, null);
+      c.commit();
+    }
+
+    store.applyOutcomes("owner-A", List.of(
+      WorkOutcome.succeeded("o1"),
+      WorkOutcome.failed("o2", "boom"),
+      WorkOutcome.rescheduled("o3", Duration.ofSeconds(30)),
+      WorkOutcome.succeeded("o4"),
+      WorkOutcome.rescheduled("o5", Duration.ZERO)
+    ));
+
+    assertEquals(WorkRequest.Status.SUCCEEDED, store.getWork("o1").orElseThrow().status());
+    WorkRecord failed = store.getWork("o2").orElseThrow();
+    assertEquals(WorkRequest.Status.FAILED, failed.status());
+    assertEquals("boom", failed.failureReason());
+    WorkRecord rescheduled = store.getWork("o3").orElseThrow();
+    assertEquals(WorkRequest.Status.NEW, rescheduled.status());
+    assertNull(rescheduled.ownerId());
+    assertNull(rescheduled.leaseUntil());
+    assertTrue(rescheduled.visibleAt().isAfter(Instant.now().plusSeconds(20)));
+
+    // owned by someone else: untouched
+    assertEquals(WorkRequest.Status.IN_PROGRESS, store.getWork("o4").orElseThrow().status());
+    assertEquals("owner-B", store.getWork("o5").orElseThrow().ownerId());
+
+    assertDoesNotThrow(() -> store.applyOutcomes("owner-A", List.of()));
+  }
+
+  @Test
+  void hot_cold_layout_moves_terminal_items_to_history_and_reads_both_tables() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds, JdbcWorkStoreOptions.builder().storageLayout(StorageLayout.HOT_COLD).build());
+
+    byte[] payload = new byte[]{1};
+    Instant t0 = Instant.now().minusSeconds(300);
+    try (Connection c = ds.getConnection()) {
+      TestJdbc.insertWork(c, "h1", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "owner-A", t0.plusSeconds(600), null, t0.plusSeconds(10), t0, t0, null);
+      TestJdbc.insertWork(c, "h2", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "owner-A", t0.plusSeconds(600), null, t0.plusSeconds(20), t0, t0, null);
+      TestJdbc.insertWork(c, "h3", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "owner-A", t0.plusSeconds(600), null, t0.plusSeconds(30), t0, t0, null);
+      TestJdbc.insertWork(c, "h4", "typeA", payload, "java.lang.String", 1, "json", "NEW", 5, 0, null, null, null, t0.plusSeconds(40), t0, null, null);
+      TestJdbc.insertWork(c, "h5", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "owner-B", t0.plusSeconds(600), null, t0.plusSeconds(50), t0, t0, null);
+      c.commit();
+    }
+
+    store.markSucceeded("h1", "owner-A");
+    store.applyOutcomes("owner-A", List.of(WorkOutcome.failed("h2", "boom"), WorkOutcome.succeeded("h5")));
+    store.markCancelled("h4");
+
+    assertEquals(Set.of("h3", "h5"), ids("work_request"));
+    assertEquals(Set.of("h1", "h2", "h4"), ids("work_request_history"));
+
+    WorkRecord failed = store.getWork("h2").orElseThrow();
+    assertEquals(WorkRequest.Status.FAILED, failed.status());
+    assertEquals("boom", failed.failureReason());
+    assertNotNull(failed.completedTs());
+    assertEquals(List.of("h5", "h4", "h3", "h2", "h1"),
+      store.listWork(WorkQuery.builder().limit(100).build()).stream().map(WorkRecord::id).toList());
+    assertEquals(List.of("h4", "h2"),
+      store.listWork(WorkQuery.builder().statuses(Set.of(WorkRequest.Status.FAILED, WorkRequest.Status.CANCELLED)).limit(100).build())
+        .stream().map(WorkRecord::id).toList());
+    assertEquals(List.of("h3", "h1"),
+      store.listWork(new WorkQuery(new LinkedHashSet<>(List.of("h3", "missing", "h1")), null, null, null, null, WorkQuery.Page.of(10, 0))).stream().map(WorkRecord::id).toList());
+
+    // the item already left the claimable table, so a late outcome of its former owner is a no-op
+    store.markSucceeded("h4", "owner-A");
+    assertEquals(WorkRequest.Status.CANCELLED, store.getWork("h4").orElseThrow().status());
+  }
+
+  @Test
+  void hot_cold_layout_keeps_idempotency_keys_of_finished_items() {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds, JdbcWorkStoreOptions.builder().storageLayout(StorageLayout.HOT_COLD).build());
+
+    SubmissionOptions keyed = SubmissionOptions.builder().idempotencyKey("order-42").build();
+    WorkRecord first = store.createWork("typeA", new EncodedPayload(new byte[]{1}, "java.lang.String"), keyed);
+    store.claimWork("typeA", "worker-1", 1, Duration.ofMinutes(1));
+    store.markSucceeded(first.id(), "worker-1");
+
+    WorkRecord again = store.createWork("typeA", new EncodedPayload(new byte[]{2}, "java.lang.String"), keyed);
+
+    assertEquals(first.id(), again.id());
+    assertEquals(WorkRequest.Status.SUCCEEDED, again.status());
+    assertEquals(1, store.listWork(WorkQuery.builder().limit(100).build()).size());
+  }
+
+  @Test
+  void hot_cold_layout_purges_history_before_the_work_table() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds, JdbcWorkStoreOptions.builder().storageLayout(StorageLayout.HOT_COLD).build());
+
+    // terminal rows left in work_request, e.g. from before the layout was switched
+    insertPurgeCandidates();
+    store.markCancelled("new");
+    Instant cutoff = Instant.now().plusSeconds(60);
+
+    assertEquals(2, store.purgeTerminalWork(cutoff, 2, RetentionMode.ARCHIVE));
+    assertTrue(store.getWork("new").isEmpty());
+    assertEquals(Set.of(), ids("work_request_history"));
+    assertEquals(3, store.purgeTerminalWork(cutoff, 10, RetentionMode.DELETE));
+    assertEquals(Set.of("running"), ids("work_request"));
+    assertEquals(2, countArchived());
+  }
+
+  private Set<String> ids(String table) throws Exception {
+    try (Connection c = ds.getConnection();
+         PreparedStatement ps = c.prepareStatement("SELECT id FROM " + table);
+         var rs = ps.executeQuery()) {
+      Set<String> ids = new HashSet<>();
+      while (rs.next()) ids.add(rs.getString(1));
+      return ids;
+    }
+  }
+
+  @Test
+  void stats_counts_items_per_type_and_status() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds, JdbcWorkStoreOptions.builder().statsCacheTtl(Duration.ZERO).build());
+
+    byte[] payload = new byte[]{1};
+    Instant t0 = Instant.ofEpochSecond(Instant.now().getEpochSecond() - 300);
+    try (Connection c = ds.getConnection()) {
+      TestJdbc.insertWork(c, "s1", "typeA", payload, "java.lang.String", 1, "json", "NEW", 5, 0, null, null, null, t0, t0, null, null);
+      TestJdbc.insertWork(c, "s2", "typeA", payload, "java.lang.String", 1, "json", "NEW", 5, 0, null, null, null, t0.plusSeconds(100), t0, null, null);
+      TestJdbc.insertWork(c, "s3", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 5, 1, "owner-A", t0.plusSeconds(600), null, t0, t0, t0, null);
+      TestJdbc.insertWork(c, "s4", "typeA", payload, "java.lang.String", 1, "json", "FAILED", 5, 1, null, null, "boom", t0, t0, t0, t0);
+      TestJdbc.insertWork(c, "s5", "typeB", payload, "java.lang.String", 1, "json", "FAILED", 5, 1, null, null, "boom", t0, t0, t0, t0);
+      c.commit();
+    }
+
+    WorkStats stats = store.stats();
+
+    assertEquals(Set.of("typeA", "typeB"), stats.workTypes());
+    assertEquals(2, stats.count("typeA", WorkRequest.Status.NEW));
+    assertEquals(1, stats.inFlight("typeA"));
+    assertEquals(0, stats.inFlight("typeB"));
+    assertEquals(2, stats.count(WorkRequest.Status.FAILED));
+    assertEquals(5, stats.total());
+    assertEquals(t0, stats.computedAt().minus(stats.oldestPendingAge("typeA")));
+    assertEquals(Duration.ZERO, stats.oldestPendingAge("typeB"));
+  }
+
+  @Test
+  void stats_are_shared_until_the_cache_ttl_expires() {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds, JdbcWorkStoreOptions.builder().statsCacheTtl(Duration.ofMinutes(5)).build());
+
+    store.createWork("typeA", new byte[]{1}, "java.lang.String", 1, "json", null);
+    WorkStats first = store.stats();
+    store.createWork("typeA", new byte[]{2}, "java.lang.String", 1, "json", null);
+
+    assertSame(first, store.stats());
+    assertEquals(1, store.stats().count("typeA", WorkRequest.Status.NEW));
+  }
+
+  @Test
+  void hot_cold_layout_stats_add_up_both_tables() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds, JdbcWorkStoreOptions.builder().storageLayout(StorageLayout.HOT_COLD).statsCacheTtl(Duration.ZERO).build());
+
+    // a terminal row left in work_request, e.g. from before the layout was switched
+    Instant t0 = Instant.now().minusSeconds(300);
+    try (Connection c = ds.getConnection()) {
+      TestJdbc.insertWork(c, "left", "typeA", new byte[]{1}, "java.lang.String", 1, "json", "CANCELLED", 5, 0, null, null, null, t0, t0, null, t0);
+      c.commit();
+    }
+    WorkRecord cancelled = store.createWork("typeA", new byte[]{1}, "java.lang.String", 1, "json", null);
+    store.createWork("typeA", new byte[]{2}, "java.lang.String", 1, "json", null);
+    store.markCancelled(cancelled.id());
+
+    WorkStats stats = store.stats();
+
+    assertEquals(2, stats.count("typeA", WorkRequest.Status.CANCELLED));
+    assertEquals(1, stats.count("typeA", WorkRequest.Status.NEW));
+    assertEquals(2, stats.entries().size());
+  }
+
+  @Test
+  void bulkUpdate_requeues_matching_failed_items_in_chunks() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    byte[] payload = new byte[]{1};
+    Instant t0 = Instant.now().minusSeconds(300);
+    try (Connection c = ds.getConnection()) {
+      for (int i = 1; i <= 5; i++) {
+        TestJdbc.insertWork(c, "f" + i, "typeA", payload, "java.lang.String", 1, "json", "FAILED", 3, 3, "owner-A", null, "boom", t0, t0, t0, t0);
+      }
+      TestJdbc.insertWork(c, "fb", "typeB", payload, "java.lang.String", 1, "json", "FAILED", 3, 3, "owner-A", null, "boom", t0, t0, t0, t0);
+      TestJdbc.insertWork(c, "ok", "typeA", payload, "java.lang.String", 1, "json", "SUCCEEDED", 3, 1, "owner-A", null, null, t0, t0, t0, t0);
+      c.commit();
+    }
+
+    List<Long> progress = new ArrayList<>();
+    long requeued = store.bulkUpdate(WorkQuery.builder().workType("typeA").build(), BulkAction.REQUEUE, 2, progress::add);
+
+    assertEquals(5, requeued);
+    assertEquals(List.of(2L, 4L, 5L), progress);
+    WorkRecord r = store.getWork("f3").orElseThrow();
+    assertEquals(WorkRequest.Status.NEW, r.status());
+    assertEquals(0, r.attemptCount());
+    assertNull(r.ownerId());
+    assertNull(r.failureReason());
+    assertNull(r.completedTs());
+    assertEquals(WorkRequest.Status.FAILED, store.getWork("fb").orElseThrow().status());
+    assertEquals(WorkRequest.Status.SUCCEEDED, store.getWork("ok").orElseThrow().status());
+    assertEquals(5, store.claimWork("typeA", "worker-1", 10, Duration.ofMinutes(1)).size());
+  }
+
+  @Test
+  void bulkUpdate_cancels_active_items_and_purges_only_terminal_ones() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    byte[] payload = new byte[]{1};
+    Instant t0 = Instant.now().minusSeconds(300);
+    try (Connection c = ds.getConnection()) {
+      TestJdbc.insertWork(c, "n1", "typeA", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, t0, t0, null, null);
+      TestJdbc.insertWork(c, "p1", "typeA", payload, "java.lang.String", 1, "json", "IN_PROGRESS", 3, 1, "owner-A", t0.plusSeconds(600), null, t0, t0, t0, null);
+      TestJdbc.insertWork(c, "s1", "typeA", payload, "java.lang.String", 1, "json", "SUCCEEDED", 3, 1, "owner-A", null, null, t0, t0, t0, t0);
+      TestJdbc.insertWork(c, "n2", "typeB", payload, "java.lang.String", 1, "json", "NEW", 3, 0, null, null, null, t0, t0, null, null);
+      c.commit();
+    }
+
+    assertEquals(1, store.bulkUpdate(WorkQuery.builder().workType("typeA").build(), BulkAction.PURGE, 10, null));
+    assertEquals(Set.of("n1", "p1", "n2"), ids("work_request"));
+
+    assertEquals(2, store.bulkUpdate(WorkQuery.builder().workType("typeA").build(), BulkAction.CANCEL));
+    WorkRecord cancelled = store.getWork("p1").orElseThrow();
+    assertEquals(WorkRequest.Status.CANCELLED, cancelled.status());
+    assertNull(cancelled.leaseUntil());
+    assertNotNull(cancelled.completedTs());
+
+    assertEquals(2, store.bulkUpdate(WorkQuery.builder().statuses(Set.of(WorkRequest.Status.CANCELLED)).build(), BulkAction.PURGE));
+    assertEquals(Set.of("n2"), ids("work_request"));
+  }
+
+  @Test
+  void cancelling_a_running_item_is_not_overwritten_by_its_handler() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds);
+
+    store.createWork("typeA", new byte[]{1}, "java.lang.String", 1, "json", null);
+    store.createWork("typeA", new byte[]{2}, "java.lang.String", 1, "json", null);
+    List<WorkRecord> running = store.claimWork("typeA", "owner-A", 2, Duration.ofMinutes(1));
+    assertEquals(2, running.size());
+
+    // cancelled while the handlers run, which then report their outcomes
+    assertEquals(2, store.bulkUpdate(WorkQuery.builder().workType("typeA").build(), BulkAction.CANCEL));
+    store.markSucceeded(running.get(0).id(), "owner-A");
+    store.applyOutcomes("owner-A", List.of(WorkOutcome.failed(running.get(1).id(), "boom")));
+
+    for (WorkRecord r : running) {
+      WorkRecord cancelled = store.getWork(r.id()).orElseThrow();
+      assertEquals(WorkRequest.Status.CANCELLED, cancelled.status());
+      assertNull(cancelled.ownerId());
+      assertNull(cancelled.failureReason());
+    }
+  }
+
+  @Test
+  void hot_cold_layout_bulkUpdate_moves_items_between_tables() throws Exception {
+    ds = TestJdbc.newH2DataSource();
+    store = JdbcWorkStore.create(ds, JdbcWorkStoreOptions.builder().storageLayout(StorageLayout.HOT_COLD).build());
+
+    List<String> created = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      created.add(store.createWork("typeA", new byte[]{(byte) i}, "java.lang.String", 1, "json", null).id());
+    }
+
+    assertEquals(4, store.bulkUpdate(WorkQuery.builder().workType("typeA").build(), BulkAction.CANCEL, 3, null));
+    assertEquals(Set.of(), ids("work_request"));
+    assertEquals(new HashSet<>(created), ids("work_request_history"));
+
+    WorkQuery some = WorkQuery.builder().addIds(created.subList(0, 2)).build();
+    assertEquals(2, store.bulkUpdate(some, BulkAction.REQUEUE));
+    assertEquals(new HashSet<>(created.subList(0, 2)), ids("work_request"));
+    assertEquals(WorkRequest.Status.NEW, store.getWork(created.getFirst()).orElseThrow().status());
+
+    assertEquals(2, store.bulkUpdate(WorkQuery.builder().build(), BulkAction.REQUEUE, 1, null));
+    assertEquals(Set.of(), ids("work_request_history"));
+    assertEquals(4, store.claimWork("typeA", "worker-1", 10, Duration.ofMinutes(1)).size());
+  }
+
   @Test
   void scheduler_lease_acquire_renew_release() {
     ds = TestJdbc.newH2DataSource();
@@ -259,4 +1295,14 @@ final class JdbcWorkStoreTest {
     // now other owner can acquire
     assertTrue(store.tryAcquireSchedulerLease(job, "owner2", Duration.ofSeconds(5)));
   }
+
+  private void setVisibleAt(String id, Instant visibleAt) throws Exception {
+    try (Connection c = ds.getConnection();
+         PreparedStatement ps = c.prepareStatement("UPDATE work_request SET visible_at = ? WHERE id = ?")) {
+      ps.setTimestamp(1, Timestamp.from(visibleAt));
+      ps.setString(2, id);
+      ps.executeUpdate();
+      c.commit();
+    }
+  }
 }
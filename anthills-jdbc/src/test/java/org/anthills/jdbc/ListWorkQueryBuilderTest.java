@@ -84,7 +84,76 @@ final class ListWorkQueryBuilderTest {
     String sql = b.buildSql();
     List<Object> params = b.params();
 
-    assertTrue(sql.contains(" ORDER BY created_ts DESC OFFSET ? ROWS FETCH NEXT ? ROWS ONLY"));
+    assertTrue(sql.contains(" ORDER BY created_ts DESC, id DESC OFFSET ? ROWS FETCH NEXT ? ROWS ONLY"));
     assertEquals(List.of(15, 5), params);
   }
+
+  @Test
+  void scan_sql_has_no_paging() {
+    WorkQuery q = WorkQuery.builder().workType("email").limit(5).offset(15).build();
+
+    ListWorkQueryBuilder b = new ListWorkQueryBuilder(q, DbInfo.Dialect.MSSQL);
+    String sql = b.buildScanSql();
+
+    assertTrue(sql.endsWith(" ORDER BY created_ts DESC, id DESC"));
+    assertEquals(List.of("email"), b.params());
+  }
+
+  @Test
+  void hot_cold_layout_unions_both_tables_only_when_statuses_span_them() {
+    WorkQuery all = WorkQuery.builder().workType("email").limit(10).build();
+    ListWorkQueryBuilder b = new ListWorkQueryBuilder(all, DbInfo.Dialect.H2, StorageLayout.HOT_COLD);
+    String sql = b.buildSql();
+
+    assertTrue(sql.startsWith("SELECT * FROM (SELECT id, work_type"));
+    assertTrue(sql.contains(" UNION ALL SELECT id, work_type"));
+    assertTrue(sql.contains("FROM work_request_history WHERE 1=1 AND work_type = ?) w ORDER BY created_ts DESC, id DESC"));
+    assertEquals(List.of("email", "email", 10, 0), b.params());
+
+    WorkQuery active = WorkQuery.builder().statuses(EnumSet.of(WorkRequest.Status.NEW)).limit(10).build();
+    assertTrue(new ListWorkQueryBuilder(active, DbInfo.Dialect.H2, StorageLayout.HOT_COLD).buildSql()
+      .startsWith("SELECT * FROM work_request WHERE 1=1 AND status IN (?)"));
+
+    WorkQuery finished = WorkQuery.builder().statuses(EnumSet.of(WorkRequest.Status.FAILED)).limit(10).build();
+    assertTrue(new ListWorkQueryBuilder(finished, DbInfo.Dialect.H2, StorageLayout.HOT_COLD).buildSql()
+      .startsWith("SELECT * FROM work_request_history WHERE 1=1 AND status IN (?)"));
+
+    WorkQuery mixed = WorkQuery.builder().statuses(EnumSet.of(WorkRequest.Status.NEW, WorkRequest.Status.FAILED)).limit(10).build();
+    ListWorkQueryBuilder m = new ListWorkQueryBuilder(mixed, DbInfo.Dialect.H2, StorageLayout.HOT_COLD);
+    assertTrue(m.buildSql().contains(" UNION ALL "));
+    assertEquals(List.of("NEW", "FAILED", 10, 0), m.params());
+  }
+
+  @Test
+  void cursor_emits_a_seek_predicate_for_every_dialect() {
+    Instant last = Instant.parse("2026-01-01T00:00:00Z");
+    WorkQuery q = WorkQuery.builder().workType("email").after(new WorkQuery.Cursor(last, "id-9")).limit(20).build();
+
+    ListWorkQueryBuilder pg = new ListWorkQueryBuilder(q, DbInfo.Dialect.PostgresSQL);
+    assertTrue(pg.buildSql().contains("AND work_type = ? AND (created_ts, id) < (?, ?) ORDER BY created_ts DESC, id DESC LIMIT ? OFFSET ?"));
+    assertEquals(List.of("email", Timestamp.from(last), "id-9", 20, 0), pg.params());
+
+    ListWorkQueryBuilder oracle = new ListWorkQueryBuilder(q, DbInfo.Dialect.Oracle);
+    assertTrue(oracle.buildSql().contains("AND (created_ts < ? OR (created_ts = ? AND id < ?)) ORDER BY created_ts DESC, id DESC OFFSET ?"));
+    assertEquals(List.of("email", Timestamp.from(last), Timestamp.from(last), "id-9", 0, 20), oracle.params());
+
+    for (DbInfo.Dialect dialect : DbInfo.Dialect.values()) {
+      String sql = new ListWorkQueryBuilder(q, dialect).buildSql();
+      assertTrue(sql.contains("id) < (?, ?)") || sql.contains("id < ?))"), dialect.name());
+    }
+  }
+
+  @Test
+  void metadata_projection_selects_every_column_but_payload_and_failure_reason() {
+    WorkQuery q = WorkQuery.builder().projection(WorkQuery.Projection.METADATA).limit(10).build();
+
+    String single = new ListWorkQueryBuilder(q, DbInfo.Dialect.H2).buildSql();
+    assertTrue(single.startsWith("SELECT id, work_type"));
+    assertFalse(single.contains("payload,"));
+    assertFalse(single.contains("failure_reason"));
+
+    String union = new ListWorkQueryBuilder(q, DbInfo.Dialect.H2, StorageLayout.HOT_COLD).buildSql();
+    assertTrue(union.contains(" UNION ALL SELECT id, work_type"));
+    assertFalse(union.contains("failure_reason"));
+  }
 }
@@ -0,0 +1,38 @@
+package org.anthills.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class PartitionMaintenanceTest {
+
+  private HikariDataSource ds;
+
+  @AfterEach
+  void tearDown() {
+    TestJdbc.closeQuietly(ds);
+  }
+
+  @Test
+  void partition_day_is_parsed_from_postgres_names_and_oracle_high_values() {
+    assertEquals(LocalDate.of(2026, 10, 16), PartitionMaintenance.partitionDay(DbInfo.Dialect.PostgresSQL, "work_request_p20261016"));
+    assertNull(PartitionMaintenance.partitionDay(DbInfo.Dialect.PostgresSQL, "work_request_default"));
+    assertNull(PartitionMaintenance.partitionDay(DbInfo.Dialect.PostgresSQL, "work_request_pnotaday"));
+    assertEquals(LocalDate.of(2026, 10, 16), PartitionMaintenance.partitionDay(DbInfo.Dialect.Oracle, "TIMESTAMP' 2026-10-17 00:00:00'"));
+    assertNull(PartitionMaintenance.partitionDay(DbInfo.Dialect.Oracle, null));
+  }
+
+  @Test
+  void rejects_databases_without_partitioned_schema_and_invalid_settings() {
+    ds = TestJdbc.newH2DataSource();
+
+    assertThrows(UnsupportedOperationException.class, () -> new PartitionMaintenance(ds, 3, Duration.ofDays(7)));
+    assertThrows(IllegalArgumentException.class, () -> new PartitionMaintenance(ds, DbInfo.Dialect.PostgresSQL, -1, null));
+    assertThrows(IllegalArgumentException.class, () -> new PartitionMaintenance(ds, DbInfo.Dialect.Oracle, 3, Duration.ofDays(-1)));
+  }
+}
@@ -0,0 +1,56 @@
+package org.anthills.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class PartitionQueryBuilderTest {
+
+  private static final LocalDate DAY = LocalDate.of(2026, 10, 16);
+
+  @Test
+  void postgres_day_partitions_are_named_tables_covering_one_day() {
+    assertEquals("work_request_p20261016", PartitionQueryBuilder.partitionName(DAY));
+    assertEquals("CREATE TABLE IF NOT EXISTS work_request_p20261016 PARTITION OF work_request"
+        + " FOR VALUES FROM ('2026-10-16 00:00:00') TO ('2026-10-17 00:00:00')",
+      PartitionQueryBuilder.buildCreatePartitionSql(DbInfo.Dialect.PostgresSQL, DAY));
+    assertEquals("DROP TABLE IF EXISTS work_request_p20261016",
+      PartitionQueryBuilder.buildDropPartitionSql(DbInfo.Dialect.PostgresSQL, DAY));
+    assertTrue(PartitionQueryBuilder.buildHasLiveItemsSql(DbInfo.Dialect.PostgresSQL, DAY).startsWith("SELECT 1 FROM work_request_p20261016 WHERE"));
+    assertTrue(PartitionQueryBuilder.buildListPartitionsSql(DbInfo.Dialect.PostgresSQL).contains("pg_inherits"));
+  }
+
+  @Test
+  void postgres_partitions_are_detached_and_locked_before_they_are_dropped() {
+    assertEquals("ALTER TABLE work_request DETACH PARTITION work_request_p20261016 CONCURRENTLY",
+      PartitionQueryBuilder.buildDetachPartitionSql(DAY, true));
+    assertEquals("ALTER TABLE work_request DETACH PARTITION work_request_p20261016",
+      PartitionQueryBuilder.buildDetachPartitionSql(DAY, false));
+    assertEquals("LOCK TABLE work_request_p20261016 IN ACCESS EXCLUSIVE MODE",
+      PartitionQueryBuilder.buildLockPartitionSql(DbInfo.Dialect.PostgresSQL, DAY));
+    assertEquals("ALTER TABLE work_request ATTACH PARTITION work_request_p20261016"
+        + " FOR VALUES FROM ('2026-10-16 00:00:00') TO ('2026-10-17 00:00:00')",
+      PartitionQueryBuilder.buildAttachPartitionSql(DAY));
+    assertTrue(PartitionQueryBuilder.buildHasDefaultPartitionSql().contains("partdefid <> 0"));
+  }
+
+  @Test
+  void oracle_addresses_interval_partitions_by_value() {
+    assertEquals("LOCK TABLE work_request PARTITION FOR (TIMESTAMP '2026-10-16 00:00:00') IN SHARE MODE",
+      PartitionQueryBuilder.buildCreatePartitionSql(DbInfo.Dialect.Oracle, DAY));
+    assertEquals("ALTER TABLE work_request DROP PARTITION FOR (TIMESTAMP '2026-10-16 00:00:00') UPDATE GLOBAL INDEXES",
+      PartitionQueryBuilder.buildDropPartitionSql(DbInfo.Dialect.Oracle, DAY));
+    assertEquals("LOCK TABLE work_request PARTITION FOR (TIMESTAMP '2026-10-16 00:00:00') IN EXCLUSIVE MODE",
+      PartitionQueryBuilder.buildLockPartitionSql(DbInfo.Dialect.Oracle, DAY));
+    assertTrue(PartitionQueryBuilder.buildHasLiveItemsSql(DbInfo.Dialect.Oracle, DAY).endsWith("AND ROWNUM = 1"));
+    assertTrue(PartitionQueryBuilder.buildListPartitionsSql(DbInfo.Dialect.Oracle).contains("interval = 'YES'"));
+  }
+
+  @Test
+  void unsupported_dialects_are_rejected() {
+    assertThrows(IllegalArgumentException.class, () -> PartitionQueryBuilder.buildCreatePartitionSql(DbInfo.Dialect.H2, DAY));
+    assertThrows(IllegalArgumentException.class, () -> PartitionQueryBuilder.buildListPartitionsSql(DbInfo.Dialect.MySQL));
+  }
+}
@@ -0,0 +1,46 @@
+package org.anthills.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class PgNotificationListenerTest {
+
+  @Test
+  void channel_is_prefixed_work_type() {
+    assertEquals("anthills_email", PgNotificationListener.channelFor("email"));
+  }
+
+  @Test
+  void long_work_types_are_hashed_to_fit_identifier_limit() {
+    String longType = "x".repeat(100);
+    String channel = PgNotificationListener.channelFor(longType);
+
+    assertTrue(channel.startsWith("anthills_"));
+    assertTrue(channel.getBytes(StandardCharsets.UTF_8).length <= 63);
+    assertEquals(channel, PgNotificationListener.channelFor(longType));
+    assertNotEquals(channel, PgNotificationListener.channelFor(longType + "y"));
+  }
+
+  @Test
+  void close_stops_the_listener_thread() {
+    // H2 cannot LISTEN, so the thread is waiting to reconnect when it is closed
+    HikariDataSource ds = TestJdbc.newH2DataSource();
+    try {
+      PgNotificationListener listener = new PgNotificationListener(ds);
+      listener.subscribe("email", () -> {});
+      assertTrue(listener.isRunning());
+
+      listener.close();
+
+      assertFalse(listener.isRunning());
+      assertThrows(IllegalStateException.class, () -> listener.subscribe("email", () -> {}));
+      assertDoesNotThrow(listener::close);
+    } finally {
+      TestJdbc.closeQuietly(ds);
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package org.anthills.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class PriorityAgingQueryBuilderTest {
+
+  private static final Instant NOW = Instant.parse("2025-01-01T00:00:00Z");
+  private static final Instant CUTOFF = NOW.minusSeconds(300);
+
+  @Test
+  void every_dialect_raises_a_bounded_head_of_one_level() {
+    for (DbInfo.Dialect dialect : DbInfo.Dialect.values()) {
+      String sql = PriorityAgingQueryBuilder.buildAgeLevelSql(dialect);
+      List<Object> params = PriorityAgingQueryBuilder.params(dialect, NOW, "email", 2, CUTOFF, 100);
+
+      assertTrue(sql.startsWith("UPDATE work_request SET priority = priority + 1"), dialect.name());
+      assertTrue(sql.contains("priority = ? AND visible_at < ?"), dialect.name());
+      assertTrue(sql.contains("ORDER BY visible_at"), dialect.name());
+      assertEquals(sql.chars().filter(ch -> ch == '?').count(), params.size(), dialect.name());
+    }
+  }
+
+  @Test
+  void postgres_skips_rows_locked_by_claimers() {
+    String sql = PriorityAgingQueryBuilder.buildAgeLevelSql(DbInfo.Dialect.PostgresSQL);
+    assertTrue(sql.endsWith("ORDER BY visible_at LIMIT ? FOR UPDATE SKIP LOCKED)"));
+    // Order: updated_ts, work_type, level, cutoff, cutoff, limit
+    assertEquals(List.of(Timestamp.from(NOW), "email", 2, Timestamp.from(CUTOFF), Timestamp.from(CUTOFF), 100),
+      PriorityAgingQueryBuilder.params(DbInfo.Dialect.PostgresSQL, NOW, "email", 2, CUTOFF, 100));
+  }
+
+  @Test
+  void sql_server_takes_the_limit_before_the_filter() {
+    assertTrue(PriorityAgingQueryBuilder.buildAgeLevelSql(DbInfo.Dialect.MSSQL).contains("SELECT TOP (?) id FROM work_request WITH (READPAST)"));
+    assertEquals(List.of(Timestamp.from(NOW), 100, "email", 2, Timestamp.from(CUTOFF), Timestamp.from(CUTOFF)),
+      PriorityAgingQueryBuilder.params(DbInfo.Dialect.MSSQL, NOW, "email", 2, CUTOFF, 100));
+  }
+}
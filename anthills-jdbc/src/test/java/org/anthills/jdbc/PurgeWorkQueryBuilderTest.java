@@ -0,0 +1,57 @@
+package org.anthills.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class PurgeWorkQueryBuilderTest {
+
+  private static long placeholders(String sql) {
+    return sql.chars().filter(ch -> ch == '?').count();
+  }
+
+  @Test
+  void every_dialect_deletes_a_bounded_batch_of_old_terminal_items() {
+    for (DbInfo.Dialect dialect : DbInfo.Dialect.values()) {
+      String sql = PurgeWorkQueryBuilder.buildDeleteSql(dialect);
+      assertTrue(sql.startsWith("DELETE"), dialect.name());
+      assertTrue(sql.contains("status IN ('SUCCEEDED', 'FAILED', 'CANCELLED') AND completed_ts < ?"), dialect.name());
+      assertEquals(2, placeholders(sql), dialect.name());
+      assertEquals(2, placeholders(PurgeWorkQueryBuilder.buildSelectIdsSql(dialect)), dialect.name());
+    }
+  }
+
+  @Test
+  void delete_uses_the_native_row_limit_of_each_dialect() {
+    assertTrue(PurgeWorkQueryBuilder.buildDeleteSql(DbInfo.Dialect.MySQL).endsWith("LIMIT ?"));
+    assertTrue(PurgeWorkQueryBuilder.buildDeleteSql(DbInfo.Dialect.MSSQL).startsWith("DELETE TOP (?)"));
+    assertTrue(PurgeWorkQueryBuilder.buildDeleteSql(DbInfo.Dialect.Oracle).endsWith("ROWNUM <= ?"));
+    assertTrue(PurgeWorkQueryBuilder.buildDeleteSql(DbInfo.Dialect.DB2).startsWith("DELETE FROM (SELECT"));
+    assertTrue(PurgeWorkQueryBuilder.buildDeleteSql(DbInfo.Dialect.PostgresSQL).contains("WHERE id IN (SELECT id"));
+    assertTrue(PurgeWorkQueryBuilder.limitFirst(DbInfo.Dialect.MSSQL));
+    assertFalse(PurgeWorkQueryBuilder.limitFirst(DbInfo.Dialect.PostgresSQL));
+  }
+
+  @Test
+  void archive_copies_every_column_plus_archived_ts() {
+    String sql = PurgeWorkQueryBuilder.buildArchiveByIdsSql(3);
+
+    assertTrue(sql.startsWith("INSERT INTO work_request_archive"));
+    assertTrue(sql.contains("completed_ts, archived_ts"));
+    assertTrue(sql.endsWith("WHERE id IN (?, ?, ?)"));
+    assertEquals(4, placeholders(sql));
+    assertEquals("DELETE FROM work_request WHERE id IN (?, ?)", PurgeWorkQueryBuilder.buildDeleteByIdsSql(2));
+  }
+
+  @Test
+  void history_table_variants_purge_the_given_table() {
+    for (DbInfo.Dialect dialect : DbInfo.Dialect.values()) {
+      String sql = PurgeWorkQueryBuilder.buildDeleteSql(dialect, HistoryQueryBuilder.HISTORY_TABLE);
+      assertTrue(sql.contains("FROM work_request_history WHERE"), dialect.name());
+      assertFalse(sql.contains("work_request "), dialect.name());
+      assertEquals(2, placeholders(sql), dialect.name());
+    }
+    assertTrue(PurgeWorkQueryBuilder.buildArchiveByIdsSql(1, HistoryQueryBuilder.HISTORY_TABLE).contains("FROM work_request_history\n"));
+    assertEquals("DELETE FROM work_request_history WHERE id IN (?)", PurgeWorkQueryBuilder.buildDeleteByIdsSql(1, HistoryQueryBuilder.HISTORY_TABLE));
+  }
+}
@@ -0,0 +1,28 @@
+package org.anthills.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class StatsQueryBuilderTest {
+
+  @Test
+  void single_table_groups_work_request_by_type_and_status() {
+    String sql = StatsQueryBuilder.buildSql(StorageLayout.SINGLE_TABLE);
+
+    assertTrue(sql.startsWith("SELECT work_type, status, COUNT(*) AS item_count, MIN(visible_at) AS oldest_visible_at"));
+    assertTrue(sql.contains("FROM work_request\n"));
+    assertTrue(sql.endsWith("GROUP BY work_type, status"));
+    assertFalse(sql.contains("UNION ALL"));
+    assertFalse(sql.contains("?"));
+  }
+
+  @Test
+  void hot_cold_layout_also_groups_the_history_table() {
+    String sql = StatsQueryBuilder.buildSql(StorageLayout.HOT_COLD);
+
+    assertTrue(sql.contains("FROM work_request\n"));
+    assertTrue(sql.contains(" UNION ALL "));
+    assertTrue(sql.contains("FROM work_request_history\n"));
+  }
+}
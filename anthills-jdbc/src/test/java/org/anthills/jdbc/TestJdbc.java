@@ -69,9 +69,9 @@ final class TestJdbc {
     String sql = """
       INSERT INTO work_request (
         id, work_type, payload, payload_type, payload_version, codec,
-        status, attempt_count, max_retries, owner_id, lease_until, failure_reason,
+        status, attempt_count, max_retries, owner_id, lease_until, visible_at, failure_reason,
         created_ts, updated_ts, started_ts, completed_ts
-      ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+      ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
       """;
     try (PreparedStatement ps = c.prepareStatement(sql)) {
       int i = 1;
@@ -86,6 +86,9 @@ final class TestJdbc {
       if (maxRetries == null) ps.setNull(i++, Types.INTEGER); else ps.setInt(i++, maxRetries);
       if (ownerId == null) ps.setNull(i++, Types.VARCHAR); else ps.setString(i++, ownerId);
       if (leaseUntil == null) ps.setNull(i++, Types.TIMESTAMP); else ps.setTimestamp(i++, Timestamp.from(leaseUntil));
+      // visible_at: a NEW row with a lease is deferred until then, as rows were before visible_at existed
+      Instant visibleAt = "NEW".equals(status) && leaseUntil != null ? leaseUntil : createdTs;
+      ps.setTimestamp(i++, Timestamp.from(visibleAt));
       if (failureReason == null) ps.setNull(i++, Types.CLOB); else ps.setString(i++, failureReason);
       ps.setTimestamp(i++, Timestamp.from(createdTs));
       ps.setTimestamp(i++, Timestamp.from(updatedTs));
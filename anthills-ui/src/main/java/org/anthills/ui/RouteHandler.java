@@ -4,6 +4,8 @@ import com.sun.net.httpserver.HttpExchange;
 import org.anthills.api.scheduler.SchedulerLease;
 import org.anthills.api.work.WorkQuery;
 import org.anthills.api.work.WorkRecord;
+import org.anthills.api.work.WorkRequest;
+import org.anthills.api.work.WorkStats;
 import org.anthills.api.work.WorkStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,9 +13,16 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Handles UI routes and delegates rendering to {@link PageRenderer}.
@@ -23,6 +32,9 @@ final class RouteHandler {
 
   private static final Logger log = LoggerFactory.getLogger(RouteHandler.class);
 
+  private static final int WORK_PAGE_SIZE = 100;
+  private static final int NEWEST_FAILED = 10;
+
   private final WorkStore workStore;
   private final PageRenderer renderer;
 
@@ -32,40 +44,89 @@ final class RouteHandler {
   }
 
   /**
-   * Renders the dashboard page.
+   * Renders the dashboard page from {@link WorkStore#stats()}, which stores may share between
+   * concurrent viewers for a short while. Stores without stats get the page without the counts.
    *
    * @param exchange current HTTP exchange
    * @throws IOException when writing the response fails
    */
   void handleDashboard(HttpExchange exchange) throws IOException {
     try {
-      var query = WorkQuery.builder()
-        .workType("notification")
-        .limit(1)
-        .build();
-      renderer.render(exchange, "dashboard", Map.of("title", "Dashboard"));
+      Map<String, Object> model = new HashMap<>();
+      model.put("title", "Dashboard");
+      statsModel().ifPresent(stats -> model.put("stats", stats));
+      // listWork orders by creation, so these are the newest failed submissions, not the latest failures
+      model.put("newestFailed", workStore.listWork(WorkQuery.builder()
+        .statuses(Set.of(WorkRequest.Status.FAILED))
+        .projection(WorkQuery.Projection.METADATA)
+        .limit(NEWEST_FAILED)
+        .build()));
+      renderer.render(exchange, "dashboard", model);
     } catch (Exception e) {
       log.error("Failed to render dashboard", e);
       error(exchange, 500, "Something went wrong", e);
     }
   }
 
+  private Optional<Map<String, Object>> statsModel() {
+    WorkStats stats;
+    try {
+      stats = workStore.stats();
+    } catch (UnsupportedOperationException e) {
+      log.debug("Rendering dashboard without stats: {}", e.getMessage());
+      return Optional.empty();
+    }
+    List<Map<String, Object>> workTypes = new ArrayList<>();
+    for (String workType : stats.workTypes()) {
+      workTypes.add(Map.of(
+        "workType", workType,
+        "pending", stats.count(workType, WorkRequest.Status.NEW),
+        "inFlight", stats.inFlight(workType),
+        "failed", stats.count(workType, WorkRequest.Status.FAILED),
+        "succeeded", stats.count(workType, WorkRequest.Status.SUCCEEDED),
+        "oldestPendingAge", stats.oldestPendingAge(workType).toSeconds() + "s"
+      ));
+    }
+    return Optional.of(Map.of(
+      "total", stats.total(),
+      "inProgress", stats.count(WorkRequest.Status.IN_PROGRESS),
+      "failed", stats.count(WorkRequest.Status.FAILED),
+      "succeeded", stats.count(WorkRequest.Status.SUCCEEDED),
+      "workTypes", workTypes,
+      "computedAt", stats.computedAt()
+    ));
+  }
+
   /**
-   * Renders the work list page.
+   * Renders the work list page. Pages are chained with a keyset cursor: the {@code afterTs} and
+   * {@code afterId} query parameters hold the position of the last item of the previous page.
    *
    * @param exchange current HTTP exchange
    * @throws IOException when writing the response fails
    */
   void handleWork(HttpExchange exchange) throws IOException {
     try {
+      Map<String, String> params = queryParams(exchange.getRequestURI().getRawQuery());
+      WorkQuery.Cursor after = null;
+      if (params.containsKey("afterTs") && params.containsKey("afterId")) {
+        after = new WorkQuery.Cursor(Instant.parse(params.get("afterTs")), params.get("afterId"));
+      }
       var query = WorkQuery.builder()
         .workType("notification")
-        .limit(100)
+        .after(after)
+        .projection(WorkQuery.Projection.METADATA)
+        .limit(WORK_PAGE_SIZE)
         .build();
       var worksRequests = workStore.listWork(query);
+      List<String> next = List.of();
+      if (worksRequests.size() == WORK_PAGE_SIZE) {
+        WorkRecord last = worksRequests.getLast();
+        next = List.of("/work?afterTs=" + encode(last.createdTs().toString()) + "&afterId=" + encode(last.id()));
+      }
       renderer.render(exchange, "work-list", Map.of(
         "title", "Work List",
-        "workRequests", worksRequests
+        "workRequests", worksRequests,
+        "next", next
       ));
     } catch (Exception e) {
       log.error("Failed to render work", e);
@@ -137,6 +198,27 @@ final class RouteHandler {
     ));
   }
 
+  /**
+   * Parses a raw URL query string into decoded name/value pairs; later duplicates win.
+   */
+  private static Map<String, String> queryParams(String rawQuery) {
+    Map<String, String> params = new HashMap<>();
+    if (rawQuery == null || rawQuery.isEmpty()) {
+      return params;
+    }
+    for (String pair : rawQuery.split("&")) {
+      int eq = pair.indexOf('=');
+      if (eq <= 0) continue;
+      params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+    }
+    return params;
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
   /**
    * Extracts the stacktrace text for the given throwable or returns an empty string if null.
    */
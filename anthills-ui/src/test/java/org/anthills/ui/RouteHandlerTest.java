@@ -0,0 +1,46 @@
+package org.anthills.ui;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import org.anthills.api.work.WorkStore;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+class RouteHandlerTest {
+
+  @Test
+  void dashboard_renders_without_stats_when_the_store_has_none() throws Exception {
+    WorkStore store = Mockito.mock(WorkStore.class);
+    when(store.stats()).thenThrow(new UnsupportedOperationException("Stats are not supported"));
+    when(store.listWork(any())).thenReturn(List.of());
+
+    AtomicInteger status = new AtomicInteger(Integer.MIN_VALUE);
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    HttpExchange ex = Mockito.mock(HttpExchange.class);
+    when(ex.getResponseHeaders()).thenReturn(new Headers());
+    when(ex.getResponseBody()).thenReturn(body);
+    doAnswer(inv -> {
+      status.set((int) inv.getArgument(0));
+      return null;
+    }).when(ex).sendResponseHeaders(anyInt(), anyLong());
+
+    new RouteHandler(store).handleDashboard(ex);
+
+    assertEquals(200, status.get());
+    String html = body.toString(StandardCharsets.UTF_8);
+    assertTrue(html.contains("Newest Failed Items"));
+    assertFalse(html.contains("Work Types"));
+  }
+}